@@ -2,6 +2,9 @@ package uw.cache;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 缓存数据加载器。
@@ -41,6 +44,30 @@ public abstract class CacheDataLoader<K, V> {
      */
     public abstract V load(K key) throws Exception;
 
+    /**
+     * 批量加载数据。
+     * <p>
+     * 由 {@link FusionCache#getAll} / {@link GlobalCache#getAll} 在本地与 Redis 均未命中时调用，一次性传入全部未命中的 key。
+     * 默认实现逐个调用 {@link #load}；数据源支持批量查询时（如一条 {@code SELECT ... WHERE id IN (...)}）建议覆盖此方法。
+     * <p>
+     * 返回的 Map 中缺失的 key（或 value 为 null）视为无数据，按 nullProtectMillis 短时缓存空值；
+     * 抛出异常则整批按 failProtectMillis 短时缓存空值。
+     *
+     * @param keys 未命中的缓存主键集合
+     * @return key -> 数据 的映射，不可为 null
+     * @throws Exception 加载过程中的异常
+     */
+    public Map<K, V> loadAll(Set<K> keys) throws Exception {
+        Map<K, V> dataMap = new HashMap<>((int) (keys.size() / 0.75f) + 1);
+        for (K key : keys) {
+            V value = load(key);
+            if (value != null) {
+                dataMap.put(key, value);
+            }
+        }
+        return dataMap;
+    }
+
     /**
      * 自定义设置过期时间。
      *
@@ -61,6 +88,22 @@ public abstract class CacheDataLoader<K, V> {
         return expireMillis;
     }
 
+    /**
+     * 获取缓存主键 K 的精确类型。
+     * <p>
+     * 通过反射匿名子类的 {@code ParameterizedType} 获取 K 的实际类型。
+     * 若子类未保留泛型信息则返回 null。
+     *
+     * @return K 的 Type，无法解析时返回 null
+     */
+    public Type getKeyType() {
+        if (getClass().getGenericSuperclass() instanceof ParameterizedType parameterizedType) {
+            Type[] types = parameterizedType.getActualTypeArguments();
+            return types[0];
+        }
+        return null;
+    }
+
     /**
      * 获取缓存值 V 的精确类型。
      * <p>
@@ -3,22 +3,47 @@ package uw.cache;
 import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uw.cache.constant.CacheNotifyType;
+import uw.cache.hotkey.HotKeyManager;
 import uw.cache.loader.GlobalFusionCacheLoader;
 import uw.cache.loader.LocalRetryCacheLoader;
 import uw.cache.loader.NoneCacheLoader;
+import uw.cache.loader.OffHeapCacheLoader;
+import uw.cache.metrics.CacheMetrics;
+import uw.cache.metrics.CacheMetricsRegistry;
+import uw.cache.metrics.CacheStatsCounter;
+import uw.cache.notify.FusionCacheNotifyCoalescer;
+import uw.cache.notify.FusionCacheTrackingInvalidator;
+import uw.cache.offheap.OffHeapStore;
+import uw.cache.snapshot.FusionCacheSnapshot;
+import uw.cache.util.KryoCacheUtils;
 import uw.cache.vo.CacheValueWrapper;
 import uw.cache.vo.FusionCacheNotifyMessage;
+import uw.common.util.KryoUtils;
 import uw.common.util.SnowflakeIdGenerator;
-
+import uw.common.util.SystemClock;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +51,7 @@ import java.util.stream.Collectors;
  * <p>
  * 本地 Caffeine 兜性能，Redis（{@link GlobalCache}）兜全局一致性，通过 Redis Pub/Sub（通道
  * {@link #FUSION_CACHE_NOTIFY_CHANNEL}）实现多实例间缓存失效/刷新同步。
+ * 配置 {@link Config#getOffHeapMaxBytes() offHeapMaxBytes} 后，被 Caffeine 容量淘汰的数据转入堆外 {@link OffHeapStore}。
  * <p>
  * 使用前必须调用 {@link #config} 注册缓存（建议放在 Helper 的 static 块中，仅调用一次，重复 config 会丢弃旧本地缓存）。
  * 提供两种参数风格：{@code (entityClass, key)} 与 {@code (cacheName, key)}，前者语义更明确、推荐使用。
@@ -58,6 +84,36 @@ public class FusionCache {
      */
     private static final ConcurrentMap<String, CacheWrapper> cacheWrapperMap = new ConcurrentHashMap<>();
 
+    /**
+     * 后台刷新（refresh-ahead / stale-while-revalidate）使用的虚拟线程执行器。
+     */
+    private static final ExecutorService refreshExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("uw-cache-refresh-", 0).factory());
+
+    /**
+     * 本地快照加载任务，cacheName -> 加载条目数。
+     */
+    private static final ConcurrentMap<String, CompletableFuture<Integer>> snapshotLoadMap = new ConcurrentHashMap<>();
+
+    /**
+     * 本地快照加载期间作废过的主键，cacheName -> 主键集合，加载完成后移除。
+     */
+    private static final ConcurrentMap<String, Set<Object>> snapshotInvalidatedMap = new ConcurrentHashMap<>();
+
+    /**
+     * 快照加载期间全部作废的标记。
+     */
+    private static final Object SNAPSHOT_INVALIDATED_ALL = new Object();
+
+    /**
+     * 主键类型不支持按文本还原的标记。
+     */
+    private static final Object UNSUPPORTED_TEXT_KEY = new Object();
+
+    /**
+     * 未设置 snapshotMaxAgeMillis 时，快照恢复数据的最长有效毫秒数。
+     */
+    private static final long SNAPSHOT_RESTORE_MAX_TTL_MILLIS = 300_000L;
+
     /**
      * 配置缓存。
      *
@@ -92,10 +148,19 @@ public class FusionCache {
      * @param cacheDataLoader 缓存数据加载器
      */
     public static void config(Config config, CacheDataLoader<?, ?> cacheDataLoader, CacheChangeNotifyListener<?, ?> cacheChangeNotifyListener) {
-        Caffeine<?, ?> caffeine = Caffeine.newBuilder();
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder();
         if (config.getLocalCacheMaxNum() > 0) {
             caffeine.maximumSize(config.getLocalCacheMaxNum());
         }
+        //本地命中统计写入 CacheMetrics，指标未开启时开销可忽略。
+        caffeine.recordStats(() -> new CacheStatsCounter(config.getCacheName()));
+        //启用堆外缓存时，Caffeine 只保留热数据，被容量淘汰的数据转入堆外。
+        OffHeapStore offHeapStore = null;
+        if (config.getOffHeapMaxBytes() > 0 && config.getLocalCacheMaxNum() > 0) {
+            OffHeapStore store = new OffHeapStore(config.getOffHeapMaxBytes(), config.getOffHeapMaxNum(), config.getOffHeapSegmentBytes());
+            caffeine.evictionListener((key, value, cause) -> spillOffHeap(config.getCacheName(), store, key, (CacheValueWrapper<?>) value, cause));
+            offHeapStore = store;
+        }
         //设置失效监听
         config.cacheChangeNotifyListener = cacheChangeNotifyListener;
         CacheLoader cacheLoader = null;
@@ -108,12 +173,26 @@ public class FusionCache {
         } else {
             cacheLoader = new NoneCacheLoader<>();
         }
+        if (offHeapStore != null) {
+            cacheLoader = new OffHeapCacheLoader<>(config.getCacheName(), cacheLoader, offHeapStore);
+        }
 
         LoadingCache<?, ?> caffeineCache = caffeine.build(cacheLoader);
-        if (cacheWrapperMap.put(config.getCacheName(), new CacheWrapper(caffeineCache, config)) != null) {
+        CacheWrapper cacheWrapper = new CacheWrapper(caffeineCache, config, cacheDataLoader, ConcurrentHashMap.newKeySet(), offHeapStore);
+        if (cacheWrapperMap.put(config.getCacheName(), cacheWrapper) != null) {
             // 重复 config 会丢弃旧的本地 Caffeine 缓存实例，属于高风险操作（本地数据全部丢失），此处告警提示。
             log.warn("FusionCache[{}] 已存在配置，本次 config 将覆盖旧实例，旧本地缓存数据将被丢弃！", config.getCacheName());
         }
+        //启用本地快照时，后台加载上次关闭时保存的热数据。
+        if (config.getSnapshotMaxNum() > 0) {
+            snapshotInvalidatedMap.put(config.getCacheName(), ConcurrentHashMap.newKeySet());
+            snapshotLoadMap.put(config.getCacheName(), CompletableFuture.supplyAsync(() -> loadSnapshot(cacheWrapper), refreshExecutor));
+        }
+        //开启 redis 客户端缓存失效推送时，订阅该缓存的 key 前缀。
+        FusionCacheTrackingInvalidator trackingInvalidator = FusionCacheTrackingInvalidator.getInstance();
+        if (trackingInvalidator != null && config.isGlobalCache()) {
+            trackingInvalidator.track(config.getCacheName());
+        }
     }
 
     /**
@@ -221,7 +300,44 @@ public class FusionCache {
         } else {
             valueWrapper = new CacheValueWrapper<>(value, expireMillis);
         }
-        cacheWrapper.cache.put(key, valueWrapper);
+        putLocal(cacheWrapper, key, valueWrapper);
+    }
+
+    /**
+     * 向缓存中存入数据，并登记到指定 tag。
+     *
+     * @param entityClass  缓存对象类(主要用于构造cacheName)
+     * @param key          缓存主键
+     * @param value        数值
+     * @param expireMillis 缓存有效期毫秒数。
+     * @param tags         标签，可通过 {@link #invalidateByTag} 按标签批量失效
+     */
+    public static void put(Class<?> entityClass, Object key, Object value, long expireMillis, String... tags) {
+        put(entityClass.getSimpleName(), key, value, expireMillis, tags);
+    }
+
+    /**
+     * 向缓存中存入数据，并登记到指定 tag。
+     * tag 记录在redis中，仅对全局缓存生效；本地缓存忽略 tag，等同于普通 put。
+     *
+     * @param cacheName    缓存名
+     * @param key          缓存主键
+     * @param value        数值
+     * @param expireMillis 缓存有效期毫秒数。
+     * @param tags         标签，可通过 {@link #invalidateByTag} 按标签批量失效
+     */
+    public static void put(String cacheName, Object key, Object value, long expireMillis, String... tags) {
+        CacheWrapper cacheWrapper = cacheWrapperMap.get(cacheName);
+        if (cacheWrapper == null) {
+            log.warn("FusionCache[{}] not config!!!", cacheName);
+            return;
+        }
+        if (!cacheWrapper.config.isGlobalCache()) {
+            put(cacheName, key, value, expireMillis, false);
+            return;
+        }
+        expireMillis = expireMillis > 0 ? expireMillis : cacheWrapper.config.getCacheExpireMillis();
+        putLocal(cacheWrapper, key, GlobalCache.put(cacheName, key, value, expireMillis, tags));
     }
 
     /**
@@ -315,14 +431,20 @@ public class FusionCache {
             return;
         }
         expireMillis = expireMillis > 0 ? expireMillis : cacheWrapper.config.getCacheExpireMillis();
-        CacheValueWrapper<Object> valueWrapper = null;
-        for (Map.Entry<Object, Object> kv : map.entrySet()) {
-            if (!onlyLocal && cacheWrapper.config.isGlobalCache()) {
-                valueWrapper = GlobalCache.put(cacheName, kv.getKey(), kv.getValue(), expireMillis);
-            } else {
-                valueWrapper = new CacheValueWrapper<>(kv.getValue(), expireMillis);
+        if (!onlyLocal && cacheWrapper.config.isGlobalCache()) {
+            // 全局缓存走 pipeline 批量写入，避免逐条 SET 的多次网络往返。
+            Map<Object, CacheValueWrapper<Object>> wrapperMap = GlobalCache.putAll(cacheName, map, expireMillis);
+            //先写 Caffeine 再丢弃堆外旧值，避免旧值在两步之间被容量淘汰重新转入堆外。
+            cacheWrapper.cache.putAll(wrapperMap);
+            if (cacheWrapper.offHeapStore != null) {
+                for (Object key : wrapperMap.keySet()) {
+                    cacheWrapper.offHeapStore.remove(key);
+                }
+            }
+        } else {
+            for (Map.Entry<Object, Object> kv : map.entrySet()) {
+                putLocal(cacheWrapper, kv.getKey(), new CacheValueWrapper<>(kv.getValue(), expireMillis));
             }
-            cacheWrapper.cache.put(kv.getKey(), valueWrapper);
         }
     }
 
@@ -357,7 +479,7 @@ public class FusionCache {
             if (valueWrapper == null) {
                 return null;
             }
-            if (!valueWrapper.checkExpired()) {
+            if (checkServable(cacheWrapper, key, valueWrapper)) {
                 return valueWrapper.getValue();
             }
             if (i == MAX_RETRY_TIMES) {
@@ -368,7 +490,7 @@ public class FusionCache {
             // 否则 loader 会反复从 Redis 取到同一过期数据导致重试空转。
             // 此处直接操作缓存底座，绕过 invalidate() 以避免触发 cacheChangeNotifyListener（重试循环不需要监听副作用）和集群通知。
             if (cacheWrapper.config.isGlobalCache()) {
-                GlobalCache.invalidate(cacheName, key);
+                GlobalCache.invalidate(cacheName, key, false);
             }
             cacheWrapper.cache.invalidate(key);
         }
@@ -376,6 +498,76 @@ public class FusionCache {
     }
 
 
+    /**
+     * 从缓存中批量加载数据。
+     *
+     * @param entityClass 缓存对象类(主要用于构造cacheName)
+     * @param keys        缓存主键集合
+     * @param <K>         主键类型
+     * @param <V>         数据类型
+     * @return key -> 缓存数据，仅包含非空值；未配置缓存返回空Map
+     */
+    public static <K, V> Map<K, V> getAll(Class<?> entityClass, Collection<K> keys) {
+        return getAll(entityClass.getSimpleName(), keys);
+    }
+
+    /**
+     * 从缓存中批量加载数据。
+     * <p>
+     * 先查本地 Caffeine，本地未命中的 key 统一交给 loader 的 loadAll：
+     * 全局缓存一次 MGET 查询 Redis，仍未命中的再一次性调用 {@link CacheDataLoader#loadAll} 回源。
+     * 过期数据的重试语义与 {@link #get(String, Object)} 一致。
+     *
+     * @param cacheName 缓存名
+     * @param keys      缓存主键集合
+     * @param <K>       主键类型
+     * @param <V>       数据类型
+     * @return key -> 缓存数据，仅包含非空值；未配置缓存返回空Map
+     */
+    public static <K, V> Map<K, V> getAll(String cacheName, Collection<K> keys) {
+        Map<K, V> dataMap = new LinkedHashMap<>();
+        CacheWrapper cacheWrapper = cacheWrapperMap.get(cacheName);
+        if (cacheWrapper == null) {
+            log.warn("FusionCache[{}] not config!!!", cacheName);
+            return dataMap;
+        }
+        if (keys == null || keys.isEmpty()) {
+            return dataMap;
+        }
+        Collection<K> pendingKeys = keys;
+        for (int i = 0; i <= MAX_RETRY_TIMES; i++) {
+            Map<K, CacheValueWrapper<V>> wrapperMap = cacheWrapper.cache.getAll(pendingKeys);
+            List<K> expiredKeys = new ArrayList<>();
+            for (Map.Entry<K, CacheValueWrapper<V>> kv : wrapperMap.entrySet()) {
+                CacheValueWrapper<V> valueWrapper = kv.getValue();
+                if (valueWrapper == null) {
+                    continue;
+                }
+                if (checkServable(cacheWrapper, kv.getKey(), valueWrapper)) {
+                    if (valueWrapper.getValue() != null) {
+                        dataMap.put(kv.getKey(), valueWrapper.getValue());
+                    }
+                } else {
+                    expiredKeys.add(kv.getKey());
+                }
+            }
+            if (expiredKeys.isEmpty()) {
+                break;
+            }
+            if (i == MAX_RETRY_TIMES) {
+                log.warn("FusionCache[{}] {} keys still expired after {} retries, skipped", cacheName, expiredKeys.size(), MAX_RETRY_TIMES);
+                break;
+            }
+            // 重试路径同 get()：直接操作缓存底座删除过期数据，不触发监听和集群通知。
+            if (cacheWrapper.config.isGlobalCache()) {
+                GlobalCache.invalidateAll(cacheName, expiredKeys);
+            }
+            cacheWrapper.cache.invalidateAll(expiredKeys);
+            pendingKeys = expiredKeys;
+        }
+        return dataMap;
+    }
+
     /**
      * 从缓存中加载ValueWrapper。
      *
@@ -431,6 +623,12 @@ public class FusionCache {
             return false;
         }
         CacheValueWrapper valueWrapper = (CacheValueWrapper) cacheWrapper.cache.getIfPresent(key);
+        if (valueWrapper == null && cacheWrapper.offHeapStore != null) {
+            byte[] data = cacheWrapper.offHeapStore.get(key);
+            if (data != null) {
+                valueWrapper = KryoCacheUtils.deserializeValueWrapperWithClass(null, data);
+            }
+        }
         return valueWrapper != null && valueWrapper.getValue() != null && !valueWrapper.checkExpired();
     }
 
@@ -456,7 +654,79 @@ public class FusionCache {
             log.warn("FusionCache[{}] not config!!!", cacheName);
             return -1;
         }
-        return cacheWrapper.cache.estimatedSize();
+        return cacheWrapper.cache.estimatedSize() + (cacheWrapper.offHeapStore != null ? cacheWrapper.offHeapStore.size() : 0);
+    }
+
+    /**
+     * 保存全部启用快照的缓存，一般在应用关闭、停止接收流量后调用。
+     *
+     * @return 写入条目总数
+     */
+    public static int saveSnapshots() {
+        int count = 0;
+        for (CacheWrapper cacheWrapper : cacheWrapperMap.values()) {
+            if (cacheWrapper.config.getSnapshotMaxNum() > 0) {
+                count += saveSnapshot(cacheWrapper);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 保存指定缓存最热的 snapshotMaxNum 条本地数据到快照文件。
+     *
+     * @param cacheName 缓存名
+     * @return 写入条目数，未配置缓存或未启用快照返回 -1
+     */
+    public static int saveSnapshot(String cacheName) {
+        CacheWrapper cacheWrapper = cacheWrapperMap.get(cacheName);
+        if (cacheWrapper == null || cacheWrapper.config.getSnapshotMaxNum() <= 0) {
+            return -1;
+        }
+        return saveSnapshot(cacheWrapper);
+    }
+
+    /**
+     * 等待本地快照加载完成。
+     *
+     * @param timeoutMillis 最长等待毫秒数
+     * @return true 表示全部加载完成，false 表示超时或被中断
+     */
+    public static boolean awaitSnapshotLoaded(long timeoutMillis) {
+        try {
+            CompletableFuture.allOf(snapshotLoadMap.values().toArray(new CompletableFuture[0])).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 获取指定缓存的堆外缓存统计信息。
+     *
+     * @param entityClass 缓存对象类(主要用于构造cacheName)
+     * @return 堆外缓存统计，未配置缓存或未启用堆外缓存返回 null
+     */
+    public static OffHeapStore.Stats offHeapStats(Class<?> entityClass) {
+        return offHeapStats(entityClass.getSimpleName());
+    }
+
+    /**
+     * 获取指定缓存的堆外缓存统计信息。
+     *
+     * @param cacheName 缓存名
+     * @return 堆外缓存统计，未配置缓存或未启用堆外缓存返回 null
+     */
+    public static OffHeapStore.Stats offHeapStats(String cacheName) {
+        CacheWrapper cacheWrapper = cacheWrapperMap.get(cacheName);
+        if (cacheWrapper == null) {
+            log.warn("FusionCache[{}] not config!!!", cacheName);
+            return null;
+        }
+        return cacheWrapper.offHeapStore != null ? cacheWrapper.offHeapStore.stats() : null;
     }
 
     /**
@@ -513,7 +783,7 @@ public class FusionCache {
      * 获取指定缓存统计信息。
      *
      * @param entityClass 缓存对象类(主要用于构造cacheName)
-     * @return Caffeine 命中统计，未配置缓存返回 null
+     * @return Caffeine 命中统计（指标未开启时为空统计），未配置缓存返回 null
      */
     public static CacheStats localStats(Class<?> entityClass) {
         return localStats(entityClass.getSimpleName());
@@ -523,7 +793,7 @@ public class FusionCache {
      * 获取指定缓存统计信息。
      *
      * @param cacheName 缓存名
-     * @return Caffeine 命中统计，未配置缓存返回 null
+     * @return Caffeine 命中统计（指标未开启时为空统计），未配置缓存返回 null
      */
     public static CacheStats localStats(String cacheName) {
         CacheWrapper cacheWrapper = cacheWrapperMap.get(cacheName);
@@ -554,6 +824,21 @@ public class FusionCache {
         return cacheWrapperMap.containsKey(cacheName);
     }
 
+    /**
+     * 获取全部全局缓存的名称。
+     *
+     * @return 缓存名列表
+     */
+    public static List<String> globalCacheNames() {
+        List<String> list = new ArrayList<>();
+        for (CacheWrapper cacheWrapper : cacheWrapperMap.values()) {
+            if (cacheWrapper.config.isGlobalCache()) {
+                list.add(cacheWrapper.config.getCacheName());
+            }
+        }
+        return list;
+    }
+
     /**
      * 获取指定缓存key前缀的所有key。
      *
@@ -644,21 +929,133 @@ public class FusionCache {
             log.warn("FusionCache[{}] not config!!!", cacheName);
             return false;
         }
-        //处理自身记录。
-        LoadingCache cache = cacheWrapper.cache;
         Config config = cacheWrapper.config;
-        if (cacheWrapper.config.isGlobalCache()) {
+        if (config.isGlobalCache()) {
             //先删除redis缓存
-            GlobalCache.invalidate(cacheName, key);
+            GlobalCache.invalidate(cacheName, key, false);
         }
         if (notify && config.isGlobalCache()) {
             //发布通知
             notifyInvalidate(cacheName, key);
         }
+        //处理自身记录。
+        invalidateLocal(cacheWrapper, key);
+        return true;
+    }
+
+    /**
+     * 保存本地快照，异常只记录日志。
+     *
+     * @param cacheWrapper 缓存包装
+     * @return 写入条目数，失败返回 0
+     */
+    @SuppressWarnings("unchecked")
+    private static int saveSnapshot(CacheWrapper cacheWrapper) {
+        Config config = cacheWrapper.config;
+        int maxNum = config.getSnapshotMaxNum();
+        Map<Object, CacheValueWrapper<?>> hottest = (Map<Object, CacheValueWrapper<?>>) cacheWrapper.cache.policy().eviction()
+                .map(eviction -> ((Policy.Eviction<Object, Object>) eviction).hottest(maxNum)).orElse(null);
+        if (hottest == null) {
+            hottest = new LinkedHashMap<>();
+            for (Map.Entry<Object, Object> kv : ((Map<Object, Object>) cacheWrapper.cache.asMap()).entrySet()) {
+                if (hottest.size() >= maxNum) {
+                    break;
+                }
+                hottest.put(kv.getKey(), (CacheValueWrapper<?>) kv.getValue());
+            }
+        }
+        try {
+            int count = FusionCacheSnapshot.write(config.getCacheName(), hottest);
+            log.info("FusionCache[{}] snapshot saved, entries: {}", config.getCacheName(), count);
+            return count;
+        } catch (Exception e) {
+            log.error("FusionCache[{}] snapshot save error: {}", config.getCacheName(), e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * 加载本地快照，只放入本地尚不存在的数据，异常只记录日志。
+     * <p>
+     * 停机期间错过的失效通知无法补发，恢复的数据有效期不超过 snapshotMaxAgeMillis（未设置时 5 分钟），永不过期的数据同样受此限制。
+     * 加载期间已作废的主键不再放入，避免覆盖启动过程中收到的失效通知。
+     *
+     * @param cacheWrapper 缓存包装
+     * @return 加载条目数
+     */
+    @SuppressWarnings("unchecked")
+    private static int loadSnapshot(CacheWrapper cacheWrapper) {
+        Config config = cacheWrapper.config;
+        Set<Object> invalidatedSet = snapshotInvalidatedMap.get(config.getCacheName());
+        try {
+            Map<Object, CacheValueWrapper<?>> entries = FusionCacheSnapshot.read(config.getCacheName(), config.getSnapshotMaxAgeMillis());
+            if (entries == null) {
+                return 0;
+            }
+            long maxExpiredAt = SystemClock.now() + (config.getSnapshotMaxAgeMillis() > 0 ? config.getSnapshotMaxAgeMillis() : SNAPSHOT_RESTORE_MAX_TTL_MILLIS);
+            int count = 0;
+            Map<Object, Object> localMap = cacheWrapper.cache.asMap();
+            for (Map.Entry<Object, CacheValueWrapper<?>> kv : entries.entrySet()) {
+                CacheValueWrapper<?> valueWrapper = kv.getValue();
+                if (valueWrapper == null || valueWrapper.checkExpired() || isSnapshotInvalidated(invalidatedSet, kv.getKey())) {
+                    continue;
+                }
+                if (valueWrapper.getExpiredAt() <= 0 || valueWrapper.getExpiredAt() > maxExpiredAt) {
+                    valueWrapper.setExpiredAt(maxExpiredAt);
+                }
+                if (localMap.putIfAbsent(kv.getKey(), valueWrapper) == null) {
+                    // 放入后再检查一次，失效通知可能恰好在检查与放入之间到达。
+                    if (isSnapshotInvalidated(invalidatedSet, kv.getKey())) {
+                        localMap.remove(kv.getKey(), valueWrapper);
+                    } else {
+                        count++;
+                    }
+                }
+            }
+            log.info("FusionCache[{}] snapshot loaded, entries: {}", config.getCacheName(), count);
+            return count;
+        } catch (Throwable e) {
+            log.error("FusionCache[{}] snapshot load error: {}", config.getCacheName(), e.getMessage(), e);
+            return 0;
+        } finally {
+            if (invalidatedSet != null) {
+                snapshotInvalidatedMap.remove(config.getCacheName(), invalidatedSet);
+            }
+        }
+    }
+
+    /**
+     * 判断主键是否在快照加载期间被作废。
+     *
+     * @param invalidatedSet 加载期间作废的主键集合，可为 null
+     * @param key            缓存主键
+     * @return true 表示已作废
+     */
+    private static boolean isSnapshotInvalidated(Set<Object> invalidatedSet, Object key) {
+        return invalidatedSet != null && (invalidatedSet.contains(SNAPSHOT_INVALIDATED_ALL) || invalidatedSet.contains(key));
+    }
+
+    /**
+     * 作废本地缓存，并执行变更通知监听。
+     *
+     * @param cacheWrapper 缓存包装
+     * @param key          缓存主键，null则全部清除
+     */
+    private static void invalidateLocal(CacheWrapper cacheWrapper, Object key) {
+        LoadingCache cache = cacheWrapper.cache;
+        Config config = cacheWrapper.config;
+        //快照加载期间先登记，防止快照数据覆盖本次作废。
+        Set<Object> invalidatedSet = snapshotInvalidatedMap.get(config.getCacheName());
+        if (invalidatedSet != null) {
+            invalidatedSet.add(key == null ? SNAPSHOT_INVALIDATED_ALL : key);
+        }
         if (key == null) {
             //拉出所有数据执行监听。
             Set<Map.Entry> kvSet = cache.asMap().entrySet();
             cache.invalidateAll();
+            if (cacheWrapper.offHeapStore != null) {
+                cacheWrapper.offHeapStore.clear();
+            }
             if (config.cacheChangeNotifyListener != null) {
                 for (Map.Entry kv : kvSet) {
                     CacheValueWrapper oldValue = (CacheValueWrapper) kv.getValue();
@@ -672,9 +1069,15 @@ public class FusionCache {
             }
         } else {
             CacheValueWrapper oldValue = (CacheValueWrapper) cache.getIfPresent(key);
-            //对于没有的信息，不需要执行通知监听。
+            //先作废 Caffeine 再删除堆外，避免旧值在两步之间被容量淘汰重新转入堆外。
             if (oldValue != null) {
                 cache.invalidate(key);
+            }
+            if (cacheWrapper.offHeapStore != null) {
+                cacheWrapper.offHeapStore.remove(key);
+            }
+            //对于没有的信息，不需要执行通知监听。
+            if (oldValue != null) {
                 if (config.cacheChangeNotifyListener != null) {
                     try {
                         config.cacheChangeNotifyListener.onMessage(key, oldValue.getValue(), null);
@@ -685,77 +1088,250 @@ public class FusionCache {
                 }
             }
         }
-        return true;
     }
 
     /**
-     * 通知集群内其他主机缓存过期。
+     * 只作废本机的本地缓存与热点 key 微缓存，不删除redis数据，也不通知集群。
+     * <p>
+     * 用于处理其他实例发来的失效通知：redis 数据已由发送方删除，接收方无需重复删除。
      *
-     * @param entityClass 缓存对象类(主要用于构造cacheName)
-     * @param key         缓存主键
-     * @return 接收到该通知的客户端数量
+     * @param cacheName 缓存名
+     * @param key       缓存主键，null 则全部清除
+     * @return true 表示执行成功，未配置缓存时返回 false
      */
-    public static Long notifyInvalidate(Class<?> entityClass, Object key) {
-        return notifyInvalidate(entityClass.getSimpleName(), key);
+    public static boolean invalidateLocal(String cacheName, Object key) {
+        CacheWrapper cacheWrapper = cacheWrapperMap.get(cacheName);
+        if (cacheWrapper == null) {
+            return false;
+        }
+        if (cacheWrapper.config.isGlobalCache()) {
+            HotKeyManager.invalidateLocal(cacheName, key);
+        }
+        invalidateLocal(cacheWrapper, key);
+        return true;
     }
 
     /**
-     * 通知集群内其他主机缓存过期。
+     * 按主键文本作废本地缓存，不删除redis数据，也不通知集群。
+     * <p>
+     * 用于 redis 客户端缓存失效推送等只能拿到 redis key 字符串的场景：
+     * 主键文本按 CacheDataLoader 声明的主键类型（未声明时按本地已有主键的类型）解析，只支持 String/Long/Integer 主键，其它类型无法由文本还原主键，返回 false。
      *
      * @param cacheName 缓存名
-     * @param key       缓存主键
-     * @return 接收到该通知的客户端数量
+     * @param keyText   redis key 中的主键文本，null 则全部清除
+     * @return true 表示执行成功，未配置缓存或主键类型不支持时返回 false
      */
-    public static Long notifyInvalidate(String cacheName, Object key) {
-        //发布通知
-        return GlobalCache.notifyMsg(FUSION_CACHE_NOTIFY_CHANNEL, new FusionCacheNotifyMessage(INSTANCE_ID, cacheName, CacheNotifyType.INVALIDATE.getValue(), key));
+    public static boolean invalidateLocalByKeyText(String cacheName, String keyText) {
+        CacheWrapper cacheWrapper = cacheWrapperMap.get(cacheName);
+        if (cacheWrapper == null) {
+            return false;
+        }
+        if (keyText == null) {
+            invalidateLocal(cacheWrapper, null);
+            return true;
+        }
+        Object key = resolveKey(cacheWrapper, keyText);
+        if (key == UNSUPPORTED_TEXT_KEY) {
+            return false;
+        }
+        if (key != null) {
+            invalidateLocal(cacheWrapper, key);
+        }
+        return true;
     }
 
     /**
-     * 通知集群内其他主机缓存刷新。
+     * 获取缓存主键类型，由 CacheDataLoader 的泛型参数解析。
      *
-     * @param entityClass 缓存对象类(主要用于构造cacheName)
-     * @param key         缓存主键
-     * @return 接收到该通知的客户端数量
+     * @param cacheName 缓存名
+     * @return 主键类型，未配置缓存、未设置 CacheDataLoader 或泛型无法解析时返回 null
      */
-    public static Long notifyRefresh(Class<?> entityClass, Object key) {
-        return notifyRefresh(entityClass.getSimpleName(), key);
+    public static Class<?> getKeyClass(String cacheName) {
+        CacheWrapper cacheWrapper = cacheWrapperMap.get(cacheName);
+        if (cacheWrapper == null || cacheWrapper.cacheDataLoader == null) {
+            return null;
+        }
+        Type keyType = cacheWrapper.cacheDataLoader.getKeyType();
+        if (keyType == null) {
+            return null;
+        }
+        Class<?> keyClass = KryoUtils.type2Class(keyType);
+        return keyClass == Object.class ? null : keyClass;
     }
 
     /**
-     * 通知集群内其他主机缓存刷新。
+     * 判断主键类型能否由 redis key 中的主键文本还原。
      *
-     * @param cacheName 缓存名
-     * @param key       缓存主键
-     * @return 接收到该通知的客户端数量
+     * @param keyClass 主键类型
+     * @return true 表示支持，只支持 String/Long/Integer
      */
-    public static Long notifyRefresh(String cacheName, Object key) {
-        //发布通知
-        return GlobalCache.notifyMsg(FUSION_CACHE_NOTIFY_CHANNEL, new FusionCacheNotifyMessage(INSTANCE_ID, cacheName, CacheNotifyType.REFRESH.getValue(), key));
+    public static boolean isTextKeyClass(Class<?> keyClass) {
+        return keyClass == String.class || keyClass == Long.class || keyClass == Integer.class;
     }
 
     /**
-     * 刷新一个对象。
-     * 默认通知集群内其他主机。
+     * 按主键文本还原本地缓存的主键。
+     * <p>
+     * 优先按 CacheDataLoader 声明的主键类型解析；无法得知时只取一个本地主键判断类型，不遍历本地数据。
      *
-     * @param entityClass 缓存对象类(主要用于构造cacheName)
-     * @param key         缓存主键
-     * @return true 表示执行成功，未配置缓存返回 false
+     * @param cacheWrapper 缓存包装
+     * @param keyText      主键文本
+     * @return 主键；本地为空或文本无法解析时返回 null；主键类型不支持时返回 {@link #UNSUPPORTED_TEXT_KEY}
      */
-    public static boolean refresh(Class<?> entityClass, Object key) {
-        return refresh(entityClass.getSimpleName(), key, true);
+    private static Object resolveKey(CacheWrapper cacheWrapper, String keyText) {
+        Class<?> keyClass = getKeyClass(cacheWrapper.config.getCacheName());
+        if (keyClass == null) {
+            Object sample = null;
+            for (Object key : cacheWrapper.cache.asMap().keySet()) {
+                sample = key;
+                break;
+            }
+            if (sample == null && cacheWrapper.offHeapStore != null) {
+                for (Object key : cacheWrapper.offHeapStore.keySet()) {
+                    sample = key;
+                    break;
+                }
+            }
+            if (sample == null) {
+                return null;
+            }
+            keyClass = sample.getClass();
+        }
+        try {
+            if (keyClass == String.class) {
+                return keyText;
+            } else if (keyClass == Long.class) {
+                return Long.valueOf(keyText);
+            } else if (keyClass == Integer.class) {
+                return Integer.valueOf(keyText);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return UNSUPPORTED_TEXT_KEY;
     }
 
     /**
-     * 刷新一个对象。
-     * 默认通知集群内其他主机。
+     * 按标签作废缓存，并通知集群内其他主机。
      *
-     * @param cacheName 缓存名
-     * @param key       缓存主键
-     * @return true 表示执行成功，未配置缓存返回 false
+     * @param entityClass 缓存对象类(主要用于构造cacheName)
+     * @param tag         标签
+     * @return 被作废的缓存主键数量
      */
-    public static boolean refresh(String cacheName, Object key) {
-        return refresh(cacheName, key, true);
+    public static int invalidateByTag(Class<?> entityClass, String tag) {
+        return invalidateByTag(entityClass.getSimpleName(), tag);
+    }
+
+    /**
+     * 按标签作废缓存，并通知集群内其他主机。
+     * <p>
+     * 由 {@link GlobalCache#invalidateByTag} 删除redis中登记在该 tag 下的数据，再逐个作废本地缓存并发布失效通知；
+     * 开启 {@link FusionCacheNotifyCoalescer} 时，这些通知会被合并为少量批量消息。
+     *
+     * @param cacheName 缓存名
+     * @param tag       标签
+     * @return 被作废的缓存主键数量
+     */
+    public static int invalidateByTag(String cacheName, String tag) {
+        CacheWrapper cacheWrapper = cacheWrapperMap.get(cacheName);
+        if (cacheWrapper == null) {
+            log.warn("FusionCache[{}] not config!!!", cacheName);
+            return 0;
+        }
+        if (!cacheWrapper.config.isGlobalCache()) {
+            return 0;
+        }
+        List<Object> keys = GlobalCache.invalidateByTag(cacheName, tag);
+        for (Object key : keys) {
+            //redis数据已删除，这里只处理本地缓存。
+            invalidateLocal(cacheWrapper, key);
+            notifyInvalidate(cacheName, key);
+        }
+        return keys.size();
+    }
+
+    /**
+     * 通知集群内其他主机缓存过期。
+     *
+     * @param entityClass 缓存对象类(主要用于构造cacheName)
+     * @param key         缓存主键
+     * @return 接收到该通知的客户端数量
+     */
+    public static Long notifyInvalidate(Class<?> entityClass, Object key) {
+        return notifyInvalidate(entityClass.getSimpleName(), key);
+    }
+
+    /**
+     * 通知集群内其他主机缓存过期。
+     * 启用 {@link FusionCacheNotifyCoalescer} 时，通知进入合并窗口后批量发送。
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存主键
+     * @return 接收到该通知的客户端数量，合并发送时返回 0
+     */
+    public static Long notifyInvalidate(String cacheName, Object key) {
+        FusionCacheNotifyCoalescer coalescer = FusionCacheNotifyCoalescer.getInstance();
+        if (coalescer != null) {
+            coalescer.add(cacheName, key);
+            return 0L;
+        }
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        if (metrics != null) {
+            metrics.recordNotifySent(1);
+        }
+        //发布通知
+        return GlobalCache.notifyMsg(FUSION_CACHE_NOTIFY_CHANNEL, new FusionCacheNotifyMessage(INSTANCE_ID, cacheName, CacheNotifyType.INVALIDATE.getValue(), key));
+    }
+
+    /**
+     * 通知集群内其他主机缓存刷新。
+     *
+     * @param entityClass 缓存对象类(主要用于构造cacheName)
+     * @param key         缓存主键
+     * @return 接收到该通知的客户端数量
+     */
+    public static Long notifyRefresh(Class<?> entityClass, Object key) {
+        return notifyRefresh(entityClass.getSimpleName(), key);
+    }
+
+    /**
+     * 通知集群内其他主机缓存刷新。
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存主键
+     * @return 接收到该通知的客户端数量
+     */
+    public static Long notifyRefresh(String cacheName, Object key) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        if (metrics != null) {
+            metrics.recordNotifySent(1);
+        }
+        //发布通知
+        return GlobalCache.notifyMsg(FUSION_CACHE_NOTIFY_CHANNEL, new FusionCacheNotifyMessage(INSTANCE_ID, cacheName, CacheNotifyType.REFRESH.getValue(), key));
+    }
+
+    /**
+     * 刷新一个对象。
+     * 默认通知集群内其他主机。
+     *
+     * @param entityClass 缓存对象类(主要用于构造cacheName)
+     * @param key         缓存主键
+     * @return true 表示执行成功，未配置缓存返回 false
+     */
+    public static boolean refresh(Class<?> entityClass, Object key) {
+        return refresh(entityClass.getSimpleName(), key, true);
+    }
+
+    /**
+     * 刷新一个对象。
+     * 默认通知集群内其他主机。
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存主键
+     * @return true 表示执行成功，未配置缓存返回 false
+     */
+    public static boolean refresh(String cacheName, Object key) {
+        return refresh(cacheName, key, true);
     }
 
     /**
@@ -790,7 +1366,7 @@ public class FusionCache {
 
         if (cacheWrapper.config.isGlobalCache()) {
             //先删除redis缓存
-            GlobalCache.invalidate(cacheName, key);
+            GlobalCache.invalidate(cacheName, key, false);
         }
 
         if (notify && config.isGlobalCache()) {
@@ -798,12 +1374,19 @@ public class FusionCache {
             notifyRefresh(cacheName, key);
         }
 
-        //先执行监听。
+        //堆外数据不参与监听，直接丢弃，避免刷新后又取回旧值。
+        //每个key都先作废 Caffeine 再删除堆外，避免旧值在两步之间被容量淘汰重新转入堆外。
         if (key == null) {
+            if (cacheWrapper.offHeapStore != null) {
+                cacheWrapper.offHeapStore.clear();
+            }
             //拉出所有数据执行监听。
             Set<Map.Entry> kvSet = cache.asMap().entrySet();
             for (Map.Entry kv : kvSet) {
                 cache.invalidate(kv.getKey());
+                if (cacheWrapper.offHeapStore != null) {
+                    cacheWrapper.offHeapStore.remove(kv.getKey());
+                }
                 CacheValueWrapper oldValue = (CacheValueWrapper) kv.getValue();
                 CacheValueWrapper newValue = (CacheValueWrapper) cache.get(kv.getKey());
                 if (config.cacheChangeNotifyListener != null) {
@@ -820,6 +1403,9 @@ public class FusionCache {
             if (oldValue != null) {
                 cache.invalidate(key);
             }
+            if (cacheWrapper.offHeapStore != null) {
+                cacheWrapper.offHeapStore.remove(key);
+            }
             CacheValueWrapper newValue = (CacheValueWrapper) cache.get(key);
             if (config.cacheChangeNotifyListener != null && oldValue != null) {
                 try {
@@ -833,13 +1419,167 @@ public class FusionCache {
     }
 
 
+    /**
+     * 判断本地缓存值是否可直接返回给调用方，并按需触发后台刷新。
+     * <p>
+     * 未过期：可返回；若启用 refreshAheadRatio 且已越过提前刷新点，则触发后台刷新。
+     * 已过期：若启用 staleWhileRevalidateMillis 且仍在陈旧窗口内，返回陈旧值并触发后台刷新；否则不可返回，由调用方同步重载。
+     *
+     * @param cacheWrapper 缓存包装
+     * @param key          缓存主键
+     * @param valueWrapper 本地缓存值
+     * @return true 表示可直接返回 valueWrapper 的值
+     */
+    private static boolean checkServable(CacheWrapper cacheWrapper, Object key, CacheValueWrapper<?> valueWrapper) {
+        Config config = cacheWrapper.config;
+        if (config.getRefreshAheadRatio() <= 0 && config.getStaleWhileRevalidateMillis() <= 0) {
+            return !valueWrapper.checkExpired();
+        }
+        long expiredAt = valueWrapper.getExpiredAt();
+        if (expiredAt <= 0) {
+            return true;
+        }
+        long now = SystemClock.now();
+        if (now <= expiredAt) {
+            // 空值保护数据的有效期不是 cacheExpireMillis，不参与提前刷新。
+            if (config.getRefreshAheadRatio() > 0 && config.getRefreshAheadRatio() < 1 && config.getCacheExpireMillis() > 0 && valueWrapper.getValue() != null
+                    && now >= expiredAt - (long) (config.getCacheExpireMillis() * (1 - config.getRefreshAheadRatio()))) {
+                refreshAsync(cacheWrapper, key, valueWrapper);
+            }
+            return true;
+        }
+        if (config.getStaleWhileRevalidateMillis() > 0 && valueWrapper.getValue() != null && now <= expiredAt + config.getStaleWhileRevalidateMillis()) {
+            refreshAsync(cacheWrapper, key, valueWrapper);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 在虚拟线程中后台重新加载指定 key，同一 key 同时只有一个后台加载。
+     * <p>
+     * 全局缓存经 {@link GlobalCache#refreshValueWrapper} 刷新：先读 Redis，其他节点已刷新过的直接使用，
+     * 仍为旧值时才回源，并沿用 singleFlightLoad 配置在集群内去重；本地缓存直接调用 CacheDataLoader 回源。
+     * 刷新结果与旧值相同时不发送失效通知，避免各节点互相清除刚刷新的数据。
+     * 失败时仅记录日志，保留本地旧值继续服务。
+     *
+     * @param cacheWrapper 缓存包装
+     * @param key          缓存主键
+     * @param oldWrapper   本地旧值
+     */
+    private static void refreshAsync(CacheWrapper cacheWrapper, Object key, CacheValueWrapper<?> oldWrapper) {
+        if (cacheWrapper.cacheDataLoader == null || !cacheWrapper.refreshingKeys.add(key)) {
+            return;
+        }
+        Config config = cacheWrapper.config;
+        try {
+            refreshExecutor.submit(() -> {
+                try {
+                    CacheValueWrapper<Object> valueWrapper;
+                    if (config.isGlobalCache()) {
+                        valueWrapper = GlobalCache.refreshValueWrapper(config.getCacheName(), key, cacheWrapper.cacheDataLoader, config.getCacheExpireMillis(),
+                                config.getNullProtectMillis(), config.getReloadIntervalMillis(), config.getReloadMaxTimes(), config.isSingleFlightLoad() ? config.getSingleFlightLeaseMillis() : 0L,
+                                oldWrapper.getExpiredAt());
+                        if (valueWrapper == null) {
+                            log.warn("FusionCache[{}] key=[{}] 后台刷新失败，继续使用旧值!", config.getCacheName(), key);
+                            return;
+                        }
+                    } else {
+                        Object value = cacheWrapper.cacheDataLoader.load(key);
+                        long expireMillis;
+                        if (value == null) {
+                            expireMillis = config.getNullProtectMillis();
+                        } else if (cacheWrapper.cacheDataLoader.getExpireMillis() > 0) {
+                            expireMillis = cacheWrapper.cacheDataLoader.getExpireMillis();
+                        } else {
+                            expireMillis = config.getCacheExpireMillis();
+                        }
+                        valueWrapper = new CacheValueWrapper<>(value, expireMillis);
+                    }
+                    putLocal(cacheWrapper, key, valueWrapper);
+                    //值有变化时才通知invalidate缓存。
+                    if (config.isAutoNotifyInvalidate() && !isSameValue(oldWrapper.getValue(), valueWrapper.getValue())) {
+                        notifyInvalidate(config.getCacheName(), key);
+                    }
+                } catch (Throwable e) {
+                    log.warn("FusionCache[{}] key=[{}] 后台刷新失败，继续使用旧值! msg:{}", config.getCacheName(), key, e.getMessage());
+                } finally {
+                    cacheWrapper.refreshingKeys.remove(key);
+                }
+            });
+        } catch (Exception e) {
+            cacheWrapper.refreshingKeys.remove(key);
+            log.error("FusionCache[{}] key=[{}] 后台刷新提交失败! msg:{}", config.getCacheName(), key, e.getMessage());
+        }
+    }
+
+    /**
+     * 判断刷新前后的值是否相同，未实现 equals 的对象按序列化结果比较。
+     *
+     * @param oldValue 旧值
+     * @param newValue 新值
+     * @return true 表示相同
+     */
+    private static boolean isSameValue(Object oldValue, Object newValue) {
+        if (Objects.equals(oldValue, newValue)) {
+            return true;
+        }
+        if (oldValue == null || newValue == null || oldValue.getClass() != newValue.getClass()) {
+            return false;
+        }
+        try {
+            return Arrays.equals(KryoUtils.serialize(oldValue), KryoUtils.serialize(newValue));
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
     /**
      * 缓存对象包装类，封装 Caffeine 本地缓存实例与其配置。
      *
-     * @param cache  本地 Caffeine LoadingCache
-     * @param config 缓存配置
+     * @param cache           本地 Caffeine LoadingCache
+     * @param config          缓存配置
+     * @param cacheDataLoader 缓存数据加载器，可能为 null
+     * @param refreshingKeys  正在后台刷新的 key，用于后台刷新去重
+     * @param offHeapStore    堆外存储，未启用堆外缓存时为 null
+     */
+    private record CacheWrapper(LoadingCache cache, Config config, CacheDataLoader cacheDataLoader, Set<Object> refreshingKeys, OffHeapStore offHeapStore) {
+    }
+
+    /**
+     * 写入本地缓存，同时丢弃堆外的旧值。
+     * <p>
+     * 先写 Caffeine 再删除堆外：反过来时旧值可能在两步之间被容量淘汰重新转入堆外，之后被读回。
+     *
+     * @param cacheWrapper 缓存包装
+     * @param key          缓存主键
+     * @param valueWrapper 缓存值封装对象
+     */
+    private static void putLocal(CacheWrapper cacheWrapper, Object key, CacheValueWrapper<?> valueWrapper) {
+        cacheWrapper.cache.put(key, valueWrapper);
+        if (cacheWrapper.offHeapStore != null) {
+            cacheWrapper.offHeapStore.remove(key);
+        }
+    }
+
+    /**
+     * 将被 Caffeine 容量淘汰的数据转入堆外，已过期的数据直接丢弃。
+     *
+     * @param cacheName    缓存名
+     * @param offHeapStore 堆外存储
+     * @param key          缓存主键
+     * @param valueWrapper 缓存值封装对象
+     * @param cause        淘汰原因
      */
-    private record CacheWrapper(LoadingCache cache, Config config) {
+    private static void spillOffHeap(String cacheName, OffHeapStore offHeapStore, Object key, CacheValueWrapper<?> valueWrapper, RemovalCause cause) {
+        if (cause != RemovalCause.SIZE || key == null || valueWrapper == null || valueWrapper.checkExpired()) {
+            return;
+        }
+        try {
+            offHeapStore.put(key, KryoCacheUtils.serializeValueWrapperWithClass(null, valueWrapper));
+        } catch (Throwable e) {
+            log.error("FusionCache[{}] key=[{}] 转入堆外失败! msg:{}", cacheName, key, e.getMessage());
+        }
     }
 
     /**
@@ -898,6 +1638,63 @@ public class FusionCache {
          */
         private boolean isGlobalCache = true;
 
+        /**
+         * 是否启用集群 single-flight 加载，仅对全局缓存生效。
+         * 启用后热点 key 失效时只有抢到 Redis 租约的节点调用 loader，其余节点等待结果写入。
+         * 默认不启用。
+         */
+        private boolean singleFlightLoad = false;
+
+        /**
+         * single-flight 加载租约毫秒数，默认5秒。
+         * 应大于 loader 的正常耗时；持有节点宕机时租约到期后由其他节点接管加载。
+         */
+        private long singleFlightLeaseMillis = 5_000L;
+
+        /**
+         * 提前刷新比例，取值 (0, 1)，默认0表示不启用。
+         * 仅在 cacheExpireMillis > 0 时生效：数据存活超过 cacheExpireMillis * refreshAheadRatio 后，
+         * 读取时仍直接返回当前值，同时由后台虚拟线程异步重新加载（同一 key 同时只有一个后台加载）。
+         */
+        private double refreshAheadRatio = 0;
+
+        /**
+         * 过期后陈旧值可用毫秒数，默认0表示不启用。
+         * 数据过期后的该时间窗口内，读取直接返回陈旧值并触发后台重新加载；
+         * 后台加载失败时继续返回陈旧值，超过窗口后才回到同步加载。
+         */
+        private long staleWhileRevalidateMillis = 0;
+
+        /**
+         * 堆外缓存最大字节数，<=0 表示不启用堆外缓存。
+         * 启用后本地 Caffeine 只保留 localCacheMaxNum 条热数据，被容量淘汰的数据序列化后转入堆外，再次访问时取回。
+         * 堆外内存受 -XX:MaxDirectMemorySize 限制。
+         */
+        private long offHeapMaxBytes = 0;
+
+        /**
+         * 堆外缓存最大条目数，<=0 表示只按字节数限制。
+         */
+        private int offHeapMaxNum = 0;
+
+        /**
+         * 堆外缓存内存段字节数，按段分配与淘汰，单条数据超过此大小时不转入堆外。
+         * offHeapMaxBytes 不足两个段时，段大小自动缩小为 offHeapMaxBytes / 2。
+         */
+        private int offHeapSegmentBytes = 4 * 1024 * 1024;
+
+        /**
+         * 本地快照最大条目数，默认0表示不启用。
+         * 启用后应用关闭时把最热的 snapshotMaxNum 条本地数据写入快照文件，启动 config 时在后台加载未过期的数据。
+         */
+        private int snapshotMaxNum = 0;
+
+        /**
+         * 本地快照有效毫秒数，默认5分钟。
+         * 停机期间错过的失效通知无法补发，超过该时间的快照整体丢弃，恢复的数据有效期也不超过该时间。
+         */
+        private long snapshotMaxAgeMillis = 300_000L;
+
         /**
          * 缓存变更监听器。
          */
@@ -979,6 +1776,15 @@ public class FusionCache {
             setReloadMaxTimes(builder.reloadMaxTimes);
             setAutoNotifyInvalidate(builder.autoNotifyInvalidate);
             setGlobalCache(builder.isGlobalCache);
+            setSingleFlightLoad(builder.singleFlightLoad);
+            setSingleFlightLeaseMillis(builder.singleFlightLeaseMillis);
+            setRefreshAheadRatio(builder.refreshAheadRatio);
+            setStaleWhileRevalidateMillis(builder.staleWhileRevalidateMillis);
+            setOffHeapMaxBytes(builder.offHeapMaxBytes);
+            setOffHeapMaxNum(builder.offHeapMaxNum);
+            setOffHeapSegmentBytes(builder.offHeapSegmentBytes);
+            setSnapshotMaxNum(builder.snapshotMaxNum);
+            setSnapshotMaxAgeMillis(builder.snapshotMaxAgeMillis);
         }
 
         /**
@@ -1049,6 +1855,15 @@ public class FusionCache {
             builder.reloadMaxTimes = copy.getReloadMaxTimes();
             builder.autoNotifyInvalidate = copy.isAutoNotifyInvalidate();
             builder.isGlobalCache = copy.isGlobalCache();
+            builder.singleFlightLoad = copy.isSingleFlightLoad();
+            builder.singleFlightLeaseMillis = copy.getSingleFlightLeaseMillis();
+            builder.refreshAheadRatio = copy.getRefreshAheadRatio();
+            builder.staleWhileRevalidateMillis = copy.getStaleWhileRevalidateMillis();
+            builder.offHeapMaxBytes = copy.getOffHeapMaxBytes();
+            builder.offHeapMaxNum = copy.getOffHeapMaxNum();
+            builder.offHeapSegmentBytes = copy.getOffHeapSegmentBytes();
+            builder.snapshotMaxNum = copy.getSnapshotMaxNum();
+            builder.snapshotMaxAgeMillis = copy.getSnapshotMaxAgeMillis();
             return builder;
         }
 
@@ -1224,6 +2039,168 @@ public class FusionCache {
             isGlobalCache = globalCache;
         }
 
+        /**
+         * 获取是否启用集群 single-flight 加载。
+         *
+         * @return 是否启用集群 single-flight 加载
+         */
+        public boolean isSingleFlightLoad() {
+            return singleFlightLoad;
+        }
+
+        /**
+         * 设置是否启用集群 single-flight 加载。
+         *
+         * @param singleFlightLoad 是否启用集群 single-flight 加载
+         */
+        public void setSingleFlightLoad(boolean singleFlightLoad) {
+            this.singleFlightLoad = singleFlightLoad;
+        }
+
+        /**
+         * 获取single-flight 加载租约毫秒数。
+         *
+         * @return single-flight 加载租约毫秒数
+         */
+        public long getSingleFlightLeaseMillis() {
+            return singleFlightLeaseMillis;
+        }
+
+        /**
+         * 设置single-flight 加载租约毫秒数。
+         *
+         * @param singleFlightLeaseMillis single-flight 加载租约毫秒数
+         */
+        public void setSingleFlightLeaseMillis(long singleFlightLeaseMillis) {
+            this.singleFlightLeaseMillis = singleFlightLeaseMillis;
+        }
+
+        /**
+         * 获取提前刷新比例。
+         *
+         * @return 提前刷新比例
+         */
+        public double getRefreshAheadRatio() {
+            return refreshAheadRatio;
+        }
+
+        /**
+         * 设置提前刷新比例。
+         *
+         * @param refreshAheadRatio 提前刷新比例
+         */
+        public void setRefreshAheadRatio(double refreshAheadRatio) {
+            this.refreshAheadRatio = refreshAheadRatio;
+        }
+
+        /**
+         * 获取过期后陈旧值可用毫秒数。
+         *
+         * @return 过期后陈旧值可用毫秒数
+         */
+        public long getStaleWhileRevalidateMillis() {
+            return staleWhileRevalidateMillis;
+        }
+
+        /**
+         * 设置过期后陈旧值可用毫秒数。
+         *
+         * @param staleWhileRevalidateMillis 过期后陈旧值可用毫秒数
+         */
+        public void setStaleWhileRevalidateMillis(long staleWhileRevalidateMillis) {
+            this.staleWhileRevalidateMillis = staleWhileRevalidateMillis;
+        }
+
+        /**
+         * 获取堆外缓存最大字节数。
+         *
+         * @return 堆外缓存最大字节数
+         */
+        public long getOffHeapMaxBytes() {
+            return offHeapMaxBytes;
+        }
+
+        /**
+         * 设置堆外缓存最大字节数。
+         *
+         * @param offHeapMaxBytes 堆外缓存最大字节数
+         */
+        public void setOffHeapMaxBytes(long offHeapMaxBytes) {
+            this.offHeapMaxBytes = offHeapMaxBytes;
+        }
+
+        /**
+         * 获取堆外缓存最大条目数。
+         *
+         * @return 堆外缓存最大条目数
+         */
+        public int getOffHeapMaxNum() {
+            return offHeapMaxNum;
+        }
+
+        /**
+         * 设置堆外缓存最大条目数。
+         *
+         * @param offHeapMaxNum 堆外缓存最大条目数
+         */
+        public void setOffHeapMaxNum(int offHeapMaxNum) {
+            this.offHeapMaxNum = offHeapMaxNum;
+        }
+
+        /**
+         * 获取堆外缓存内存段字节数。
+         *
+         * @return 堆外缓存内存段字节数
+         */
+        public int getOffHeapSegmentBytes() {
+            return offHeapSegmentBytes;
+        }
+
+        /**
+         * 设置堆外缓存内存段字节数。
+         *
+         * @param offHeapSegmentBytes 堆外缓存内存段字节数
+         */
+        public void setOffHeapSegmentBytes(int offHeapSegmentBytes) {
+            this.offHeapSegmentBytes = offHeapSegmentBytes;
+        }
+
+        /**
+         * 获取本地快照最大条目数。
+         *
+         * @return 本地快照最大条目数
+         */
+        public int getSnapshotMaxNum() {
+            return snapshotMaxNum;
+        }
+
+        /**
+         * 设置本地快照最大条目数。
+         *
+         * @param snapshotMaxNum 本地快照最大条目数
+         */
+        public void setSnapshotMaxNum(int snapshotMaxNum) {
+            this.snapshotMaxNum = snapshotMaxNum;
+        }
+
+        /**
+         * 获取本地快照有效毫秒数。
+         *
+         * @return 本地快照有效毫秒数
+         */
+        public long getSnapshotMaxAgeMillis() {
+            return snapshotMaxAgeMillis;
+        }
+
+        /**
+         * 设置本地快照有效毫秒数。
+         *
+         * @param snapshotMaxAgeMillis 本地快照有效毫秒数
+         */
+        public void setSnapshotMaxAgeMillis(long snapshotMaxAgeMillis) {
+            this.snapshotMaxAgeMillis = snapshotMaxAgeMillis;
+        }
+
         public static final class Builder {
 
             /**
@@ -1280,6 +2257,62 @@ public class FusionCache {
              */
             private boolean isGlobalCache = true;
 
+            /**
+             * 是否启用集群 single-flight 加载，仅对全局缓存生效。
+             * 启用后热点 key 失效时只有抢到 Redis 租约的节点调用 loader，其余节点等待结果写入。
+             * 默认不启用。
+             */
+            private boolean singleFlightLoad = false;
+
+            /**
+             * single-flight 加载租约毫秒数，默认5秒。
+             * 应大于 loader 的正常耗时；持有节点宕机时租约到期后由其他节点接管加载。
+             */
+            private long singleFlightLeaseMillis = 5_000L;
+
+            /**
+             * 提前刷新比例，取值 (0, 1)，默认0表示不启用。
+             * 仅在 cacheExpireMillis > 0 时生效：数据存活超过 cacheExpireMillis * refreshAheadRatio 后，
+             * 读取时仍直接返回当前值，同时由后台虚拟线程异步重新加载（同一 key 同时只有一个后台加载）。
+             */
+            private double refreshAheadRatio = 0;
+
+            /**
+             * 过期后陈旧值可用毫秒数，默认0表示不启用。
+             * 数据过期后的该时间窗口内，读取直接返回陈旧值并触发后台重新加载；
+             * 后台加载失败时继续返回陈旧值，超过窗口后才回到同步加载。
+             */
+            private long staleWhileRevalidateMillis = 0;
+
+            /**
+             * 堆外缓存最大字节数，<=0 表示不启用堆外缓存。
+             * 启用后本地 Caffeine 只保留 localCacheMaxNum 条热数据，被容量淘汰的数据序列化后转入堆外，再次访问时取回。
+             * 堆外内存受 -XX:MaxDirectMemorySize 限制。
+             */
+            private long offHeapMaxBytes = 0;
+
+            /**
+             * 堆外缓存最大条目数，<=0 表示只按字节数限制。
+             */
+            private int offHeapMaxNum = 0;
+
+            /**
+             * 堆外缓存内存段字节数，按段分配与淘汰，单条数据超过此大小时不转入堆外。
+             */
+            private int offHeapSegmentBytes = 4 * 1024 * 1024;
+
+            /**
+             * 本地快照最大条目数，默认0表示不启用。
+             * 启用后应用关闭时把最热的 snapshotMaxNum 条本地数据写入快照文件，启动 config 时在后台加载未过期的数据。
+             */
+            private int snapshotMaxNum = 0;
+
+            /**
+             * 本地快照有效毫秒数，默认5分钟。
+             * 停机期间错过的失效通知无法补发，超过该时间的快照整体丢弃，恢复的数据有效期也不超过该时间。
+             */
+            private long snapshotMaxAgeMillis = 300_000L;
+
 
             /**
              * 私有构造，通过 {@link Config#builder()} 获取实例。
@@ -1406,6 +2439,105 @@ public class FusionCache {
                 return this;
             }
 
+            /**
+             * 设置是否启用集群 single-flight 加载。
+             *
+             * @param singleFlightLoad 是否启用集群 single-flight 加载
+             * @return 当前 Builder
+             */
+            public Builder singleFlightLoad(boolean singleFlightLoad) {
+                this.singleFlightLoad = singleFlightLoad;
+                return this;
+            }
+
+            /**
+             * 设置single-flight 加载租约毫秒数。
+             *
+             * @param singleFlightLeaseMillis single-flight 加载租约毫秒数
+             * @return 当前 Builder
+             */
+            public Builder singleFlightLeaseMillis(long singleFlightLeaseMillis) {
+                this.singleFlightLeaseMillis = singleFlightLeaseMillis;
+                return this;
+            }
+
+            /**
+             * 设置提前刷新比例。
+             *
+             * @param refreshAheadRatio 提前刷新比例
+             * @return 当前 Builder
+             */
+            public Builder refreshAheadRatio(double refreshAheadRatio) {
+                this.refreshAheadRatio = refreshAheadRatio;
+                return this;
+            }
+
+            /**
+             * 设置过期后陈旧值可用毫秒数。
+             *
+             * @param staleWhileRevalidateMillis 过期后陈旧值可用毫秒数
+             * @return 当前 Builder
+             */
+            public Builder staleWhileRevalidateMillis(long staleWhileRevalidateMillis) {
+                this.staleWhileRevalidateMillis = staleWhileRevalidateMillis;
+                return this;
+            }
+
+            /**
+             * 设置堆外缓存最大字节数。
+             *
+             * @param offHeapMaxBytes 堆外缓存最大字节数
+             * @return 当前 Builder
+             */
+            public Builder offHeapMaxBytes(long offHeapMaxBytes) {
+                this.offHeapMaxBytes = offHeapMaxBytes;
+                return this;
+            }
+
+            /**
+             * 设置堆外缓存最大条目数。
+             *
+             * @param offHeapMaxNum 堆外缓存最大条目数
+             * @return 当前 Builder
+             */
+            public Builder offHeapMaxNum(int offHeapMaxNum) {
+                this.offHeapMaxNum = offHeapMaxNum;
+                return this;
+            }
+
+            /**
+             * 设置堆外缓存内存段字节数。
+             *
+             * @param offHeapSegmentBytes 堆外缓存内存段字节数
+             * @return 当前 Builder
+             */
+            public Builder offHeapSegmentBytes(int offHeapSegmentBytes) {
+                this.offHeapSegmentBytes = offHeapSegmentBytes;
+                return this;
+            }
+
+            /**
+             * 设置本地快照最大条目数。
+             *
+             * @param snapshotMaxNum 本地快照最大条目数
+             * @return 当前 Builder
+             */
+            public Builder snapshotMaxNum(int snapshotMaxNum) {
+                this.snapshotMaxNum = snapshotMaxNum;
+                return this;
+            }
+
+            /**
+             * 设置本地快照有效毫秒数。
+             *
+             * @param snapshotMaxAgeMillis 本地快照有效毫秒数
+             * @return 当前 Builder
+             */
+            public Builder snapshotMaxAgeMillis(long snapshotMaxAgeMillis) {
+                this.snapshotMaxAgeMillis = snapshotMaxAgeMillis;
+                return this;
+            }
+
             /**
              * 构建不可变的 Config 实例。
              *
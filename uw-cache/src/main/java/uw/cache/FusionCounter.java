@@ -2,22 +2,34 @@ package uw.cache;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uw.cache.metrics.CacheMetrics;
+import uw.cache.metrics.CacheMetricsRegistry;
 import uw.cache.util.RedisKeyUtils;
 import uw.common.util.SystemClock;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 
 /**
- * 基于 AtomicLong 和 Redis 的复合（融合）计数器。
+ * 基于 LongAdder 和 Redis 的复合（融合）计数器。
  * <p>
- * 本地通过 AtomicLong 高频累加，按 {@code syncGlobalMillis} 间隔原子化地将增量同步到 Redis（{@link GlobalCounter}），
+ * 本地通过 LongAdder 高频累加（热点ID多线程写入时分段计数，避免 CAS 竞争），
+ * 由后台同步线程按 {@code syncGlobalMillis} 间隔收集所有有增量的计数器，在一个 pipeline 中批量 INCRBY 到 Redis（{@link GlobalCounter}），
  * 兼顾写入性能与全局一致性。支持配置回写函数，按 {@code writeBackMillis} 间隔异步回写数据库（虚拟线程执行）。
  * <p>
+ * 后台同步线程由 FusionCounter 实例（Spring Bean）持有：构造时启动，{@link #shutdown()} 时停止并同步全部剩余增量。
+ * 停止增长的计数器也会在下一个同步周期写入 Redis；未创建实例的非 Spring 环境需自行调用 {@link #syncAll()}。
+ * <p>
  * 使用前应在 static 块中调用 {@link #config} 注册 counterType；未注册时首次调用会按默认 60s 同步间隔自动配置。
  * <p>
  * 注意：本地计数与 Redis 之间存在 {@code syncGlobalMillis} 级别的最终一致延迟，强一致读请用 {@code get(type, id, true)}。
@@ -46,6 +58,60 @@ public class FusionCounter {
      */
     private static final ExecutorService executorService = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("uw-counter").factory());
 
+    /**
+     * 后台同步检查间隔毫秒数。
+     */
+    private static final long SYNC_TICK_MILLIS = 100L;
+
+    /**
+     * 单个 pipeline 最多包含的 INCRBY 命令数。
+     */
+    private static final int SYNC_BATCH_SIZE = 1000;
+
+    /**
+     * 有未同步增量的计数器。
+     */
+    private static final Set<LocalCounter> dirtyCounters = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 后台同步线程，随实例创建与关闭。
+     */
+    private final ScheduledExecutorService syncScheduler;
+
+    /**
+     * 由 Spring 创建，启动后台同步线程，并在容器关闭时同步全部剩余增量。
+     */
+    public FusionCounter() {
+        syncScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("uw-counter-sync").daemon(true).factory());
+        syncScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                syncDirty(false);
+            } catch (Throwable e) {
+                log.error("FusionCounter sync error: {}", e.getMessage(), e);
+            }
+        }, SYNC_TICK_MILLIS, SYNC_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止后台同步，并将全部剩余增量同步到 Redis。
+     */
+    public void shutdown() {
+        syncScheduler.shutdown();
+        try {
+            syncScheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        syncAll();
+    }
+
+    /**
+     * 立即将全部计数器的本地增量同步到 Redis。
+     */
+    public static void syncAll() {
+        syncDirty(true);
+    }
+
     /**
      * 配置计数器。
      *
@@ -317,11 +383,93 @@ public class FusionCounter {
         return GlobalCounter.getAndDelete(counterType, counterId);
     }
 
+    /**
+     * 收集有增量且到达同步间隔的计数器，按批在 pipeline 中同步到 Redis。
+     * <p>
+     * 同步失败时将取出的增量加回本地计数器，等待下次同步，保证增量不丢失。
+     *
+     * @param forceSync 是否忽略同步间隔
+     */
+    private static synchronized void syncDirty(boolean forceSync) {
+        if (dirtyCounters.isEmpty()) {
+            return;
+        }
+        long now = SystemClock.now();
+        List<LocalCounter> counters = new ArrayList<>();
+        List<String> counterTypes = new ArrayList<>();
+        List<Object> counterIds = new ArrayList<>();
+        List<Long> nums = new ArrayList<>();
+        for (LocalCounter localCounter : dirtyCounters) {
+            if (!forceSync && now <= localCounter.lastSyncTime + localCounter.config.syncGlobalMillis) {
+                continue;
+            }
+            long num = localCounter.drain();
+            if (num == 0) {
+                continue;
+            }
+            counters.add(localCounter);
+            counterTypes.add(localCounter.config.counterType);
+            counterIds.add(localCounter.counterId);
+            nums.add(num);
+            if (counters.size() >= SYNC_BATCH_SIZE) {
+                pipelineSync(counters, counterTypes, counterIds, nums, now);
+                counters.clear();
+                counterTypes.clear();
+                counterIds.clear();
+                nums.clear();
+            }
+        }
+        pipelineSync(counters, counterTypes, counterIds, nums, now);
+    }
+
+    /**
+     * 在一个 pipeline 中同步一批计数器，并更新本地同步基线。
+     *
+     * @param counters     本地计数器列表
+     * @param counterTypes 计数器类型列表
+     * @param counterIds   计数器ID列表
+     * @param nums         增量列表
+     * @param now          当前时间
+     */
+    private static void pipelineSync(List<LocalCounter> counters, List<String> counterTypes, List<Object> counterIds, List<Long> nums, long now) {
+        if (counters.isEmpty()) {
+            return;
+        }
+        Long[] results;
+        CacheMetrics metrics = CacheMetricsRegistry.get(CacheMetricsRegistry.FUSION_COUNTER);
+        long start = metrics == null ? 0L : System.nanoTime();
+        try {
+            results = GlobalCounter.incrementAll(counterTypes, counterIds, nums);
+            if (metrics != null) {
+                metrics.recordRedisWrite(System.nanoTime() - start);
+            }
+        } catch (Throwable e) {
+            log.error("FusionCounter pipeline sync error: {}", e.getMessage(), e);
+            for (int i = 0; i < counters.size(); i++) {
+                counters.get(i).restore(nums.get(i));
+            }
+            return;
+        }
+        int failNum = 0;
+        for (int i = 0; i < counters.size(); i++) {
+            if (results[i] == null) {
+                // 单条命令失败时增量未写入 Redis，与整体失败一样加回本地。
+                counters.get(i).restore(nums.get(i));
+                failNum++;
+            } else {
+                counters.get(i).onSynced(results[i], now);
+            }
+        }
+        if (failNum > 0) {
+            log.error("FusionCounter pipeline sync failed for {}/{} counters, restored for next sync.", failNum, counters.size());
+        }
+    }
+
     /**
      * 本地计数器。
      * <p>
      * 维护一个 counterType:counterId 维度的本地累加器，由 {@link FusionCounter} 内部管理生命周期。
-     * 每个实例持有：配置、ID、AtomicLong 本地增量、上次同步基线与时间（volatile 保证可见性）。
+     * 每个实例持有：配置、ID、LongAdder 本地增量、脏标记、上次同步基线与时间（volatile 保证可见性）。
      */
     public static class LocalCounter {
 
@@ -336,12 +484,18 @@ public class FusionCounter {
         private final Object counterId;
         /**
          * 本地递增计数器，记录自上次同步以来的增量。
+         * <p>
+         * 热点ID被多线程并发累加时，LongAdder 按线程分段计数，避免单个 AtomicLong 的 CAS 自旋。
          */
-        private final AtomicLong counter = new AtomicLong();
+        private final LongAdder counter = new LongAdder();
+        /**
+         * 是否已登记到待同步集合，避免每次累加都写并发集合。
+         */
+        private final AtomicBoolean dirty = new AtomicBoolean();
         /**
          * 上次同步时间。
          * <p>
-         * 使用 volatile 保证多线程可见性：sync() 由 increment/decrement 的多个调用线程并发触发，
+         * 使用 volatile 保证多线程可见性：sync() 可由后台同步线程与调用线程并发触发，
          * lastSyncTime 的写入需要对其他读线程立即可见，避免因缓存行不可见导致重复同步或漏同步。
          */
         private volatile long lastSyncTime = 0;
@@ -372,58 +526,107 @@ public class FusionCounter {
          * @return 当前计数。
          */
         public long get() {
-            return lastSyncNum + counter.get();
+            return lastSyncNum + counter.sum();
         }
 
         /**
-         * 递增计数，并尝试同步到 Redis。
+         * 递增计数，增量由后台同步线程同步到 Redis。
          *
          * @param incrementNum 递增数值
          * @return 递增后的计数数值
          */
         public long increment(long incrementNum) {
-            long num = counter.addAndGet(incrementNum);
-            sync(false);
-            return lastSyncNum + num;
+            counter.add(incrementNum);
+            markDirty();
+            return get();
         }
 
         /**
-         * 递减计数，并尝试同步到 Redis。
+         * 递减计数，增量由后台同步线程同步到 Redis。
          *
          * @param incrementNum 递减数值
          * @return 递减后的计数数值
          */
         public long decrement(long incrementNum) {
-            long num = counter.addAndGet(-incrementNum);
-            sync(false);
-            return lastSyncNum + num;
+            counter.add(-incrementNum);
+            markDirty();
+            return get();
         }
 
         /**
          * 检查并按需同步本地增量到 Redis。
          * <p>
-         * forceSync 为 true 或距上次同步超过 syncGlobalMillis 时，原子取出本地增量并同步到 Redis，
-         * 同时按 writeBackMillis 间隔异步触发回写函数。
+         * forceSync 为 true 或距上次同步超过 syncGlobalMillis 时，原子取出本地增量并单独同步到 Redis，
+         * 同时按 writeBackMillis 间隔异步触发回写函数。常规同步由后台线程批量完成，此方法用于强一致读取与删除前同步。
          *
          * @param forceSync 是否强制同步（忽略间隔）
          */
         public void sync(boolean forceSync) {
             long now = SystemClock.now();
             if (forceSync || now > lastSyncTime + config.syncGlobalMillis) {
-                long num = 0;
+                long num = drain();
                 //此处代码用于控制线程并发
-                if ((num = counter.getAndSet(0)) != 0) {
-                    lastSyncNum = GlobalCounter.increment(config.counterType, counterId, num);
-                    //异步执行回写函数
-                    if (config.writeBackConsumer != null && now > lastSyncTime + config.writeBackMillis) {
-                        executorService.submit(() -> config.writeBackConsumer.accept(counterId, lastSyncNum));
+                if (num != 0) {
+                    long syncNum;
+                    try {
+                        syncNum = GlobalCounter.increment(config.counterType, counterId, num);
+                    } catch (RuntimeException e) {
+                        restore(num);
+                        throw e;
                     }
-                    //设置同步时间
-                    lastSyncTime = now;
+                    onSynced(syncNum, now);
                 }
             }
         }
 
+        /**
+         * 标记为有未同步增量，并登记到待同步集合。
+         */
+        private void markDirty() {
+            if (!dirty.get() && dirty.compareAndSet(false, true)) {
+                dirtyCounters.add(this);
+            }
+        }
+
+        /**
+         * 取出并清零本地增量。
+         * <p>
+         * 先清除脏标记再清零，清零期间并发写入的增量会重新登记，不会遗漏。
+         *
+         * @return 本地增量
+         */
+        private long drain() {
+            dirtyCounters.remove(this);
+            dirty.set(false);
+            return counter.sumThenReset();
+        }
+
+        /**
+         * 同步失败时加回增量，等待下次同步。
+         *
+         * @param num 增量
+         */
+        private void restore(long num) {
+            counter.add(num);
+            markDirty();
+        }
+
+        /**
+         * 同步成功后更新同步基线，并按间隔异步触发回写函数。
+         *
+         * @param syncNum Redis 中的最新计数
+         * @param now     同步时间
+         */
+        private void onSynced(long syncNum, long now) {
+            lastSyncNum = syncNum;
+            //异步执行回写函数
+            if (config.writeBackConsumer != null && now > lastSyncTime + config.writeBackMillis) {
+                executorService.submit(() -> config.writeBackConsumer.accept(counterId, syncNum));
+            }
+            //设置同步时间
+            lastSyncTime = now;
+        }
+
         /**
          * 初始化操作：设置 Redis 初始值或读取现有值作为本地同步基线。
          *
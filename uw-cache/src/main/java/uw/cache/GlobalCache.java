@@ -3,18 +3,46 @@ package uw.cache;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import uw.cache.hotkey.HotKeyDetector;
+import uw.cache.hotkey.HotKeyManager;
+import uw.cache.metrics.CacheMetrics;
+import uw.cache.metrics.CacheMetricsRegistry;
+import uw.cache.notify.FusionCacheTrackingInvalidator;
 import uw.cache.util.KryoCacheUtils;
 import uw.cache.util.RedisKeyUtils;
 import uw.cache.vo.CacheValueWrapper;
 import uw.common.util.KryoUtils;
+import uw.common.util.SnowflakeIdGenerator;
+import uw.common.util.SystemClock;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 /**
@@ -24,7 +52,7 @@ import java.util.concurrent.TimeUnit;
  * {@link #loadValueWrapper} 通过锁条带化（1024 stripes）+ 双重检查防止缓存击穿，
  * loader 失败时走 nullProtect/failProtect 短时缓存空值防穿透。
  * 序列化采用 Kryo，value 由 dataCacheRedisTemplate（byte[]）承载。
- * Redis key 格式：{@code uw-cache:{cacheName}:{key}}。
+ * Redis key 格式：{@code uw-cache:{cacheName}:{key}}；tag 集合格式：{@code uw-cache-tag:{cacheName}:{tag}}。
  */
 public class GlobalCache {
 
@@ -48,11 +76,78 @@ public class GlobalCache {
      */
     public static final long DEFAULT_FAIL_PROTECT_MILLIS = 60_000L;
 
+    /**
+     * 集群加载完成通知channel，用于唤醒 single-flight 模式下等待的节点。
+     */
+    public static final String LOAD_NOTIFY_CHANNEL = "UW_CACHE_LOAD_CHANNEL";
+
     /**
      * redis前缀。
      */
     private static final String REDIS_PREFIX = "uw-cache:";
 
+    /**
+     * tag 集合的redis前缀，与缓存数据前缀分开，避免被 {@link #keys} 扫描到。
+     */
+    private static final String TAG_REDIS_PREFIX = "uw-cache-tag:";
+
+    /**
+     * invalidateByTag 每批删除的key数量。
+     */
+    private static final int TAG_INVALIDATE_BATCH_SIZE = 500;
+
+    /**
+     * tag 集合登记Lua脚本。
+     * <p>
+     * SADD 成员后调整 tag 集合的TTL，使其不早于集合内任一缓存数据过期：
+     * 永久数据会将集合置为永久；集合已有TTL时只延长不缩短；新建集合直接使用该数据的TTL。
+     */
+    private static final RedisScript<Long> TAG_ADD_SCRIPT = new DefaultRedisScript<>(
+            "local added = redis.call('sadd', KEYS[1], ARGV[1]) local ttl = tonumber(ARGV[2]) " +
+                    "if ttl <= 0 then redis.call('persist', KEYS[1]) return added end " +
+                    "local cur = redis.call('pttl', KEYS[1]) " +
+                    "if cur >= 0 then if cur < ttl then redis.call('pexpire', KEYS[1], ttl) end " +
+                    "elseif added == 1 and redis.call('scard', KEYS[1]) == 1 then redis.call('pexpire', KEYS[1], ttl) end return added",
+            Long.class);
+
+    /**
+     * tag 集合转移Lua脚本。
+     * <p>
+     * 集合存在时 RENAME 为临时key并设置临时key的TTL，返回1；集合不存在返回0。
+     * 判断与改名在同一脚本内完成，避免并发失效时另一方已改名导致 RENAME 报 "no such key"。
+     */
+    private static final RedisScript<Long> TAG_RENAME_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end " +
+                    "redis.call('rename', KEYS[1], KEYS[2]) redis.call('pexpire', KEYS[2], ARGV[1]) return 1",
+            Long.class);
+
+    /**
+     * invalidateByTag 临时集合的TTL毫秒数，防止处理中断导致临时集合残留。
+     */
+    private static final long TAG_WORK_KEY_TTL_MILLIS = 600_000L;
+
+    /**
+     * single-flight 加载租约使用的 GlobalLocker 锁类型。
+     */
+    private static final String SINGLE_FLIGHT_LOCKER_TYPE = "uw-cache-load";
+
+    /**
+     * single-flight 模式下本 JVM 的等待信号，key 为 redisKey。
+     */
+    private static final ConcurrentMap<String, CompletableFuture<Void>> LOAD_WAITERS = new ConcurrentHashMap<>();
+
+    /**
+     * single-flight 模式下本 JVM 正在进行的加载，key 为 redisKey。
+     * <p>
+     * 每个 JVM 每个 key 只有登记成功的线程参与集群等待与加载，其余线程等待其结果，不占用锁条带。
+     */
+    private static final ConcurrentMap<String, CompletableFuture<CacheValueWrapper<?>>> LOCAL_FLIGHTS = new ConcurrentHashMap<>();
+
+    /**
+     * single-flight 最长等待的租约周期数，超过后本地直接加载。
+     */
+    private static final int SINGLE_FLIGHT_MAX_WAIT_LEASES = 2;
+
     private static final Logger logger = LoggerFactory.getLogger(GlobalCache.class);
 
     /**
@@ -135,15 +230,138 @@ public class GlobalCache {
         // 本地 wrapper 的过期时间应使用与 Redis 一致的相对 TTL（增量），
         // 而非绝对时间戳，否则 CacheValueWrapper 构造会将其当作增量叠加到当前时间导致永不过期。
         CacheValueWrapper<V> valueWrapper = new CacheValueWrapper<>(value, ttl);
-        byte[] redisData = KryoCacheUtils.serializeValueWrapper(valueWrapper);
+        byte[] redisData = KryoCacheUtils.serializeValueWrapper(cacheName, valueWrapper);
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        long start = metrics == null ? 0L : System.nanoTime();
+        markSelfWrite(cacheName, redisKey, redisData);
         if (ttl == 0) {
             opsForValue.set(redisKey, redisData);
         } else {
             opsForValue.set(redisKey, redisData, ttl, TimeUnit.MILLISECONDS);
         }
+        if (metrics != null) {
+            metrics.recordRedisWrite(System.nanoTime() - start);
+        }
+        HotKeyManager.invalidate(cacheName, key);
+        return valueWrapper;
+    }
+
+    /**
+     * 向redis中存入缓存值，并登记到指定 tag。
+     *
+     * @param entityClass  缓存对象类(主要用于构造cacheName)
+     * @param key          主键
+     * @param value        数据
+     * @param expireMillis 有效期毫秒数。
+     * @param tags         标签，可通过 {@link #invalidateByTag} 按标签批量失效
+     */
+    public static <K, V> CacheValueWrapper<V> put(Class<?> entityClass, K key, V value, long expireMillis, String... tags) {
+        return put(entityClass.getSimpleName(), key, value, expireMillis, tags);
+    }
+
+    /**
+     * 向redis中存入缓存值，并登记到指定 tag。
+     * <p>
+     * 每个 tag 对应一个redis集合 {@code uw-cache-tag:{cacheName}:{tag}}，成员为带类型信息序列化的缓存主键，
+     * 集合TTL不早于其中任一数据的TTL。SET 与各 tag 的登记在一个 pipeline 中完成。
+     *
+     * @param cacheName    缓存名
+     * @param key          主键
+     * @param value        数据
+     * @param expireMillis 有效期毫秒数。
+     * @param tags         标签，可通过 {@link #invalidateByTag} 按标签批量失效
+     * @param <V>          数据类型
+     */
+    public static <K, V> CacheValueWrapper<V> put(String cacheName, K key, V value, long expireMillis, String... tags) {
+        if (tags == null || tags.length == 0) {
+            return put(cacheName, key, value, expireMillis);
+        }
+        String redisKey = RedisKeyUtils.buildTypeId(REDIS_PREFIX, cacheName, key);
+        byte[] rawKey = redisKey.getBytes(StandardCharsets.UTF_8);
+        long ttl = normalizeTtlMillis(expireMillis);
+        CacheValueWrapper<V> valueWrapper = new CacheValueWrapper<>(value, ttl);
+        byte[] redisData = KryoCacheUtils.serializeValueWrapper(cacheName, valueWrapper);
+        byte[] member = KryoUtils.serializeWithClass(key);
+        byte[] ttlArg = String.valueOf(ttl).getBytes(StandardCharsets.UTF_8);
+        String scriptSha = TAG_ADD_SCRIPT.getSha1();
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        long start = metrics == null ? 0L : System.nanoTime();
+        markSelfWrite(cacheName, redisKey, redisData);
+        RedisCallback<Object> callback = connection -> {
+            if (ttl == 0) {
+                connection.stringCommands().set(rawKey, redisData);
+            } else {
+                connection.stringCommands().set(rawKey, redisData, Expiration.milliseconds(ttl), RedisStringCommands.SetOption.upsert());
+            }
+            for (String tag : tags) {
+                byte[] tagKey = RedisKeyUtils.buildTypeId(TAG_REDIS_PREFIX, cacheName, tag).getBytes(StandardCharsets.UTF_8);
+                connection.scriptingCommands().evalSha(scriptSha, ReturnType.INTEGER, 1, tagKey, member, ttlArg);
+            }
+            return null;
+        };
+        try {
+            cacheRedisTemplate.executePipelined(callback);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            // 脚本未缓存（首次使用或redis重启后），加载后整批重发，SET 与 SADD 均可重复执行。
+            cacheRedisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.scriptingCommands().scriptLoad(TAG_ADD_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+            cacheRedisTemplate.executePipelined(callback);
+        }
+        if (metrics != null) {
+            metrics.recordRedisWrite(System.nanoTime() - start);
+        }
+        HotKeyManager.invalidate(cacheName, key);
         return valueWrapper;
     }
 
+    /**
+     * 向redis中批量存入缓存值。
+     *
+     * @param entityClass  缓存对象类(主要用于构造cacheName)
+     * @param map          要存入的批量数据
+     * @param expireMillis 有效期毫秒数。
+     * @return key -> 缓存值包装对象
+     */
+    public static <K, V> Map<K, CacheValueWrapper<V>> putAll(Class<?> entityClass, Map<K, V> map, long expireMillis) {
+        return putAll(entityClass.getSimpleName(), map, expireMillis);
+    }
+
+    /**
+     * 向redis中批量存入缓存值。
+     * <p>
+     * 所有 SET 命令在一个 pipeline 中发送，N 个 key 只需一次网络往返。
+     *
+     * @param cacheName    缓存名
+     * @param map          要存入的批量数据
+     * @param expireMillis 有效期毫秒数。
+     * @return key -> 缓存值包装对象
+     */
+    public static <K, V> Map<K, CacheValueWrapper<V>> putAll(String cacheName, Map<K, V> map, long expireMillis) {
+        Map<K, CacheValueWrapper<V>> wrapperMap = new LinkedHashMap<>((int) (map.size() / 0.75f) + 1);
+        if (map.isEmpty()) {
+            return wrapperMap;
+        }
+        long ttl = normalizeTtlMillis(expireMillis);
+        List<String> redisKeys = new ArrayList<>(map.size());
+        List<byte[]> redisDatas = new ArrayList<>(map.size());
+        List<Long> ttls = new ArrayList<>(map.size());
+        for (Map.Entry<K, V> kv : map.entrySet()) {
+            CacheValueWrapper<V> valueWrapper = new CacheValueWrapper<>(kv.getValue(), ttl);
+            wrapperMap.put(kv.getKey(), valueWrapper);
+            redisKeys.add(RedisKeyUtils.buildTypeId(REDIS_PREFIX, cacheName, kv.getKey()));
+            redisDatas.add(KryoCacheUtils.serializeValueWrapper(cacheName, valueWrapper));
+            ttls.add(ttl);
+        }
+        pipelineSet(cacheName, redisKeys, redisDatas, ttls);
+        for (K key : wrapperMap.keySet()) {
+            HotKeyManager.invalidate(cacheName, key);
+        }
+        return wrapperMap;
+    }
+
     /**
      * 从redis中获取缓存值。
      *
@@ -153,15 +371,35 @@ public class GlobalCache {
      * @return 缓存值包装对象，不存在或反序列化失败返回 null
      */
     public static <K, V> CacheValueWrapper<V> get(String cacheName, K key, Class<V> valueClass) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        HotKeyDetector detector = HotKeyManager.detector(cacheName);
+        boolean hot = detector != null && detector.record(key);
+        if (hot) {
+            CacheValueWrapper<V> localWrapper = (CacheValueWrapper<V>) detector.getLocal(key);
+            if (localWrapper != null) {
+                if (metrics != null) {
+                    metrics.recordHotKeyHit();
+                }
+                return localWrapper;
+            }
+        }
         String redisKey = RedisKeyUtils.buildTypeId(REDIS_PREFIX, cacheName, key);
+        long start = metrics == null ? 0L : System.nanoTime();
         byte[] redisData = opsForValue.get(redisKey);
+        if (metrics != null) {
+            metrics.recordRedisRead(System.nanoTime() - start, redisData == null ? 0 : 1, redisData == null ? 1 : 0);
+        }
         if (redisData == null) {
             return null;
         }
         //兑现Javadoc"反序列化失败返回null"契约：脏数据（旧协议/损坏，表现为KryoBufferUnderflow等）降级为null并记日志，
         //让上层按"缓存未命中"处理（通常回源重新加载），避免异常冒泡破坏调用流程。
         try {
-            return (CacheValueWrapper<V>) KryoCacheUtils.deserializeValueWrapper(redisData, KryoUtils.type2Class(valueClass));
+            CacheValueWrapper<V> valueWrapper = (CacheValueWrapper<V>) KryoCacheUtils.deserializeValueWrapper(cacheName, redisData, KryoUtils.type2Class(valueClass));
+            if (hot) {
+                detector.putLocal(key, valueWrapper);
+            }
+            return valueWrapper;
         } catch (Exception e) {
             logger.error("反序列化失败! cacheName=[{}], key=[{}]", cacheName, key, e);
             return null;
@@ -181,6 +419,47 @@ public class GlobalCache {
         return get(entityClass.getSimpleName(), key, valueClass);
     }
 
+    /**
+     * 从redis中批量获取缓存值（一次 MGET）。
+     *
+     * @param entityClass 缓存对象类(主要用于构造cacheName)
+     * @param keys        主键集合
+     * @param valueClass  值类型
+     * @return key -> 缓存值包装对象，不存在或反序列化失败的 key 不在结果中
+     */
+    public static <K, V> Map<K, CacheValueWrapper<V>> getAll(Class<?> entityClass, Collection<K> keys, Class<V> valueClass) {
+        return getAll(entityClass.getSimpleName(), keys, valueClass);
+    }
+
+    /**
+     * 从redis中批量获取缓存值（一次 MGET）。
+     *
+     * @param cacheName  缓存名
+     * @param keys       主键集合
+     * @param valueClass 值类型
+     * @return key -> 缓存值包装对象，不存在或反序列化失败的 key 不在结果中
+     */
+    public static <K, V> Map<K, CacheValueWrapper<V>> getAll(String cacheName, Collection<K> keys, Class<V> valueClass) {
+        Map<K, CacheValueWrapper<V>> wrapperMap = new LinkedHashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return wrapperMap;
+        }
+        List<K> keyList = new ArrayList<>(keys);
+        List<byte[]> redisDataList = multiGet(cacheName, keyList);
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] redisData = redisDataList.get(i);
+            if (redisData == null || redisData.length == 0) {
+                continue;
+            }
+            try {
+                wrapperMap.put(keyList.get(i), (CacheValueWrapper<V>) KryoCacheUtils.deserializeValueWrapper(cacheName, redisData, KryoUtils.type2Class(valueClass)));
+            } catch (Exception e) {
+                logger.error("反序列化失败! cacheName=[{}], key=[{}]", cacheName, keyList.get(i), e);
+            }
+        }
+        return wrapperMap;
+    }
+
     /**
      * 判断缓存中是否存在指定key的缓存值。
      *
@@ -283,6 +562,68 @@ public class GlobalCache {
         return null;
     }
 
+    /**
+     * 从redis中批量获取缓存值，未命中的部分通过 {@link CacheDataLoader#loadAll} 批量加载。
+     *
+     * @param entityClass     缓存对象类(主要用于构造cacheName)
+     * @param keys            主键集合
+     * @param cacheDataLoader 加载数据的函数
+     * @param expireMillis    有效期毫秒数。
+     * @return key -> 缓存值，仅包含非空值
+     */
+    public static <K, V> Map<K, V> getAll(Class<?> entityClass, Collection<K> keys, CacheDataLoader<K, V> cacheDataLoader, long expireMillis) {
+        return getAll(entityClass.getSimpleName(), keys, cacheDataLoader, expireMillis);
+    }
+
+    /**
+     * 从redis中批量获取缓存值，未命中的部分通过 {@link CacheDataLoader#loadAll} 批量加载。
+     *
+     * @param cacheName       缓存名
+     * @param keys            主键集合
+     * @param cacheDataLoader 加载数据的函数
+     * @param expireMillis    有效期毫秒数。
+     * @return key -> 缓存值，仅包含非空值
+     */
+    public static <K, V> Map<K, V> getAll(String cacheName, Collection<K> keys, CacheDataLoader<K, V> cacheDataLoader, long expireMillis) {
+        return getAll(cacheName, keys, cacheDataLoader, expireMillis, DEFAULT_NULL_PROTECT_MILLIS, DEFAULT_FAIL_PROTECT_MILLIS, DEFAULT_RELOAD_INTERVAL_MILLIS, DEFAULT_RELOAD_MAX_TIMES);
+    }
+
+    /**
+     * 从redis中批量获取缓存值，未命中的部分通过 {@link CacheDataLoader#loadAll} 批量加载。
+     *
+     * @param cacheName            缓存名
+     * @param keys                 主键集合
+     * @param cacheDataLoader      加载数据的函数
+     * @param expireMillis         有效期毫秒数。
+     * @param nullProtectMillis    空值保护毫秒数
+     * @param failProtectMillis    失败保护毫秒数
+     * @param reloadIntervalMillis 重载间隔毫秒数
+     * @param reloadMaxTimes       重载次数
+     * @return key -> 缓存值，仅包含非空值
+     */
+    public static <K, V> Map<K, V> getAll(String cacheName, Collection<K> keys, CacheDataLoader<K, V> cacheDataLoader, long expireMillis, long nullProtectMillis, long failProtectMillis, long reloadIntervalMillis, int reloadMaxTimes) {
+        Map<K, V> dataMap = new LinkedHashMap<>();
+        Collection<K> pendingKeys = keys;
+        // 多次加载，防止超过有效期。
+        for (int i = 0; i < reloadMaxTimes && pendingKeys != null && !pendingKeys.isEmpty(); i++) {
+            Map<K, CacheValueWrapper<V>> wrapperMap = loadValueWrappers(cacheName, pendingKeys, cacheDataLoader, expireMillis, nullProtectMillis, failProtectMillis, reloadIntervalMillis, reloadMaxTimes);
+            List<K> expiredKeys = new ArrayList<>();
+            for (Map.Entry<K, CacheValueWrapper<V>> kv : wrapperMap.entrySet()) {
+                CacheValueWrapper<V> valueWrapper = kv.getValue();
+                if (valueWrapper.checkExpired()) {
+                    expiredKeys.add(kv.getKey());
+                } else if (valueWrapper.getValue() != null) {
+                    dataMap.put(kv.getKey(), valueWrapper.getValue());
+                }
+            }
+            if (!expiredKeys.isEmpty()) {
+                invalidateAll(cacheName, expiredKeys);
+            }
+            pendingKeys = expiredKeys;
+        }
+        return dataMap;
+    }
+
 
     /**
      * 加jvm锁从redis中获取缓存值。
@@ -349,86 +690,462 @@ public class GlobalCache {
      * @return 缓存值包装对象，永不为 null（加载失败时返回保护期空值 wrapper）
      */
     public static <K, V> CacheValueWrapper<V> loadValueWrapper(String cacheName, K key, CacheDataLoader<K, V> cacheDataLoader, long expireMillis, long nullProtectMillis, long failProtectMillis, long reloadIntervalMillis, int reloadMaxTimes) {
+        return loadValueWrapper(cacheName, key, cacheDataLoader, expireMillis, nullProtectMillis, failProtectMillis, reloadIntervalMillis, reloadMaxTimes, 0L);
+    }
+
+    /**
+     * 加jvm锁从redis中获取缓存值。
+     * 获取不到时加jvm锁去执行函数获取。
+     * <p>
+     * singleFlightLeaseMillis > 0 时启用集群级 single-flight：JVM 锁内再通过 {@link GlobalLocker} 抢占一个短租约，
+     * 只有抢到租约的节点调用 loader，其余节点等待 pub/sub 唤醒（兜底按 reloadIntervalMillis 轮询 Redis），
+     * 从而避免热点 key 过期时所有节点同时回源。租约过期（持有节点宕机）后由等待节点重新抢占加载；
+     * 累计等待两个租约时长仍无结果（持有节点加载过慢）时本地直接加载，每个 JVM 每个 key 只有一个线程参与等待与兜底加载。
+     *
+     * @param cacheName               缓存名
+     * @param key                     主键
+     * @param cacheDataLoader         加载数据的函数
+     * @param expireMillis            有效期毫秒数。
+     * @param nullProtectMillis       空值保护毫秒数
+     * @param failProtectMillis       失败保护毫秒数
+     * @param reloadIntervalMillis    重载间隔毫秒数
+     * @param reloadMaxTimes          重载次数
+     * @param singleFlightLeaseMillis 集群加载租约毫秒数，0 表示不启用
+     * @return 缓存值包装对象，永不为 null（加载失败时返回保护期空值 wrapper）
+     */
+    public static <K, V> CacheValueWrapper<V> loadValueWrapper(String cacheName, K key, CacheDataLoader<K, V> cacheDataLoader, long expireMillis, long nullProtectMillis, long failProtectMillis, long reloadIntervalMillis, int reloadMaxTimes, long singleFlightLeaseMillis) {
+        return loadValueWrapper(cacheName, key, cacheDataLoader, expireMillis, nullProtectMillis, failProtectMillis, reloadIntervalMillis, reloadMaxTimes, singleFlightLeaseMillis, 0L);
+    }
+
+    /**
+     * 后台刷新指定 key，供 FusionCache 提前刷新/陈旧窗口使用。
+     * <p>
+     * 与 {@link #loadValueWrapper} 走同一套 Redis 读取、JVM 锁与 single-flight 流程，区别在于：
+     * Redis 中过期时间不晚于 staleExpiredAt 的数据视为仍是旧值，需要重新加载；
+     * 其他节点已刷新过的数据直接返回，不再回源；loader 彻底失败时不写入 Redis，返回 null 由调用方保留旧值。
+     *
+     * @param cacheName               缓存名
+     * @param key                     主键
+     * @param cacheDataLoader         加载数据的函数
+     * @param expireMillis            有效期毫秒数。
+     * @param nullProtectMillis       空值保护毫秒数
+     * @param reloadIntervalMillis    重载间隔毫秒数
+     * @param reloadMaxTimes          重载次数
+     * @param singleFlightLeaseMillis 集群加载租约毫秒数，0 表示不启用
+     * @param staleExpiredAt          调用方旧值的过期时间戳，必须大于 0
+     * @return 刷新后的缓存值包装对象，加载失败时返回 null
+     */
+    public static <K, V> CacheValueWrapper<V> refreshValueWrapper(String cacheName, K key, CacheDataLoader<K, V> cacheDataLoader, long expireMillis, long nullProtectMillis, long reloadIntervalMillis, int reloadMaxTimes, long singleFlightLeaseMillis, long staleExpiredAt) {
+        return loadValueWrapper(cacheName, key, cacheDataLoader, expireMillis, nullProtectMillis, DEFAULT_FAIL_PROTECT_MILLIS, reloadIntervalMillis, reloadMaxTimes, singleFlightLeaseMillis, staleExpiredAt);
+    }
+
+    /**
+     * 加载缓存值包装对象的实现。
+     *
+     * @param staleExpiredAt 大于 0 时为刷新模式：过期时间不晚于此值的 Redis 数据视为旧值，加载失败返回 null
+     * @return 缓存值包装对象，仅刷新模式加载失败时返回 null
+     */
+    private static <K, V> CacheValueWrapper<V> loadValueWrapper(String cacheName, K key, CacheDataLoader<K, V> cacheDataLoader, long expireMillis, long nullProtectMillis,
+                                                                long failProtectMillis, long reloadIntervalMillis, int reloadMaxTimes, long singleFlightLeaseMillis, long staleExpiredAt) {
         //组成真正的RedisKey
         String redisKey = RedisKeyUtils.buildTypeId(REDIS_PREFIX, cacheName, key);
+        Class<V> valueClass = (Class<V>) KryoUtils.type2Class(cacheDataLoader.getValueType());
+        // 热点 key 优先读取本地微缓存，刷新时跳过，避免读回旧值。
+        HotKeyDetector detector = staleExpiredAt > 0 ? null : HotKeyManager.detector(cacheName);
+        boolean hot = detector != null && detector.record(key);
+        if (hot) {
+            CacheValueWrapper<V> localWrapper = (CacheValueWrapper<V>) detector.getLocal(key);
+            if (localWrapper != null) {
+                CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+                if (metrics != null) {
+                    metrics.recordHotKeyHit();
+                }
+                return localWrapper;
+            }
+        }
         // 从redis中获取value.
+        CacheValueWrapper<V> valueWrapper = readValueWrapper(cacheName, redisKey, key, valueClass, staleExpiredAt);
+        if (valueWrapper != null) {
+            if (hot) {
+                detector.putLocal(key, valueWrapper);
+            }
+            return valueWrapper;
+        }
+
+        if (singleFlightLeaseMillis > 0) {
+            // 集群等待耗时可达数个租约周期，不能持有锁条带等待，否则会阻塞碰撞到同一条带的其他 key。
+            return singleFlightLoad(cacheName, key, redisKey, valueClass, cacheDataLoader, expireMillis, nullProtectMillis, failProtectMillis, reloadIntervalMillis, reloadMaxTimes, singleFlightLeaseMillis, staleExpiredAt);
+        }
+        // 没有则去执行获取方法，使用锁条化替代 String.intern() 避免 Metaspace OOM
+        synchronized (getLock(redisKey)) {
+            // 同一jvm中执行这个会被其他线程加锁阻塞 等待那个线程释放锁后 此线程进来 尝试再去get一下值 apply方法执行正常这里就会可以get到
+            valueWrapper = readValueWrapper(cacheName, redisKey, key, valueClass, staleExpiredAt);
+            if (valueWrapper != null) {
+                return valueWrapper;
+            }
+            return loadAndStore(cacheName, key, redisKey, cacheDataLoader, expireMillis, nullProtectMillis, failProtectMillis, reloadIntervalMillis, reloadMaxTimes, staleExpiredAt > 0);
+        }
+    }
+
+    /**
+     * 唤醒本 JVM 中等待指定 key 集群加载结果的线程。
+     * <p>
+     * 由 {@link uw.cache.listener.GlobalCacheLoadNotifyListener} 在收到加载完成通知时调用。
+     *
+     * @param redisKey 完整的 redisKey
+     */
+    public static void wakeupLoadWaiter(String redisKey) {
+        CompletableFuture<Void> signal = LOAD_WAITERS.remove(redisKey);
+        if (signal != null) {
+            signal.complete(null);
+        }
+    }
+
+    /**
+     * 集群 single-flight 加载。
+     * <p>
+     * 本 JVM 内同一 key 只有一个线程（flight 持有者）参与集群等待，其余线程等待其结果，均不持有锁条带。
+     * 持有者等待满一个租约时长后不直接加载，而是继续抢租约：持有节点宕机时租约随之过期，由一个等待节点接管；
+     * 累计等待满 {@value #SINGLE_FLIGHT_MAX_WAIT_LEASES} 个租约时长仍无结果则本地直接加载。
+     * 本 JVM 其余线程最多多等一个租约时长，仍无结果时自行读取 Redis 或加载。
+     *
+     * @param staleExpiredAt 大于 0 时为刷新模式，见 {@link #refreshValueWrapper}
+     * @return 缓存值包装对象，仅刷新模式加载失败时返回 null
+     */
+    private static <K, V> CacheValueWrapper<V> singleFlightLoad(String cacheName, K key, String redisKey, Class<V> valueClass, CacheDataLoader<K, V> cacheDataLoader,
+                                                                long expireMillis, long nullProtectMillis, long failProtectMillis, long reloadIntervalMillis, int reloadMaxTimes, long leaseMillis,
+                                                                long staleExpiredAt) {
+        CompletableFuture<CacheValueWrapper<?>> flight = new CompletableFuture<>();
+        CompletableFuture<CacheValueWrapper<?>> running = LOCAL_FLIGHTS.putIfAbsent(redisKey, flight);
+        if (running != null) {
+            try {
+                return (CacheValueWrapper<V>) running.get(leaseMillis * (SINGLE_FLIGHT_MAX_WAIT_LEASES + 1), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (TimeoutException | ExecutionException ignored) {
+            }
+            CacheValueWrapper<V> valueWrapper = readValueWrapper(cacheName, redisKey, key, valueClass, staleExpiredAt);
+            if (valueWrapper != null) {
+                return valueWrapper;
+            }
+            logger.warn("GlobalCache single-flight 等待本地加载超时，直接加载! cacheName:{}, key:{}, leaseMillis:{}", cacheName, key, leaseMillis);
+            return loadAndStore(cacheName, key, redisKey, cacheDataLoader, expireMillis, nullProtectMillis, failProtectMillis, reloadIntervalMillis, reloadMaxTimes, staleExpiredAt > 0);
+        }
+        CacheValueWrapper<V> result = null;
+        try {
+            result = clusterLoad(cacheName, key, redisKey, valueClass, cacheDataLoader, expireMillis, nullProtectMillis, failProtectMillis, reloadIntervalMillis, reloadMaxTimes, leaseMillis, staleExpiredAt);
+            return result;
+        } finally {
+            LOCAL_FLIGHTS.remove(redisKey, flight);
+            flight.complete(result);
+        }
+    }
+
+    /**
+     * single-flight 持有者的集群等待与加载。
+     *
+     * @param staleExpiredAt 大于 0 时为刷新模式，见 {@link #refreshValueWrapper}
+     * @return 缓存值包装对象，仅刷新模式加载失败时返回 null
+     */
+    private static <K, V> CacheValueWrapper<V> clusterLoad(String cacheName, K key, String redisKey, Class<V> valueClass, CacheDataLoader<K, V> cacheDataLoader,
+                                                           long expireMillis, long nullProtectMillis, long failProtectMillis, long reloadIntervalMillis, int reloadMaxTimes, long leaseMillis,
+                                                           long staleExpiredAt) {
+        // 先登记等待信号再读取与抢租约，避免抢租约失败到开始等待之间错过唤醒通知。
+        CompletableFuture<Void> signal = LOAD_WAITERS.computeIfAbsent(redisKey, k -> new CompletableFuture<>());
+        try {
+            // 本 JVM 排队期间其他节点可能已写入。
+            CacheValueWrapper<V> valueWrapper = readValueWrapper(cacheName, redisKey, key, valueClass, staleExpiredAt);
+            if (valueWrapper != null) {
+                return valueWrapper;
+            }
+            long now = SystemClock.now();
+            long deadline = now + leaseMillis;
+            long maxWaitAt = now + leaseMillis * SINGLE_FLIGHT_MAX_WAIT_LEASES;
+            boolean retried = false;
+            while (true) {
+                long stamp;
+                try {
+                    stamp = GlobalLocker.tryLock(SINGLE_FLIGHT_LOCKER_TYPE, redisKey, leaseMillis);
+                } catch (Exception e) {
+                    // Redis 租约不可用时退化为 JVM 级加载。
+                    logger.error("GlobalCache single-flight 租约获取失败! cacheName:{}, key:{}, msg:{}", cacheName, key, e.getMessage());
+                    break;
+                }
+                if (stamp > 0) {
+                    try {
+                        // 拿到租约后再确认一次，防止上一个租约持有者刚刚写入。
+                        valueWrapper = readValueWrapper(cacheName, redisKey, key, valueClass, staleExpiredAt);
+                        if (valueWrapper != null) {
+                            return valueWrapper;
+                        }
+                        return loadAndStore(cacheName, key, redisKey, cacheDataLoader, expireMillis, nullProtectMillis, failProtectMillis, reloadIntervalMillis, reloadMaxTimes, staleExpiredAt > 0);
+                    } finally {
+                        try {
+                            GlobalLocker.unlock(SINGLE_FLIGHT_LOCKER_TYPE, redisKey, stamp);
+                            cacheRedisTemplate.convertAndSend(LOAD_NOTIFY_CHANNEL, redisKey.getBytes(StandardCharsets.UTF_8));
+                        } catch (Exception e) {
+                            logger.error(e.getMessage(), e);
+                        }
+                    }
+                }
+                now = SystemClock.now();
+                if (now >= maxWaitAt) {
+                    logger.warn("GlobalCache single-flight 等待超时，本地直接加载! cacheName:{}, key:{}, leaseMillis:{}", cacheName, key, leaseMillis);
+                    break;
+                }
+                if (now >= deadline) {
+                    // 持有节点宕机时租约已到期，立即重新抢租约一次，之后每个租约周期再抢。
+                    deadline = now + leaseMillis;
+                    if (!retried) {
+                        retried = true;
+                        continue;
+                    }
+                }
+                try {
+                    signal.get(Math.min(reloadIntervalMillis, Math.min(deadline, maxWaitAt) - now), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException | ExecutionException ignored) {
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                valueWrapper = readValueWrapper(cacheName, redisKey, key, valueClass, staleExpiredAt);
+                if (valueWrapper != null) {
+                    return valueWrapper;
+                }
+                if (signal.isDone()) {
+                    // 收到通知但仍未读到数据（如持有者写入失败），重新登记后继续抢租约。
+                    signal = LOAD_WAITERS.computeIfAbsent(redisKey, k -> new CompletableFuture<>());
+                }
+            }
+        } finally {
+            LOAD_WAITERS.remove(redisKey, signal);
+        }
+        return loadAndStore(cacheName, key, redisKey, cacheDataLoader, expireMillis, nullProtectMillis, failProtectMillis, reloadIntervalMillis, reloadMaxTimes, staleExpiredAt > 0);
+    }
+
+    /**
+     * 从redis读取并反序列化缓存值包装对象。
+     *
+     * @param staleExpiredAt 大于 0 时，过期时间不晚于此值的数据视为旧值
+     * @return 缓存值包装对象，不存在、读取失败、反序列化失败或为旧值时返回 null
+     */
+    private static <V> CacheValueWrapper<V> readValueWrapper(String cacheName, String redisKey, Object key, Class<V> valueClass, long staleExpiredAt) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        long start = metrics == null ? 0L : System.nanoTime();
         byte[] redisData = null;
         try {
             redisData = opsForValue.get(redisKey);
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
         }
-        CacheValueWrapper<V> valueWrapper = null;
+        if (metrics != null) {
+            boolean hit = redisData != null && redisData.length > 0;
+            metrics.recordRedisRead(System.nanoTime() - start, hit ? 1 : 0, hit ? 0 : 1);
+        }
         //正常数据
         if (redisData != null && redisData.length > 0) {
             try {
-                //正常数据
-                valueWrapper = (CacheValueWrapper<V>) KryoCacheUtils.deserializeValueWrapper(redisData, KryoUtils.type2Class(cacheDataLoader.getValueType()));
+                CacheValueWrapper<V> valueWrapper = KryoCacheUtils.deserializeValueWrapper(cacheName, redisData, valueClass);
+                if (staleExpiredAt > 0 && valueWrapper.getExpiredAt() > 0 && valueWrapper.getExpiredAt() <= staleExpiredAt) {
+                    return null;
+                }
                 return valueWrapper;
             } catch (Throwable e) {
                 logger.error("反序列化失败! key=[{}]", key, e);
             }
         }
+        return null;
+    }
 
-        // 没有则去执行获取方法，使用锁条化替代 String.intern() 避免 Metaspace OOM
-        synchronized (getLock(redisKey)) {
-            // 同一jvm中执行这个会被其他线程加锁阻塞 等待那个线程释放锁后 此线程进来 尝试再去get一下值 apply方法执行正常这里就会可以get到
+    /**
+     * 调用 loader 加载数据（带重试）并写入redis。
+     *
+     * @param nullProtectMillis 空值保护毫秒数，loader 返回 null 时按此缓存空值
+     * @param failProtectMillis 失败保护毫秒数，loader 重试耗尽仍失败时按此缓存空值
+     * @param keepOnFail        loader 彻底失败时是否不写入redis并返回 null，用于后台刷新保留旧值
+     * @return 缓存值包装对象，仅 keepOnFail 且加载失败时返回 null
+     */
+    private static <K, V> CacheValueWrapper<V> loadAndStore(String cacheName, K key, String redisKey, CacheDataLoader<K, V> cacheDataLoader, long expireMillis,
+                                                            long nullProtectMillis, long failProtectMillis, long reloadIntervalMillis, int reloadMaxTimes, boolean keepOnFail) {
+        CacheValueWrapper<V> valueWrapper = null;
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        boolean loaded = false;
+        // 假如还是没有get到值 则就是apply方法执行报错了 可以尝试继续执行 再放入redis
+        V data = null;
+        for (int retryTimes = 0; retryTimes < reloadMaxTimes; retryTimes++) {
+            long start = metrics == null ? 0L : System.nanoTime();
             try {
-                redisData = opsForValue.get(redisKey);
-            } catch (Exception e) {
-                logger.error(e.getMessage(), e);
+                data = cacheDataLoader.load(key);
+                loaded = true;
+                if (metrics != null) {
+                    metrics.recordLoad(System.nanoTime() - start, true);
+                }
+                if (cacheDataLoader.getExpireMillis() > 0L) {
+                    expireMillis = cacheDataLoader.getExpireMillis();
+                }
+                if (data == null) {
+                    expireMillis = nullProtectMillis;
+                }
+                valueWrapper = new CacheValueWrapper<>(data, expireMillis);
+                //正常执行就退出吧。
+                break;
+            } catch (Throwable e) {
+                if (metrics != null) {
+                    metrics.recordLoad(System.nanoTime() - start, false);
+                }
+                logger.error("Global数据加载失败! cacheName:{}, key:{}, retryTimes:{}, msg:{}", cacheName, key, retryTimes, e.getMessage(), e);
+            }
+            try {
+                Thread.sleep(reloadIntervalMillis);
+            } catch (InterruptedException ignored) {
+            }
+        }
+        if (!loaded && keepOnFail) {
+            if (metrics != null) {
+                metrics.recordFailProtect(1);
+            }
+            return null;
+        }
+        // 如果此时还没有得到数值，说明加载彻底失败。
+        if (data == null) {
+            expireMillis = loaded ? nullProtectMillis : failProtectMillis;
+            valueWrapper = new CacheValueWrapper<>(data, expireMillis);
+            if (metrics != null) {
+                if (loaded) {
+                    metrics.recordNullProtect(1);
+                } else {
+                    metrics.recordFailProtect(1);
+                }
             }
+        }
+        //序列化写库。
+        byte[] redisData = KryoCacheUtils.serializeValueWrapper(cacheName, valueWrapper);
+        try {
+            long ttl = normalizeTtlMillis(expireMillis);
+            long start = metrics == null ? 0L : System.nanoTime();
+            markSelfWrite(cacheName, redisKey, redisData);
+            if (ttl == 0) {
+                opsForValue.set(redisKey, redisData);
+            } else {
+                opsForValue.set(redisKey, redisData, ttl, TimeUnit.MILLISECONDS);
+            }
+            if (metrics != null) {
+                metrics.recordRedisWrite(System.nanoTime() - start);
+            }
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+        return valueWrapper;
+    }
+
+    /**
+     * 批量从redis中获取缓存值包装对象，未命中的部分通过 {@link CacheDataLoader#loadAll} 批量加载。
+     * <p>
+     * 流程：一次 MGET 取出全部 key，剩余未命中的 key 交给 {@link CacheDataLoader#loadAll} 一次性加载，
+     * 结果在一个 pipeline 中写回 Redis。loader 返回缺失的 key 按 nullProtectMillis 缓存空值，
+     * 重试耗尽仍失败的整批按 failProtectMillis 缓存空值，与单 key 的 {@link #loadValueWrapper} 使用同一对保护时长。
+     * <p>
+     * 注意：批量路径不使用 JVM 锁条带（多把锁顺序加锁存在死锁风险），同一 JVM 内并发批量加载同一批 key 时可能重复回源。
+     *
+     * @param cacheName            缓存名
+     * @param keys                 主键集合
+     * @param cacheDataLoader      加载数据的函数
+     * @param expireMillis         有效期毫秒数。
+     * @param nullProtectMillis    空值保护毫秒数
+     * @param failProtectMillis    失败保护毫秒数
+     * @param reloadIntervalMillis 重载间隔毫秒数
+     * @param reloadMaxTimes       重载次数
+     * @return key -> 缓存值包装对象，每个 key 都有对应的 wrapper（加载失败时为保护期空值 wrapper）
+     */
+    public static <K, V> Map<K, CacheValueWrapper<V>> loadValueWrappers(String cacheName, Collection<? extends K> keys, CacheDataLoader<K, V> cacheDataLoader, long expireMillis, long nullProtectMillis, long failProtectMillis, long reloadIntervalMillis, int reloadMaxTimes) {
+        Map<K, CacheValueWrapper<V>> wrapperMap = new LinkedHashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return wrapperMap;
+        }
+        List<K> keyList = new ArrayList<>(keys);
+        List<byte[]> redisDataList = null;
+        try {
+            redisDataList = multiGet(cacheName, keyList);
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+        Class<V> valueClass = (Class<V>) KryoUtils.type2Class(cacheDataLoader.getValueType());
+        Set<K> missKeys = new LinkedHashSet<>();
+        for (int i = 0; i < keyList.size(); i++) {
+            K key = keyList.get(i);
+            byte[] redisData = redisDataList == null ? null : redisDataList.get(i);
             if (redisData != null && redisData.length > 0) {
                 try {
-                    //正常数据
-                    valueWrapper = (CacheValueWrapper<V>) KryoCacheUtils.deserializeValueWrapper(redisData, KryoUtils.type2Class(cacheDataLoader.getValueType()));
-                    return valueWrapper;
+                    wrapperMap.put(key, KryoCacheUtils.deserializeValueWrapper(cacheName, redisData, valueClass));
+                    continue;
                 } catch (Throwable e) {
                     logger.error("反序列化失败! key=[{}]", key, e);
                 }
             }
-            // 假如还是没有get到值 则就是apply方法执行报错了 可以尝试继续执行 再放入redis
-            V data = null;
-            for (int retryTimes = 0; retryTimes < reloadMaxTimes; retryTimes++) {
-                try {
-                    data = cacheDataLoader.load(key);
-                    if (cacheDataLoader.getExpireMillis() > 0L) {
-                        expireMillis = cacheDataLoader.getExpireMillis();
-                    }
-                    if (data == null) {
-                        expireMillis = DEFAULT_NULL_PROTECT_MILLIS;
-                    }
-                    valueWrapper = new CacheValueWrapper<>(data, expireMillis);
-                    //正常执行就退出吧。
-                    break;
-                } catch (Throwable e) {
-                    logger.error("Global数据加载失败! cacheName:{}, key:{}, retryTimes:{}, msg:{}", cacheName, key, retryTimes, e.getMessage(), e);
+            missKeys.add(key);
+        }
+        if (missKeys.isEmpty()) {
+            return wrapperMap;
+        }
+        // 批量加载未命中的数据。
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        Map<K, V> dataMap = null;
+        for (int retryTimes = 0; retryTimes < reloadMaxTimes; retryTimes++) {
+            long start = metrics == null ? 0L : System.nanoTime();
+            try {
+                dataMap = cacheDataLoader.loadAll(missKeys);
+                if (metrics != null) {
+                    metrics.recordLoad(System.nanoTime() - start, true);
                 }
-                try {
-                    Thread.sleep(reloadIntervalMillis);
-                } catch (InterruptedException ignored) {
+                //正常执行就退出吧。
+                break;
+            } catch (Throwable e) {
+                if (metrics != null) {
+                    metrics.recordLoad(System.nanoTime() - start, false);
                 }
+                logger.error("Global数据批量加载失败! cacheName:{}, keys:{}, retryTimes:{}, msg:{}", cacheName, missKeys.size(), retryTimes, e.getMessage(), e);
             }
-            // 如果此时还没有得到数值，说明加载彻底失败。
-            if (data == null) {
-                expireMillis = DEFAULT_NULL_PROTECT_MILLIS;
-                valueWrapper = new CacheValueWrapper<>(data, expireMillis);
-            }
-            //序列化写库。
-            redisData = KryoCacheUtils.serializeValueWrapper(valueWrapper);
             try {
-                long ttl = normalizeTtlMillis(expireMillis);
-                if (ttl == 0) {
-                    opsForValue.set(redisKey, redisData);
-                } else {
-                    opsForValue.set(redisKey, redisData, ttl, TimeUnit.MILLISECONDS);
+                Thread.sleep(reloadIntervalMillis);
+            } catch (InterruptedException ignored) {
+            }
+        }
+        if (cacheDataLoader.getExpireMillis() > 0L) {
+            expireMillis = cacheDataLoader.getExpireMillis();
+        }
+        List<String> redisKeys = new ArrayList<>(missKeys.size());
+        List<byte[]> redisDatas = new ArrayList<>(missKeys.size());
+        List<Long> ttls = new ArrayList<>(missKeys.size());
+        for (K key : missKeys) {
+            V data = dataMap == null ? null : dataMap.get(key);
+            long ttl;
+            if (dataMap == null) {
+                // 加载彻底失败。
+                ttl = normalizeTtlMillis(failProtectMillis);
+                if (metrics != null) {
+                    metrics.recordFailProtect(1);
                 }
-            } catch (Exception e) {
-                logger.error(e.getMessage(), e);
+            } else if (data == null) {
+                ttl = normalizeTtlMillis(nullProtectMillis);
+                if (metrics != null) {
+                    metrics.recordNullProtect(1);
+                }
+            } else {
+                ttl = normalizeTtlMillis(expireMillis);
             }
+            CacheValueWrapper<V> valueWrapper = new CacheValueWrapper<>(data, ttl);
+            wrapperMap.put(key, valueWrapper);
+            redisKeys.add(RedisKeyUtils.buildTypeId(REDIS_PREFIX, cacheName, key));
+            redisDatas.add(KryoCacheUtils.serializeValueWrapper(cacheName, valueWrapper));
+            ttls.add(ttl);
         }
-
-        return valueWrapper;
+        //序列化写库。
+        try {
+            pipelineSet(cacheName, redisKeys, redisDatas, ttls);
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+        return wrapperMap;
     }
 
     /**
@@ -450,6 +1167,23 @@ public class GlobalCache {
      * @return true 表示删除成功
      */
     public static boolean invalidate(String cacheName, Object key) {
+        return invalidate(cacheName, key, true);
+    }
+
+    /**
+     * 删除缓存中的数据。
+     *
+     * @param cacheName    缓存名
+     * @param key          缓存主键，null则全部清除
+     * @param notifyHotKey 是否通知其他实例清除热点 key 本地微缓存，已有其他失效通知渠道（如 FusionCache）时传 false
+     * @return true 表示删除成功
+     */
+    public static boolean invalidate(String cacheName, Object key, boolean notifyHotKey) {
+        if (notifyHotKey) {
+            HotKeyManager.invalidate(cacheName, key);
+        } else {
+            HotKeyManager.invalidateLocal(cacheName, key);
+        }
         //如果key是null，则清除全部。
         if (key == null) {
             cacheRedisTemplate.delete(keys(cacheName, null));
@@ -460,6 +1194,26 @@ public class GlobalCache {
         }
     }
 
+    /**
+     * 批量删除缓存中的数据（一次 DEL 多个 key）。
+     *
+     * @param cacheName 缓存名
+     * @param keys      缓存主键集合
+     * @return 实际删除的数量
+     */
+    public static long invalidateAll(String cacheName, Collection<?> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0L;
+        }
+        List<String> redisKeys = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            redisKeys.add(RedisKeyUtils.buildTypeId(REDIS_PREFIX, cacheName, key));
+            HotKeyManager.invalidate(cacheName, key);
+        }
+        Long ret = cacheRedisTemplate.delete(redisKeys);
+        return ret == null ? 0L : ret;
+    }
+
     /**
      * 删除缓存中指定前缀的Key。
      *
@@ -479,10 +1233,107 @@ public class GlobalCache {
      * @return true 表示删除成功
      */
     public static boolean invalidatePrefix(String cacheName, String keyPrefix) {
+        HotKeyManager.invalidate(cacheName, null);
         cacheRedisTemplate.delete(keys(cacheName, keyPrefix));
         return true;
     }
 
+    /**
+     * 按标签删除缓存中的数据。
+     *
+     * @param entityClass 缓存对象类(主要用于构造cacheName)
+     * @param tag         标签
+     * @return 被删除的缓存主键列表
+     */
+    public static List<Object> invalidateByTag(Class<?> entityClass, String tag) {
+        return invalidateByTag(entityClass.getSimpleName(), tag);
+    }
+
+    /**
+     * 按标签删除缓存中的数据。
+     * <p>
+     * 只读取该 tag 对应的集合，不扫描keyspace：先用Lua脚本将 tag 集合原子地 RENAME 为临时key（之后新登记的数据进入新集合，不会丢失；
+     * 并发失效同一 tag 时只有一方拿到集合），
+     * 再用 SSCAN 逐批读出成员，每满 {@value #TAG_INVALIDATE_BATCH_SIZE} 个即执行一次多key DEL，不在内存中攒下整个集合，最后删除临时集合。
+     * 反序列化失败的成员无法还原 redisKey，只记录错误日志（含成员的 Base64），对应数据等待 TTL 过期。
+     * 本方法只处理redis，集群本地缓存的失效通知由 {@link FusionCache#invalidateByTag} 负责。
+     *
+     * @param cacheName 缓存名
+     * @param tag       标签
+     * @return 被删除的缓存主键列表
+     */
+    public static List<Object> invalidateByTag(String cacheName, String tag) {
+        String tagKey = RedisKeyUtils.buildTypeId(TAG_REDIS_PREFIX, cacheName, tag);
+        String workKey = tagKey + RedisKeyUtils.KEY_SPLITTER + SnowflakeIdGenerator.getInstance().generateId();
+        byte[] rawTagKey = tagKey.getBytes(StandardCharsets.UTF_8);
+        byte[] rawWorkKey = workKey.getBytes(StandardCharsets.UTF_8);
+        byte[] ttlArg = String.valueOf(TAG_WORK_KEY_TTL_MILLIS).getBytes(StandardCharsets.UTF_8);
+        Long renamed = cacheRedisTemplate.execute((RedisCallback<Long>) connection -> {
+            try {
+                return connection.scriptingCommands().evalSha(TAG_RENAME_SCRIPT.getSha1(), ReturnType.INTEGER, 2, rawTagKey, rawWorkKey, ttlArg);
+            } catch (RuntimeException e) {
+                if (!isNoScriptError(e)) {
+                    throw e;
+                }
+                return connection.scriptingCommands().eval(TAG_RENAME_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8),
+                        ReturnType.INTEGER, 2, rawTagKey, rawWorkKey, ttlArg);
+            }
+        });
+        if (renamed == null || renamed == 0L) {
+            return new ArrayList<>();
+        }
+        List<Object> keys = new ArrayList<>();
+        // 每个 SSCAN 批次反序列化后立即删除，不把整个集合的成员和 redisKey 攒在内存里。
+        cacheRedisTemplate.execute((RedisCallback<Object>) connection -> {
+            List<byte[]> redisKeys = new ArrayList<>(TAG_INVALIDATE_BATCH_SIZE);
+            try (Cursor<byte[]> cursor = connection.setCommands().sScan(rawWorkKey, ScanOptions.scanOptions().count(TAG_INVALIDATE_BATCH_SIZE).build())) {
+                while (cursor.hasNext()) {
+                    byte[] member = cursor.next();
+                    try {
+                        Object key = KryoUtils.deserializeWithClass(member);
+                        keys.add(key);
+                        HotKeyManager.invalidate(cacheName, key);
+                        redisKeys.add(RedisKeyUtils.buildTypeId(REDIS_PREFIX, cacheName, key).getBytes(StandardCharsets.UTF_8));
+                    } catch (Throwable e) {
+                        logger.error("tag成员反序列化失败，对应的缓存数据未删除! tag=[{}], member=[{}]", tagKey, Base64.getEncoder().encodeToString(member), e);
+                    }
+                    if (redisKeys.size() >= TAG_INVALIDATE_BATCH_SIZE) {
+                        connection.keyCommands().del(redisKeys.toArray(new byte[0][]));
+                        redisKeys.clear();
+                    }
+                }
+            }
+            if (!redisKeys.isEmpty()) {
+                connection.keyCommands().del(redisKeys.toArray(new byte[0][]));
+            }
+            connection.keyCommands().del(rawWorkKey);
+            return null;
+        });
+        return keys;
+    }
+
+    /**
+     * 判断异常是否为脚本未缓存（NOSCRIPT）错误，pipeline 异常会检查其中每条命令的结果。
+     *
+     * @param e 异常
+     * @return 是否为 NOSCRIPT 错误
+     */
+    private static boolean isNoScriptError(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+            if (t instanceof RedisPipelineException pipelineException) {
+                for (Object result : pipelineException.getPipelineResult()) {
+                    if (result instanceof Throwable resultError && isNoScriptError(resultError)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * 加jvm锁从redis中获取缓存值。
      * 获取不到时加jvm锁去执行函数获取。
@@ -512,7 +1363,29 @@ public class GlobalCache {
      * @return 缓存值，加载彻底失败返回 null
      */
     public static <K, V> V get(String cacheName, K key, CacheDataLoader<K, V> cacheDataLoader, long expireMillis, long failProtectMillis) {
-        return get(cacheName, key, cacheDataLoader, expireMillis, failProtectMillis, DEFAULT_NULL_PROTECT_MILLIS, DEFAULT_RELOAD_INTERVAL_MILLIS, DEFAULT_RELOAD_MAX_TIMES);
+        return get(cacheName, key, cacheDataLoader, expireMillis, DEFAULT_NULL_PROTECT_MILLIS, failProtectMillis, DEFAULT_RELOAD_INTERVAL_MILLIS, DEFAULT_RELOAD_MAX_TIMES);
+    }
+
+    /**
+     * 获取当前 top-K 热点 key。
+     *
+     * @param entityClass 缓存对象类(主要用于构造cacheName)
+     * @param topK        数量
+     * @return 热点 key 列表，按估算频率降序，未开启热点探测时为空
+     */
+    public static List<HotKeyDetector.HotKey> getHotKeys(Class<?> entityClass, int topK) {
+        return getHotKeys(entityClass.getSimpleName(), topK);
+    }
+
+    /**
+     * 获取当前 top-K 热点 key。
+     *
+     * @param cacheName 缓存名
+     * @param topK      数量
+     * @return 热点 key 列表，按估算频率降序，未开启热点探测时为空
+     */
+    public static List<HotKeyDetector.HotKey> getHotKeys(String cacheName, int topK) {
+        return HotKeyManager.getHotKeys(cacheName, topK);
     }
 
     /**
@@ -561,6 +1434,88 @@ public class GlobalCache {
         return keys;
     }
 
+    /**
+     * 批量读取 Redis 原始数据（MGET）。
+     *
+     * @param cacheName 缓存名
+     * @param keyList   主键列表
+     * @return 与 keyList 顺序一致的原始数据列表，不存在的位置为 null
+     */
+    private static List<byte[]> multiGet(String cacheName, List<?> keyList) {
+        List<String> redisKeys = new ArrayList<>(keyList.size());
+        for (Object key : keyList) {
+            redisKeys.add(RedisKeyUtils.buildTypeId(REDIS_PREFIX, cacheName, key));
+        }
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        long start = metrics == null ? 0L : System.nanoTime();
+        List<byte[]> redisDataList = opsForValue.multiGet(redisKeys);
+        if (redisDataList == null || redisDataList.size() != redisKeys.size()) {
+            // pipeline/事务模式下 multiGet 可能返回 null，按全部未命中处理。
+            redisDataList = Arrays.asList(new byte[redisKeys.size()][]);
+        }
+        if (metrics != null) {
+            int hits = 0;
+            for (byte[] redisData : redisDataList) {
+                if (redisData != null && redisData.length > 0) {
+                    hits++;
+                }
+            }
+            metrics.recordRedisRead(System.nanoTime() - start, hits, redisDataList.size() - hits);
+        }
+        return redisDataList;
+    }
+
+    /**
+     * 开启 redis 客户端缓存失效推送时，写入前登记本节点写入的 key 与值，用于识别其回声推送。
+     *
+     * @param cacheName 缓存名
+     * @param redisKey  redisKey
+     * @param redisData 写入的值
+     */
+    private static void markSelfWrite(String cacheName, String redisKey, byte[] redisData) {
+        FusionCacheTrackingInvalidator trackingInvalidator = FusionCacheTrackingInvalidator.getInstance();
+        if (trackingInvalidator != null) {
+            trackingInvalidator.markSelfWrite(cacheName, redisKey, redisData);
+        }
+    }
+
+    /**
+     * 在一个 pipeline 中批量写入带 TTL 的数据。
+     * <p>
+     * MSET 不支持 TTL，因此按条发送 SET PX，但合并为一次网络往返。
+     *
+     * @param cacheName  缓存名
+     * @param redisKeys  redisKey列表
+     * @param redisDatas 序列化数据列表
+     * @param ttls       归一化后的 TTL 毫秒数列表，0 表示永久
+     */
+    private static void pipelineSet(String cacheName, List<String> redisKeys, List<byte[]> redisDatas, List<Long> ttls) {
+        if (redisKeys.isEmpty()) {
+            return;
+        }
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        long start = metrics == null ? 0L : System.nanoTime();
+        for (int i = 0; i < redisKeys.size(); i++) {
+            markSelfWrite(cacheName, redisKeys.get(i), redisDatas.get(i));
+        }
+        cacheRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisStringCommands stringCommands = connection.stringCommands();
+            for (int i = 0; i < redisKeys.size(); i++) {
+                byte[] rawKey = redisKeys.get(i).getBytes(StandardCharsets.UTF_8);
+                long ttl = ttls.get(i);
+                if (ttl == 0) {
+                    stringCommands.set(rawKey, redisDatas.get(i));
+                } else {
+                    stringCommands.set(rawKey, redisDatas.get(i), Expiration.milliseconds(ttl), RedisStringCommands.SetOption.upsert());
+                }
+            }
+            return null;
+        });
+        if (metrics != null) {
+            metrics.recordRedisWrite(System.nanoTime() - start);
+        }
+    }
+
     /**
      * 归一化TTL毫秒数。
      * <p>
@@ -3,12 +3,16 @@ package uw.cache;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
 import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
 import uw.cache.util.RedisKeyUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -66,6 +70,36 @@ public class GlobalCounter {
         return count != null ? count : -1;
     }
 
+    /**
+     * 批量增加计数。
+     * <p>
+     * 所有 INCRBY 命令在一个 pipeline 中发送，N 个计数器只需一次网络往返。三个列表按下标一一对应。
+     *
+     * @param counterTypes  计数器类型列表
+     * @param counterIds    计数器ID列表
+     * @param incrementNums 增加的计数列表
+     * @return 与入参顺序一致的计数数值，单条命令失败（增量未写入）的位置为 null
+     */
+    public static Long[] incrementAll(List<String> counterTypes, List<?> counterIds, List<Long> incrementNums) {
+        Long[] results = new Long[counterTypes.size()];
+        if (results.length == 0) {
+            return results;
+        }
+        List<Object> retList = longCacheRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisStringCommands stringCommands = connection.stringCommands();
+            for (int i = 0; i < counterTypes.size(); i++) {
+                byte[] rawKey = RedisKeyUtils.buildTypeId(REDIS_PREFIX, counterTypes.get(i), counterIds.get(i)).getBytes(StandardCharsets.UTF_8);
+                stringCommands.incrBy(rawKey, incrementNums.get(i));
+            }
+            return null;
+        });
+        for (int i = 0; i < results.length; i++) {
+            Object ret = i < retList.size() ? retList.get(i) : null;
+            results[i] = ret instanceof Number ? ((Number) ret).longValue() : null;
+        }
+        return results;
+    }
+
     /**
      * 减少计数。
      *
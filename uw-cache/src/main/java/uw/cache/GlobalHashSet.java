@@ -4,14 +4,20 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
 import uw.common.util.KryoUtils;
+import uw.cache.util.RedisBatchUtils;
 import uw.cache.util.RedisKeyUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * 基于 Redis Set 实现的全局集合。
@@ -28,6 +34,11 @@ public class GlobalHashSet {
      */
     private static final String REDIS_PREFIX = "uw-set:";
 
+    /**
+     * 默认每批数量：SSCAN 的 COUNT，以及批量写入/判断时每条命令携带的元素数。
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
     /**
      * redis操作模板。
      */
@@ -56,6 +67,40 @@ public class GlobalHashSet {
         return Boolean.TRUE.equals(dataCacheRedisTemplate.opsForSet().add(REDIS_PREFIX + setName, KryoUtils.serialize(item)));
     }
 
+    /**
+     * 向集合中批量添加对象，按 {@link #DEFAULT_BATCH_SIZE} 分批 SADD 并以 pipeline 发送。
+     *
+     * @param setName Set名。
+     * @param items   元素集合，null 元素跳过。
+     * @return 新增数量，参数非法返回 -1
+     */
+    public static long addAll(String setName, Collection<?> items) {
+        return addAll(setName, items, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 向集合中批量添加对象，按 batchSize 分批 SADD 并以 pipeline 发送。
+     *
+     * @param setName   Set名。
+     * @param items     元素集合，null 元素跳过。
+     * @param batchSize 每条 SADD 携带的元素数
+     * @return 新增数量，参数非法返回 -1
+     */
+    public static long addAll(String setName, Collection<?> items, int batchSize) {
+        if (setName == null || items == null) {
+            return -1L;
+        }
+        byte[] rawKey = (REDIS_PREFIX + setName).getBytes(StandardCharsets.UTF_8);
+        List<byte[][]> batches = RedisBatchUtils.serializeBatches(items, batchSize);
+        List<Object> results = dataCacheRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[][] batch : batches) {
+                connection.setCommands().sAdd(rawKey, batch);
+            }
+            return null;
+        });
+        return RedisBatchUtils.sumResults(results);
+    }
+
     /**
      * 获取集合大小。
      *
@@ -93,6 +138,40 @@ public class GlobalHashSet {
         }
     }
 
+    /**
+     * 从集合中批量移除对象，按 {@link #DEFAULT_BATCH_SIZE} 分批 SREM 并以 pipeline 发送。
+     *
+     * @param setName Set名。
+     * @param items   元素集合，null 元素跳过。
+     * @return 删除数量，参数非法返回 -1
+     */
+    public static long removeAll(String setName, Collection<?> items) {
+        return removeAll(setName, items, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 从集合中批量移除对象，按 batchSize 分批 SREM 并以 pipeline 发送。
+     *
+     * @param setName   Set名。
+     * @param items     元素集合，null 元素跳过。
+     * @param batchSize 每条 SREM 携带的元素数
+     * @return 删除数量，参数非法返回 -1
+     */
+    public static long removeAll(String setName, Collection<?> items, int batchSize) {
+        if (setName == null || items == null) {
+            return -1L;
+        }
+        byte[] rawKey = (REDIS_PREFIX + setName).getBytes(StandardCharsets.UTF_8);
+        List<byte[][]> batches = RedisBatchUtils.serializeBatches(items, batchSize);
+        List<Object> results = dataCacheRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[][] batch : batches) {
+                connection.setCommands().sRem(rawKey, batch);
+            }
+            return null;
+        });
+        return RedisBatchUtils.sumResults(results);
+    }
+
     /**
      * 判断集合中是否包含指定对象。
      *
@@ -107,6 +186,54 @@ public class GlobalHashSet {
         return Boolean.TRUE.equals(dataCacheRedisTemplate.opsForSet().isMember(REDIS_PREFIX + setName, KryoUtils.serialize(item)));
     }
 
+    /**
+     * 批量判断集合中是否包含指定对象，使用 SMISMEMBER（redis 6.2+），按 {@link #DEFAULT_BATCH_SIZE} 分批以 pipeline 发送。
+     *
+     * @param setName Set名。
+     * @param items   元素集合
+     * @return 与 items 迭代顺序一一对应的判断结果，null 元素为 false；setName 为 null 时全部为 false
+     */
+    public static boolean[] containsAll(String setName, Collection<?> items) {
+        return containsAll(setName, items, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 批量判断集合中是否包含指定对象，使用 SMISMEMBER（redis 6.2+），按 batchSize 分批以 pipeline 发送。
+     *
+     * @param setName   Set名。
+     * @param items     元素集合
+     * @param batchSize 每条 SMISMEMBER 携带的元素数
+     * @return 与 items 迭代顺序一一对应的判断结果，null 元素为 false；setName 为 null 时全部为 false
+     */
+    public static boolean[] containsAll(String setName, Collection<?> items, int batchSize) {
+        if (items == null) {
+            return new boolean[0];
+        }
+        boolean[] ret = new boolean[items.size()];
+        if (setName == null) {
+            return ret;
+        }
+        byte[] rawKey = (REDIS_PREFIX + setName).getBytes(StandardCharsets.UTF_8);
+        // 记录非 null 元素在结果中的下标。
+        int[] positions = new int[items.size()];
+        List<byte[][]> batches = RedisBatchUtils.serializeBatches(items, batchSize, positions);
+        List<Object> results = dataCacheRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[][] batch : batches) {
+                connection.setCommands().sMIsMember(rawKey, batch);
+            }
+            return null;
+        });
+        int index = 0;
+        for (Object result : results) {
+            if (result instanceof List<?> list) {
+                for (Object member : list) {
+                    ret[positions[index++]] = Boolean.TRUE.equals(member);
+                }
+            }
+        }
+        return ret;
+    }
+
     /**
      * 随机获取一个元素（不删除）。
      *
@@ -224,6 +351,43 @@ public class GlobalHashSet {
         return dataSet;
     }
 
+    /**
+     * 以 SSCAN 分批遍历集合，每批 {@link #DEFAULT_BATCH_SIZE} 个，不会一次加载全部元素。
+     *
+     * @param setName   Set名。
+     * @param itemClazz 元素类型
+     * @return 元素流，使用完毕必须关闭（建议 try-with-resources），setName 为 null 时返回空流
+     */
+    public static <T> Stream<T> stream(String setName, Class<T> itemClazz) {
+        return stream(setName, itemClazz, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 以 SSCAN 分批遍历集合，不会一次加载全部元素。
+     * <p>
+     * 遍历期间集合发生变化时，SSCAN 可能返回重复元素，也可能遗漏遍历期间新增/删除的元素。
+     *
+     * @param setName   Set名。
+     * @param itemClazz 元素类型
+     * @param batchSize 每批 SSCAN 的 COUNT
+     * @return 元素流，使用完毕必须关闭（建议 try-with-resources），setName 为 null 时返回空流
+     */
+    public static <T> Stream<T> stream(String setName, Class<T> itemClazz, int batchSize) {
+        if (setName == null) {
+            return Stream.empty();
+        }
+        Cursor<byte[]> cursor = dataCacheRedisTemplate.opsForSet().scan(REDIS_PREFIX + setName, ScanOptions.scanOptions().count(Math.max(1, batchSize)).build());
+        return cursor.stream().map(item -> {
+            try {
+                return KryoUtils.deserialize(item, itemClazz);
+            } catch (Exception e) {
+                log.warn("!!![{}] GlobalHashSet.stream deserialize failed, skipped (setName={}, len={}): {}",
+                        REDIS_PREFIX, setName, item.length, e.toString());
+                return null;
+            }
+        }).filter(Objects::nonNull);
+    }
+
     /**
      * 删除整个 Set。
      *
@@ -4,17 +4,30 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
+import uw.cache.metrics.CacheMetrics;
+import uw.cache.metrics.CacheMetricsRegistry;
 import uw.cache.util.RedisKeyUtils;
 import uw.common.util.SnowflakeIdGenerator;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 基于 Redis 实现的全局锁。
@@ -23,7 +36,11 @@ import java.util.concurrent.TimeUnit;
  * {@link #unlock} / {@link #keepLock} 通过 Lua CAS 脚本保证原子性，避免锁过期被抢占后误删他人锁。
  * <p>
  * 关键约束：业务执行时间不可超过 {@code lockTimeMillis}，否则锁自动释放、其他实例可抢占；
- * 长任务需周期性调用 {@link #keepLock} 续期。
+ * 长任务需周期性调用 {@link #keepLock} 续期，或使用带 watchdog 的 {@link #lock(String, Object, long, long, boolean)} 由后台自动续期。
+ * <p>
+ * 阻塞加锁 {@link #lock} 的等待线程在本 JVM 内按公平锁排队（FIFO），只有队首线程访问 Redis；
+ * 队首线程加锁失败后按锁剩余 TTL 挂起，持有者 {@link #unlock} 时通过 Pub/Sub 通道 {@link #UNLOCK_NOTIFY_CHANNEL} 唤醒，
+ * 避免轮询重试浪费 Redis QPS。
  */
 public class GlobalLocker {
 
@@ -34,15 +51,52 @@ public class GlobalLocker {
      */
     private static final String REDIS_PREFIX = "uw-locker:";
 
+    /**
+     * 解锁通知channel，消息体为 UTF-8 编码的 redisKey。
+     */
+    public static final String UNLOCK_NOTIFY_CHANNEL = "UW_LOCKER_UNLOCK_CHANNEL";
+
+    /**
+     * 阻塞加锁Lua脚本。
+     * <p>
+     * 加锁成功返回 0；失败返回锁的剩余毫秒数（至少为 1），供等待线程确定最长挂起时间。
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return 0 end " +
+                    "local ttl = redis.call('pttl', KEYS[1]) if ttl < 1 then return 1 end return ttl",
+            Long.class);
+
+    /**
+     * 队首等待线程挂起的最长时间，防止丢失解锁通知时长时间等待。
+     */
+    private static final long MAX_PARK_MILLIS = 1000L;
+
+    /**
+     * 本 JVM 内按 redisKey 排队的等待队列。
+     */
+    private static final ConcurrentMap<String, LockQueue> LOCK_QUEUES = new ConcurrentHashMap<>();
+
+    /**
+     * watchdog 续期任务，key 为 redisKey:stamp。
+     */
+    private static final ConcurrentMap<String, ScheduledFuture<?>> WATCHDOG_TASKS = new ConcurrentHashMap<>();
+
+    /**
+     * watchdog 续期线程。
+     */
+    private static final ScheduledExecutorService watchdogScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("uw-locker-watchdog").daemon(true).factory());
+
     /**
      * CAS解锁Lua脚本。
      * <p>
      * 旧的 unlock 实现先 get 再 delete，两步非原子：当持锁者的锁恰好过期、且被其他实例抢占后，
      * 原 holder 的 delete 可能误删新 holder 的锁。使用 Lua 脚本保证 "比较 stamp 匹配后再删除" 的原子性。
+     * 删除成功后在同一脚本内向 ARGV[2] 通道 PUBLISH redisKey，唤醒各实例中阻塞等待该锁的线程。
      * 返回 1 表示解锁成功，0 表示 stamp 不匹配或锁已不存在。
      */
     private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
-            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            "if redis.call('get', KEYS[1]) == ARGV[1] then local ret = redis.call('del', KEYS[1]) " +
+                    "redis.call('publish', ARGV[2], KEYS[1]) return ret else return 0 end",
             Long.class);
 
     /**
@@ -97,14 +151,146 @@ public class GlobalLocker {
         // 使用 SnowflakeId 作为 stamp，避免跨 JVM 使用 System.nanoTime() 可能出现的重复值，
         // 保证不同实例、不同持锁时刻的 stamp 全局唯一，CAS 解锁时不会误判。
         long stamp = SnowflakeIdGenerator.getInstance().generateId();
-        if (Boolean.TRUE.equals(longCacheRedisTemplate.opsForValue().setIfAbsent(RedisKeyUtils.buildTypeId(REDIS_PREFIX, lockerType, lockerId), stamp, lockTimeMillis,
-                TimeUnit.MILLISECONDS))) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(CacheMetricsRegistry.GLOBAL_LOCKER);
+        long start = metrics == null ? 0L : System.nanoTime();
+        Boolean locked = longCacheRedisTemplate.opsForValue().setIfAbsent(RedisKeyUtils.buildTypeId(REDIS_PREFIX, lockerType, lockerId), stamp, lockTimeMillis,
+                TimeUnit.MILLISECONDS);
+        if (metrics != null) {
+            metrics.recordRedisWrite(System.nanoTime() - start);
+        }
+        if (Boolean.TRUE.equals(locked)) {
             return stamp;
         } else {
             return 0;
         }
     }
 
+    /**
+     * 阻塞加锁，等待至多 waitMillis 毫秒。
+     *
+     * @param entityType  entity类型(主要用于构造lockerType)。
+     * @param lockerId    锁id。
+     * @param leaseMillis 锁住时间: 单位为毫秒,根据实际情况置锁,防止死锁
+     * @param waitMillis  最长等待毫秒数，<=0 时等同于 tryLock
+     * @return stamp，>0 表示加锁成功（返回值即为解锁凭证），0 表示等待超时或被中断
+     */
+    public static long lock(Class<?> entityType, Object lockerId, long leaseMillis, long waitMillis) {
+        return lock(entityType.getSimpleName(), lockerId, leaseMillis, waitMillis, false);
+    }
+
+    /**
+     * 阻塞加锁，等待至多 waitMillis 毫秒。
+     *
+     * @param lockerType  锁类型，一般可以是类名。
+     * @param lockerId    锁id。
+     * @param leaseMillis 锁住时间: 单位为毫秒,根据实际情况置锁,防止死锁
+     * @param waitMillis  最长等待毫秒数，<=0 时等同于 tryLock
+     * @return stamp，>0 表示加锁成功（返回值即为解锁凭证），0 表示等待超时或被中断
+     */
+    public static long lock(String lockerType, Object lockerId, long leaseMillis, long waitMillis) {
+        return lock(lockerType, lockerId, leaseMillis, waitMillis, false);
+    }
+
+    /**
+     * 阻塞加锁，等待至多 waitMillis 毫秒。
+     *
+     * @param entityType  entity类型(主要用于构造lockerType)。
+     * @param lockerId    锁id。
+     * @param leaseMillis 锁住时间: 单位为毫秒,根据实际情况置锁,防止死锁
+     * @param waitMillis  最长等待毫秒数，<=0 时等同于 tryLock
+     * @param watchdog    是否在后台每 leaseMillis/3 自动续期，直到 unlock
+     * @return stamp，>0 表示加锁成功（返回值即为解锁凭证），0 表示等待超时或被中断
+     */
+    public static long lock(Class<?> entityType, Object lockerId, long leaseMillis, long waitMillis, boolean watchdog) {
+        return lock(entityType.getSimpleName(), lockerId, leaseMillis, waitMillis, watchdog);
+    }
+
+    /**
+     * 阻塞加锁，等待至多 waitMillis 毫秒。
+     * <p>
+     * 本 JVM 内的等待线程按到达顺序排队，只有队首线程访问 Redis：加锁失败后按锁的剩余 TTL（至多 1 秒）挂起，
+     * 收到解锁通知或 TTL 到期后立即重试。开启 watchdog 时，后台按 leaseMillis/3 间隔用 CAS 脚本续期，
+     * 直到 {@link #unlock} 或续期失败（锁已被他人持有）。
+     *
+     * @param lockerType  锁类型，一般可以是类名。
+     * @param lockerId    锁id。
+     * @param leaseMillis 锁住时间: 单位为毫秒,根据实际情况置锁,防止死锁
+     * @param waitMillis  最长等待毫秒数，<=0 时等同于 tryLock
+     * @param watchdog    是否在后台每 leaseMillis/3 自动续期，直到 unlock
+     * @return stamp，>0 表示加锁成功（返回值即为解锁凭证），0 表示等待超时或被中断
+     */
+    public static long lock(String lockerType, Object lockerId, long leaseMillis, long waitMillis, boolean watchdog) {
+        if (lockerType == null || lockerId == null || leaseMillis < 1) {
+            return 0;
+        }
+        String redisKey = RedisKeyUtils.buildTypeId(REDIS_PREFIX, lockerType, lockerId);
+        long stamp = SnowflakeIdGenerator.getInstance().generateId();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, waitMillis));
+        LockQueue lockQueue = LOCK_QUEUES.compute(redisKey, (k, v) -> {
+            LockQueue queue = v == null ? new LockQueue() : v;
+            queue.refs++;
+            return queue;
+        });
+        boolean acquired = false;
+        try {
+            // 本 JVM 内公平排队，拿到队首位置后才访问 Redis。
+            if (!lockQueue.fairLock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                return 0;
+            }
+            try {
+                while (true) {
+                    // 先登记唤醒信号再尝试加锁，避免错过两者之间到达的解锁通知。
+                    CompletableFuture<Void> signal = new CompletableFuture<>();
+                    lockQueue.signal = signal;
+                    Long ttl = executeScript(ACQUIRE_SCRIPT, redisKey, String.valueOf(stamp), String.valueOf(leaseMillis));
+                    if (ttl != null && ttl == 0) {
+                        acquired = true;
+                        break;
+                    }
+                    long remainNanos = deadline - System.nanoTime();
+                    if (remainNanos <= 0) {
+                        break;
+                    }
+                    long parkMillis = Math.min(ttl == null ? MAX_PARK_MILLIS : Math.min(ttl, MAX_PARK_MILLIS), TimeUnit.NANOSECONDS.toMillis(remainNanos) + 1);
+                    try {
+                        signal.get(parkMillis, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException | ExecutionException ignored) {
+                    }
+                }
+            } finally {
+                lockQueue.signal = null;
+                lockQueue.fairLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            LOCK_QUEUES.computeIfPresent(redisKey, (k, v) -> --v.refs == 0 ? null : v);
+        }
+        if (!acquired) {
+            return 0;
+        }
+        if (watchdog) {
+            startWatchdog(lockerType, lockerId, redisKey, stamp, leaseMillis);
+        }
+        return stamp;
+    }
+
+    /**
+     * 唤醒本 JVM 中等待指定锁的队首线程。
+     * 由 {@link uw.cache.listener.GlobalLockerUnlockListener} 在收到解锁通知时调用。
+     *
+     * @param redisKey 锁的 redisKey
+     */
+    public static void wakeupWaiter(String redisKey) {
+        LockQueue lockQueue = LOCK_QUEUES.get(redisKey);
+        if (lockQueue != null) {
+            CompletableFuture<Void> signal = lockQueue.signal;
+            if (signal != null) {
+                signal.complete(null);
+            }
+        }
+    }
+
     /**
      * 保持锁定。
      * 如果执行中发现设定锁的时间不足，则可以通过keepLock保持锁。
@@ -134,8 +320,7 @@ public class GlobalLocker {
         }
         String redisKey = RedisKeyUtils.buildTypeId(REDIS_PREFIX, lockerType, lockerId);
         // 原子 CAS 续期：stamp 匹配则续期，锁不存在则重新获取，否则返回失败。
-        Long ret = longCacheRedisTemplate.execute(KEEP_LOCK_SCRIPT, Collections.singletonList(redisKey),
-                String.valueOf(stamp), String.valueOf(lockTimeMillis));
+        Long ret = executeScript(KEEP_LOCK_SCRIPT, redisKey, String.valueOf(stamp), String.valueOf(lockTimeMillis));
         return ret != null && ret > 0;
     }
 
@@ -190,14 +375,83 @@ public class GlobalLocker {
             return false;
         }
         String redisKey = RedisKeyUtils.buildTypeId(REDIS_PREFIX, lockerType, lockerId);
+        stopWatchdog(redisKey, stamp);
         if (force) {
-            return Boolean.TRUE.equals(longCacheRedisTemplate.delete(redisKey));
+            boolean deleted = Boolean.TRUE.equals(longCacheRedisTemplate.delete(redisKey));
+            if (deleted) {
+                byte[] channel = UNLOCK_NOTIFY_CHANNEL.getBytes(StandardCharsets.UTF_8);
+                byte[] message = redisKey.getBytes(StandardCharsets.UTF_8);
+                longCacheRedisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+            }
+            return deleted;
         }
-        // 原子 CAS 解锁：只有 stamp 匹配当前持有者才删除，避免误删其他实例抢占后的锁。
-        Long ret = longCacheRedisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(redisKey), String.valueOf(stamp));
+        // 原子 CAS 解锁：只有 stamp 匹配当前持有者才删除，避免误删其他实例抢占后的锁；删除后发布解锁通知。
+        Long ret = executeScript(UNLOCK_SCRIPT, redisKey, String.valueOf(stamp), UNLOCK_NOTIFY_CHANNEL);
         return ret != null && ret > 0;
     }
 
+    /**
+     * 执行锁脚本，开启指标时记录 redis 耗时。
+     *
+     * @param script   脚本
+     * @param redisKey 锁的 redisKey
+     * @param args     脚本参数
+     * @return 脚本返回值
+     */
+    private static Long executeScript(RedisScript<Long> script, String redisKey, Object... args) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(CacheMetricsRegistry.GLOBAL_LOCKER);
+        if (metrics == null) {
+            return longCacheRedisTemplate.execute(script, Collections.singletonList(redisKey), args);
+        }
+        long start = System.nanoTime();
+        try {
+            return longCacheRedisTemplate.execute(script, Collections.singletonList(redisKey), args);
+        } finally {
+            metrics.recordRedisWrite(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 启动 watchdog 续期任务。
+     *
+     * @param lockerType  锁类型
+     * @param lockerId    锁id
+     * @param redisKey    锁的 redisKey
+     * @param stamp       锁stamp
+     * @param leaseMillis 锁住时间
+     */
+    private static void startWatchdog(String lockerType, Object lockerId, String redisKey, long stamp, long leaseMillis) {
+        String taskKey = redisKey + RedisKeyUtils.KEY_SPLITTER + stamp;
+        long period = Math.max(1L, leaseMillis / 3);
+        ScheduledFuture<?> future = watchdogScheduler.scheduleAtFixedRate(() -> {
+            try {
+                if (!keepLock(lockerType, lockerId, stamp, leaseMillis)) {
+                    log.warn("GlobalLocker[{}] watchdog keepLock failed, stamp: {}", redisKey, stamp);
+                    stopWatchdog(redisKey, stamp);
+                }
+            } catch (Throwable e) {
+                log.error("GlobalLocker[{}] watchdog keepLock error: {}", redisKey, e.getMessage(), e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+        WATCHDOG_TASKS.put(taskKey, future);
+    }
+
+    /**
+     * 停止 watchdog 续期任务。
+     *
+     * @param redisKey 锁的 redisKey
+     * @param stamp    锁stamp
+     */
+    private static void stopWatchdog(String redisKey, long stamp) {
+        if (WATCHDOG_TASKS.isEmpty()) {
+            return;
+        }
+        ScheduledFuture<?> future = WATCHDOG_TASKS.remove(redisKey + RedisKeyUtils.KEY_SPLITTER + stamp);
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
 
     /**
      * 获取缓存中的所有key。
@@ -234,4 +488,17 @@ public class GlobalLocker {
         return keys;
     }
 
+    /**
+     * 本 JVM 内单个锁的等待队列。
+     * fairLock 保证等待线程 FIFO，signal 为队首线程的唤醒信号，refs 为引用计数（在 LOCK_QUEUES.compute 中维护）。
+     */
+    private static class LockQueue {
+
+        private final ReentrantLock fairLock = new ReentrantLock(true);
+
+        private volatile CompletableFuture<Void> signal;
+
+        private int refs;
+    }
+
 }
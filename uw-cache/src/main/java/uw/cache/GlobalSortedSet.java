@@ -3,14 +3,33 @@ package uw.cache;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
 import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
 import uw.common.util.KryoUtils;
+import uw.cache.util.RedisBatchUtils;
 import uw.cache.util.RedisKeyUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 基于 Redis ZSet 实现的全局有序集合。
@@ -27,6 +46,11 @@ public class GlobalSortedSet {
      */
     private static final String REDIS_PREFIX = "uw-zset:";
 
+    /**
+     * 默认每批数量：ZSCAN 的 COUNT、按分数分页的每页数量，以及批量写入/判断时每条命令携带的元素数。
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
     /**
      * redis操作模板。
      */
@@ -56,6 +80,55 @@ public class GlobalSortedSet {
         return Boolean.TRUE.equals(dataCacheRedisTemplate.opsForZSet().add(REDIS_PREFIX + setName, KryoUtils.serialize(itemData), itemScore));
     }
 
+    /**
+     * 向 SortedSet 中批量添加对象（已存在则更新 score），按 {@link #DEFAULT_BATCH_SIZE} 分批 ZADD 并以 pipeline 发送。
+     *
+     * @param setName    Set名。
+     * @param itemScores 元素 -> 分数，null 元素跳过。
+     * @return 新增数量（不含仅更新 score 的元素），参数非法返回 -1
+     */
+    public static long addAll(String setName, Map<?, Double> itemScores) {
+        return addAll(setName, itemScores, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 向 SortedSet 中批量添加对象（已存在则更新 score），按 batchSize 分批 ZADD 并以 pipeline 发送。
+     *
+     * @param setName    Set名。
+     * @param itemScores 元素 -> 分数，null 元素跳过。
+     * @param batchSize  每条 ZADD 携带的元素数
+     * @return 新增数量（不含仅更新 score 的元素），参数非法返回 -1
+     */
+    public static long addAll(String setName, Map<?, Double> itemScores, int batchSize) {
+        if (setName == null || itemScores == null) {
+            return -1L;
+        }
+        byte[] rawKey = (REDIS_PREFIX + setName).getBytes(StandardCharsets.UTF_8);
+        int size = Math.max(1, batchSize);
+        List<Set<Tuple>> batches = new ArrayList<>(itemScores.size() / size + 1);
+        Set<Tuple> batch = new LinkedHashSet<>();
+        for (Map.Entry<?, Double> kv : itemScores.entrySet()) {
+            if (kv.getKey() == null || kv.getValue() == null) {
+                continue;
+            }
+            batch.add(new DefaultTuple(KryoUtils.serialize(kv.getKey()), kv.getValue()));
+            if (batch.size() >= size) {
+                batches.add(batch);
+                batch = new LinkedHashSet<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        List<Object> results = dataCacheRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Set<Tuple> tuples : batches) {
+                connection.zSetCommands().zAdd(rawKey, tuples);
+            }
+            return null;
+        });
+        return RedisBatchUtils.sumResults(results);
+    }
+
     /**
      * 统计 SortedSet 大小。
      *
@@ -116,6 +189,102 @@ public class GlobalSortedSet {
         }
     }
 
+    /**
+     * 从 SortedSet 中批量移除对象，按 {@link #DEFAULT_BATCH_SIZE} 分批 ZREM 并以 pipeline 发送。
+     *
+     * @param setName   Set名。
+     * @param itemDatas 元素集合，null 元素跳过。
+     * @return 删除数量，参数非法返回 -1
+     */
+    public static long removeAll(String setName, Collection<?> itemDatas) {
+        return removeAll(setName, itemDatas, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 从 SortedSet 中批量移除对象，按 batchSize 分批 ZREM 并以 pipeline 发送。
+     *
+     * @param setName   Set名。
+     * @param itemDatas 元素集合，null 元素跳过。
+     * @param batchSize 每条 ZREM 携带的元素数
+     * @return 删除数量，参数非法返回 -1
+     */
+    public static long removeAll(String setName, Collection<?> itemDatas, int batchSize) {
+        if (setName == null || itemDatas == null) {
+            return -1L;
+        }
+        byte[] rawKey = (REDIS_PREFIX + setName).getBytes(StandardCharsets.UTF_8);
+        List<byte[][]> batches = RedisBatchUtils.serializeBatches(itemDatas, batchSize);
+        List<Object> results = dataCacheRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[][] batch : batches) {
+                connection.zSetCommands().zRem(rawKey, batch);
+            }
+            return null;
+        });
+        return RedisBatchUtils.sumResults(results);
+    }
+
+    /**
+     * 判断 SortedSet 中是否包含指定对象。
+     *
+     * @param setName  Set名。
+     * @param itemData 元素对象，null 或 setName 为 null 时返回 false。
+     * @return true 表示包含
+     */
+    public static boolean contains(String setName, Object itemData) {
+        if (setName == null || itemData == null) {
+            return false;
+        }
+        return dataCacheRedisTemplate.opsForZSet().score(REDIS_PREFIX + setName, KryoUtils.serialize(itemData)) != null;
+    }
+
+    /**
+     * 批量判断 SortedSet 中是否包含指定对象，使用 ZMSCORE（redis 6.2+），按 {@link #DEFAULT_BATCH_SIZE} 分批以 pipeline 发送。
+     *
+     * @param setName   Set名。
+     * @param itemDatas 元素集合
+     * @return 与 itemDatas 迭代顺序一一对应的判断结果，null 元素为 false；setName 为 null 时全部为 false
+     */
+    public static boolean[] containsAll(String setName, Collection<?> itemDatas) {
+        return containsAll(setName, itemDatas, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 批量判断 SortedSet 中是否包含指定对象，使用 ZMSCORE（redis 6.2+），按 batchSize 分批以 pipeline 发送。
+     *
+     * @param setName   Set名。
+     * @param itemDatas 元素集合
+     * @param batchSize 每条 ZMSCORE 携带的元素数
+     * @return 与 itemDatas 迭代顺序一一对应的判断结果，null 元素为 false；setName 为 null 时全部为 false
+     */
+    public static boolean[] containsAll(String setName, Collection<?> itemDatas, int batchSize) {
+        if (itemDatas == null) {
+            return new boolean[0];
+        }
+        boolean[] ret = new boolean[itemDatas.size()];
+        if (setName == null) {
+            return ret;
+        }
+        byte[] rawKey = (REDIS_PREFIX + setName).getBytes(StandardCharsets.UTF_8);
+        // 记录非 null 元素在结果中的下标。
+        int[] positions = new int[itemDatas.size()];
+        List<byte[][]> batches = RedisBatchUtils.serializeBatches(itemDatas, batchSize, positions);
+        List<Object> results = dataCacheRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[][] batch : batches) {
+                connection.zSetCommands().zMScore(rawKey, batch);
+            }
+            return null;
+        });
+        int index = 0;
+        for (Object result : results) {
+            if (result instanceof List<?> list) {
+                for (Object score : list) {
+                    ret[positions[index++]] = score != null;
+                }
+            }
+        }
+        return ret;
+    }
+
     /**
      * 按分数范围批量移除对象。
      *
@@ -167,6 +336,71 @@ public class GlobalSortedSet {
         return dataSet;
     }
 
+    /**
+     * 按分数范围分页遍历元素（升序），每页 {@link #DEFAULT_BATCH_SIZE} 个，不会一次加载全部元素。
+     *
+     * @param setName   Set名。
+     * @param itemClazz 元素类型
+     * @param scoreMin  最小分（含）。
+     * @param scoreMax  最大分（含）。
+     * @return 元素流，setName 为 null 时返回空流
+     */
+    public static <T> Stream<T> streamRangeByScore(String setName, Class<T> itemClazz, double scoreMin, double scoreMax) {
+        return streamRangeByScore(setName, itemClazz, scoreMin, scoreMax, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 按分数范围分页遍历元素（升序），不会一次加载全部元素。
+     * <p>
+     * 每页以上一页最后一个元素为游标，按其排名续查，单页耗时与已遍历数量及同分元素数量无关；
+     * 遍历期间集合发生变化时，可能重复或遗漏变化的元素。
+     *
+     * @param setName   Set名。
+     * @param itemClazz 元素类型
+     * @param scoreMin  最小分（含）。
+     * @param scoreMax  最大分（含）。
+     * @param batchSize 每页数量
+     * @return 元素流，setName 为 null 时返回空流
+     */
+    public static <T> Stream<T> streamRangeByScore(String setName, Class<T> itemClazz, double scoreMin, double scoreMax, int batchSize) {
+        if (setName == null) {
+            return Stream.empty();
+        }
+        Iterator<byte[]> iterator = new ScoreRangeIterator(REDIS_PREFIX + setName, scoreMin, scoreMax, Math.max(1, batchSize));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(item -> deserializeQuietly(setName, item, itemClazz, "streamRangeByScore")).filter(Objects::nonNull);
+    }
+
+    /**
+     * 以 ZSCAN 分批遍历 SortedSet（无序），每批 {@link #DEFAULT_BATCH_SIZE} 个，不会一次加载全部元素。
+     *
+     * @param setName   Set名。
+     * @param itemClazz 元素类型
+     * @return 元素流，使用完毕必须关闭（建议 try-with-resources），setName 为 null 时返回空流
+     */
+    public static <T> Stream<T> stream(String setName, Class<T> itemClazz) {
+        return stream(setName, itemClazz, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * 以 ZSCAN 分批遍历 SortedSet（无序），不会一次加载全部元素。
+     * <p>
+     * 遍历期间集合发生变化时，ZSCAN 可能返回重复元素，也可能遗漏遍历期间新增/删除的元素。
+     *
+     * @param setName   Set名。
+     * @param itemClazz 元素类型
+     * @param batchSize 每批 ZSCAN 的 COUNT
+     * @return 元素流，使用完毕必须关闭（建议 try-with-resources），setName 为 null 时返回空流
+     */
+    public static <T> Stream<T> stream(String setName, Class<T> itemClazz, int batchSize) {
+        if (setName == null) {
+            return Stream.empty();
+        }
+        Cursor<ZSetOperations.TypedTuple<byte[]>> cursor = dataCacheRedisTemplate.opsForZSet().scan(REDIS_PREFIX + setName,
+                ScanOptions.scanOptions().count(Math.max(1, batchSize)).build());
+        return cursor.stream().map(tuple -> deserializeQuietly(setName, tuple.getValue(), itemClazz, "stream")).filter(Objects::nonNull);
+    }
+
     /**
      * 删除整个 SortedSet。
      *
@@ -216,4 +450,181 @@ public class GlobalSortedSet {
         return keys;
     }
 
+    /**
+     * 反序列化单个元素，脏数据跳过并降级WARN。
+     *
+     * @param setName   Set名。
+     * @param item      序列化数据
+     * @param itemClazz 元素类型
+     * @param method    调用方法名，用于日志
+     * @return 元素，失败返回 null
+     */
+    private static <T> T deserializeQuietly(String setName, byte[] item, Class<T> itemClazz, String method) {
+        try {
+            return KryoUtils.deserialize(item, itemClazz);
+        } catch (Exception e) {
+            log.warn("!!![{}] GlobalSortedSet.{} deserialize failed, skipped (setName={}, len={}): {}",
+                    REDIS_PREFIX, method, setName, item == null ? 0 : item.length, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 按分数分页的迭代器。
+     * <p>
+     * 首页按 ZRANGEBYSCORE 读取；之后以上一页最后一个元素为游标，在 Lua 脚本中用 ZRANK 定位其排名，
+     * 再按排名 ZRANGE 读取下一页，单页复杂度为 O(log(N) + batchSize)，与同分元素数量和已遍历数量无关。
+     * 游标元素在遍历期间被删除时，退化为从其分数（不含）起查，可能遗漏与其同分且尚未返回的元素。
+     */
+    private static class ScoreRangeIterator implements Iterator<byte[]> {
+
+        /**
+         * 续页脚本：KEYS[1] 为 zset，ARGV 依次为游标元素、游标分数、最大分、每页数量，返回 [member, score, ...]。
+         */
+        private static final byte[] NEXT_PAGE_SCRIPT = ("local r = redis.call('zrank', KEYS[1], ARGV[1]) " +
+                "if r then return redis.call('zrange', KEYS[1], r + 1, r + tonumber(ARGV[4]), 'WITHSCORES') end " +
+                "return redis.call('zrangebyscore', KEYS[1], '(' .. ARGV[2], ARGV[3], 'WITHSCORES', 'LIMIT', 0, tonumber(ARGV[4]))").getBytes(StandardCharsets.UTF_8);
+
+        /**
+         * redis key。
+         */
+        private final byte[] rawKey;
+
+        /**
+         * 最小分（含）。
+         */
+        private final double scoreMin;
+
+        /**
+         * 最大分（含）。
+         */
+        private final double scoreMax;
+
+        /**
+         * 每页数量。
+         */
+        private final int batchSize;
+
+        /**
+         * 上一个返回的元素，为 null 时尚未读取首页。
+         */
+        private byte[] lastMember;
+
+        /**
+         * 上一个返回元素的分数。
+         */
+        private double lastScore;
+
+        /**
+         * 当前页。
+         */
+        private Iterator<Tuple> page;
+
+        /**
+         * 是否已到最后一页。
+         */
+        private boolean lastPage;
+
+        ScoreRangeIterator(String redisKey, double scoreMin, double scoreMax, int batchSize) {
+            this.rawKey = redisKey.getBytes(StandardCharsets.UTF_8);
+            this.scoreMin = scoreMin;
+            this.scoreMax = scoreMax;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (page != null && page.hasNext()) {
+                return true;
+            }
+            if (lastPage) {
+                return false;
+            }
+            List<Tuple> tuples = lastMember == null ? firstPage() : nextPage();
+            if (tuples.isEmpty()) {
+                lastPage = true;
+                return false;
+            }
+            page = tuples.iterator();
+            return true;
+        }
+
+        @Override
+        public byte[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Tuple tuple = page.next();
+            lastMember = tuple.getValue();
+            lastScore = tuple.getScore();
+            return lastMember;
+        }
+
+        /**
+         * 读取首页。
+         *
+         * @return 元素列表
+         */
+        private List<Tuple> firstPage() {
+            Set<ZSetOperations.TypedTuple<byte[]>> typedTuples = dataCacheRedisTemplate.opsForZSet().rangeByScoreWithScores(
+                    new String(rawKey, StandardCharsets.UTF_8), scoreMin, scoreMax, 0, batchSize);
+            List<Tuple> tuples = new ArrayList<>(typedTuples == null ? 0 : typedTuples.size());
+            if (typedTuples != null) {
+                for (ZSetOperations.TypedTuple<byte[]> typedTuple : typedTuples) {
+                    tuples.add(new DefaultTuple(typedTuple.getValue(), typedTuple.getScore() == null ? scoreMin : typedTuple.getScore()));
+                }
+            }
+            lastPage = tuples.size() < batchSize;
+            return tuples;
+        }
+
+        /**
+         * 以上一个返回的元素为游标读取下一页，超过最大分的元素截断并结束遍历。
+         *
+         * @return 元素列表
+         */
+        private List<Tuple> nextPage() {
+            List<Object> raw = dataCacheRedisTemplate.execute((RedisCallback<List<Object>>) connection -> connection.scriptingCommands().eval(NEXT_PAGE_SCRIPT,
+                    ReturnType.MULTI, 1, rawKey, lastMember, formatScore(lastScore), formatScore(scoreMax), String.valueOf(batchSize).getBytes(StandardCharsets.UTF_8)));
+            int num = raw == null ? 0 : raw.size() / 2;
+            lastPage = num < batchSize;
+            List<Tuple> tuples = new ArrayList<>(num);
+            for (int i = 0; i < num; i++) {
+                double score = parseScore((byte[]) raw.get(i * 2 + 1));
+                if (score > scoreMax) {
+                    lastPage = true;
+                    break;
+                }
+                tuples.add(new DefaultTuple((byte[]) raw.get(i * 2), score));
+            }
+            return tuples;
+        }
+
+        /**
+         * 分数转为 redis 参数。
+         *
+         * @param score 分数
+         * @return redis 分数参数
+         */
+        private static byte[] formatScore(double score) {
+            String text = Double.isInfinite(score) ? (score > 0 ? "+inf" : "-inf") : String.valueOf(score);
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * 解析 redis 返回的分数。
+         *
+         * @param data 分数字节
+         * @return 分数
+         */
+        private static double parseScore(byte[] data) {
+            String text = new String(data, StandardCharsets.UTF_8);
+            return switch (text) {
+                case "inf", "+inf" -> Double.POSITIVE_INFINITY;
+                case "-inf" -> Double.NEGATIVE_INFINITY;
+                default -> Double.parseDouble(text);
+            };
+        }
+    }
+
 }
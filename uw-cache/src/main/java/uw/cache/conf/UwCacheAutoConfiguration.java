@@ -1,5 +1,6 @@
 package uw.cache.conf;
 
+import io.lettuce.core.RedisURI;
 import io.lettuce.core.resource.ClientResources;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
@@ -8,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -27,8 +29,20 @@ import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericToStringSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import uw.cache.*;
+import uw.cache.hotkey.HotKeyManager;
 import uw.cache.listener.FusionCacheNotifyListener;
+import uw.cache.listener.GlobalCacheLoadNotifyListener;
+import uw.cache.listener.GlobalLockerUnlockListener;
+import uw.cache.listener.HotKeyNotifyListener;
+import uw.cache.metrics.CacheMetricsBinder;
+import uw.cache.metrics.CacheMetricsRegistry;
+import uw.cache.notify.FusionCacheNotifyCoalescer;
+import uw.cache.notify.FusionCacheTrackingInvalidator;
+import uw.cache.snapshot.FusionCacheSnapshot;
+import uw.cache.snapshot.FusionCacheSnapshotLifecycle;
+import uw.cache.util.KryoCacheUtils;
 
+import java.nio.file.Path;
 import java.util.concurrent.Executors;
 
 /**
@@ -40,7 +54,9 @@ import java.util.concurrent.Executors;
  *   <li>注册两个专用 RedisTemplate：{@code dataCacheRedisTemplate}（byte[] 值，用于 Cache/HashSet/SortedSet）
  *       与 {@code longCacheRedisTemplate}（Long 值，用于 Counter/Locker）。</li>
  *   <li>初始化各 Global* 组件（通过构造函数注入 static RedisTemplate）。</li>
- *   <li>注册 Redis Pub/Sub 监听容器，订阅 FusionCache 失效通知通道。</li>
+ *   <li>注册 Redis Pub/Sub 监听容器，订阅 FusionCache 失效通知通道（含批量通道）。</li>
+ *   <li>按需启用失效通知合并发送器与 redis 客户端缓存失效推送。</li>
+ *   <li>按需开启缓存指标，存在 Micrometer 时导出到 MeterRegistry。</li>
  * </ol>
  */
 @Configuration
@@ -51,13 +67,28 @@ public class UwCacheAutoConfiguration {
     private static final Logger log = LoggerFactory.getLogger(UwCacheAutoConfiguration.class);
 
     /**
-     * 初始化 GlobalCache，注入 dataCacheRedisTemplate。
+     * 初始化 GlobalCache，注入 dataCacheRedisTemplate，并应用缓存值压缩、热点 key、指标与本地快照目录配置。
      *
      * @param dataCacheRedisTemplate byte[] 值 RedisTemplate
+     * @param uwCacheProperties      uw-cache 配置属性
      * @return GlobalCache 实例
      */
     @Bean
-    public GlobalCache globalCache(RedisTemplate<String, byte[]> dataCacheRedisTemplate) {
+    public GlobalCache globalCache(RedisTemplate<String, byte[]> dataCacheRedisTemplate, UwCacheProperties uwCacheProperties) {
+        KryoCacheUtils.setFrameEnabled(uwCacheProperties.getCodec().isFrameEnabled());
+        KryoCacheUtils.setCompressThreshold(uwCacheProperties.getCodec().getCompressThreshold());
+        KryoCacheUtils.setCompressLevel(uwCacheProperties.getCodec().getCompressLevel());
+        UwCacheProperties.HotKeyProperties hotKeyProperties = uwCacheProperties.getHotKey();
+        if (hotKeyProperties.isEnabled()) {
+            HotKeyManager.enable(hotKeyProperties.getThreshold(), hotKeyProperties.getSketchWidth(), hotKeyProperties.getTopK(), hotKeyProperties.getLocalTtlMillis(),
+                    hotKeyProperties.getLocalMaxNum());
+        }
+        if (uwCacheProperties.getMetrics().isEnabled()) {
+            CacheMetricsRegistry.enable();
+        }
+        if (StringUtils.isNotBlank(uwCacheProperties.getSnapshot().getDir())) {
+            FusionCacheSnapshot.setSnapshotDir(Path.of(uwCacheProperties.getSnapshot().getDir()));
+        }
         return new GlobalCache(dataCacheRedisTemplate);
     }
 
@@ -84,6 +115,18 @@ public class UwCacheAutoConfiguration {
         return new GlobalCounter(longCacheRedisTemplate);
     }
 
+    /**
+     * 初始化 FusionCounter，容器关闭时同步全部剩余增量。
+     * 依赖 GlobalCounter，保证销毁时 Redis 连接仍可用。
+     *
+     * @param globalCounter GlobalCounter 实例
+     * @return FusionCounter 实例
+     */
+    @Bean(destroyMethod = "shutdown")
+    public FusionCounter fusionCounter(GlobalCounter globalCounter) {
+        return new FusionCounter();
+    }
+
     /**
      * 初始化 GlobalHashSet，注入 dataCacheRedisTemplate。
      *
@@ -107,18 +150,87 @@ public class UwCacheAutoConfiguration {
     }
 
 
+    /**
+     * 初始化失效通知合并发送器，仅在 {@code uw.cache.notify.coalesce-enabled=true} 时启用。
+     *
+     * @param uwCacheProperties uw-cache 配置属性
+     * @param globalCache       GlobalCache 实例（保证发送前已完成初始化）
+     * @return FusionCacheNotifyCoalescer 实例
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "uw.cache.notify", name = "coalesce-enabled", havingValue = "true")
+    public FusionCacheNotifyCoalescer fusionCacheNotifyCoalescer(UwCacheProperties uwCacheProperties, GlobalCache globalCache) {
+        UwCacheProperties.NotifyProperties notifyProperties = uwCacheProperties.getNotify();
+        return new FusionCacheNotifyCoalescer(notifyProperties.getCoalesceMillis(), notifyProperties.getCoalesceMaxKeys());
+    }
+
+    /**
+     * 初始化 redis 客户端缓存失效器，仅在 {@code uw.cache.notify.tracking-enabled=true} 时启用。
+     * redis 不支持 RESP3 CLIENT TRACKING 时返回 null，继续使用 Pub/Sub 通知。
+     *
+     * @param uwCacheProperties uw-cache 配置属性
+     * @param clientResources   Lettuce 共享 ClientResources
+     * @param globalCache       GlobalCache 实例（保证订阅前已完成初始化）
+     * @return FusionCacheTrackingInvalidator 实例
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "uw.cache.notify", name = "tracking-enabled", havingValue = "true")
+    public FusionCacheTrackingInvalidator fusionCacheTrackingInvalidator(UwCacheProperties uwCacheProperties, ClientResources clientResources, GlobalCache globalCache) {
+        RedisProperties redisProperties = uwCacheProperties.getRedis();
+        RedisURI.Builder builder = RedisURI.builder().withHost(redisProperties.getHost()).withPort(redisProperties.getPort()).withDatabase(redisProperties.getDatabase())
+                .withSsl(redisProperties.getSsl().isEnabled());
+        if (redisProperties.getTimeout() != null) {
+            builder.withTimeout(redisProperties.getTimeout());
+        }
+        if (StringUtils.isNotBlank(redisProperties.getPassword())) {
+            if (StringUtils.isNotBlank(redisProperties.getUsername())) {
+                builder.withAuthentication(redisProperties.getUsername(), redisProperties.getPassword());
+            } else {
+                builder.withPassword(redisProperties.getPassword().toCharArray());
+            }
+        }
+        return FusionCacheTrackingInvalidator.start(clientResources, builder.build());
+    }
+
+    /**
+     * 初始化 FusionCache 本地快照生命周期管理：启动时等待快照加载，关闭时保存快照。
+     * 未有缓存启用快照时启动与关闭均为空操作。
+     *
+     * @param uwCacheProperties uw-cache 配置属性
+     * @return FusionCacheSnapshotLifecycle 实例
+     */
+    @Bean
+    public FusionCacheSnapshotLifecycle fusionCacheSnapshotLifecycle(UwCacheProperties uwCacheProperties) {
+        return new FusionCacheSnapshotLifecycle(uwCacheProperties.getSnapshot().getLoadWaitMillis());
+    }
+
+    /**
+     * 初始化 FusionCache 集群通知监听器，关闭时停止通知处理线程。
+     *
+     * @param uwCacheProperties uw-cache 配置属性
+     * @return FusionCacheNotifyListener 实例
+     */
+    @Bean(destroyMethod = "shutdown")
+    public FusionCacheNotifyListener fusionCacheNotifyListener(UwCacheProperties uwCacheProperties) {
+        UwCacheProperties.NotifyProperties notifyProperties = uwCacheProperties.getNotify();
+        return new FusionCacheNotifyListener(notifyProperties.getListenerThreads(), notifyProperties.getListenerQueueSize());
+    }
+
     /**
      * 初始化 Redis Pub/Sub 监听容器。
      * <p>
-     * 订阅通道 {@link FusionCache#FUSION_CACHE_NOTIFY_CHANNEL}，使用虚拟线程执行器处理消息回调，
-     * 避免高频缓存通知时阻塞 Redis 订阅连接。
+     * 订阅通道 {@link FusionCache#FUSION_CACHE_NOTIFY_CHANNEL}、{@link FusionCacheNotifyCoalescer#BATCH_NOTIFY_CHANNEL}、
+     * {@link GlobalCache#LOAD_NOTIFY_CHANNEL} 与 {@link GlobalLocker#UNLOCK_NOTIFY_CHANNEL}，使用虚拟线程执行器处理消息回调，
+     * 避免高频缓存通知时阻塞 Redis 订阅连接。无论本实例是否开启合并发送，都会订阅批量通道。
      *
-     * @param dataCacheRedisTemplate byte[] 值 RedisTemplate（提供连接工厂）
+     * @param dataCacheRedisTemplate    byte[] 值 RedisTemplate（提供连接工厂）
+     * @param fusionCacheNotifyListener FusionCache 集群通知监听器
      * @return RedisMessageListenerContainer 实例
      */
     @Bean
     @ConditionalOnMissingBean
-    public RedisMessageListenerContainer redisMessageListenerContainer(RedisTemplate<String, byte[]> dataCacheRedisTemplate) {
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisTemplate<String, byte[]> dataCacheRedisTemplate,
+                                                                       FusionCacheNotifyListener fusionCacheNotifyListener) {
         RedisMessageListenerContainer redisMessageListenerContainer = new RedisMessageListenerContainer();
         redisMessageListenerContainer.setConnectionFactory(dataCacheRedisTemplate.getConnectionFactory());
         // 使用虚拟线程执行器处理消息回调，避免高频缓存通知时阻塞 Redis 订阅连接。
@@ -127,8 +239,11 @@ public class UwCacheAutoConfiguration {
         AsyncTaskExecutor taskExecutor = new TaskExecutorAdapter(
                 Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("uw-cache-notify-", 0).factory()));
         redisMessageListenerContainer.setTaskExecutor(taskExecutor);
-        FusionCacheNotifyListener cacheMessageListener = new FusionCacheNotifyListener();
-        redisMessageListenerContainer.addMessageListener(cacheMessageListener, new ChannelTopic(FusionCache.FUSION_CACHE_NOTIFY_CHANNEL));
+        redisMessageListenerContainer.addMessageListener(fusionCacheNotifyListener, new ChannelTopic(FusionCache.FUSION_CACHE_NOTIFY_CHANNEL));
+        redisMessageListenerContainer.addMessageListener(fusionCacheNotifyListener, new ChannelTopic(FusionCacheNotifyCoalescer.BATCH_NOTIFY_CHANNEL));
+        redisMessageListenerContainer.addMessageListener(new GlobalCacheLoadNotifyListener(), new ChannelTopic(GlobalCache.LOAD_NOTIFY_CHANNEL));
+        redisMessageListenerContainer.addMessageListener(new GlobalLockerUnlockListener(), new ChannelTopic(GlobalLocker.UNLOCK_NOTIFY_CHANNEL));
+        redisMessageListenerContainer.addMessageListener(new HotKeyNotifyListener(), new ChannelTopic(HotKeyManager.HOT_KEY_NOTIFY_CHANNEL));
         return redisMessageListenerContainer;
     }
 
@@ -224,4 +339,24 @@ public class UwCacheAutoConfiguration {
         return factory;
     }
 
+    /**
+     * 存在 Micrometer 且开启指标记录时导出缓存指标。
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "uw.cache.metrics", name = "enabled", havingValue = "true")
+    static class CacheMetricsConfiguration {
+
+        /**
+         * 缓存指标 MeterBinder，由 Spring Boot Actuator 自动绑定到 MeterRegistry。
+         *
+         * @return CacheMetricsBinder
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public CacheMetricsBinder cacheMetricsBinder() {
+            return new CacheMetricsBinder();
+        }
+    }
+
 }
@@ -8,6 +8,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * 绑定前缀 {@code uw.cache}，通过 {@code uw.cache.redis.*} 配置专用 Redis 连接。
  * 内部 {@link RedisProperties} 继承自 Spring Boot 的 RedisProperties，
  * 以复用其全部连接池/Lettuce/SSL 等配置项，同时与业务 Redis 隔离（独立 database 或实例）。
+ * 通过 {@code uw.cache.notify.*} 配置集群失效通知的合并发送与接收线程池，
+ * 通过 {@code uw.cache.codec.*} 配置 GlobalCache 值的压缩编码。
  */
 @ConfigurationProperties(prefix = "uw.cache")
 public class UwCacheProperties {
@@ -17,6 +19,31 @@ public class UwCacheProperties {
      */
     private RedisProperties redis = new RedisProperties();
 
+    /**
+     * 集群通知配置。
+     */
+    private NotifyProperties notify = new NotifyProperties();
+
+    /**
+     * 缓存值编码配置。
+     */
+    private CodecProperties codec = new CodecProperties();
+
+    /**
+     * 热点 key 配置。
+     */
+    private HotKeyProperties hotKey = new HotKeyProperties();
+
+    /**
+     * 缓存指标配置。
+     */
+    private MetricsProperties metrics = new MetricsProperties();
+
+    /**
+     * 本地快照配置。
+     */
+    private SnapshotProperties snapshot = new SnapshotProperties();
+
     /**
      * 获取 Redis 配置。
      *
@@ -35,9 +62,550 @@ public class UwCacheProperties {
         this.redis = redis;
     }
 
+    /**
+     * 获取集群通知配置。
+     *
+     * @return 集群通知配置对象
+     */
+    public NotifyProperties getNotify() {
+        return notify;
+    }
+
+    /**
+     * 设置集群通知配置。
+     *
+     * @param notify 集群通知配置对象
+     */
+    public void setNotify(NotifyProperties notify) {
+        this.notify = notify;
+    }
+
+    /**
+     * 获取缓存值编码配置。
+     *
+     * @return 缓存值编码配置对象
+     */
+    public CodecProperties getCodec() {
+        return codec;
+    }
+
+    /**
+     * 设置缓存值编码配置。
+     *
+     * @param codec 缓存值编码配置对象
+     */
+    public void setCodec(CodecProperties codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * 获取热点 key 配置。
+     *
+     * @return 热点 key 配置对象
+     */
+    public HotKeyProperties getHotKey() {
+        return hotKey;
+    }
+
+    /**
+     * 设置热点 key 配置。
+     *
+     * @param hotKey 热点 key 配置对象
+     */
+    public void setHotKey(HotKeyProperties hotKey) {
+        this.hotKey = hotKey;
+    }
+
+    /**
+     * 获取缓存指标配置。
+     *
+     * @return 缓存指标配置对象
+     */
+    public MetricsProperties getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 设置缓存指标配置。
+     *
+     * @param metrics 缓存指标配置对象
+     */
+    public void setMetrics(MetricsProperties metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 获取本地快照配置。
+     *
+     * @return 本地快照配置对象
+     */
+    public SnapshotProperties getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 设置本地快照配置。
+     *
+     * @param snapshot 本地快照配置对象
+     */
+    public void setSnapshot(SnapshotProperties snapshot) {
+        this.snapshot = snapshot;
+    }
+
     /**
      * Redis 配置，继承 Spring Boot RedisProperties 以复用全部配置项。
      */
     public static class RedisProperties extends org.springframework.boot.autoconfigure.data.redis.RedisProperties {
     }
+
+    /**
+     * 集群通知配置。
+     * <p>
+     * 合并发送默认关闭：批量通知使用新通道，集群内全部实例升级到支持批量通知的版本后再开启。
+     */
+    public static class NotifyProperties {
+
+        /**
+         * 是否合并发送失效通知。
+         * <p>
+         * 开启后失效通知只发往批量通道 {@code UW_CACHE_BATCH_NOTIFY_CHANNEL}，旧版本实例不订阅该通道，收不到任何失效通知。
+         * 须分两步上线：先将全部实例升级到订阅批量通道的版本（保持关闭），确认没有旧版本实例后再开启。
+         */
+        private boolean coalesceEnabled = false;
+
+        /**
+         * 合并窗口（毫秒）。
+         */
+        private long coalesceMillis = 5;
+
+        /**
+         * 单个合并窗口最多累计的 key 数，达到后立即发送。
+         */
+        private int coalesceMaxKeys = 1000;
+
+        /**
+         * 通知处理线程数。
+         */
+        private int listenerThreads = 4;
+
+        /**
+         * 通知处理队列长度，队列满时由订阅回调线程直接处理。
+         */
+        private int listenerQueueSize = 10000;
+
+        /**
+         * 是否开启 redis 客户端缓存（RESP3 CLIENT TRACKING）失效推送，需要 redis 6+，不可用时退回 Pub/Sub 通知。
+         */
+        private boolean trackingEnabled = false;
+
+        /**
+         * 是否合并发送失效通知。
+         *
+         * @return 是否合并发送
+         */
+        public boolean isCoalesceEnabled() {
+            return coalesceEnabled;
+        }
+
+        /**
+         * 设置是否合并发送失效通知。
+         *
+         * @param coalesceEnabled 是否合并发送
+         */
+        public void setCoalesceEnabled(boolean coalesceEnabled) {
+            this.coalesceEnabled = coalesceEnabled;
+        }
+
+        /**
+         * 获取合并窗口（毫秒）。
+         *
+         * @return 合并窗口
+         */
+        public long getCoalesceMillis() {
+            return coalesceMillis;
+        }
+
+        /**
+         * 设置合并窗口（毫秒）。
+         *
+         * @param coalesceMillis 合并窗口
+         */
+        public void setCoalesceMillis(long coalesceMillis) {
+            this.coalesceMillis = coalesceMillis;
+        }
+
+        /**
+         * 获取单个合并窗口最多累计的 key 数。
+         *
+         * @return key 数
+         */
+        public int getCoalesceMaxKeys() {
+            return coalesceMaxKeys;
+        }
+
+        /**
+         * 设置单个合并窗口最多累计的 key 数。
+         *
+         * @param coalesceMaxKeys key 数
+         */
+        public void setCoalesceMaxKeys(int coalesceMaxKeys) {
+            this.coalesceMaxKeys = coalesceMaxKeys;
+        }
+
+        /**
+         * 获取通知处理线程数。
+         *
+         * @return 线程数
+         */
+        public int getListenerThreads() {
+            return listenerThreads;
+        }
+
+        /**
+         * 设置通知处理线程数。
+         *
+         * @param listenerThreads 线程数
+         */
+        public void setListenerThreads(int listenerThreads) {
+            this.listenerThreads = listenerThreads;
+        }
+
+        /**
+         * 获取通知处理队列长度。
+         *
+         * @return 队列长度
+         */
+        public int getListenerQueueSize() {
+            return listenerQueueSize;
+        }
+
+        /**
+         * 设置通知处理队列长度。
+         *
+         * @param listenerQueueSize 队列长度
+         */
+        public void setListenerQueueSize(int listenerQueueSize) {
+            this.listenerQueueSize = listenerQueueSize;
+        }
+
+        /**
+         * 是否开启 redis 客户端缓存失效推送。
+         *
+         * @return 是否开启
+         */
+        public boolean isTrackingEnabled() {
+            return trackingEnabled;
+        }
+
+        /**
+         * 设置是否开启 redis 客户端缓存失效推送。
+         *
+         * @param trackingEnabled 是否开启
+         */
+        public void setTrackingEnabled(boolean trackingEnabled) {
+            this.trackingEnabled = trackingEnabled;
+        }
+    }
+
+    /**
+     * 缓存值编码配置。
+     */
+    public static class CodecProperties {
+
+        /**
+         * 写入 Redis 的数据是否使用新帧格式（帧头+压缩），默认关闭。
+         * 旧版本无法读取新帧格式，须分两步升级：先全量发布读兼容的新版本，集群内没有旧版本后再开启。
+         * 关闭时写入旧格式且不压缩，compressThreshold 只作用于堆外缓存与本地快照。
+         */
+        private boolean frameEnabled = false;
+
+        /**
+         * 压缩阈值（业务值序列化后的字节数），超过后使用 Deflate 压缩，<=0 表示不压缩。
+         */
+        private int compressThreshold = 4096;
+
+        /**
+         * Deflate 压缩级别，0-9，默认 1（速度优先）。
+         */
+        private int compressLevel = 1;
+
+        /**
+         * 获取是否使用新帧格式。
+         *
+         * @return 是否开启
+         */
+        public boolean isFrameEnabled() {
+            return frameEnabled;
+        }
+
+        /**
+         * 设置是否使用新帧格式。
+         *
+         * @param frameEnabled 是否开启
+         */
+        public void setFrameEnabled(boolean frameEnabled) {
+            this.frameEnabled = frameEnabled;
+        }
+
+        /**
+         * 获取压缩阈值。
+         *
+         * @return 压缩阈值
+         */
+        public int getCompressThreshold() {
+            return compressThreshold;
+        }
+
+        /**
+         * 设置压缩阈值。
+         *
+         * @param compressThreshold 压缩阈值
+         */
+        public void setCompressThreshold(int compressThreshold) {
+            this.compressThreshold = compressThreshold;
+        }
+
+        /**
+         * 获取压缩级别。
+         *
+         * @return 压缩级别
+         */
+        public int getCompressLevel() {
+            return compressLevel;
+        }
+
+        /**
+         * 设置压缩级别。
+         *
+         * @param compressLevel 压缩级别
+         */
+        public void setCompressLevel(int compressLevel) {
+            this.compressLevel = compressLevel;
+        }
+    }
+
+    /**
+     * 热点 key 配置。
+     */
+    public static class HotKeyProperties {
+
+        /**
+         * 是否开启热点 key 探测与本地微缓存，默认关闭。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 热点阈值，衰减周期内估算访问次数达到该值的 key 判定为热点。
+         */
+        private int threshold = 1000;
+
+        /**
+         * 频率估算器每行计数器数量，衰减周期为其10倍访问次数。
+         */
+        private int sketchWidth = 4096;
+
+        /**
+         * 每个缓存保留的热点 key 数量上限。
+         */
+        private int topK = 100;
+
+        /**
+         * 热点 key 本地微缓存有效期毫秒数，也是未收到失效通知时的最大陈旧时间。
+         */
+        private long localTtlMillis = 1000L;
+
+        /**
+         * 每个缓存的本地微缓存最大数量。
+         */
+        private int localMaxNum = 1000;
+
+        /**
+         * 获取是否开启。
+         *
+         * @return 是否开启
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * 设置是否开启。
+         *
+         * @param enabled 是否开启
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * 获取热点阈值。
+         *
+         * @return 热点阈值
+         */
+        public int getThreshold() {
+            return threshold;
+        }
+
+        /**
+         * 设置热点阈值。
+         *
+         * @param threshold 热点阈值
+         */
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+
+        /**
+         * 获取频率估算器宽度。
+         *
+         * @return 频率估算器宽度
+         */
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        /**
+         * 设置频率估算器宽度。
+         *
+         * @param sketchWidth 频率估算器宽度
+         */
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        /**
+         * 获取热点 key 数量上限。
+         *
+         * @return 热点 key 数量上限
+         */
+        public int getTopK() {
+            return topK;
+        }
+
+        /**
+         * 设置热点 key 数量上限。
+         *
+         * @param topK 热点 key 数量上限
+         */
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        /**
+         * 获取本地微缓存有效期毫秒数。
+         *
+         * @return 本地微缓存有效期毫秒数
+         */
+        public long getLocalTtlMillis() {
+            return localTtlMillis;
+        }
+
+        /**
+         * 设置本地微缓存有效期毫秒数。
+         *
+         * @param localTtlMillis 本地微缓存有效期毫秒数
+         */
+        public void setLocalTtlMillis(long localTtlMillis) {
+            this.localTtlMillis = localTtlMillis;
+        }
+
+        /**
+         * 获取本地微缓存最大数量。
+         *
+         * @return 本地微缓存最大数量
+         */
+        public int getLocalMaxNum() {
+            return localMaxNum;
+        }
+
+        /**
+         * 设置本地微缓存最大数量。
+         *
+         * @param localMaxNum 本地微缓存最大数量
+         */
+        public void setLocalMaxNum(int localMaxNum) {
+            this.localMaxNum = localMaxNum;
+        }
+    }
+
+    /**
+     * 缓存指标配置。
+     */
+    public static class MetricsProperties {
+
+        /**
+         * 是否开启指标记录，默认关闭；开启且存在 Micrometer 时同时导出到 MeterRegistry。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 获取是否开启指标记录。
+         *
+         * @return 是否开启
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * 设置是否开启指标记录。
+         *
+         * @param enabled 是否开启
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * 本地快照配置，各缓存是否保存快照由 FusionCache.Config 的 snapshotMaxNum 决定。
+     */
+    public static class SnapshotProperties {
+
+        /**
+         * 快照文件目录，为空时使用 java.io.tmpdir 下的 uw-cache-snapshot；容器部署时应指向持久卷。
+         */
+        private String dir;
+
+        /**
+         * 启动时等待快照加载完成的最长毫秒数，超时后不再等待，加载仍在后台继续。
+         */
+        private long loadWaitMillis = 10_000L;
+
+        /**
+         * 获取快照文件目录。
+         *
+         * @return 快照文件目录
+         */
+        public String getDir() {
+            return dir;
+        }
+
+        /**
+         * 设置快照文件目录。
+         *
+         * @param dir 快照文件目录
+         */
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+
+        /**
+         * 获取启动时等待快照加载的最长毫秒数。
+         *
+         * @return 等待毫秒数
+         */
+        public long getLoadWaitMillis() {
+            return loadWaitMillis;
+        }
+
+        /**
+         * 设置启动时等待快照加载的最长毫秒数。
+         *
+         * @param loadWaitMillis 等待毫秒数
+         */
+        public void setLoadWaitMillis(long loadWaitMillis) {
+            this.loadWaitMillis = loadWaitMillis;
+        }
+    }
 }
@@ -0,0 +1,149 @@
+package uw.cache.hotkey;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 带衰减的 Count-Min Sketch 频率估算器。
+ * <p>
+ * 使用 {@link #DEPTH} 行、每行 width 个计数器，估算值取各行最小值，只会高估不会低估。
+ * 累计记录次数达到 {@code width * 10} 时，所有计数器减半（与 TinyLFU 相同的老化方式），使估算值反映近期访问频率。
+ * <p>
+ * 计数器使用原子数组，无需加锁即可并发记录；衰减由首个越过阈值的线程执行，其他线程不等待。
+ */
+public class CountMinSketch {
+
+    /**
+     * 行数。
+     */
+    private static final int DEPTH = 4;
+
+    /**
+     * 各行哈希种子。
+     */
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    /**
+     * 计数器，按行连续存放。
+     */
+    private final AtomicIntegerArray table;
+
+    /**
+     * 每行计数器数量减一，width 为2的幂。
+     */
+    private final int widthMask;
+
+    /**
+     * 衰减周期（记录次数）。
+     */
+    private final long sampleSize;
+
+    /**
+     * 当前衰减周期内的记录次数。
+     */
+    private final AtomicLong additions = new AtomicLong();
+
+    /**
+     * 衰减锁。
+     */
+    private final ReentrantLock resetLock = new ReentrantLock();
+
+    /**
+     * 构造估算器。
+     *
+     * @param width 每行计数器数量，向上取整为2的幂
+     */
+    public CountMinSketch(int width) {
+        int size = Integer.highestOneBit((Math.max(16, Math.min(1 << 24, width)) - 1) << 1);
+        this.widthMask = size - 1;
+        this.table = new AtomicIntegerArray(size * DEPTH);
+        this.sampleSize = 10L * size;
+    }
+
+    /**
+     * 记录一次访问，并返回记录后的估算频率。
+     *
+     * @param item 访问对象
+     * @return 估算频率
+     */
+    public int increment(Object item) {
+        int hash = spread(item.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = indexOf(hash, i);
+            int value = table.get(index);
+            if (value < Integer.MAX_VALUE) {
+                value = table.incrementAndGet(index);
+            }
+            min = Math.min(min, value);
+        }
+        if (additions.incrementAndGet() >= sampleSize) {
+            reset();
+        }
+        return min;
+    }
+
+    /**
+     * 获取估算频率。
+     *
+     * @param item 访问对象
+     * @return 估算频率
+     */
+    public int frequency(Object item) {
+        int hash = spread(item.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, table.get(indexOf(hash, i)));
+        }
+        return min;
+    }
+
+    /**
+     * 衰减周期已满时所有计数器减半。
+     *
+     * @return 是否由当前线程执行了衰减
+     */
+    private boolean reset() {
+        if (!resetLock.tryLock()) {
+            return false;
+        }
+        try {
+            if (additions.get() < sampleSize) {
+                return false;
+            }
+            for (int i = 0; i < table.length(); i++) {
+                table.set(i, table.get(i) >>> 1);
+            }
+            additions.set(0);
+            return true;
+        } finally {
+            resetLock.unlock();
+        }
+    }
+
+    /**
+     * 计算第 row 行的计数器下标。
+     *
+     * @param hash 对象哈希
+     * @param row  行号
+     * @return 计数器下标
+     */
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * (widthMask + 1) + ((int) h & widthMask);
+    }
+
+    /**
+     * 二次散列，避免低质量 hashCode 集中在少数计数器上。
+     *
+     * @param x 原始哈希
+     * @return 散列后的哈希
+     */
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
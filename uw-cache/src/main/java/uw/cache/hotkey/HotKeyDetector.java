@@ -0,0 +1,223 @@
+package uw.cache.hotkey;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import uw.cache.vo.CacheValueWrapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单个缓存的热点 key 探测器。
+ * <p>
+ * 每次读取通过 {@link CountMinSketch} 记录访问频率，估算频率达到 {@code threshold} 的 key 被判定为热点：
+ * 其 Redis 读取结果放入短 TTL 的本地微缓存，之后的读取直接命中本地，直到微缓存过期或被失效通知清除。
+ * <p>
+ * 热点 key 同时登记在候选集中（容量有限），用于输出 top-K 热点列表。
+ */
+public class HotKeyDetector {
+
+    /**
+     * 缓存名。
+     */
+    private final String cacheName;
+
+    /**
+     * 热点阈值（衰减周期内的估算访问次数）。
+     */
+    private final int threshold;
+
+    /**
+     * 候选集容量。
+     */
+    private final int candidateCapacity;
+
+    /**
+     * 频率估算器。
+     */
+    private final CountMinSketch sketch;
+
+    /**
+     * 热点候选集，key -> 最近一次记录时的估算频率。
+     */
+    private final Map<Object, Integer> candidates = new ConcurrentHashMap<>();
+
+    /**
+     * 热点 key 的本地微缓存。
+     */
+    private final Cache<Object, CacheValueWrapper<?>> localCache;
+
+    /**
+     * 构造探测器。
+     *
+     * @param cacheName         缓存名
+     * @param threshold         热点阈值
+     * @param sketchWidth       频率估算器每行计数器数量
+     * @param candidateCapacity 候选集容量
+     * @param localTtlMillis    本地微缓存有效期毫秒数
+     * @param localMaxNum       本地微缓存最大数量
+     */
+    public HotKeyDetector(String cacheName, int threshold, int sketchWidth, int candidateCapacity, long localTtlMillis, int localMaxNum) {
+        this.cacheName = cacheName;
+        this.threshold = Math.max(1, threshold);
+        this.candidateCapacity = Math.max(1, candidateCapacity);
+        this.sketch = new CountMinSketch(sketchWidth);
+        this.localCache = Caffeine.newBuilder().expireAfterWrite(Duration.ofMillis(Math.max(1L, localTtlMillis))).maximumSize(Math.max(1, localMaxNum)).build();
+    }
+
+    /**
+     * 记录一次读取。
+     *
+     * @param key 缓存主键
+     * @return 是否为热点 key
+     */
+    public boolean record(Object key) {
+        int frequency = sketch.increment(key);
+        if (frequency < threshold) {
+            return false;
+        }
+        // 候选集已满时替换需要遍历，非候选的热点 key 每16次访问才尝试一次。
+        if (candidates.replace(key, frequency) == null && (candidates.size() < candidateCapacity || (frequency & 0xF) == 0)) {
+            addCandidate(key, frequency);
+        }
+        return true;
+    }
+
+    /**
+     * 判断是否为热点 key（不记录访问）。
+     *
+     * @param key 缓存主键
+     * @return 是否为热点 key
+     */
+    public boolean isHot(Object key) {
+        return sketch.frequency(key) >= threshold;
+    }
+
+    /**
+     * 从本地微缓存读取。
+     *
+     * @param key 缓存主键
+     * @return 缓存值包装对象，不存在或已过期返回 null
+     */
+    public CacheValueWrapper<?> getLocal(Object key) {
+        CacheValueWrapper<?> valueWrapper = localCache.getIfPresent(key);
+        if (valueWrapper != null && valueWrapper.checkExpired()) {
+            localCache.invalidate(key);
+            return null;
+        }
+        return valueWrapper;
+    }
+
+    /**
+     * 写入本地微缓存。
+     *
+     * @param key          缓存主键
+     * @param valueWrapper 缓存值包装对象
+     */
+    public void putLocal(Object key, CacheValueWrapper<?> valueWrapper) {
+        if (valueWrapper != null && !valueWrapper.checkExpired()) {
+            localCache.put(key, valueWrapper);
+        }
+    }
+
+    /**
+     * 作废本地微缓存。
+     *
+     * @param key 缓存主键，null 则全部清除
+     */
+    public void invalidateLocal(Object key) {
+        if (key == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    /**
+     * 判断本地微缓存是否持有指定 key。
+     *
+     * @param key 缓存主键
+     * @return true 表示持有
+     */
+    public boolean containsLocal(Object key) {
+        return localCache.asMap().containsKey(key);
+    }
+
+    /**
+     * 获取本地微缓存条目数。
+     *
+     * @return 条目数
+     */
+    public long localSize() {
+        return localCache.estimatedSize();
+    }
+
+    /**
+     * 获取当前 top-K 热点 key，按估算频率降序。
+     *
+     * @param topK 数量
+     * @return 热点 key 列表
+     */
+    public List<HotKey> topKeys(int topK) {
+        List<HotKey> list = new ArrayList<>(candidates.size());
+        for (Object key : candidates.keySet()) {
+            int frequency = sketch.frequency(key);
+            if (frequency < threshold) {
+                // 衰减后已不再是热点。
+                candidates.remove(key);
+            } else {
+                list.add(new HotKey(cacheName, key, frequency));
+            }
+        }
+        list.sort(Comparator.comparingLong(HotKey::frequency).reversed());
+        return list.size() > topK ? new ArrayList<>(list.subList(0, Math.max(0, topK))) : list;
+    }
+
+    /**
+     * 获取缓存名。
+     *
+     * @return 缓存名
+     */
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * 加入候选集，已满时替换频率最低且低于当前 key 的候选。
+     *
+     * @param key       缓存主键
+     * @param frequency 估算频率
+     */
+    private void addCandidate(Object key, int frequency) {
+        if (candidates.size() < candidateCapacity) {
+            candidates.put(key, frequency);
+            return;
+        }
+        Object minKey = null;
+        int minFrequency = frequency;
+        for (Map.Entry<Object, Integer> kv : candidates.entrySet()) {
+            int current = sketch.frequency(kv.getKey());
+            if (current < minFrequency) {
+                minKey = kv.getKey();
+                minFrequency = current;
+            }
+        }
+        if (minKey != null && candidates.remove(minKey) != null) {
+            candidates.put(key, frequency);
+        }
+    }
+
+    /**
+     * 热点 key。
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存主键
+     * @param frequency 衰减周期内的估算访问次数
+     */
+    public record HotKey(String cacheName, Object key, long frequency) {
+    }
+}
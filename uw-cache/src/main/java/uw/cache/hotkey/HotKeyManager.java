@@ -0,0 +1,202 @@
+package uw.cache.hotkey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uw.cache.FusionCache;
+import uw.cache.GlobalCache;
+import uw.cache.constant.CacheNotifyType;
+import uw.cache.metrics.CacheMetrics;
+import uw.cache.metrics.CacheMetricsRegistry;
+import uw.cache.vo.FusionCacheNotifyMessage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 热点 key 管理器。
+ * <p>
+ * 开启后 {@link GlobalCache} 的单 key 读取路径（含 FusionCache 全局缓存的本地未命中加载）会按 cacheName 建立 {@link HotKeyDetector}，
+ * 热点 key 由本地微缓存直接返回，避免少数爆款 key 打满单个 Redis 分片。
+ * <p>
+ * 失效：开启后本机对任意 key 的写入/删除都会清除本地微缓存，并通过 {@link #HOT_KEY_NOTIFY_CHANNEL} 通知其他实例，
+ * 因为 key 在写入节点不热不代表在其他节点不热；其他实例只处理本机持有微缓存的 key。
+ * FusionCache 的失效通知在各实例上同样会清除微缓存。其他情况下数据最多陈旧 {@code localTtlMillis}。
+ */
+public class HotKeyManager {
+
+    private static final Logger log = LoggerFactory.getLogger(HotKeyManager.class);
+
+    /**
+     * 热点 key 失效通知通道。
+     */
+    public static final String HOT_KEY_NOTIFY_CHANNEL = "UW_CACHE_HOT_KEY_CHANNEL";
+
+    /**
+     * cacheName -> 探测器。
+     */
+    private static final Map<String, HotKeyDetector> detectorMap = new ConcurrentHashMap<>();
+
+    /**
+     * 是否开启。
+     */
+    private static volatile boolean enabled;
+
+    /**
+     * 热点阈值（衰减周期内的估算访问次数）。
+     */
+    private static volatile int threshold = 1000;
+
+    /**
+     * 频率估算器每行计数器数量。
+     */
+    private static volatile int sketchWidth = 4096;
+
+    /**
+     * 每个缓存的热点候选集容量，即 top-K 的上限。
+     */
+    private static volatile int topK = 100;
+
+    /**
+     * 本地微缓存有效期毫秒数。
+     */
+    private static volatile long localTtlMillis = 1000L;
+
+    /**
+     * 每个缓存的本地微缓存最大数量。
+     */
+    private static volatile int localMaxNum = 1000;
+
+    private HotKeyManager() {
+    }
+
+    /**
+     * 开启热点 key 探测，已建立的探测器会被丢弃。
+     *
+     * @param threshold      热点阈值（衰减周期内的估算访问次数）
+     * @param sketchWidth    频率估算器每行计数器数量
+     * @param topK           每个缓存的热点候选集容量
+     * @param localTtlMillis 本地微缓存有效期毫秒数
+     * @param localMaxNum    每个缓存的本地微缓存最大数量
+     */
+    public static void enable(int threshold, int sketchWidth, int topK, long localTtlMillis, int localMaxNum) {
+        HotKeyManager.threshold = threshold;
+        HotKeyManager.sketchWidth = sketchWidth;
+        HotKeyManager.topK = topK;
+        HotKeyManager.localTtlMillis = localTtlMillis;
+        HotKeyManager.localMaxNum = localMaxNum;
+        detectorMap.clear();
+        enabled = true;
+    }
+
+    /**
+     * 关闭热点 key 探测，并清除全部本地微缓存。
+     */
+    public static void disable() {
+        enabled = false;
+        detectorMap.clear();
+    }
+
+    /**
+     * 是否开启。
+     *
+     * @return 是否开启
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取指定缓存的探测器，不存在时创建。
+     *
+     * @param cacheName 缓存名
+     * @return 探测器，未开启时返回 null
+     */
+    public static HotKeyDetector detector(String cacheName) {
+        if (!enabled) {
+            return null;
+        }
+        return detectorMap.computeIfAbsent(cacheName, name -> new HotKeyDetector(name, threshold, sketchWidth, topK, localTtlMillis, localMaxNum));
+    }
+
+    /**
+     * 获取指定缓存当前的 top-K 热点 key。
+     *
+     * @param cacheName 缓存名
+     * @param topK      数量
+     * @return 热点 key 列表，按估算频率降序
+     */
+    public static List<HotKeyDetector.HotKey> getHotKeys(String cacheName, int topK) {
+        HotKeyDetector detector = detectorMap.get(cacheName);
+        return detector == null ? new ArrayList<>() : detector.topKeys(topK);
+    }
+
+    /**
+     * 获取全部缓存当前的 top-K 热点 key。
+     *
+     * @param topK 数量
+     * @return 热点 key 列表，按估算频率降序
+     */
+    public static List<HotKeyDetector.HotKey> getHotKeys(int topK) {
+        List<HotKeyDetector.HotKey> list = new ArrayList<>();
+        for (HotKeyDetector detector : detectorMap.values()) {
+            list.addAll(detector.topKeys(topK));
+        }
+        list.sort(Comparator.comparingLong(HotKeyDetector.HotKey::frequency).reversed());
+        return list.size() > topK ? new ArrayList<>(list.subList(0, Math.max(0, topK))) : list;
+    }
+
+    /**
+     * 作废本机的本地微缓存。
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存主键，null 则全部清除
+     */
+    public static void invalidateLocal(String cacheName, Object key) {
+        HotKeyDetector detector = detectorMap.get(cacheName);
+        if (detector != null) {
+            detector.invalidateLocal(key);
+        }
+    }
+
+    /**
+     * 判断本机是否持有指定 key 的本地微缓存。
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存主键，null 表示任意 key
+     * @return true 表示持有
+     */
+    public static boolean holdsLocal(String cacheName, Object key) {
+        HotKeyDetector detector = detectorMap.get(cacheName);
+        return detector != null && (key == null || detector.containsLocal(key));
+    }
+
+    /**
+     * 作废本机的本地微缓存，并通知其他实例。
+     * <p>
+     * 开启热点探测时每次失效都会广播：热点按节点各自统计，key 在本机不热时仍可能在其他实例的微缓存中。
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存主键，null 则全部清除
+     */
+    public static void invalidate(String cacheName, Object key) {
+        if (!enabled) {
+            return;
+        }
+        HotKeyDetector detector = detectorMap.get(cacheName);
+        if (detector != null) {
+            detector.invalidateLocal(key);
+        }
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        if (metrics != null) {
+            metrics.recordNotifySent(1);
+        }
+        try {
+            GlobalCache.notifyMsg(HOT_KEY_NOTIFY_CHANNEL, new FusionCacheNotifyMessage(FusionCache.INSTANCE_ID, cacheName, CacheNotifyType.INVALIDATE.getValue(), key));
+        } catch (Exception e) {
+            log.error("HotKeyManager notify invalidate error! cacheName:{}, key:{}, msg:{}", cacheName, key, e.getMessage());
+        }
+    }
+}
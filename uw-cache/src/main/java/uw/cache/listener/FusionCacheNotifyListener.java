@@ -1,37 +1,98 @@
 package uw.cache.listener;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 import uw.cache.FusionCache;
 import uw.cache.constant.CacheNotifyType;
-import uw.common.util.KryoUtils;
+import uw.cache.metrics.CacheMetrics;
+import uw.cache.metrics.CacheMetricsRegistry;
+import uw.cache.notify.FusionCacheNotifyCoalescer;
+import uw.cache.vo.FusionCacheBatchNotifyMessage;
 import uw.cache.vo.FusionCacheNotifyMessage;
+import uw.common.util.KryoUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 融合缓存通知的监听器。
  * <p>
- * 订阅 Redis Pub/Sub 通道 {@code UW_CACHE_NOTIFY_CHANNEL}，处理集群内其他实例广播的缓存失效/刷新通知，
- * 从而保证多实例本地 Caffeine 缓存的一致性。
+ * 订阅 Redis Pub/Sub 通道 {@code UW_CACHE_NOTIFY_CHANNEL} 与 {@code UW_CACHE_BATCH_NOTIFY_CHANNEL}，
+ * 处理集群内其他实例广播的缓存失效/刷新通知，从而保证多实例本地 Caffeine 缓存的一致性。
  * <p>
  * 处理逻辑：忽略自身发出的消息（按 senderId 判断），其余按 notifyType 分发到
  * {@link FusionCache#invalidate} / {@link FusionCache#refresh}（notify=false，避免再次广播形成环路）。
+ * 实际的失效/刷新交给有界线程池执行，队列满时由订阅回调线程自行执行，形成背压而不丢弃通知。
+ * <p>
+ * 批量消息由发送方在删除 redis 数据后发出，接收方只作废本地缓存，不再逐个删除 redis。
+ * 批量消息按 发送方+cacheName 做版本去重：保留最近 {@link #VERSION_WINDOW} 个版本的接收记录，窗口内的重复版本直接丢弃；
+ * 落后超过窗口的版本无法判断是否重复，仍然执行（失效是幂等的，重复执行只多一次本地回源）。
  */
 public class FusionCacheNotifyListener implements MessageListener {
 
     private final Logger logger = LoggerFactory.getLogger(FusionCacheNotifyListener.class);
 
+    /**
+     * 版本去重窗口大小。
+     */
+    private static final int VERSION_WINDOW = 64;
+
+    /**
+     * 批量通知通道名的字节形式，用于区分消息类型。
+     */
+    private static final byte[] BATCH_CHANNEL_BYTES = FusionCacheNotifyCoalescer.BATCH_NOTIFY_CHANNEL.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 发送方+cacheName -> 版本窗口，发送方重启后 senderId 会变化，因此按访问时间过期。
+     */
+    private final Cache<String, VersionWindow> versionWindowMap = Caffeine.newBuilder().expireAfterAccess(Duration.ofMinutes(10)).build();
+
+    /**
+     * 通知处理线程池。
+     */
+    private final ThreadPoolExecutor notifyExecutor;
+
+    /**
+     * 使用默认线程数（4）和队列长度（10000）构造监听器。
+     */
+    public FusionCacheNotifyListener() {
+        this(4, 10000);
+    }
+
+    /**
+     * 构造监听器。
+     *
+     * @param workerThreads 通知处理线程数
+     * @param queueSize     通知处理队列长度
+     */
+    public FusionCacheNotifyListener(int workerThreads, int queueSize) {
+        int threads = Math.max(1, workerThreads);
+        this.notifyExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                Thread.ofPlatform().name("uw-cache-notify-worker-", 0).daemon(true).factory(), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.notifyExecutor.allowCoreThreadTimeOut(true);
+    }
 
     /**
      * 接收并处理集群缓存通知消息。
      *
-     * @param message Redis 消息体（Kryo 序列化的 {@link FusionCacheNotifyMessage}）
+     * @param message Redis 消息体（Kryo 序列化的 {@link FusionCacheNotifyMessage} 或 {@link FusionCacheBatchNotifyMessage}）
      * @param pattern 订阅模式（未使用）
      */
     @Override
     public void onMessage(Message message, byte[] pattern) {
         try {
+            if (Arrays.equals(BATCH_CHANNEL_BYTES, message.getChannel())) {
+                onBatchMessage(KryoUtils.deserialize(message.getBody(), FusionCacheBatchNotifyMessage.class));
+                return;
+            }
             FusionCacheNotifyMessage notifyMessage = KryoUtils.deserialize(message.getBody(), FusionCacheNotifyMessage.class);
             if (FusionCache.existsCache(notifyMessage.getCacheName())) {
                 if (logger.isDebugEnabled()) {
@@ -42,10 +103,14 @@ public class FusionCacheNotifyListener implements MessageListener {
                 if (notifyMessage.getSenderId() == FusionCache.INSTANCE_ID) {
                     return;
                 }
+                CacheMetrics metrics = CacheMetricsRegistry.get(notifyMessage.getCacheName());
+                if (metrics != null) {
+                    metrics.recordNotifyReceived(1);
+                }
                 if (notifyMessage.getNotifyType() == CacheNotifyType.INVALIDATE.getValue()) {
-                    FusionCache.invalidate(notifyMessage.getCacheName(), notifyMessage.getCacheKey(), false);
+                    notifyExecutor.execute(() -> FusionCache.invalidate(notifyMessage.getCacheName(), notifyMessage.getCacheKey(), false));
                 } else if (notifyMessage.getNotifyType() == CacheNotifyType.REFRESH.getValue()) {
-                    FusionCache.refresh(notifyMessage.getCacheName(), notifyMessage.getCacheKey(), false);
+                    notifyExecutor.execute(() -> FusionCache.refresh(notifyMessage.getCacheName(), notifyMessage.getCacheKey(), false));
                 } else {
                     logger.warn("receive unknown fusion cache notify message! type: {}, Name: {}, key: {}", notifyMessage.getNotifyType(), notifyMessage.getCacheName(),
                             notifyMessage.getCacheKey());
@@ -56,4 +121,95 @@ public class FusionCacheNotifyListener implements MessageListener {
         }
 
     }
+
+    /**
+     * 关闭通知处理线程池。
+     */
+    public void shutdown() {
+        notifyExecutor.shutdown();
+    }
+
+    /**
+     * 处理批量失效通知。
+     *
+     * @param batchMessage 批量通知消息
+     */
+    private void onBatchMessage(FusionCacheBatchNotifyMessage batchMessage) {
+        // 忽略自己发送的消息。
+        if (batchMessage.getSenderId() == FusionCache.INSTANCE_ID || batchMessage.getCacheNames() == null) {
+            return;
+        }
+        String[] cacheNames = batchMessage.getCacheNames();
+        for (int i = 0; i < cacheNames.length; i++) {
+            String cacheName = cacheNames[i];
+            Object[] keys = batchMessage.getCacheKeys()[i];
+            if (!FusionCache.existsCache(cacheName) || keys == null) {
+                continue;
+            }
+            long version = batchMessage.getVersions()[i];
+            VersionWindow window = versionWindowMap.get(batchMessage.getSenderId() + ":" + cacheName, k -> new VersionWindow());
+            if (!window.accept(version)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("drop stale fusion cache batch notify message! sender: {}, Name: {}, version: {}", batchMessage.getSenderId(), cacheName, version);
+                }
+                continue;
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("receive fusion cache batch notify message! Name: {}, version: {}, keys: {}", cacheName, version, keys.length);
+            }
+            CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+            if (metrics != null) {
+                metrics.recordNotifyReceived(keys.length);
+            }
+            notifyExecutor.execute(() -> {
+                for (Object key : keys) {
+                    if (key == null) {
+                        FusionCache.invalidateLocal(cacheName, null);
+                        return;
+                    }
+                }
+                for (Object key : keys) {
+                    FusionCache.invalidateLocal(cacheName, key);
+                }
+            });
+        }
+    }
+
+    /**
+     * 版本滑动窗口。
+     * highest 为已接收的最大版本号，bitmap 第 i 位表示版本 highest-i 是否已接收。
+     */
+    private static class VersionWindow {
+
+        private long highest;
+
+        private long bitmap;
+
+        /**
+         * 判断版本是否可接收，可接收时同时记录。
+         * <p>
+         * 只拒绝窗口内已接收过的版本；落后超过窗口的版本无法判断，按未接收处理，避免乱序到达的失效被丢弃。
+         *
+         * @param version 版本号
+         * @return 非窗口内的重复版本时返回 true
+         */
+        synchronized boolean accept(long version) {
+            if (version > highest) {
+                long shift = version - highest;
+                bitmap = shift >= VERSION_WINDOW ? 1L : (bitmap << shift) | 1L;
+                highest = version;
+                return true;
+            }
+            long diff = highest - version;
+            if (diff >= VERSION_WINDOW) {
+                return true;
+            }
+            long bit = 1L << diff;
+            if ((bitmap & bit) != 0) {
+                return false;
+            }
+            bitmap |= bit;
+            return true;
+        }
+    }
 }
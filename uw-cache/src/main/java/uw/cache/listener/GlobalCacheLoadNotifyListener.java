@@ -0,0 +1,27 @@
+package uw.cache.listener;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import uw.cache.GlobalCache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 全局缓存加载完成通知的监听器。
+ * <p>
+ * 订阅 Redis Pub/Sub 通道 {@code UW_CACHE_LOAD_CHANNEL}。single-flight 模式下，抢到加载租约的节点写入 Redis 后
+ * 会广播该 redisKey，本监听器据此唤醒本 JVM 中正在等待该 key 的线程，使其立即重新读取 Redis，而不必等到下一次轮询。
+ */
+public class GlobalCacheLoadNotifyListener implements MessageListener {
+
+    /**
+     * 接收加载完成通知并唤醒等待线程。
+     *
+     * @param message Redis 消息体（UTF-8 编码的 redisKey）
+     * @param pattern 订阅模式（未使用）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        GlobalCache.wakeupLoadWaiter(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+}
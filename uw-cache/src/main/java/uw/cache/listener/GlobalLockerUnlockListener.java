@@ -0,0 +1,27 @@
+package uw.cache.listener;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import uw.cache.GlobalLocker;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 全局锁解锁通知的监听器。
+ * <p>
+ * 订阅 Redis Pub/Sub 通道 {@code UW_LOCKER_UNLOCK_CHANNEL}。持锁者解锁后会广播该锁的 redisKey，
+ * 本监听器据此唤醒本 JVM 中阻塞等待该锁的队首线程，使其立即重试加锁，而不必等到锁的 TTL 到期。
+ */
+public class GlobalLockerUnlockListener implements MessageListener {
+
+    /**
+     * 接收解锁通知并唤醒等待线程。
+     *
+     * @param message Redis 消息体（UTF-8 编码的 redisKey）
+     * @param pattern 订阅模式（未使用）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        GlobalLocker.wakeupWaiter(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,48 @@
+package uw.cache.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import uw.cache.FusionCache;
+import uw.cache.hotkey.HotKeyManager;
+import uw.cache.metrics.CacheMetrics;
+import uw.cache.metrics.CacheMetricsRegistry;
+import uw.cache.vo.FusionCacheNotifyMessage;
+import uw.common.util.KryoUtils;
+
+/**
+ * 热点 key 失效通知的监听器。
+ * <p>
+ * 订阅 Redis Pub/Sub 通道 {@code UW_CACHE_HOT_KEY_CHANNEL}，收到其他实例的写入/删除通知后，
+ * 清除本机对应的本地微缓存（不再转发）；本机未持有该 key 的微缓存时直接忽略。
+ */
+public class HotKeyNotifyListener implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeyNotifyListener.class);
+
+    /**
+     * 接收热点 key 失效通知。
+     *
+     * @param message Redis 消息体（Kryo 序列化的 {@link FusionCacheNotifyMessage}）
+     * @param pattern 订阅模式（未使用）
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            FusionCacheNotifyMessage notifyMessage = KryoUtils.deserialize(message.getBody(), FusionCacheNotifyMessage.class);
+            // 忽略自己发送的消息。
+            if (notifyMessage.getSenderId() != FusionCache.INSTANCE_ID) {
+                CacheMetrics metrics = CacheMetricsRegistry.get(notifyMessage.getCacheName());
+                if (metrics != null) {
+                    metrics.recordNotifyReceived(1);
+                }
+                if (HotKeyManager.holdsLocal(notifyMessage.getCacheName(), notifyMessage.getCacheKey())) {
+                    HotKeyManager.invalidateLocal(notifyMessage.getCacheName(), notifyMessage.getCacheKey());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("receive hot key notify message error: {}", e.getMessage());
+        }
+    }
+}
@@ -8,11 +8,16 @@ import uw.cache.FusionCache;
 import uw.cache.GlobalCache;
 import uw.cache.vo.CacheValueWrapper;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * 全局融合缓存加载器。
  * <p>
  * 作为 Caffeine {@code CacheLoader} 的适配实现，当本地缓存未命中时，
  * 委托给 {@link GlobalCache#loadValueWrapper} 从 Redis 加载（含 JVM 锁防击穿、重试、空值/失败保护）。
+ * 配置 {@code singleFlightLoad} 时，回源额外通过 Redis 租约在集群内去重。
  * 可选通过 {@code autoNotifyInvalidate} 在加载成功后通知集群其他实例失效旧值。
  *
  * @param <K> 缓存主键类型
@@ -57,7 +62,8 @@ public class GlobalFusionCacheLoader<K, V> implements CacheLoader<K, CacheValueW
         try {
             // 加载数据。
             CacheValueWrapper<V> valueWrapper = GlobalCache.loadValueWrapper(cacheConfig.getCacheName(), key, cacheDataLoader, cacheConfig.getCacheExpireMillis(),
-                    cacheConfig.getNullProtectMillis(), cacheConfig.getFailProtectMillis(), cacheConfig.getReloadIntervalMillis(), cacheConfig.getReloadMaxTimes());
+                    cacheConfig.getNullProtectMillis(), cacheConfig.getFailProtectMillis(), cacheConfig.getReloadIntervalMillis(), cacheConfig.getReloadMaxTimes(),
+                    cacheConfig.isSingleFlightLoad() ? cacheConfig.getSingleFlightLeaseMillis() : 0L);
             //此处通知invalidate缓存。
             if (cacheConfig.isAutoNotifyInvalidate()) {
                 FusionCache.notifyInvalidate(cacheConfig.getCacheName(), key);
@@ -72,5 +78,35 @@ public class GlobalFusionCacheLoader<K, V> implements CacheLoader<K, CacheValueW
         return new CacheValueWrapper<>(cacheConfig.getFailProtectMillis());
     }
 
+    /**
+     * 批量加载缓存值包装对象。
+     * <p>
+     * 由 Caffeine {@code getAll} 对本地未命中的 key 统一调用，内部委托 {@link GlobalCache#loadValueWrappers}：
+     * 一次 MGET 查询 Redis，剩余未命中的 key 交给 {@link CacheDataLoader#loadAll} 批量回源。
+     *
+     * @param keys 本地未命中的缓存主键集合
+     * @return key -> 缓存值包装对象（每个 key 都有 wrapper，加载失败时为失败保护空值）
+     */
+    @Override
+    public Map<K, CacheValueWrapper<V>> loadAll(Set<? extends K> keys) {
+        try {
+            Map<K, CacheValueWrapper<V>> wrapperMap = GlobalCache.loadValueWrappers(cacheConfig.getCacheName(), keys, cacheDataLoader, cacheConfig.getCacheExpireMillis(),
+                    cacheConfig.getNullProtectMillis(), cacheConfig.getFailProtectMillis(), cacheConfig.getReloadIntervalMillis(), cacheConfig.getReloadMaxTimes());
+            //此处通知invalidate缓存。
+            if (cacheConfig.isAutoNotifyInvalidate()) {
+                for (K key : keys) {
+                    FusionCache.notifyInvalidate(cacheConfig.getCacheName(), key);
+                }
+            }
+            return wrapperMap;
+        } catch (Exception e) {
+            logger.error("GlobalFusionCacheLoader 批量加载异常! cacheName:{}, keys:{}", cacheConfig.getCacheName(), keys.size(), e);
+        }
+        Map<K, CacheValueWrapper<V>> failMap = new HashMap<>((int) (keys.size() / 0.75f) + 1);
+        for (K key : keys) {
+            failMap.put(key, new CacheValueWrapper<>(cacheConfig.getFailProtectMillis()));
+        }
+        return failMap;
+    }
 
-}
\ No newline at end of file
+}
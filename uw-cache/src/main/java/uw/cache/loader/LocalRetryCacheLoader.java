@@ -5,8 +5,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uw.cache.CacheDataLoader;
 import uw.cache.FusionCache;
+import uw.cache.metrics.CacheMetrics;
+import uw.cache.metrics.CacheMetricsRegistry;
 import uw.cache.vo.CacheValueWrapper;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * 本地重试缓存加载器。
  * <p>
@@ -53,11 +60,19 @@ public class LocalRetryCacheLoader<K, V> implements CacheLoader<K, CacheValueWra
      */
     @Override
     public CacheValueWrapper<V> load(K key) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheConfig.getCacheName());
         int retryTimes = 0;
         do {
+            long start = metrics == null ? 0L : System.nanoTime();
             try {
                 V value = cacheDataLoader.load(key);
+                if (metrics != null) {
+                    metrics.recordLoad(System.nanoTime() - start, true);
+                }
                 if (value == null) {
+                    if (metrics != null) {
+                        metrics.recordNullProtect(1);
+                    }
                     return new CacheValueWrapper<>(cacheConfig.getNullProtectMillis());
                 }
                 // 获取缓存的过期时间
@@ -71,6 +86,9 @@ public class LocalRetryCacheLoader<K, V> implements CacheLoader<K, CacheValueWra
                 }
                 return new CacheValueWrapper<>(value, expiredMillis);
             } catch (Throwable e) {
+                if (metrics != null) {
+                    metrics.recordLoad(System.nanoTime() - start, false);
+                }
                 logger.error("Local数据加载失败! cacheName:{}, key:{}, retryTimes:{}, msg:{}", cacheConfig.getCacheName(), key, retryTimes, e.getMessage(), e);
             }
             try {
@@ -79,7 +97,74 @@ public class LocalRetryCacheLoader<K, V> implements CacheLoader<K, CacheValueWra
             }
             retryTimes++;
         } while (retryTimes < cacheConfig.getReloadMaxTimes());
+        if (metrics != null) {
+            metrics.recordFailProtect(1);
+        }
         return new CacheValueWrapper(cacheConfig.getFailProtectMillis());
     }
 
+    /**
+     * 批量加载缓存值包装对象（带重试）。
+     * <p>
+     * 由 Caffeine {@code getAll} 对本地未命中的 key 统一调用，委托 {@link CacheDataLoader#loadAll} 一次性加载。
+     * 返回结果中缺失的 key 按 nullProtect 处理，重试耗尽仍失败的整批按 failProtect 处理。
+     *
+     * @param keys 本地未命中的缓存主键集合
+     * @return key -> 缓存值包装对象（每个 key 都有 wrapper）
+     */
+    @Override
+    public Map<K, CacheValueWrapper<V>> loadAll(Set<? extends K> keys) {
+        Set<K> loadKeys = new LinkedHashSet<>(keys);
+        Map<K, CacheValueWrapper<V>> wrapperMap = new HashMap<>((int) (loadKeys.size() / 0.75f) + 1);
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheConfig.getCacheName());
+        int retryTimes = 0;
+        do {
+            long start = metrics == null ? 0L : System.nanoTime();
+            try {
+                Map<K, V> dataMap = cacheDataLoader.loadAll(loadKeys);
+                if (metrics != null) {
+                    metrics.recordLoad(System.nanoTime() - start, true);
+                }
+                // 获取缓存的过期时间
+                long expiredMillis = cacheDataLoader.getExpireMillis();
+                if (expiredMillis <= 0) {
+                    expiredMillis = cacheConfig.getCacheExpireMillis();
+                }
+                for (K key : loadKeys) {
+                    V value = dataMap.get(key);
+                    if (value == null) {
+                        wrapperMap.put(key, new CacheValueWrapper<>(cacheConfig.getNullProtectMillis()));
+                        if (metrics != null) {
+                            metrics.recordNullProtect(1);
+                        }
+                    } else {
+                        wrapperMap.put(key, new CacheValueWrapper<>(value, expiredMillis));
+                        //此处通知invalidate缓存。
+                        if (cacheConfig.isAutoNotifyInvalidate()) {
+                            FusionCache.notifyInvalidate(cacheConfig.getCacheName(), key);
+                        }
+                    }
+                }
+                return wrapperMap;
+            } catch (Throwable e) {
+                if (metrics != null) {
+                    metrics.recordLoad(System.nanoTime() - start, false);
+                }
+                logger.error("Local数据批量加载失败! cacheName:{}, keys:{}, retryTimes:{}, msg:{}", cacheConfig.getCacheName(), loadKeys.size(), retryTimes, e.getMessage(), e);
+            }
+            try {
+                Thread.sleep(cacheConfig.getReloadIntervalMillis());
+            } catch (InterruptedException ignored) {
+            }
+            retryTimes++;
+        } while (retryTimes < cacheConfig.getReloadMaxTimes());
+        if (metrics != null) {
+            metrics.recordFailProtect(loadKeys.size());
+        }
+        for (K key : loadKeys) {
+            wrapperMap.put(key, new CacheValueWrapper<>(cacheConfig.getFailProtectMillis()));
+        }
+        return wrapperMap;
+    }
+
 }
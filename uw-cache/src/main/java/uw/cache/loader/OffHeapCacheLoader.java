@@ -0,0 +1,131 @@
+package uw.cache.loader;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uw.cache.offheap.OffHeapStore;
+import uw.cache.util.KryoCacheUtils;
+import uw.cache.vo.CacheValueWrapper;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 堆外缓存加载器。
+ * <p>
+ * 包装实际的 {@code CacheLoader}，用于开启堆外缓存的 FusionCache：本地 Caffeine 热数据未命中时，
+ * 先从 {@link OffHeapStore} 取回被淘汰的数据（取回后从堆外移除，重新进入热数据），
+ * 堆外也未命中或已过期时再交给实际的加载器。
+ *
+ * @param <K> 缓存主键类型
+ * @param <V> 缓存值类型
+ */
+public class OffHeapCacheLoader<K, V> implements CacheLoader<K, CacheValueWrapper<V>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapCacheLoader.class);
+
+    /**
+     * 缓存名。
+     */
+    private final String cacheName;
+
+    /**
+     * 实际的加载器。
+     */
+    private final CacheLoader<K, CacheValueWrapper<V>> delegate;
+
+    /**
+     * 堆外存储。
+     */
+    private final OffHeapStore offHeapStore;
+
+    /**
+     * 构造加载器。
+     *
+     * @param cacheName    缓存名
+     * @param delegate     实际的加载器
+     * @param offHeapStore 堆外存储
+     */
+    public OffHeapCacheLoader(String cacheName, CacheLoader<K, CacheValueWrapper<V>> delegate, OffHeapStore offHeapStore) {
+        this.cacheName = cacheName;
+        this.delegate = delegate;
+        this.offHeapStore = offHeapStore;
+    }
+
+    /**
+     * 加载缓存值包装对象，优先从堆外取回。
+     *
+     * @param key 缓存主键
+     * @return 缓存值包装对象
+     */
+    @Override
+    public CacheValueWrapper<V> load(K key) throws Exception {
+        CacheValueWrapper<V> valueWrapper = take(key);
+        if (valueWrapper != null) {
+            return valueWrapper;
+        }
+        return delegate.load(key);
+    }
+
+    /**
+     * 批量加载缓存值包装对象，堆外未命中的 key 统一交给实际加载器的 loadAll。
+     *
+     * @param keys 本地未命中的缓存主键集合
+     * @return key -> 缓存值包装对象
+     */
+    @Override
+    public Map<K, CacheValueWrapper<V>> loadAll(Set<? extends K> keys) throws Exception {
+        Map<K, CacheValueWrapper<V>> wrapperMap = new HashMap<>((int) (keys.size() / 0.75f) + 1);
+        Set<K> pendingKeys = new LinkedHashSet<>();
+        for (K key : keys) {
+            CacheValueWrapper<V> valueWrapper = take(key);
+            if (valueWrapper != null) {
+                wrapperMap.put(key, valueWrapper);
+            } else {
+                pendingKeys.add(key);
+            }
+        }
+        if (!pendingKeys.isEmpty()) {
+            try {
+                Map<? extends K, ? extends CacheValueWrapper<V>> loadedMap = delegate.loadAll(pendingKeys);
+                if (loadedMap != null) {
+                    wrapperMap.putAll(loadedMap);
+                }
+            } catch (UnsupportedOperationException e) {
+                // 实际加载器未实现批量加载时逐个加载。
+                for (K key : pendingKeys) {
+                    CacheValueWrapper<V> valueWrapper = delegate.load(key);
+                    if (valueWrapper != null) {
+                        wrapperMap.put(key, valueWrapper);
+                    }
+                }
+            }
+        }
+        return wrapperMap;
+    }
+
+    /**
+     * 从堆外取回数据，已过期或反序列化失败时返回 null。
+     *
+     * @param key 缓存主键
+     * @return 缓存值包装对象
+     */
+    private CacheValueWrapper<V> take(K key) {
+        byte[] data = offHeapStore.take(key);
+        if (data == null) {
+            return null;
+        }
+        try {
+            CacheValueWrapper<V> valueWrapper = KryoCacheUtils.deserializeValueWrapperWithClass(null, data);
+            if (valueWrapper == null || valueWrapper.checkExpired()) {
+                return null;
+            }
+            return valueWrapper;
+        } catch (Throwable e) {
+            logger.error("FusionCache[{}] key=[{}] 堆外数据反序列化失败! msg:{}", cacheName, key, e.getMessage());
+            return null;
+        }
+    }
+}
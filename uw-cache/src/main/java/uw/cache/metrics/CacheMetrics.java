@@ -0,0 +1,438 @@
+package uw.cache.metrics;
+
+import uw.common.util.JsonUtils;
+import uw.common.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个缓存的运行指标。
+ * <p>
+ * 由 {@link CacheMetricsRegistry} 按名称维护，FusionCache/GlobalCache 以 cacheName 为名称，
+ * FusionCounter、GlobalLocker 以类名为名称。只在 {@link CacheMetricsRegistry#isEnabled() 开启} 时记录。
+ */
+public class CacheMetrics {
+
+    /**
+     * 名称。
+     */
+    private final String name;
+
+    /**
+     * 本地缓存命中次数。
+     */
+    private final LongAdder l1Hit = new LongAdder();
+
+    /**
+     * 本地缓存未命中次数。
+     */
+    private final LongAdder l1Miss = new LongAdder();
+
+    /**
+     * 本地缓存加载成功次数（含 redis 命中）。
+     */
+    private final LongAdder l1LoadSuccess = new LongAdder();
+
+    /**
+     * 本地缓存加载失败次数。
+     */
+    private final LongAdder l1LoadFailure = new LongAdder();
+
+    /**
+     * 本地缓存加载总耗时（纳秒）。
+     */
+    private final LongAdder l1LoadNanos = new LongAdder();
+
+    /**
+     * 本地缓存容量淘汰次数。
+     */
+    private final LongAdder l1Eviction = new LongAdder();
+
+    /**
+     * redis 命中次数。
+     */
+    private final LongAdder l2Hit = new LongAdder();
+
+    /**
+     * redis 未命中次数。
+     */
+    private final LongAdder l2Miss = new LongAdder();
+
+    /**
+     * 热点 key 本地微缓存命中次数。
+     */
+    private final LongAdder hotKeyHit = new LongAdder();
+
+    /**
+     * 数据加载失败次数（含重试）。
+     */
+    private final LongAdder loadFailure = new LongAdder();
+
+    /**
+     * 数据加载返回空值、写入空值保护的次数。
+     */
+    private final LongAdder nullProtect = new LongAdder();
+
+    /**
+     * 重试耗尽、写入失败保护的次数。
+     */
+    private final LongAdder failProtect = new LongAdder();
+
+    /**
+     * 发出的集群通知数（按 key 计）。
+     */
+    private final LongAdder notifySent = new LongAdder();
+
+    /**
+     * 收到的集群通知数（按 key 计）。
+     */
+    private final LongAdder notifyReceived = new LongAdder();
+
+    /**
+     * redis 读取耗时（纳秒）。
+     */
+    private final LatencyHistogram redisRead = new LatencyHistogram();
+
+    /**
+     * redis 写入耗时（纳秒）。
+     */
+    private final LatencyHistogram redisWrite = new LatencyHistogram();
+
+    /**
+     * 数据加载（CacheDataLoader）耗时（纳秒）。
+     */
+    private final LatencyHistogram load = new LatencyHistogram();
+
+    /**
+     * 构造指标对象。
+     *
+     * @param name 名称
+     */
+    public CacheMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 记录本地缓存命中。
+     *
+     * @param count 次数
+     */
+    public void recordL1Hit(int count) {
+        l1Hit.add(count);
+    }
+
+    /**
+     * 记录本地缓存未命中。
+     *
+     * @param count 次数
+     */
+    public void recordL1Miss(int count) {
+        l1Miss.add(count);
+    }
+
+    /**
+     * 记录本地缓存加载。
+     *
+     * @param nanos   耗时（纳秒）
+     * @param success 是否成功
+     */
+    public void recordL1Load(long nanos, boolean success) {
+        if (success) {
+            l1LoadSuccess.increment();
+        } else {
+            l1LoadFailure.increment();
+        }
+        l1LoadNanos.add(nanos);
+    }
+
+    /**
+     * 记录本地缓存容量淘汰。
+     */
+    public void recordL1Eviction() {
+        l1Eviction.increment();
+    }
+
+    /**
+     * 记录一次 redis 读取。
+     *
+     * @param nanos  耗时（纳秒）
+     * @param hits   命中数
+     * @param misses 未命中数
+     */
+    public void recordRedisRead(long nanos, int hits, int misses) {
+        redisRead.record(nanos);
+        l2Hit.add(hits);
+        l2Miss.add(misses);
+    }
+
+    /**
+     * 记录一次 redis 写入。
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordRedisWrite(long nanos) {
+        redisWrite.record(nanos);
+    }
+
+    /**
+     * 记录热点 key 本地微缓存命中。
+     */
+    public void recordHotKeyHit() {
+        hotKeyHit.increment();
+    }
+
+    /**
+     * 记录一次数据加载。
+     *
+     * @param nanos   耗时（纳秒）
+     * @param success 是否成功
+     */
+    public void recordLoad(long nanos, boolean success) {
+        load.record(nanos);
+        if (!success) {
+            loadFailure.increment();
+        }
+    }
+
+    /**
+     * 记录空值保护。
+     *
+     * @param count 次数
+     */
+    public void recordNullProtect(int count) {
+        nullProtect.add(count);
+    }
+
+    /**
+     * 记录失败保护。
+     *
+     * @param count 次数
+     */
+    public void recordFailProtect(int count) {
+        failProtect.add(count);
+    }
+
+    /**
+     * 记录发出的集群通知。
+     *
+     * @param count key 数量
+     */
+    public void recordNotifySent(int count) {
+        notifySent.add(count);
+    }
+
+    /**
+     * 记录收到的集群通知。
+     *
+     * @param count key 数量
+     */
+    public void recordNotifyReceived(int count) {
+        notifyReceived.add(count);
+    }
+
+    /**
+     * 获取名称。
+     *
+     * @return 名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取本地缓存命中次数。
+     *
+     * @return 次数
+     */
+    public long getL1Hit() {
+        return l1Hit.sum();
+    }
+
+    /**
+     * 获取本地缓存未命中次数。
+     *
+     * @return 次数
+     */
+    public long getL1Miss() {
+        return l1Miss.sum();
+    }
+
+    /**
+     * 获取本地缓存加载成功次数。
+     *
+     * @return 次数
+     */
+    public long getL1LoadSuccess() {
+        return l1LoadSuccess.sum();
+    }
+
+    /**
+     * 获取本地缓存加载失败次数。
+     *
+     * @return 次数
+     */
+    public long getL1LoadFailure() {
+        return l1LoadFailure.sum();
+    }
+
+    /**
+     * 获取本地缓存加载总耗时（纳秒）。
+     *
+     * @return 耗时
+     */
+    public long getL1LoadNanos() {
+        return l1LoadNanos.sum();
+    }
+
+    /**
+     * 获取本地缓存容量淘汰次数。
+     *
+     * @return 次数
+     */
+    public long getL1Eviction() {
+        return l1Eviction.sum();
+    }
+
+    /**
+     * 获取 redis 命中次数。
+     *
+     * @return 次数
+     */
+    public long getL2Hit() {
+        return l2Hit.sum();
+    }
+
+    /**
+     * 获取 redis 未命中次数。
+     *
+     * @return 次数
+     */
+    public long getL2Miss() {
+        return l2Miss.sum();
+    }
+
+    /**
+     * 获取热点 key 本地微缓存命中次数。
+     *
+     * @return 次数
+     */
+    public long getHotKeyHit() {
+        return hotKeyHit.sum();
+    }
+
+    /**
+     * 获取数据加载失败次数。
+     *
+     * @return 次数
+     */
+    public long getLoadFailure() {
+        return loadFailure.sum();
+    }
+
+    /**
+     * 获取空值保护次数。
+     *
+     * @return 次数
+     */
+    public long getNullProtect() {
+        return nullProtect.sum();
+    }
+
+    /**
+     * 获取失败保护次数。
+     *
+     * @return 次数
+     */
+    public long getFailProtect() {
+        return failProtect.sum();
+    }
+
+    /**
+     * 获取发出的集群通知数。
+     *
+     * @return 数量
+     */
+    public long getNotifySent() {
+        return notifySent.sum();
+    }
+
+    /**
+     * 获取收到的集群通知数。
+     *
+     * @return 数量
+     */
+    public long getNotifyReceived() {
+        return notifyReceived.sum();
+    }
+
+    /**
+     * 获取 redis 读取耗时直方图。
+     *
+     * @return 直方图
+     */
+    public LatencyHistogram getRedisRead() {
+        return redisRead;
+    }
+
+    /**
+     * 获取 redis 写入耗时直方图。
+     *
+     * @return 直方图
+     */
+    public LatencyHistogram getRedisWrite() {
+        return redisWrite;
+    }
+
+    /**
+     * 获取数据加载耗时直方图。
+     *
+     * @return 直方图
+     */
+    public LatencyHistogram getLoad() {
+        return load;
+    }
+
+    /**
+     * 生成快照。
+     *
+     * @return 快照
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(name, l1Hit.sum(), l1Miss.sum(), l1Eviction.sum(), l2Hit.sum(), l2Miss.sum(), hotKeyHit.sum(), loadFailure.sum(), nullProtect.sum(),
+                failProtect.sum(), notifySent.sum(), notifyReceived.sum(), redisRead.snapshot(), redisWrite.snapshot(), load.snapshot());
+    }
+
+    /**
+     * 指标快照。
+     *
+     * @param name           名称
+     * @param l1Hit          本地缓存命中次数
+     * @param l1Miss         本地缓存未命中次数
+     * @param l1Eviction     本地缓存容量淘汰次数
+     * @param l2Hit          redis 命中次数
+     * @param l2Miss         redis 未命中次数
+     * @param hotKeyHit      热点 key 本地微缓存命中次数
+     * @param loadFailure    数据加载失败次数
+     * @param nullProtect    空值保护次数
+     * @param failProtect    失败保护次数
+     * @param notifySent     发出的集群通知数
+     * @param notifyReceived 收到的集群通知数
+     * @param redisRead      redis 读取耗时（纳秒）
+     * @param redisWrite     redis 写入耗时（纳秒）
+     * @param load           数据加载耗时（纳秒）
+     */
+    public record Snapshot(String name, long l1Hit, long l1Miss, long l1Eviction, long l2Hit, long l2Miss, long hotKeyHit, long loadFailure, long nullProtect,
+                           long failProtect, long notifySent, long notifyReceived, LatencyHistogram.Snapshot redisRead, LatencyHistogram.Snapshot redisWrite,
+                           LatencyHistogram.Snapshot load) {
+
+        /**
+         * 输出快照的 JSON 表示，便于日志排查。
+         *
+         * @return JSON 字符串
+         */
+        @Override
+        public String toString() {
+            return JsonUtils.toString(this);
+        }
+    }
+}
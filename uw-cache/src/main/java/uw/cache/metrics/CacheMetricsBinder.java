@@ -0,0 +1,83 @@
+package uw.cache.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import uw.common.util.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 将 {@link CacheMetricsRegistry} 中的指标导出到 Micrometer。
+ * <p>
+ * 只导出不开关指标记录，指标记录由 {@code uw.cache.metrics.enabled} 控制；
+ * 已有及之后新建的每个缓存都会注册一组带 {@code cache} 标签的计数器与计时器，
+ * 计时器另附 {@code .max} 与 {@code .p99} 两个耗时 Gauge。
+ */
+public class CacheMetricsBinder implements MeterBinder {
+
+    /**
+     * 绑定到 MeterRegistry。
+     *
+     * @param registry MeterRegistry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheMetricsRegistry.addCreateListener(metrics -> register(registry, metrics));
+    }
+
+    /**
+     * 注册单个缓存的指标。
+     *
+     * @param registry MeterRegistry
+     * @param metrics  缓存指标
+     */
+    private static void register(MeterRegistry registry, CacheMetrics metrics) {
+        Tags tags = Tags.of("cache", metrics.getName());
+        counter(registry, "uw.cache.l1.gets", tags.and("result", "hit"), metrics, CacheMetrics::getL1Hit);
+        counter(registry, "uw.cache.l1.gets", tags.and("result", "miss"), metrics, CacheMetrics::getL1Miss);
+        counter(registry, "uw.cache.l1.evictions", tags, metrics, CacheMetrics::getL1Eviction);
+        counter(registry, "uw.cache.l2.gets", tags.and("result", "hit"), metrics, CacheMetrics::getL2Hit);
+        counter(registry, "uw.cache.l2.gets", tags.and("result", "miss"), metrics, CacheMetrics::getL2Miss);
+        counter(registry, "uw.cache.hotkey.hits", tags, metrics, CacheMetrics::getHotKeyHit);
+        counter(registry, "uw.cache.load.failures", tags, metrics, CacheMetrics::getLoadFailure);
+        counter(registry, "uw.cache.protects", tags.and("type", "null"), metrics, CacheMetrics::getNullProtect);
+        counter(registry, "uw.cache.protects", tags.and("type", "fail"), metrics, CacheMetrics::getFailProtect);
+        counter(registry, "uw.cache.notifies", tags.and("direction", "sent"), metrics, CacheMetrics::getNotifySent);
+        counter(registry, "uw.cache.notifies", tags.and("direction", "received"), metrics, CacheMetrics::getNotifyReceived);
+        timer(registry, "uw.cache.redis.read", tags, metrics.getRedisRead());
+        timer(registry, "uw.cache.redis.write", tags, metrics.getRedisWrite());
+        timer(registry, "uw.cache.load", tags, metrics.getLoad());
+    }
+
+    /**
+     * 注册计数器。
+     *
+     * @param registry MeterRegistry
+     * @param name     指标名
+     * @param tags     标签
+     * @param metrics  缓存指标
+     * @param fn       取值函数
+     */
+    private static void counter(MeterRegistry registry, String name, Tags tags, CacheMetrics metrics, ToDoubleFunction<CacheMetrics> fn) {
+        FunctionCounter.builder(name, metrics, fn).tags(tags).register(registry);
+    }
+
+    /**
+     * 注册计时器及其最大值、99分位 Gauge。
+     *
+     * @param registry  MeterRegistry
+     * @param name      指标名
+     * @param tags      标签
+     * @param histogram 耗时直方图（纳秒）
+     */
+    private static void timer(MeterRegistry registry, String name, Tags tags, LatencyHistogram histogram) {
+        FunctionTimer.builder(name, histogram, LatencyHistogram::getCount, LatencyHistogram::getTotal, TimeUnit.NANOSECONDS).tags(tags).register(registry);
+        TimeGauge.builder(name + ".max", histogram, TimeUnit.NANOSECONDS, LatencyHistogram::getMax).tags(tags).register(registry);
+        TimeGauge.builder(name + ".p99", histogram, TimeUnit.NANOSECONDS, h -> h.getPercentile(0.99)).tags(tags).register(registry);
+    }
+}
@@ -0,0 +1,128 @@
+package uw.cache.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 缓存指标注册表。
+ * <p>
+ * 默认关闭：关闭时 {@link #get} 返回 null，各埋点只多一次 volatile 读取，不计时也不计数。
+ * 配置 {@code uw.cache.metrics.enabled=true} 后由自动配置调用 {@link #enable()} 开启，可通过 {@link #snapshot} 获取快照；
+ * 绑定 Micrometer（{@link CacheMetricsBinder}）只负责导出，不会开启记录。
+ */
+public class CacheMetricsRegistry {
+
+    /**
+     * FusionCounter 的指标名称。
+     */
+    public static final String FUSION_COUNTER = "FusionCounter";
+
+    /**
+     * GlobalLocker 的指标名称。
+     */
+    public static final String GLOBAL_LOCKER = "GlobalLocker";
+
+    /**
+     * 名称 -> 指标。
+     */
+    private static final Map<String, CacheMetrics> metricsMap = new ConcurrentHashMap<>();
+
+    /**
+     * 新建指标时的回调，用于向 Micrometer 注册。
+     */
+    private static final List<Consumer<CacheMetrics>> createListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 是否开启。
+     */
+    private static volatile boolean enabled;
+
+    private CacheMetricsRegistry() {
+    }
+
+    /**
+     * 开启指标记录。
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * 关闭指标记录，已记录的数据保留。
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * 是否开启。
+     *
+     * @return 是否开启
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取指标对象，不存在时创建。
+     *
+     * @param name 名称
+     * @return 指标对象，未开启时返回 null
+     */
+    public static CacheMetrics get(String name) {
+        if (!enabled || name == null) {
+            return null;
+        }
+        CacheMetrics metrics = metricsMap.get(name);
+        if (metrics != null) {
+            return metrics;
+        }
+        return metricsMap.computeIfAbsent(name, key -> {
+            CacheMetrics created = new CacheMetrics(key);
+            for (Consumer<CacheMetrics> listener : createListeners) {
+                listener.accept(created);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * 获取指定名称的指标快照。
+     *
+     * @param name 名称
+     * @return 快照，没有记录时返回 null
+     */
+    public static CacheMetrics.Snapshot snapshot(String name) {
+        CacheMetrics metrics = metricsMap.get(name);
+        return metrics == null ? null : metrics.snapshot();
+    }
+
+    /**
+     * 获取全部指标快照。
+     *
+     * @return 快照列表
+     */
+    public static List<CacheMetrics.Snapshot> snapshot() {
+        List<CacheMetrics.Snapshot> list = new ArrayList<>(metricsMap.size());
+        for (CacheMetrics metrics : metricsMap.values()) {
+            list.add(metrics.snapshot());
+        }
+        return list;
+    }
+
+    /**
+     * 注册新建指标回调，并对已有指标立即回调一次。
+     *
+     * @param listener 回调
+     */
+    public static void addCreateListener(Consumer<CacheMetrics> listener) {
+        createListeners.add(listener);
+        for (CacheMetrics metrics : metricsMap.values()) {
+            listener.accept(metrics);
+        }
+    }
+}
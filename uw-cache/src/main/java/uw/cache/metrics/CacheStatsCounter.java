@@ -0,0 +1,78 @@
+package uw.cache.metrics;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+
+/**
+ * 将 Caffeine 本地缓存统计写入 {@link CacheMetrics} 的适配器。
+ * <p>
+ * 指标未开启时每次回调只做一次 volatile 读取；{@link #snapshot()} 由 {@link CacheMetrics} 中的计数生成，
+ * 因此 {@code FusionCache.localStats} 与指标快照一致。
+ */
+public class CacheStatsCounter implements StatsCounter {
+
+    /**
+     * 缓存名。
+     */
+    private final String cacheName;
+
+    /**
+     * 构造适配器。
+     *
+     * @param cacheName 缓存名
+     */
+    public CacheStatsCounter(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    @Override
+    public void recordHits(int count) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        if (metrics != null) {
+            metrics.recordL1Hit(count);
+        }
+    }
+
+    @Override
+    public void recordMisses(int count) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        if (metrics != null) {
+            metrics.recordL1Miss(count);
+        }
+    }
+
+    @Override
+    public void recordLoadSuccess(long loadTime) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        if (metrics != null) {
+            metrics.recordL1Load(loadTime, true);
+        }
+    }
+
+    @Override
+    public void recordLoadFailure(long loadTime) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        if (metrics != null) {
+            metrics.recordL1Load(loadTime, false);
+        }
+    }
+
+    @Override
+    public void recordEviction(int weight, RemovalCause cause) {
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        if (metrics != null) {
+            metrics.recordL1Eviction();
+        }
+    }
+
+    @Override
+    public CacheStats snapshot() {
+        CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+        if (metrics == null) {
+            return CacheStats.empty();
+        }
+        return CacheStats.of(metrics.getL1Hit(), metrics.getL1Miss(), metrics.getL1LoadSuccess(), metrics.getL1LoadFailure(), metrics.getL1LoadNanos(),
+                metrics.getL1Eviction(), metrics.getL1Eviction());
+    }
+}
@@ -0,0 +1,193 @@
+package uw.cache.notify;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uw.cache.FusionCache;
+import uw.cache.GlobalCache;
+import uw.cache.metrics.CacheMetrics;
+import uw.cache.metrics.CacheMetricsRegistry;
+import uw.cache.vo.FusionCacheBatchNotifyMessage;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 融合缓存失效通知合并发送器。
+ * <p>
+ * 写多的场景下逐 key 发布失效通知会产生大量 Pub/Sub 消息。开启后 {@link FusionCache#notifyInvalidate} 不再直接发布，
+ * 而是把 key 放入待发送缓冲区，每 {@code flushMillis} 毫秒或累计 {@code maxKeys} 个 key 时，
+ * 打包为一条 {@link FusionCacheBatchNotifyMessage} 发布到 {@link #BATCH_NOTIFY_CHANNEL}。
+ * <p>
+ * 所有发送均在单一调度线程上串行执行，因此每个 cacheName 的版本号与发布顺序一致，接收方可据此丢弃重复/过期乱序消息。
+ * 同一窗口内同一个 key 只发送一次；一旦出现全量失效（key 为 null），该缓存在本窗口内的其它 key 被丢弃。
+ */
+public class FusionCacheNotifyCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(FusionCacheNotifyCoalescer.class);
+
+    /**
+     * 批量失效通知通道。
+     */
+    public static final String BATCH_NOTIFY_CHANNEL = "UW_CACHE_BATCH_NOTIFY_CHANNEL";
+
+    /**
+     * 当前生效的合并发送器，为 null 时 FusionCache 退回逐条发送。
+     */
+    private static volatile FusionCacheNotifyCoalescer instance;
+
+    /**
+     * 合并窗口（毫秒）。
+     */
+    private final long flushMillis;
+
+    /**
+     * 单个窗口最多累计的 key 数，达到后立即发送。
+     */
+    private final int maxKeys;
+
+    /**
+     * 待发送缓冲区，cacheName -> key 集合，受 lock 保护。
+     */
+    private LinkedHashMap<String, LinkedHashSet<Object>> pending = new LinkedHashMap<>();
+
+    /**
+     * 待发送 key 数量，受 lock 保护。
+     */
+    private int pendingKeys;
+
+    /**
+     * 缓冲区锁。
+     */
+    private final Object lock = new Object();
+
+    /**
+     * 按 cacheName 维护的发送版本号。
+     */
+    private final ConcurrentMap<String, AtomicLong> versionMap = new ConcurrentHashMap<>();
+
+    /**
+     * 单线程调度器，负责定时发送与满额发送，保证发送串行。
+     */
+    private final ScheduledExecutorService flushScheduler;
+
+    /**
+     * 构造并启用合并发送器。
+     *
+     * @param flushMillis 合并窗口（毫秒）
+     * @param maxKeys     单个窗口最多累计的 key 数
+     */
+    public FusionCacheNotifyCoalescer(long flushMillis, int maxKeys) {
+        this.flushMillis = Math.max(1L, flushMillis);
+        this.maxKeys = Math.max(1, maxKeys);
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("uw-cache-notify-flush").daemon(true).factory());
+        this.flushScheduler.scheduleWithFixedDelay(this::flushQuietly, this.flushMillis, this.flushMillis, TimeUnit.MILLISECONDS);
+        instance = this;
+    }
+
+    /**
+     * 获取当前生效的合并发送器。
+     *
+     * @return 合并发送器，未启用时返回 null
+     */
+    public static FusionCacheNotifyCoalescer getInstance() {
+        return instance;
+    }
+
+    /**
+     * 加入一个待发送的失效通知。
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存主键，null 表示全量失效
+     */
+    public void add(String cacheName, Object key) {
+        boolean full;
+        synchronized (lock) {
+            LinkedHashSet<Object> keys = pending.computeIfAbsent(cacheName, k -> new LinkedHashSet<>());
+            if (key == null) {
+                pendingKeys -= keys.size();
+                keys.clear();
+                keys.add(null);
+                pendingKeys++;
+            } else if (!keys.contains(null) && keys.add(key)) {
+                pendingKeys++;
+            }
+            full = pendingKeys >= maxKeys;
+        }
+        if (full) {
+            try {
+                flushScheduler.execute(this::flushQuietly);
+            } catch (Exception e) {
+                // 已关闭时直接在调用线程发送。
+                flushQuietly();
+            }
+        }
+    }
+
+    /**
+     * 立即发送缓冲区内的全部通知。
+     *
+     * @return 接收到该通知的客户端数量，缓冲区为空时返回 0
+     */
+    public long flush() {
+        Map<String, LinkedHashSet<Object>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return 0L;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            pendingKeys = 0;
+        }
+        int size = batch.size();
+        String[] cacheNames = new String[size];
+        long[] versions = new long[size];
+        Object[][] cacheKeys = new Object[size][];
+        int i = 0;
+        for (Map.Entry<String, LinkedHashSet<Object>> kv : batch.entrySet()) {
+            cacheNames[i] = kv.getKey();
+            versions[i] = versionMap.computeIfAbsent(kv.getKey(), k -> new AtomicLong()).incrementAndGet();
+            cacheKeys[i] = kv.getValue().toArray();
+            CacheMetrics metrics = CacheMetricsRegistry.get(kv.getKey());
+            if (metrics != null) {
+                metrics.recordNotifySent(cacheKeys[i].length);
+            }
+            i++;
+        }
+        Long count = GlobalCache.notifyMsg(BATCH_NOTIFY_CHANNEL, new FusionCacheBatchNotifyMessage(FusionCache.INSTANCE_ID, cacheNames, versions, cacheKeys));
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * 关闭合并发送器，并发送缓冲区内剩余的通知。
+     */
+    public void shutdown() {
+        if (instance == this) {
+            instance = null;
+        }
+        flushScheduler.shutdown();
+        try {
+            flushScheduler.awaitTermination(flushMillis * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    /**
+     * 发送缓冲区，异常只记录日志，避免中断调度线程。
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Throwable e) {
+            log.error("FusionCacheNotifyCoalescer flush error: {}", e.getMessage(), e);
+        }
+    }
+}
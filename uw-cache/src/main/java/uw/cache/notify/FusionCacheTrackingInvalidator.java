@@ -0,0 +1,434 @@
+package uw.cache.notify;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.resource.ClientResources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uw.cache.FusionCache;
+import uw.cache.metrics.CacheMetrics;
+import uw.cache.metrics.CacheMetricsRegistry;
+import uw.cache.util.RedisKeyUtils;
+import uw.common.util.SystemClock;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 redis 客户端缓存（RESP3 {@code CLIENT TRACKING}）的 FusionCache 失效器。
+ * <p>
+ * 使用一条独立的 RESP3 连接，以 BCAST 模式订阅每个全局缓存的 key 前缀 {@code uw-cache:<cacheName>:}。
+ * 任何客户端（包括不经过 FusionCache 的写入方）修改或删除这些 key 时，redis 都会推送 invalidate 消息，
+ * 本类据此作废本地缓存，不删除redis数据，也不再转发通知。
+ * <p>
+ * tracking 连接与数据连接不是同一条，NOLOOP 无法过滤本节点自己的写入，因此本节点写 redis 前先登记 key 与写入值的指纹。
+ * {@link #SELF_WRITE_WINDOW_MILLIS} 内收到该 key 的推送时重新读取 redis 当前值：指纹一致说明仍是本节点写入的值，视为回声忽略，
+ * 避免刚写入的本地数据被自己清除；不一致（其他节点或直接写 redis 的客户端覆盖、删除或过期）则照常作废本地缓存。
+ * <p>
+ * 推送只携带 redis key 文本，只支持 String/Long/Integer 主键的缓存。CacheDataLoader 声明了其它主键类型的缓存在订阅时即被拒绝并记录错误日志；
+ * 无法得知主键类型的缓存按本地已有主键判断，遇到不支持的类型时停止订阅并记录错误日志。被拒绝的缓存只能收到经 Pub/Sub 发布的失效通知，
+ * 不经过 FusionCache 直接写 redis 的修改无法感知。
+ * <p>
+ * 连接断开期间的推送会丢失，因此重连后先重新开启 tracking，再清空全部已订阅缓存的本地数据。
+ * redis 版本低于 6 或不支持 RESP3 时 {@link #start} 返回 null，仍由 {@code FusionCacheNotifyListener} 的 Pub/Sub 通道保证一致性；
+ * 开启后 Pub/Sub 通知照常收发，两者可同时生效。
+ */
+public class FusionCacheTrackingInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(FusionCacheTrackingInvalidator.class);
+
+    /**
+     * FusionCache 全局缓存在 redis 中的 key 前缀。
+     */
+    private static final String REDIS_PREFIX = "uw-cache:";
+
+    /**
+     * redis 推送的失效消息类型。
+     */
+    private static final String INVALIDATE_PUSH_TYPE = "invalidate";
+
+    /**
+     * 自身写入回声的识别窗口毫秒数。
+     */
+    private static final long SELF_WRITE_WINDOW_MILLIS = 1_000L;
+
+    /**
+     * 自身写入登记表的最大条目数，超过后清理过期条目。
+     */
+    private static final int MAX_SELF_WRITE_NUM = 100_000;
+
+    /**
+     * 命令超时秒数。
+     */
+    private static final long COMMAND_TIMEOUT_SECONDS = 5;
+
+    /**
+     * 当前生效的失效器，为 null 时只使用 Pub/Sub 通知。
+     */
+    private static volatile FusionCacheTrackingInvalidator instance;
+
+    /**
+     * 专用 redis 客户端。
+     */
+    private final RedisClient redisClient;
+
+    /**
+     * RESP3 连接。
+     */
+    private final StatefulRedisConnection<String, byte[]> connection;
+
+    /**
+     * 已订阅的缓存名。
+     */
+    private final Set<String> cacheNames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 本节点最近写入的 redis key -> 写入记录。
+     */
+    private final Map<String, SelfWrite> selfWriteMap = new ConcurrentHashMap<>();
+
+    /**
+     * 失效处理线程，单线程保证按推送顺序执行，且不阻塞 netty IO 线程。
+     */
+    private final ExecutorService invalidateExecutor = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("uw-cache-tracking").daemon(true).factory());
+
+    /**
+     * 是否已完成首次连接，之后的连接事件均视为重连。
+     */
+    private volatile boolean connected;
+
+    /**
+     * 构造失效器。
+     *
+     * @param redisClient redis 客户端
+     * @param connection  RESP3 连接
+     */
+    private FusionCacheTrackingInvalidator(RedisClient redisClient, StatefulRedisConnection<String, byte[]> connection) {
+        this.redisClient = redisClient;
+        this.connection = connection;
+    }
+
+    /**
+     * 连接 redis 并开启 tracking，成功后成为当前生效的失效器，并订阅已配置的全部全局缓存。
+     *
+     * @param clientResources Lettuce 共享 ClientResources
+     * @param redisURI        redis 地址
+     * @return 失效器，redis 不支持时返回 null
+     */
+    public static FusionCacheTrackingInvalidator start(ClientResources clientResources, RedisURI redisURI) {
+        RedisClient redisClient = RedisClient.create(clientResources, redisURI);
+        redisClient.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP3).autoReconnect(true).build());
+        StatefulRedisConnection<String, byte[]> connection = null;
+        try {
+            // value 按字节读取，用于回声识别时比对写入值的指纹。
+            connection = redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+            FusionCacheTrackingInvalidator invalidator = new FusionCacheTrackingInvalidator(redisClient, connection);
+            connection.addListener(invalidator.new InvalidatePushListener());
+            redisClient.addListener(invalidator.new ReconnectListener());
+            // 先用一个不会命中的前缀开启 BCAST，确认服务端支持，之后逐个追加缓存前缀。
+            connection.sync().clientTracking(TrackingArgs.Builder.enabled().bcast().prefixes(REDIS_PREFIX + RedisKeyUtils.KEY_SPLITTER));
+            invalidator.connected = true;
+            instance = invalidator;
+            for (String cacheName : FusionCache.globalCacheNames()) {
+                invalidator.track(cacheName);
+            }
+            log.info("FusionCacheTrackingInvalidator started on {}:{}", redisURI.getHost(), redisURI.getPort());
+            return invalidator;
+        } catch (Throwable e) {
+            log.warn("redis client tracking unavailable, fallback to pub/sub notify! msg: {}", e.getMessage());
+            if (connection != null) {
+                connection.close();
+            }
+            redisClient.shutdown();
+            return null;
+        }
+    }
+
+    /**
+     * 获取当前生效的失效器。
+     *
+     * @return 失效器，未启用时返回 null
+     */
+    public static FusionCacheTrackingInvalidator getInstance() {
+        return instance;
+    }
+
+    /**
+     * 订阅指定缓存的 key 前缀，重复订阅直接返回。
+     * <p>
+     * CacheDataLoader 声明的主键类型不是 String/Long/Integer 时无法由推送的 key 文本还原主键，拒绝订阅并记录错误日志。
+     *
+     * @param cacheName 缓存名
+     * @return true 表示已订阅
+     */
+    public boolean track(String cacheName) {
+        Class<?> keyClass = FusionCache.getKeyClass(cacheName);
+        if (keyClass != null && !FusionCache.isTextKeyClass(keyClass)) {
+            log.error("FusionCache[{}] key type [{}] not supported by client tracking, only String/Long/Integer supported! " +
+                    "direct redis writes will not invalidate local cache, only pub/sub notify works.", cacheName, keyClass.getName());
+            return false;
+        }
+        if (!cacheNames.add(cacheName)) {
+            return true;
+        }
+        try {
+            connection.sync().clientTracking(TrackingArgs.Builder.enabled().bcast().prefixes(buildPrefix(cacheName)));
+            return true;
+        } catch (Throwable e) {
+            // 前缀与已有前缀重叠（cacheName 含有分隔符）等情况下，该缓存仍依赖 Pub/Sub 通知。
+            cacheNames.remove(cacheName);
+            log.warn("FusionCache[{}] client tracking failed! msg: {}", cacheName, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 登记本节点即将写入的 redis key 与值，由 GlobalCache 在写入前调用，非订阅缓存的 key 直接忽略。
+     *
+     * @param cacheName 缓存名
+     * @param redisKey  redis key
+     * @param redisData 写入的值
+     */
+    public void markSelfWrite(String cacheName, String redisKey, byte[] redisData) {
+        if (!cacheNames.contains(cacheName)) {
+            return;
+        }
+        if (selfWriteMap.size() >= MAX_SELF_WRITE_NUM) {
+            long expiredAt = SystemClock.now() - SELF_WRITE_WINDOW_MILLIS;
+            selfWriteMap.values().removeIf(selfWrite -> selfWrite.writeMillis < expiredAt);
+        }
+        selfWriteMap.put(redisKey, new SelfWrite(SystemClock.now(), fingerprint(redisData)));
+    }
+
+    /**
+     * 获取已订阅的缓存名。
+     *
+     * @return 缓存名集合
+     */
+    public Set<String> getTrackedCacheNames() {
+        return Set.copyOf(cacheNames);
+    }
+
+    /**
+     * 关闭失效器，释放连接。
+     */
+    public void shutdown() {
+        if (instance == this) {
+            instance = null;
+        }
+        invalidateExecutor.shutdown();
+        try {
+            invalidateExecutor.awaitTermination(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        connection.close();
+        redisClient.shutdown();
+    }
+
+    /**
+     * 构造缓存的 key 前缀。
+     *
+     * @param cacheName 缓存名
+     * @return key 前缀
+     */
+    private static String buildPrefix(String cacheName) {
+        return REDIS_PREFIX + cacheName + RedisKeyUtils.KEY_SPLITTER;
+    }
+
+    /**
+     * 处理一个被修改的 redis key。
+     *
+     * @param redisKey redis key
+     */
+    private void invalidate(String redisKey) {
+        if (redisKey == null || !redisKey.startsWith(REDIS_PREFIX)) {
+            return;
+        }
+        SelfWrite selfWrite = selfWriteMap.get(redisKey);
+        if (selfWrite != null) {
+            if (SystemClock.now() - selfWrite.writeMillis >= SELF_WRITE_WINDOW_MILLIS) {
+                selfWriteMap.remove(redisKey, selfWrite);
+            } else if (isSelfEcho(redisKey, selfWrite)) {
+                return;
+            }
+        }
+        int start = REDIS_PREFIX.length();
+        int split = redisKey.indexOf(RedisKeyUtils.KEY_SPLITTER, start);
+        while (split > 0) {
+            String cacheName = redisKey.substring(start, split);
+            if (cacheNames.contains(cacheName)) {
+                CacheMetrics metrics = CacheMetricsRegistry.get(cacheName);
+                if (metrics != null) {
+                    metrics.recordNotifyReceived(1);
+                }
+                if (!FusionCache.invalidateLocalByKeyText(cacheName, redisKey.substring(split + 1)) && cacheNames.remove(cacheName)) {
+                    log.error("FusionCache[{}] key type not supported by client tracking, only String/Long/Integer supported! " +
+                            "direct redis writes will not invalidate local cache, only pub/sub notify works.", cacheName);
+                }
+                return;
+            }
+            // cacheName 本身可能包含分隔符。
+            split = redisKey.indexOf(RedisKeyUtils.KEY_SPLITTER, split + 1);
+        }
+    }
+
+    /**
+     * 重新读取 redis 当前值，判断推送是否为本节点写入的回声。
+     *
+     * @param redisKey  redis key
+     * @param selfWrite 本节点的写入记录
+     * @return true 表示当前值仍是本节点写入的值；读取失败、已被删除或被覆盖时返回 false
+     */
+    private boolean isSelfEcho(String redisKey, SelfWrite selfWrite) {
+        byte[] redisData;
+        try {
+            redisData = connection.async().get(redisKey).get(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Throwable e) {
+            log.warn("FusionCacheTrackingInvalidator read [{}] error: {}", redisKey, e.getMessage());
+            return false;
+        }
+        if (redisData != null && fingerprint(redisData) == selfWrite.fingerprint) {
+            return true;
+        }
+        selfWriteMap.remove(redisKey, selfWrite);
+        return false;
+    }
+
+    /**
+     * 计算值的 64 位 FNV-1a 指纹。
+     *
+     * @param data 值
+     * @return 指纹
+     */
+    private static long fingerprint(byte[] data) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : data) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 清空全部已订阅缓存的本地数据。
+     */
+    private void invalidateAll() {
+        for (String cacheName : cacheNames) {
+            FusionCache.invalidateLocalByKeyText(cacheName, null);
+        }
+    }
+
+    /**
+     * 重连后重新开启 tracking，并清空连接断开期间可能错过失效推送的本地数据。
+     */
+    private void retrack() {
+        selfWriteMap.clear();
+        try {
+            String[] prefixes = new String[cacheNames.size() + 1];
+            int i = 0;
+            prefixes[i++] = REDIS_PREFIX + RedisKeyUtils.KEY_SPLITTER;
+            for (String cacheName : cacheNames) {
+                prefixes[i++] = buildPrefix(cacheName);
+            }
+            connection.async().clientTracking(TrackingArgs.Builder.enabled().bcast().prefixes(prefixes)).get(COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Throwable e) {
+            log.error("FusionCacheTrackingInvalidator retrack error: {}", e.getMessage(), e);
+        }
+        invalidateAll();
+    }
+
+    /**
+     * 将 redis 推送内容解码为字符串。
+     *
+     * @param content 推送内容
+     * @return 字符串，无法识别时返回 null
+     */
+    private static String decode(Object content) {
+        if (content instanceof String str) {
+            return str;
+        } else if (content instanceof ByteBuffer buffer) {
+            return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+        } else if (content instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    /**
+     * 失效推送监听，在 netty IO 线程回调，只解码后转交处理线程。
+     */
+    private class InvalidatePushListener implements PushListener {
+
+        @Override
+        public void onPushMessage(PushMessage message) {
+            if (!INVALIDATE_PUSH_TYPE.equals(message.getType())) {
+                return;
+            }
+            List<Object> content = message.getContent();
+            // content 为 [invalidate, keys]，keys 为 null 表示服务端执行了 FLUSHALL/FLUSHDB。
+            Object keys = content.size() > 1 ? content.get(1) : null;
+            if (keys instanceof List<?> keyList) {
+                String[] redisKeys = new String[keyList.size()];
+                for (int i = 0; i < redisKeys.length; i++) {
+                    redisKeys[i] = decode(keyList.get(i));
+                }
+                invalidateExecutor.execute(() -> {
+                    for (String redisKey : redisKeys) {
+                        try {
+                            invalidate(redisKey);
+                        } catch (Throwable e) {
+                            log.error("FusionCacheTrackingInvalidator invalidate [{}] error: {}", redisKey, e.getMessage(), e);
+                        }
+                    }
+                });
+            } else if (keys == null) {
+                invalidateExecutor.execute(FusionCacheTrackingInvalidator.this::invalidateAll);
+            }
+        }
+    }
+
+    /**
+     * 本节点的写入记录。
+     *
+     * @param writeMillis 写入时间
+     * @param fingerprint 写入值的指纹
+     */
+    private record SelfWrite(long writeMillis, long fingerprint) {
+    }
+
+    /**
+     * 连接状态监听，重连后重新开启 tracking。
+     */
+    private class ReconnectListener implements RedisConnectionStateListener {
+
+        @Override
+        public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+            if (connected && handler == connection) {
+                invalidateExecutor.execute(FusionCacheTrackingInvalidator.this::retrack);
+            }
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package uw.cache.offheap;
+
+import uw.common.util.JsonUtils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 堆外字节存储。
+ * <p>
+ * 以固定大小的堆外内存段（{@link ByteBuffer#allocateDirect}）顺序追加保存序列化后的缓存数据，
+ * 堆内只保留 key -> (段, 偏移, 长度) 的索引，避免大量宽对象进入老年代。
+ * <p>
+ * 淘汰策略按段进行：段写满后切换到下一个段；总字节数达到 {@code maxBytes} 或条目数超过 {@code maxEntries} 时，
+ * 回收最早写入的段，并移除其中全部索引。覆盖写入的旧数据在所属段被回收前继续占用空间。
+ * <p>
+ * 并发：写入由一把锁串行化；读取无锁，通过段的代数（generation）与 {@link StampedLock} 乐观读校验，
+ * 若读取期间所属段被回收则视为未命中。
+ * <p>
+ * 注意：堆外内存受 {@code -XX:MaxDirectMemorySize} 限制，需保证其不小于所有堆外缓存的 maxBytes 之和。
+ */
+public class OffHeapStore {
+
+    /**
+     * 单个内存段的字节数。
+     */
+    private final int segmentBytes;
+
+    /**
+     * 最多内存段数量。
+     */
+    private final int maxSegments;
+
+    /**
+     * 最多条目数。
+     */
+    private final long maxEntries;
+
+    /**
+     * key -> 条目索引。
+     */
+    private final ConcurrentHashMap<Object, Entry> index = new ConcurrentHashMap<>();
+
+    /**
+     * 已写入数据的段，按写入先后排列，最后一个为当前写入段。受 writeLock 保护。
+     */
+    private final ArrayDeque<Segment> usedSegments = new ArrayDeque<>();
+
+    /**
+     * 已回收可复用的段。受 writeLock 保护。
+     */
+    private final ArrayDeque<Segment> freeSegments = new ArrayDeque<>();
+
+    /**
+     * 写锁。
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * 已分配的段数量。受 writeLock 保护。
+     */
+    private int allocatedSegments;
+
+    /**
+     * 命中次数。
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * 未命中次数。
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * 写入次数。
+     */
+    private final LongAdder putCount = new LongAdder();
+
+    /**
+     * 因段回收被淘汰的条目数。
+     */
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 构造堆外存储。
+     * <p>
+     * 淘汰至少需要两个段（一个写入、一个待回收），maxBytes 不足两个段时段大小缩小为 maxBytes / 2，保证总占用不超过 maxBytes。
+     *
+     * @param maxBytes     最大字节数，至少为 2
+     * @param maxEntries   最大条目数，<=0 表示不限制
+     * @param segmentBytes 单个内存段的字节数，同时也是单条数据的最大字节数
+     */
+    public OffHeapStore(long maxBytes, long maxEntries, int segmentBytes) {
+        if (segmentBytes < 1) {
+            throw new IllegalArgumentException("segmentBytes must be positive!");
+        }
+        if (maxBytes < 2) {
+            throw new IllegalArgumentException("maxBytes must be at least 2!");
+        }
+        if (maxBytes / segmentBytes < 2) {
+            segmentBytes = (int) (maxBytes / 2);
+        }
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = (int) Math.min(Integer.MAX_VALUE, maxBytes / segmentBytes);
+        this.maxEntries = maxEntries > 0 ? maxEntries : Long.MAX_VALUE;
+    }
+
+    /**
+     * 写入数据。
+     *
+     * @param key  缓存主键
+     * @param data 序列化数据
+     * @return 是否写入成功，数据超过单个段大小时不写入
+     */
+    public boolean put(Object key, byte[] data) {
+        if (key == null || data == null || data.length > segmentBytes) {
+            return false;
+        }
+        writeLock.lock();
+        try {
+            Segment segment = usedSegments.peekLast();
+            if (segment == null || segment.position + data.length > segmentBytes) {
+                segment = nextSegment();
+            }
+            segment.buffer.put(segment.position, data);
+            Entry entry = new Entry(key, segment, segment.generation, segment.position, data.length);
+            segment.position += data.length;
+            segment.entries.add(entry);
+            index.put(key, entry);
+            putCount.increment();
+            while (index.size() > maxEntries && usedSegments.size() > 1) {
+                Segment oldest = usedSegments.pollFirst();
+                recycle(oldest);
+                freeSegments.addLast(oldest);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 读取数据。
+     *
+     * @param key 缓存主键
+     * @return 序列化数据，不存在返回 null
+     */
+    public byte[] get(Object key) {
+        Entry entry = index.get(key);
+        byte[] data = entry == null ? null : read(entry);
+        if (data == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return data;
+    }
+
+    /**
+     * 读取并移除数据。
+     *
+     * @param key 缓存主键
+     * @return 序列化数据，不存在返回 null
+     */
+    public byte[] take(Object key) {
+        Entry entry = index.remove(key);
+        byte[] data = entry == null ? null : read(entry);
+        if (data == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return data;
+    }
+
+    /**
+     * 移除数据。
+     *
+     * @param key 缓存主键
+     */
+    public void remove(Object key) {
+        if (!index.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * 清空全部数据，已分配的段保留复用。
+     */
+    public void clear() {
+        writeLock.lock();
+        try {
+            Segment segment;
+            while ((segment = usedSegments.pollFirst()) != null) {
+                recycle(segment);
+                freeSegments.addLast(segment);
+            }
+            index.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 获取全部主键（只读视图）。
+     *
+     * @return 主键集合
+     */
+    public Set<Object> keySet() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * 获取条目数。
+     *
+     * @return 条目数
+     */
+    public long size() {
+        return index.size();
+    }
+
+    /**
+     * 获取统计信息。
+     *
+     * @return 统计信息
+     */
+    public Stats stats() {
+        long usedBytes = 0;
+        int allocated;
+        writeLock.lock();
+        try {
+            for (Segment segment : usedSegments) {
+                usedBytes += segment.position;
+            }
+            allocated = allocatedSegments;
+        } finally {
+            writeLock.unlock();
+        }
+        return new Stats(index.size(), usedBytes, (long) allocated * segmentBytes, (long) maxSegments * segmentBytes, hitCount.sum(), missCount.sum(),
+                putCount.sum(), evictionCount.sum());
+    }
+
+    /**
+     * 读取条目数据，所属段已被回收时返回 null。
+     *
+     * @param entry 条目索引
+     * @return 序列化数据
+     */
+    private byte[] read(Entry entry) {
+        Segment segment = entry.segment;
+        StampedLock lock = segment.lock;
+        long stamp = lock.tryOptimisticRead();
+        if (segment.generation != entry.generation) {
+            index.remove(entry.key, entry);
+            return null;
+        }
+        byte[] data = new byte[entry.length];
+        segment.buffer.get(entry.offset, data);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                if (segment.generation != entry.generation) {
+                    index.remove(entry.key, entry);
+                    return null;
+                }
+                segment.buffer.get(entry.offset, data);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * 获取下一个可写入的段：优先复用空闲段，其次分配新段，最后回收最早写入的段。需持有 writeLock。
+     *
+     * @return 可写入的段
+     */
+    private Segment nextSegment() {
+        Segment segment = freeSegments.pollFirst();
+        if (segment == null) {
+            if (allocatedSegments < maxSegments) {
+                segment = new Segment(ByteBuffer.allocateDirect(segmentBytes));
+                allocatedSegments++;
+            } else {
+                segment = usedSegments.pollFirst();
+                recycle(segment);
+            }
+        }
+        usedSegments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * 回收段：递增代数使正在进行的读取失效，并移除其中仍有效的索引。需持有 writeLock。
+     *
+     * @param segment 要回收的段
+     */
+    private void recycle(Segment segment) {
+        long stamp = segment.lock.writeLock();
+        try {
+            segment.generation++;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+        for (Entry entry : segment.entries) {
+            if (index.remove(entry.key, entry)) {
+                evictionCount.increment();
+            }
+        }
+        segment.entries.clear();
+        segment.position = 0;
+    }
+
+    /**
+     * 堆外内存段。
+     */
+    private static class Segment {
+
+        /**
+         * 堆外缓冲区，只使用绝对位置读写，多线程共享安全。
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * 回收时持有写锁，供读取方校验。
+         */
+        private final StampedLock lock = new StampedLock();
+
+        /**
+         * 段内条目，回收时据此移除索引。受 writeLock 保护。
+         */
+        private final List<Entry> entries = new ArrayList<>();
+
+        /**
+         * 代数，每次回收递增。
+         */
+        private volatile long generation;
+
+        /**
+         * 写入位置。受 writeLock 保护。
+         */
+        private int position;
+
+        private Segment(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * 条目索引。
+     *
+     * @param key        缓存主键
+     * @param segment    所属段
+     * @param generation 写入时所属段的代数
+     * @param offset     段内偏移
+     * @param length     数据长度
+     */
+    private record Entry(Object key, Segment segment, long generation, int offset, int length) {
+    }
+
+    /**
+     * 堆外存储统计。
+     *
+     * @param entryCount     条目数
+     * @param usedBytes      已写入字节数（含被覆盖的旧数据）
+     * @param allocatedBytes 已分配的堆外字节数
+     * @param maxBytes       最大堆外字节数
+     * @param hitCount       命中次数
+     * @param missCount      未命中次数
+     * @param putCount       写入次数
+     * @param evictionCount  淘汰条目数
+     */
+    public record Stats(long entryCount, long usedBytes, long allocatedBytes, long maxBytes, long hitCount, long missCount, long putCount, long evictionCount) {
+
+        /**
+         * 输出统计的 JSON 表示，便于日志排查。
+         *
+         * @return JSON 字符串
+         */
+        @Override
+        public String toString() {
+            return JsonUtils.toString(this);
+        }
+    }
+}
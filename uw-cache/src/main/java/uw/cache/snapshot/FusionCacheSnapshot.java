@@ -0,0 +1,378 @@
+package uw.cache.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uw.cache.util.KryoCacheUtils;
+import uw.cache.vo.CacheValueWrapper;
+import uw.common.util.KryoUtils;
+import uw.common.util.SystemClock;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * FusionCache 本地快照文件的读写。
+ * <p>
+ * 每个缓存一个文件 {@code <dir>/<cacheName>.snap}，先写临时文件再原子改名，读写均使用内存映射。文件格式：
+ * <pre>
+ * int 魔数 | int 格式版本 | long 写入时间 | utf 缓存名
+ * int 类型数 | (utf 类名 | long 结构指纹)*
+ * int 条目数 | (long 过期时间 | int key长度 | key | int 值长度 | 值)*
+ * </pre>
+ * key 与值均为 kryo 序列化（含类型信息）。写入时收集 key 与业务值的实际类型，集合、Map 与数组按元素展开；
+ * 读取时对这些类型重新计算结构指纹（递归的字段名与字段类型），任一类型已不存在或结构发生变化，整个快照丢弃，
+ * 避免 kryo 按旧结构读出错误数据。
+ */
+public class FusionCacheSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(FusionCacheSnapshot.class);
+
+    /**
+     * 文件魔数 "UWCS"。
+     */
+    private static final int MAGIC = 0x55574353;
+
+    /**
+     * 文件格式版本。
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 收集集合元素类型时的最大嵌套层数。
+     */
+    private static final int MAX_COLLECT_DEPTH = 8;
+
+    /**
+     * 快照文件后缀。
+     */
+    private static final String FILE_SUFFIX = ".snap";
+
+    /**
+     * 快照目录，默认 {@code java.io.tmpdir/uw-cache-snapshot}。
+     */
+    private static volatile Path snapshotDir = Paths.get(System.getProperty("java.io.tmpdir"), "uw-cache-snapshot");
+
+    private FusionCacheSnapshot() {
+    }
+
+    /**
+     * 设置快照目录。
+     *
+     * @param dir 快照目录
+     */
+    public static void setSnapshotDir(Path dir) {
+        snapshotDir = dir;
+    }
+
+    /**
+     * 获取快照目录。
+     *
+     * @return 快照目录
+     */
+    public static Path getSnapshotDir() {
+        return snapshotDir;
+    }
+
+    /**
+     * 写入快照，跳过空值与已过期的数据。
+     *
+     * @param cacheName 缓存名
+     * @param entries   key -> 缓存值，按热度从高到低排列
+     * @return 写入条目数
+     * @throws IOException 写文件失败
+     */
+    public static int write(String cacheName, Map<?, CacheValueWrapper<?>> entries) throws IOException {
+        Set<Class<?>> classSet = new LinkedHashSet<>();
+        List<Long> expiredAtList = new ArrayList<>(entries.size());
+        List<byte[]> keyList = new ArrayList<>(entries.size());
+        List<byte[]> valueList = new ArrayList<>(entries.size());
+        long size = 0;
+        for (Map.Entry<?, CacheValueWrapper<?>> kv : entries.entrySet()) {
+            CacheValueWrapper<?> valueWrapper = kv.getValue();
+            if (kv.getKey() == null || valueWrapper == null || valueWrapper.getValue() == null || valueWrapper.checkExpired()) {
+                continue;
+            }
+            byte[] key;
+            byte[] value;
+            try {
+                key = KryoUtils.serializeWithClass(kv.getKey());
+                value = KryoCacheUtils.serializeValueWrapperWithClass(null, valueWrapper);
+            } catch (Exception e) {
+                log.warn("FusionCache[{}] snapshot serialize failed, skipped: {}", cacheName, e.toString());
+                continue;
+            }
+            collectClasses(kv.getKey(), classSet, 0);
+            collectClasses(valueWrapper.getValue(), classSet, 0);
+            expiredAtList.add(valueWrapper.getExpiredAt());
+            keyList.add(key);
+            valueList.add(value);
+            size += Long.BYTES + Integer.BYTES * 2 + key.length + value.length;
+        }
+        byte[] nameBytes = cacheName.getBytes(StandardCharsets.UTF_8);
+        List<byte[]> classNames = new ArrayList<>(classSet.size());
+        size += Integer.BYTES * 2 + Long.BYTES + Integer.BYTES + nameBytes.length + Integer.BYTES + Integer.BYTES;
+        for (Class<?> cls : classSet) {
+            byte[] classNameBytes = cls.getName().getBytes(StandardCharsets.UTF_8);
+            classNames.add(classNameBytes);
+            size += Integer.BYTES + classNameBytes.length + Long.BYTES;
+        }
+        Files.createDirectories(snapshotDir);
+        Path file = buildPath(cacheName);
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(SystemClock.now());
+            buffer.putInt(nameBytes.length).put(nameBytes);
+            buffer.putInt(classNames.size());
+            int i = 0;
+            for (Class<?> cls : classSet) {
+                byte[] classNameBytes = classNames.get(i++);
+                buffer.putInt(classNameBytes.length).put(classNameBytes).putLong(fingerprint(cls));
+            }
+            buffer.putInt(expiredAtList.size());
+            for (int j = 0; j < expiredAtList.size(); j++) {
+                byte[] key = keyList.get(j);
+                byte[] value = valueList.get(j);
+                buffer.putLong(expiredAtList.get(j)).putInt(key.length).put(key).putInt(value.length).put(value);
+            }
+            buffer.force();
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return expiredAtList.size();
+    }
+
+    /**
+     * 读取快照，跳过已过期的数据，读取后删除快照文件。
+     *
+     * @param cacheName 缓存名
+     * @param maxAgeMillis 快照有效毫秒数，超过后整体丢弃
+     * @return key -> 缓存值，按热度从高到低排列；快照不存在、过期、已损坏或业务值类型结构变化时返回 null
+     */
+    public static Map<Object, CacheValueWrapper<?>> read(String cacheName, long maxAgeMillis) {
+        Path file = buildPath(cacheName);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                log.warn("FusionCache[{}] snapshot format not match, discarded.", cacheName);
+                return null;
+            }
+            long createdAt = buffer.getLong();
+            if (maxAgeMillis > 0 && SystemClock.now() - createdAt > maxAgeMillis) {
+                log.info("FusionCache[{}] snapshot too old, discarded.", cacheName);
+                return null;
+            }
+            if (!cacheName.equals(readString(buffer))) {
+                log.warn("FusionCache[{}] snapshot cacheName not match, discarded.", cacheName);
+                return null;
+            }
+            int classCount = buffer.getInt();
+            for (int i = 0; i < classCount; i++) {
+                String className = readString(buffer);
+                long savedFingerprint = buffer.getLong();
+                Class<?> cls;
+                try {
+                    cls = Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+                } catch (ClassNotFoundException e) {
+                    log.warn("FusionCache[{}] snapshot class [{}] not found, discarded.", cacheName, className);
+                    return null;
+                }
+                if (fingerprint(cls) != savedFingerprint) {
+                    log.warn("FusionCache[{}] snapshot class [{}] changed, discarded.", cacheName, className);
+                    return null;
+                }
+            }
+            int entryCount = buffer.getInt();
+            Map<Object, CacheValueWrapper<?>> entries = new LinkedHashMap<>((int) (entryCount / 0.75f) + 1);
+            long now = SystemClock.now();
+            for (int i = 0; i < entryCount; i++) {
+                long expiredAt = buffer.getLong();
+                byte[] key = new byte[buffer.getInt()];
+                buffer.get(key);
+                int valueLength = buffer.getInt();
+                if (expiredAt > 0 && expiredAt <= now) {
+                    buffer.position(buffer.position() + valueLength);
+                    continue;
+                }
+                byte[] value = new byte[valueLength];
+                buffer.get(value);
+                entries.put(KryoUtils.deserializeWithClass(key), KryoCacheUtils.deserializeValueWrapperWithClass(null, value));
+            }
+            return entries;
+        } catch (Exception e) {
+            log.warn("FusionCache[{}] snapshot read failed, discarded: {}", cacheName, e.toString());
+            return null;
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("FusionCache[{}] snapshot delete failed: {}", cacheName, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 收集对象的实际类型，集合、Map 与对象数组按元素展开，JDK 类型不参与指纹计算。
+     *
+     * @param obj      对象
+     * @param classSet 输出
+     * @param depth    当前嵌套层数
+     */
+    private static void collectClasses(Object obj, Set<Class<?>> classSet, int depth) {
+        if (obj == null || depth > MAX_COLLECT_DEPTH) {
+            return;
+        }
+        if (obj instanceof Collection<?> collection) {
+            for (Object element : collection) {
+                collectClasses(element, classSet, depth + 1);
+            }
+        } else if (obj instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> kv : map.entrySet()) {
+                collectClasses(kv.getKey(), classSet, depth + 1);
+                collectClasses(kv.getValue(), classSet, depth + 1);
+            }
+        } else if (obj instanceof Object[] array) {
+            for (Object element : array) {
+                collectClasses(element, classSet, depth + 1);
+            }
+        }
+        Class<?> cls = obj.getClass();
+        while (cls.isArray()) {
+            cls = cls.getComponentType();
+        }
+        if (!cls.isPrimitive() && !isJdkClass(cls)) {
+            classSet.add(cls);
+        }
+    }
+
+    /**
+     * 计算类型的结构指纹：递归收集类及其父类的实例字段名与字段类型（含泛型参数），JDK 类型不再展开。
+     *
+     * @param cls 类型
+     * @return 结构指纹
+     */
+    public static long fingerprint(Class<?> cls) {
+        StringBuilder sb = new StringBuilder(256);
+        appendStructure(cls, sb, new HashSet<>());
+        // FNV-1a 64位。
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < sb.length(); i++) {
+            hash ^= sb.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 追加类型结构描述。
+     *
+     * @param cls     类型
+     * @param sb      输出
+     * @param visited 已展开的类型
+     */
+    private static void appendStructure(Class<?> cls, StringBuilder sb, Set<Class<?>> visited) {
+        while (cls.isArray()) {
+            cls = cls.getComponentType();
+        }
+        sb.append(cls.getName()).append('{');
+        if (cls.isPrimitive() || cls.isEnum() || isJdkClass(cls) || !visited.add(cls)) {
+            sb.append('}');
+            return;
+        }
+        for (Class<?> current = cls; current != null && current != Object.class; current = current.getSuperclass()) {
+            Set<String> fields = new TreeSet<>();
+            List<Class<?>> fieldTypes = new ArrayList<>();
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                fields.add(field.getName() + ':' + field.getGenericType().getTypeName());
+                fieldTypes.add(field.getType());
+                collectTypeArguments(field.getGenericType(), fieldTypes);
+            }
+            sb.append(fields);
+            for (Class<?> fieldType : fieldTypes) {
+                appendStructure(fieldType, sb, visited);
+            }
+        }
+        sb.append('}');
+    }
+
+    /**
+     * 收集泛型参数中的类型，如 {@code List<OrderItem>} 中的 OrderItem。
+     *
+     * @param type  字段泛型类型
+     * @param types 输出
+     */
+    private static void collectTypeArguments(Type type, List<Class<?>> types) {
+        if (type instanceof ParameterizedType parameterizedType) {
+            for (Type argument : parameterizedType.getActualTypeArguments()) {
+                if (argument instanceof Class<?> cls) {
+                    types.add(cls);
+                } else {
+                    collectTypeArguments(argument, types);
+                }
+            }
+        } else if (type instanceof GenericArrayType arrayType) {
+            collectTypeArguments(arrayType.getGenericComponentType(), types);
+        }
+    }
+
+    /**
+     * 是否为 JDK 类型。
+     *
+     * @param cls 类型
+     * @return 是否为 JDK 类型
+     */
+    private static boolean isJdkClass(Class<?> cls) {
+        String name = cls.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.");
+    }
+
+    /**
+     * 读取 int 长度前缀的 UTF-8 字符串。
+     *
+     * @param buffer 缓冲区
+     * @return 字符串
+     */
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 构造快照文件路径，缓存名中的非常规字符替换为下划线。
+     *
+     * @param cacheName 缓存名
+     * @return 文件路径
+     */
+    private static Path buildPath(String cacheName) {
+        return snapshotDir.resolve(cacheName.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,66 @@
+package uw.cache.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import uw.cache.FusionCache;
+
+/**
+ * FusionCache 本地快照的生命周期管理。
+ * <p>
+ * phase 低于 web 服务器，因此启动时先于 web 服务器开始接收流量，等待快照加载（最多 loadWaitMillis）；
+ * 关闭时在 web 服务器停止接收流量之后，保存各缓存最热的本地数据。
+ */
+public class FusionCacheSnapshotLifecycle implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(FusionCacheSnapshotLifecycle.class);
+
+    /**
+     * 启动阶段，低于 web 服务器的 {@code SmartLifecycle} phase。
+     */
+    private static final int PHASE = Integer.MAX_VALUE - 4096;
+
+    /**
+     * 启动时等待快照加载完成的最长毫秒数。
+     */
+    private final long loadWaitMillis;
+
+    /**
+     * 是否运行中。
+     */
+    private volatile boolean running;
+
+    /**
+     * 构造生命周期管理。
+     *
+     * @param loadWaitMillis 启动时等待快照加载完成的最长毫秒数
+     */
+    public FusionCacheSnapshotLifecycle(long loadWaitMillis) {
+        this.loadWaitMillis = loadWaitMillis;
+    }
+
+    @Override
+    public void start() {
+        if (!FusionCache.awaitSnapshotLoaded(loadWaitMillis)) {
+            log.warn("FusionCache snapshot not loaded in {}ms, continue loading in background.", loadWaitMillis);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        int count = FusionCache.saveSnapshots();
+        log.info("FusionCache snapshot saved, total entries: {}", count);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -1,46 +1,229 @@
 package uw.cache.util;
 
+import uw.cache.vo.CacheCodecStats;
 import uw.cache.vo.CacheValueWrapper;
 import uw.common.util.KryoUtils;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
 /**
  * 缓存专用的kryo序列化工具类。
  * <p>
  * 通用序列化能力（serialize/deserialize 等）已统一收敛到 {@link KryoUtils}，
  * 本类仅保留与 {@link CacheValueWrapper} 强相关的封装序列化逻辑：
  * 写入时先写过期时间，再写入业务值；读取时反向还原。
+ * <p>
+ * 帧格式：前8字节为小端 long，低56位为过期时间戳，最高字节为帧头（高4位版本号，低4位编码方式）。
+ * 旧格式前8字节为完整的过期时间戳，其最高字节只可能是 0x00 或 0xFF，据此与新格式区分，旧数据可透明读取。
+ * 业务值序列化后超过 {@link #setCompressThreshold 压缩阈值} 时使用 Deflate 压缩，
+ * 压缩帧在8字节头之后写入4字节原始长度，再写入压缩数据。
+ * <p>
+ * 旧版本无法读取新帧格式（会把帧头当作过期时间戳，也无法解压），因此写入 Redis 的新帧格式由 {@link #setFrameEnabled} 控制，默认关闭：
+ * 滚动升级时先全量发布本版本（只读兼容新格式、仍写旧格式），确认集群内不再有旧版本后再开启。
+ * 堆外缓存与本地快照只在本进程内读取，始终使用新帧格式。
  *
  * @author axeon
  */
 public class KryoCacheUtils {
 
+    /**
+     * 帧版本号。
+     */
+    private static final int FRAME_VERSION = 1;
+
+    /**
+     * 编码方式：kryo 原始字节。
+     */
+    public static final int CODEC_RAW = 0;
+
+    /**
+     * 编码方式：Deflate 压缩。
+     */
+    public static final int CODEC_DEFLATE = 1;
+
+    /**
+     * 过期时间戳占用的低56位掩码。
+     */
+    private static final long EXPIRED_AT_MASK = 0x00FFFFFFFFFFFFFFL;
+
+    /**
+     * 帧头长度。
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * 压缩帧中原始长度字段的长度。
+     */
+    private static final int RAW_LENGTH_SIZE = 4;
+
+    /**
+     * 写入 Redis 的数据是否使用新帧格式（含压缩），关闭时写入旧格式且不压缩。
+     */
+    private static volatile boolean frameEnabled = false;
+
+    /**
+     * 压缩阈值（业务值字节数），<=0 表示不压缩。
+     */
+    private static volatile int compressThreshold = 4096;
+
+    /**
+     * Deflate 压缩级别。
+     */
+    private static volatile int compressLevel = Deflater.BEST_SPEED;
+
+    /**
+     * 按 cacheName 统计的编解码数据。
+     */
+    private static final Map<String, CacheCodecStats> codecStatsMap = new ConcurrentHashMap<>();
+
     private KryoCacheUtils() {
     }
 
     /**
-     * 序列化缓存值封装对象。
+     * 设置写入 Redis 的数据是否使用新帧格式。
      * <p>
-     * 协议：先写入8字节过期时间戳，若业务值非空则继续用kryo写入对象；为空则仅保留过期时间。
+     * 集群内全部节点都已升级到可读取新帧格式的版本后才能开启，否则旧节点会读到错误的过期时间或无法解码压缩数据。
+     *
+     * @param enabled 是否开启
+     */
+    public static void setFrameEnabled(boolean enabled) {
+        frameEnabled = enabled;
+    }
+
+    /**
+     * 写入 Redis 的数据是否使用新帧格式。
+     *
+     * @return 是否开启
+     */
+    public static boolean isFrameEnabled() {
+        return frameEnabled;
+    }
+
+    /**
+     * 设置压缩阈值。
+     *
+     * @param threshold 业务值序列化后超过此字节数时压缩，<=0 表示不压缩
+     */
+    public static void setCompressThreshold(int threshold) {
+        compressThreshold = threshold;
+    }
+
+    /**
+     * 获取压缩阈值。
+     *
+     * @return 压缩阈值
+     */
+    public static int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    /**
+     * 设置 Deflate 压缩级别。
+     *
+     * @param level 压缩级别，0-9
+     */
+    public static void setCompressLevel(int level) {
+        compressLevel = Math.max(Deflater.NO_COMPRESSION, Math.min(Deflater.BEST_COMPRESSION, level));
+    }
+
+    /**
+     * 获取指定缓存的编解码统计。
+     *
+     * @param cacheName 缓存名
+     * @return 编解码统计，未发生过编解码时返回 null
+     */
+    public static CacheCodecStats getCodecStats(String cacheName) {
+        return codecStatsMap.get(cacheName);
+    }
+
+    /**
+     * 获取全部缓存的编解码统计。
+     *
+     * @return cacheName -> 编解码统计
+     */
+    public static Map<String, CacheCodecStats> getCodecStatsMap() {
+        return codecStatsMap;
+    }
+
+    /**
+     * 序列化缓存值封装对象，不记录统计。
      *
      * @param valueWrapper 缓存值封装对象，为null时返回null
      * @return 序列化后的字节数组
      */
     public static byte[] serializeValueWrapper(CacheValueWrapper<?> valueWrapper) {
+        return serializeValueWrapper(null, valueWrapper);
+    }
+
+    /**
+     * 序列化缓存值封装对象。
+     * <p>
+     * 协议：先写入8字节帧头（过期时间戳+编码方式），若业务值非空则继续用kryo写入对象；为空则仅保留帧头。
+     * 业务值超过压缩阈值且压缩后更小时，改写为压缩帧。未开启 {@link #setFrameEnabled 新帧格式} 时写入旧格式且不压缩。
+     *
+     * @param cacheName    缓存名，用于统计，为null时不统计
+     * @param valueWrapper 缓存值封装对象，为null时返回null
+     * @return 序列化后的字节数组
+     */
+    public static byte[] serializeValueWrapper(String cacheName, CacheValueWrapper<?> valueWrapper) {
+        return encodeValueWrapper(cacheName, valueWrapper, false);
+    }
+
+    /**
+     * 序列化缓存值封装对象，业务值连同类型信息一起写入，用于读取方不知道业务值类型的场景（如堆外缓存）。
+     *
+     * @param cacheName    缓存名，用于统计，为null时不统计
+     * @param valueWrapper 缓存值封装对象，为null时返回null
+     * @return 序列化后的字节数组
+     */
+    public static byte[] serializeValueWrapperWithClass(String cacheName, CacheValueWrapper<?> valueWrapper) {
+        return encodeValueWrapper(cacheName, valueWrapper, true);
+    }
+
+    /**
+     * 编码缓存值封装对象。
+     *
+     * @param cacheName    缓存名，用于统计，为null时不统计
+     * @param valueWrapper 缓存值封装对象，为null时返回null
+     * @param withClass    是否写入业务值类型信息
+     * @return 序列化后的字节数组
+     */
+    private static byte[] encodeValueWrapper(String cacheName, CacheValueWrapper<?> valueWrapper, boolean withClass) {
         if (valueWrapper == null) {
             return null;
         }
-        return KryoUtils.serialize((kryo, output) -> {
-            output.writeLong(valueWrapper.getExpiredAt());
+        long start = System.nanoTime();
+        boolean framed = withClass || frameEnabled;
+        byte[] data = KryoUtils.serialize((kryo, output) -> {
+            output.writeLong(framed ? buildHeader(valueWrapper.getExpiredAt(), CODEC_RAW) : valueWrapper.getExpiredAt());
             if (valueWrapper.getValue() != null) {
-                kryo.writeObject(output, valueWrapper.getValue());
+                if (withClass) {
+                    kryo.writeClassAndObject(output, valueWrapper.getValue());
+                } else {
+                    kryo.writeObject(output, valueWrapper.getValue());
+                }
             }
         });
+        int rawSize = data.length;
+        int threshold = compressThreshold;
+        if (framed && threshold > 0 && rawSize - HEADER_SIZE >= threshold) {
+            byte[] compressed = deflate(data, valueWrapper.getExpiredAt());
+            if (compressed.length < rawSize) {
+                data = compressed;
+            }
+        }
+        if (cacheName != null) {
+            codecStatsMap.computeIfAbsent(cacheName, CacheCodecStats::new).recordEncode(rawSize, data.length, System.nanoTime() - start);
+        }
+        return data;
     }
 
     /**
-     * 反序列化缓存值封装对象。
-     * <p>
-     * 与 {@link #serializeValueWrapper} 对应：先读取过期时间戳，若仍有剩余数据则读取业务值。
+     * 反序列化缓存值封装对象，不记录统计。
      *
      * @param data 字节数组，为null或空时返回null
      * @param cls  业务值的类型
@@ -48,17 +231,187 @@ public class KryoCacheUtils {
      * @return 缓存值封装对象
      */
     public static <T> CacheValueWrapper<T> deserializeValueWrapper(byte[] data, Class<T> cls) {
+        return deserializeValueWrapper(null, data, cls);
+    }
+
+    /**
+     * 反序列化缓存值封装对象。
+     * <p>
+     * 与 {@link #serializeValueWrapper} 对应：先读取帧头，按编码方式还原业务值字节，若仍有剩余数据则读取业务值。
+     * 兼容未带帧头的旧格式数据。
+     *
+     * @param cacheName 缓存名，用于统计，为null时不统计
+     * @param data      字节数组，为null或空时返回null
+     * @param cls       业务值的类型
+     * @param <T>       业务值类型
+     * @return 缓存值封装对象
+     */
+    public static <T> CacheValueWrapper<T> deserializeValueWrapper(String cacheName, byte[] data, Class<T> cls) {
+        return decodeValueWrapper(cacheName, data, cls);
+    }
+
+    /**
+     * 反序列化由 {@link #serializeValueWrapperWithClass} 写入的缓存值封装对象。
+     *
+     * @param cacheName 缓存名，用于统计，为null时不统计
+     * @param data      字节数组，为null或空时返回null
+     * @param <T>       业务值类型
+     * @return 缓存值封装对象
+     */
+    public static <T> CacheValueWrapper<T> deserializeValueWrapperWithClass(String cacheName, byte[] data) {
+        return decodeValueWrapper(cacheName, data, null);
+    }
+
+    /**
+     * 解码缓存值封装对象。
+     *
+     * @param cacheName 缓存名，用于统计，为null时不统计
+     * @param data      字节数组，为null或空时返回null
+     * @param cls       业务值的类型，为null时从数据中读取类型信息
+     * @param <T>       业务值类型
+     * @return 缓存值封装对象
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> CacheValueWrapper<T> decodeValueWrapper(String cacheName, byte[] data, Class<T> cls) {
         if (data == null || data.length == 0) {
             return null;
         }
-        return KryoUtils.deserialize(data, (kryo, input) -> {
+        long start = System.nanoTime();
+        long head = readLongLE(data);
+        int frame = (int) (head >>> 56);
+        long expiredAt;
+        byte[] plain = data;
+        if (frame == 0x00 || frame == 0xFF) {
+            // 旧格式，整个 long 即为过期时间戳。
+            expiredAt = head;
+        } else if ((frame >>> 4) == FRAME_VERSION) {
+            expiredAt = (head << 8) >> 8;
+            int codec = frame & 0x0F;
+            if (codec == CODEC_DEFLATE) {
+                plain = inflate(data);
+            } else if (codec != CODEC_RAW) {
+                throw new IllegalStateException("Unknown cache codec: " + codec);
+            }
+        } else {
+            throw new IllegalStateException("Unknown cache frame: " + frame);
+        }
+        CacheValueWrapper<T> result = KryoUtils.deserialize(plain, (kryo, input) -> {
             CacheValueWrapper<T> valueWrapper = new CacheValueWrapper<>();
-            valueWrapper.setExpiredAt(input.readLong());
+            input.readLong();
+            valueWrapper.setExpiredAt(expiredAt);
             if (!input.end()) {
-                valueWrapper.setValue(kryo.readObject(input, cls));
+                valueWrapper.setValue(cls == null ? (T) kryo.readClassAndObject(input) : kryo.readObject(input, cls));
             }
             return valueWrapper;
         });
+        if (cacheName != null) {
+            codecStatsMap.computeIfAbsent(cacheName, CacheCodecStats::new).recordDecode(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * 构造帧头。
+     *
+     * @param expiredAt 过期时间戳
+     * @param codec     编码方式
+     * @return 帧头 long
+     */
+    private static long buildHeader(long expiredAt, int codec) {
+        return (expiredAt & EXPIRED_AT_MASK) | ((long) ((FRAME_VERSION << 4) | codec) << 56);
+    }
+
+    /**
+     * 压缩业务值，生成压缩帧。
+     *
+     * @param data      原始帧
+     * @param expiredAt 过期时间戳
+     * @return 压缩帧
+     */
+    private static byte[] deflate(byte[] data, long expiredAt) {
+        int rawLength = data.length - HEADER_SIZE;
+        Deflater deflater = new Deflater(compressLevel);
+        try {
+            deflater.setInput(data, HEADER_SIZE, rawLength);
+            deflater.finish();
+            byte[] buf = new byte[HEADER_SIZE + RAW_LENGTH_SIZE + rawLength];
+            int pos = HEADER_SIZE + RAW_LENGTH_SIZE;
+            while (!deflater.finished()) {
+                if (pos == buf.length) {
+                    // 压缩后反而更大，放弃压缩。
+                    return data;
+                }
+                pos += deflater.deflate(buf, pos, buf.length - pos);
+            }
+            writeLongLE(buf, buildHeader(expiredAt, CODEC_DEFLATE));
+            buf[HEADER_SIZE] = (byte) (rawLength >>> 24);
+            buf[HEADER_SIZE + 1] = (byte) (rawLength >>> 16);
+            buf[HEADER_SIZE + 2] = (byte) (rawLength >>> 8);
+            buf[HEADER_SIZE + 3] = (byte) rawLength;
+            byte[] result = new byte[pos];
+            System.arraycopy(buf, 0, result, 0, pos);
+            return result;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 解压压缩帧，还原为原始帧（帧头保持不变）。
+     *
+     * @param data 压缩帧
+     * @return 原始帧
+     */
+    private static byte[] inflate(byte[] data) {
+        int rawLength = ((data[HEADER_SIZE] & 0xFF) << 24) | ((data[HEADER_SIZE + 1] & 0xFF) << 16) | ((data[HEADER_SIZE + 2] & 0xFF) << 8) | (data[HEADER_SIZE + 3] & 0xFF);
+        byte[] plain = new byte[HEADER_SIZE + rawLength];
+        System.arraycopy(data, 0, plain, 0, HEADER_SIZE);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, HEADER_SIZE + RAW_LENGTH_SIZE, data.length - HEADER_SIZE - RAW_LENGTH_SIZE);
+            int pos = HEADER_SIZE;
+            while (pos < plain.length && !inflater.finished()) {
+                int n = inflater.inflate(plain, pos, plain.length - pos);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                pos += n;
+            }
+            if (pos != plain.length) {
+                throw new IllegalStateException("Cache data inflate size mismatch! expect: " + rawLength + ", actual: " + (pos - HEADER_SIZE));
+            }
+            return plain;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Cache data inflate failed: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 按小端读取前8字节（与 kryo Output.writeLong 一致）。
+     *
+     * @param data 字节数组
+     * @return long 值
+     */
+    private static long readLongLE(byte[] data) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[i] & 0xFFL);
+        }
+        return value;
+    }
+
+    /**
+     * 按小端写入前8字节（与 kryo Output.writeLong 一致）。
+     *
+     * @param data  字节数组
+     * @param value long 值
+     */
+    private static void writeLongLE(byte[] data, long value) {
+        for (int i = 0; i < 8; i++) {
+            data[i] = (byte) (value >>> (i * 8));
+        }
     }
 
 }
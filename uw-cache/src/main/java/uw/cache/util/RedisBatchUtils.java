@@ -0,0 +1,77 @@
+package uw.cache.util;
+
+import uw.common.util.KryoUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Redis 批量操作的工具类。
+ * <p>
+ * 用于将元素 Kryo 序列化后分批，供 pipeline 中的多参数命令（SADD/SREM/SMISMEMBER/ZREM 等）使用，
+ * 避免单条命令携带过多参数阻塞 redis。
+ */
+public class RedisBatchUtils {
+
+    /**
+     * 将元素序列化并按 batchSize 分批，null 元素跳过。
+     *
+     * @param items     元素集合
+     * @param batchSize 每批数量
+     * @return 分批后的元素
+     */
+    public static List<byte[][]> serializeBatches(Collection<?> items, int batchSize) {
+        return serializeBatches(items, batchSize, null);
+    }
+
+    /**
+     * 将元素序列化并按 batchSize 分批，null 元素跳过。
+     *
+     * @param items     元素集合
+     * @param batchSize 每批数量
+     * @param positions 输出参数，按序记录每个非 null 元素在 items 中的下标，可为 null
+     * @return 分批后的元素
+     */
+    public static List<byte[][]> serializeBatches(Collection<?> items, int batchSize, int[] positions) {
+        int size = Math.max(1, batchSize);
+        List<byte[][]> batches = new ArrayList<>(items.size() / size + 1);
+        List<byte[]> batch = new ArrayList<>(Math.min(size, items.size()));
+        int index = 0;
+        int count = 0;
+        for (Object item : items) {
+            if (item != null) {
+                if (positions != null) {
+                    positions[count] = index;
+                }
+                count++;
+                batch.add(KryoUtils.serialize(item));
+                if (batch.size() >= size) {
+                    batches.add(batch.toArray(new byte[0][]));
+                    batch.clear();
+                }
+            }
+            index++;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch.toArray(new byte[0][]));
+        }
+        return batches;
+    }
+
+    /**
+     * 累加 pipeline 返回的数量。
+     *
+     * @param results pipeline 返回结果
+     * @return 数量合计
+     */
+    public static long sumResults(List<Object> results) {
+        long sum = 0;
+        for (Object result : results) {
+            if (result instanceof Number number) {
+                sum += number.longValue();
+            }
+        }
+        return sum;
+    }
+}
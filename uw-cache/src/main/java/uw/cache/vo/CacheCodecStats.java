@@ -0,0 +1,183 @@
+package uw.cache.vo;
+
+import uw.common.util.JsonUtils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存编解码统计。
+ * <p>
+ * 由 {@link uw.cache.util.KryoCacheUtils} 按 cacheName 累计，用于评估压缩率与编解码耗时，以调整压缩阈值。
+ */
+public class CacheCodecStats {
+
+    /**
+     * 缓存名。
+     */
+    private final String cacheName;
+
+    /**
+     * 编码次数。
+     */
+    private final LongAdder encodeCount = new LongAdder();
+
+    /**
+     * 压缩次数。
+     */
+    private final LongAdder compressCount = new LongAdder();
+
+    /**
+     * 编码前总字节数。
+     */
+    private final LongAdder rawBytes = new LongAdder();
+
+    /**
+     * 编码后总字节数。
+     */
+    private final LongAdder storedBytes = new LongAdder();
+
+    /**
+     * 编码总耗时（纳秒）。
+     */
+    private final LongAdder encodeNanos = new LongAdder();
+
+    /**
+     * 解码次数。
+     */
+    private final LongAdder decodeCount = new LongAdder();
+
+    /**
+     * 解码总耗时（纳秒）。
+     */
+    private final LongAdder decodeNanos = new LongAdder();
+
+    /**
+     * 构造统计对象。
+     *
+     * @param cacheName 缓存名
+     */
+    public CacheCodecStats(String cacheName) {
+        this.cacheName = cacheName;
+    }
+
+    /**
+     * 记录一次编码。
+     *
+     * @param rawSize    编码前字节数
+     * @param storedSize 编码后字节数
+     * @param nanos      耗时（纳秒）
+     */
+    public void recordEncode(int rawSize, int storedSize, long nanos) {
+        encodeCount.increment();
+        if (storedSize < rawSize) {
+            compressCount.increment();
+        }
+        rawBytes.add(rawSize);
+        storedBytes.add(storedSize);
+        encodeNanos.add(nanos);
+    }
+
+    /**
+     * 记录一次解码。
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void recordDecode(long nanos) {
+        decodeCount.increment();
+        decodeNanos.add(nanos);
+    }
+
+    /**
+     * 输出统计的 JSON 表示，便于日志排查。
+     *
+     * @return JSON 字符串
+     */
+    @Override
+    public String toString() {
+        return JsonUtils.toString(this);
+    }
+
+    /**
+     * 获取缓存名。
+     *
+     * @return 缓存名
+     */
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * 获取编码次数。
+     *
+     * @return 编码次数
+     */
+    public long getEncodeCount() {
+        return encodeCount.sum();
+    }
+
+    /**
+     * 获取压缩次数。
+     *
+     * @return 压缩次数
+     */
+    public long getCompressCount() {
+        return compressCount.sum();
+    }
+
+    /**
+     * 获取编码前总字节数。
+     *
+     * @return 字节数
+     */
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+
+    /**
+     * 获取编码后总字节数。
+     *
+     * @return 字节数
+     */
+    public long getStoredBytes() {
+        return storedBytes.sum();
+    }
+
+    /**
+     * 获取压缩率（编码后/编码前），未编码时返回 1。
+     *
+     * @return 压缩率
+     */
+    public double getCompressRatio() {
+        long raw = rawBytes.sum();
+        return raw == 0 ? 1d : (double) storedBytes.sum() / raw;
+    }
+
+    /**
+     * 获取平均编码耗时（纳秒）。
+     *
+     * @return 平均耗时
+     */
+    public long getAvgEncodeNanos() {
+        long count = encodeCount.sum();
+        return count == 0 ? 0 : encodeNanos.sum() / count;
+    }
+
+    /**
+     * 获取解码次数。
+     *
+     * @return 解码次数
+     */
+    public long getDecodeCount() {
+        return decodeCount.sum();
+    }
+
+    /**
+     * 获取平均解码耗时（纳秒）。
+     *
+     * @return 平均耗时
+     */
+    public long getAvgDecodeNanos() {
+        long count = decodeCount.sum();
+        return count == 0 ? 0 : decodeNanos.sum() / count;
+    }
+}
@@ -0,0 +1,138 @@
+package uw.cache.vo;
+
+import uw.common.util.JsonUtils;
+
+/**
+ * 融合缓存批量失效通知消息。
+ * <p>
+ * 由 {@link uw.cache.notify.FusionCacheNotifyCoalescer} 将一个合并窗口内的失效通知打包发送到通道
+ * {@code UW_CACHE_BATCH_NOTIFY_CHANNEL}。三个数组按下标一一对应：第 i 个缓存名称对应第 i 个版本号与第 i 组 key。
+ * <p>
+ * {@code versions} 为发送方按 cacheName 单调递增的版本号，接收方据此丢弃重复或过期乱序的消息；
+ * key 数组中出现 null 表示该缓存全量失效。
+ */
+public class FusionCacheBatchNotifyMessage {
+
+    /**
+     * 消息发送者ID（SnowflakeId），接收方据此跳过自身发送的消息。
+     */
+    private long senderId;
+
+    /**
+     * 缓存名称数组。
+     */
+    private String[] cacheNames;
+
+    /**
+     * 各缓存的通知版本号，按发送方+cacheName 单调递增。
+     */
+    private long[] versions;
+
+    /**
+     * 各缓存需要失效的 key 数组，含 null 表示全量失效。
+     */
+    private Object[][] cacheKeys;
+
+    /**
+     * 默认构造函数，供 Kryo 反序列化使用。
+     */
+    public FusionCacheBatchNotifyMessage() {
+    }
+
+    /**
+     * 构造批量通知消息。
+     *
+     * @param senderId   发送者实例ID
+     * @param cacheNames 缓存名称数组
+     * @param versions   各缓存的通知版本号
+     * @param cacheKeys  各缓存需要失效的 key 数组
+     */
+    public FusionCacheBatchNotifyMessage(long senderId, String[] cacheNames, long[] versions, Object[][] cacheKeys) {
+        this.senderId = senderId;
+        this.cacheNames = cacheNames;
+        this.versions = versions;
+        this.cacheKeys = cacheKeys;
+    }
+
+    /**
+     * 输出消息的 JSON 表示，便于日志排查。
+     *
+     * @return JSON 字符串
+     */
+    @Override
+    public String toString() {
+        return JsonUtils.toString(this);
+    }
+
+    /**
+     * 获取消息发送者ID。
+     *
+     * @return 发送者实例ID（SnowflakeId）
+     */
+    public long getSenderId() {
+        return senderId;
+    }
+
+    /**
+     * 设置消息发送者ID。
+     *
+     * @param senderId 发送者实例ID
+     */
+    public void setSenderId(long senderId) {
+        this.senderId = senderId;
+    }
+
+    /**
+     * 获取缓存名称数组。
+     *
+     * @return 缓存名称数组
+     */
+    public String[] getCacheNames() {
+        return cacheNames;
+    }
+
+    /**
+     * 设置缓存名称数组。
+     *
+     * @param cacheNames 缓存名称数组
+     */
+    public void setCacheNames(String[] cacheNames) {
+        this.cacheNames = cacheNames;
+    }
+
+    /**
+     * 获取各缓存的通知版本号。
+     *
+     * @return 版本号数组
+     */
+    public long[] getVersions() {
+        return versions;
+    }
+
+    /**
+     * 设置各缓存的通知版本号。
+     *
+     * @param versions 版本号数组
+     */
+    public void setVersions(long[] versions) {
+        this.versions = versions;
+    }
+
+    /**
+     * 获取各缓存需要失效的 key 数组。
+     *
+     * @return key 数组
+     */
+    public Object[][] getCacheKeys() {
+        return cacheKeys;
+    }
+
+    /**
+     * 设置各缓存需要失效的 key 数组。
+     *
+     * @param cacheKeys key 数组
+     */
+    public void setCacheKeys(Object[][] cacheKeys) {
+        this.cacheKeys = cacheKeys;
+    }
+}
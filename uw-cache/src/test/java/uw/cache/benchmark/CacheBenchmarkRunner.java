@@ -0,0 +1,68 @@
+package uw.cache.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * uw-cache 基准测试入口。
+ * <p>
+ * 按 线程数 x 线程类型 的组合依次运行 {@link FusionCacheBenchmark} 与 {@link CounterLockerBenchmark}，
+ * 每个组合输出一个 JMH JSON 结果文件 {@code <out>/uw-cache-<executor>-<threads>.json}，可直接在版本之间比对。
+ * 线程类型 VIRTUAL 通过 JMH 的 {@code jmh.executor} 让 benchmark 线程运行在虚拟线程上，需 JDK 24 及以上，更低版本自动跳过。
+ * <p>
+ * 可用系统属性：
+ * <ul>
+ *   <li>{@code uw.cache.benchmark.threads}：线程数列表，默认 1,8,64。</li>
+ *   <li>{@code uw.cache.benchmark.executors}：线程类型列表，默认 PLATFORM,VIRTUAL。</li>
+ *   <li>{@code uw.cache.benchmark.include}：benchmark 过滤正则，默认全部。</li>
+ *   <li>{@code uw.cache.benchmark.out}：结果目录，默认 target/jmh。</li>
+ *   <li>{@value EmbeddedRedis#REDIS_SERVER_PROPERTY}：redis-server 路径，见 {@link EmbeddedRedis}。</li>
+ * </ul>
+ * 运行方式：{@code mvn -pl uw-cache -am -Pbenchmark verify}，或在 IDE 中执行 main。
+ *
+ * @author axeon
+ */
+public class CacheBenchmarkRunner {
+
+    /**
+     * 运行虚拟线程基准的最低 JDK 版本。
+     * 更早的版本中虚拟线程在 synchronized 上阻塞会占住载体线程，JMH 初始化共享 State 时可能死锁。
+     */
+    private static final int VIRTUAL_MIN_JDK = 24;
+
+    public static void main(String[] args) throws RunnerException {
+        String[] threadsList = System.getProperty("uw.cache.benchmark.threads", "1,8,64").split(",");
+        String[] executors = System.getProperty("uw.cache.benchmark.executors", "PLATFORM,VIRTUAL").split(",");
+        String include = System.getProperty("uw.cache.benchmark.include", FusionCacheBenchmark.class.getSimpleName() + "|" + CounterLockerBenchmark.class.getSimpleName());
+        File outDir = new File(System.getProperty("uw.cache.benchmark.out", "target/jmh"));
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new RunnerException("can not create benchmark output dir: " + outDir);
+        }
+        List<String> jvmArgs = new ArrayList<>();
+        String redisServer = System.getProperty(EmbeddedRedis.REDIS_SERVER_PROPERTY);
+        if (redisServer != null && !redisServer.isBlank()) {
+            jvmArgs.add("-D" + EmbeddedRedis.REDIS_SERVER_PROPERTY + "=" + redisServer);
+        }
+        for (String executor : executors) {
+            if ("VIRTUAL".equalsIgnoreCase(executor.trim()) && Runtime.version().feature() < VIRTUAL_MIN_JDK) {
+                System.err.println("skip VIRTUAL benchmarks: virtual threads pin carriers on monitors before JDK " + VIRTUAL_MIN_JDK + ", current JDK " + Runtime.version());
+                continue;
+            }
+            for (String threads : threadsList) {
+                File result = new File(outDir, "uw-cache-" + executor.trim().toLowerCase() + "-" + threads.trim() + ".json");
+                List<String> forkArgs = new ArrayList<>(jvmArgs);
+                forkArgs.add("-Djmh.executor=" + executor.trim());
+                ChainedOptionsBuilder builder = new OptionsBuilder().include(include).threads(Integer.parseInt(threads.trim())).jvmArgsAppend(forkArgs.toArray(new String[0]))
+                        .resultFormat(ResultFormatType.JSON).result(result.getPath());
+                new Runner(builder.build()).run();
+            }
+        }
+    }
+}
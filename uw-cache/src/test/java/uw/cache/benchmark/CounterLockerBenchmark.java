@@ -0,0 +1,80 @@
+package uw.cache.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import uw.cache.FusionCounter;
+import uw.cache.GlobalCounter;
+import uw.cache.GlobalLocker;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 计数器与全局锁并发基准。
+ * <ul>
+ *   <li>{@code fusionCounterIncrement}：FusionCounter 本地累加，按 syncGlobalMillis 批量同步到 redis。</li>
+ *   <li>{@code globalCounterIncrement}：GlobalCounter 每次直接 INCRBY。</li>
+ *   <li>{@code lockContention}：全部线程争抢 {@link #LOCK_IDS} 把锁，抢到后立即释放。</li>
+ * </ul>
+ * 计数器 id 只有 {@link #COUNTER_IDS} 个，多线程时同一计数器存在竞争。
+ * <p>
+ * 运行方式：执行 {@link CacheBenchmarkRunner}，或 {@code mvn -pl uw-cache -am -Pbenchmark verify}。
+ *
+ * @author axeon
+ */
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class CounterLockerBenchmark {
+
+    private static final String FUSION_COUNTER = "bm-fusion-counter";
+
+    private static final String GLOBAL_COUNTER = "bm-global-counter";
+
+    private static final String LOCKER = "bm-locker";
+
+    /**
+     * 计数器 id 数量。
+     */
+    private static final int COUNTER_IDS = 16;
+
+    /**
+     * 锁 id 数量。
+     */
+    private static final int LOCK_IDS = 4;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        UwCacheBenchmarkApplication.start();
+        FusionCounter.config(FUSION_COUNTER, 1_000L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        UwCacheBenchmarkApplication.stop();
+    }
+
+    @Benchmark
+    public long fusionCounterIncrement() {
+        return FusionCounter.increment(FUSION_COUNTER, ThreadLocalRandom.current().nextInt(COUNTER_IDS));
+    }
+
+    @Benchmark
+    public long globalCounterIncrement() {
+        return GlobalCounter.increment(GLOBAL_COUNTER, ThreadLocalRandom.current().nextInt(COUNTER_IDS), 1);
+    }
+
+    @Benchmark
+    public boolean lockContention() {
+        int lockerId = ThreadLocalRandom.current().nextInt(LOCK_IDS);
+        long stamp = GlobalLocker.tryLock(LOCKER, lockerId, 3_000L);
+        if (stamp > 0) {
+            return GlobalLocker.unlock(LOCKER, lockerId, stamp);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,140 @@
+package uw.cache.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基准测试用的本地 redis 进程。
+ * <p>
+ * 在随机空闲端口启动 redis-server（不落盘），进程退出时随 JVM 一起销毁，保证压测结果不受共享 redis 的网络与负载影响。
+ * redis-server 路径依次取系统属性 {@value #REDIS_SERVER_PROPERTY}、环境变量 {@code REDIS_SERVER}，都未设置时从 PATH 查找。
+ *
+ * @author axeon
+ */
+public class EmbeddedRedis {
+
+    /**
+     * 指定 redis-server 路径的系统属性。
+     */
+    public static final String REDIS_SERVER_PROPERTY = "uw.cache.benchmark.redis-server";
+
+    /**
+     * 启动等待毫秒数。
+     */
+    private static final long START_TIMEOUT_MILLIS = 10_000L;
+
+    /**
+     * redis 端口。
+     */
+    private final int port;
+
+    /**
+     * redis 进程。
+     */
+    private final Process process;
+
+    private EmbeddedRedis(int port, Process process) {
+        this.port = port;
+        this.process = process;
+    }
+
+    /**
+     * 在空闲端口启动 redis-server，并等待可以响应 PING。
+     *
+     * @return EmbeddedRedis
+     * @throws IOException 启动失败
+     */
+    public static EmbeddedRedis start() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = List.of(redisServerPath(), "--port", String.valueOf(port), "--bind", "127.0.0.1", "--save", "", "--appendonly", "no");
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(new File(System.getProperty("java.io.tmpdir"), "uw-cache-benchmark-redis-" + port + ".log")).start();
+        EmbeddedRedis redis = new EmbeddedRedis(port, process);
+        Runtime.getRuntime().addShutdownHook(new Thread(redis::stop));
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+        while (!redis.ping()) {
+            if (!process.isAlive() || System.currentTimeMillis() > deadline) {
+                redis.stop();
+                throw new IOException("redis-server start failed on port " + port + ", command: " + command);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("redis-server start interrupted", e);
+            }
+        }
+        return redis;
+    }
+
+    /**
+     * 获取 redis 端口。
+     *
+     * @return 端口
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * 停止 redis 进程。
+     */
+    public void stop() {
+        if (!process.isAlive()) {
+            return;
+        }
+        process.destroy();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 获取 redis-server 路径。
+     *
+     * @return redis-server 路径
+     */
+    private static String redisServerPath() {
+        String path = System.getProperty(REDIS_SERVER_PROPERTY);
+        if (path == null || path.isBlank()) {
+            path = System.getenv("REDIS_SERVER");
+        }
+        return path == null || path.isBlank() ? "redis-server" : path;
+    }
+
+    /**
+     * 发送 PING 检查 redis 是否就绪。
+     *
+     * @return 是否就绪
+     */
+    private boolean ping() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", port), 200);
+            socket.setSoTimeout(500);
+            OutputStream out = socket.getOutputStream();
+            out.write("PING\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            byte[] buf = new byte[7];
+            int len = in.readNBytes(buf, 0, buf.length);
+            return new String(buf, 0, len, StandardCharsets.US_ASCII).startsWith("+PONG");
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
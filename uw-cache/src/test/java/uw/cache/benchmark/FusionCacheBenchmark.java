@@ -0,0 +1,182 @@
+package uw.cache.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uw.cache.CacheDataLoader;
+import uw.cache.FusionCache;
+import uw.cache.GlobalCache;
+import uw.cache.util.KryoCacheUtils;
+import uw.cache.vo.CacheValueWrapper;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FusionCache 读路径与缓存值编码基准。
+ * <ul>
+ *   <li>{@code l1Hit}：本地缓存命中，数据集小于本地容量。</li>
+ *   <li>{@code l1MissL2Hit}：本地容量远小于数据集，随机读取几乎全部穿透到 redis 命中。</li>
+ *   <li>{@code fullMissLoad}：每次使用新 key，本地与 redis 均未命中，执行 loader 并回写 redis。</li>
+ *   <li>{@code globalCacheGet}：直接读取 redis 缓存，不经过本地缓存。</li>
+ *   <li>{@code codecSerialize}/{@code codecDeserialize}：{@link KryoCacheUtils} 缓存值编解码，不涉及 redis。</li>
+ * </ul>
+ * <p>
+ * 运行方式：执行 {@link CacheBenchmarkRunner}，或 {@code mvn -pl uw-cache -am -Pbenchmark verify}。
+ *
+ * @author axeon
+ */
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class FusionCacheBenchmark {
+
+    private static final String L1_CACHE = "bm-l1";
+
+    private static final String L2_CACHE = "bm-l2";
+
+    private static final String MISS_CACHE = "bm-miss";
+
+    /**
+     * 本地命中数据集大小。
+     */
+    private static final int L1_DATASET_SIZE = 1_000;
+
+    /**
+     * redis 命中数据集大小。
+     */
+    private static final int L2_DATASET_SIZE = 20_000;
+
+    /**
+     * l1MissL2Hit 的本地容量。
+     */
+    private static final int L2_LOCAL_MAX_NUM = 64;
+
+    /**
+     * fullMissLoad 的 key 序号，保证每次都是新 key。
+     */
+    private final AtomicLong missSeq = new AtomicLong();
+
+    /**
+     * 编码基准使用的值。
+     */
+    private CacheValueWrapper<BenchmarkItem> codecWrapper;
+
+    /**
+     * 解码基准使用的数据。
+     */
+    private byte[] codecData;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        UwCacheBenchmarkApplication.start();
+        CacheDataLoader<Long, BenchmarkItem> loader = new CacheDataLoader<>() {
+            @Override
+            public BenchmarkItem load(Long key) {
+                return BenchmarkItem.of(key);
+            }
+        };
+        FusionCache.config(FusionCache.Config.builder().cacheName(L1_CACHE).localCacheMaxNum(L1_DATASET_SIZE * 2).cacheExpireMillis(-1).build(), loader);
+        FusionCache.config(FusionCache.Config.builder().cacheName(L2_CACHE).localCacheMaxNum(L2_LOCAL_MAX_NUM).cacheExpireMillis(-1).build(), loader);
+        FusionCache.config(FusionCache.Config.builder().cacheName(MISS_CACHE).localCacheMaxNum(1_024).cacheExpireMillis(60_000L).build(), loader);
+        for (long i = 0; i < L1_DATASET_SIZE; i++) {
+            FusionCache.get(L1_CACHE, i);
+        }
+        Map<Long, BenchmarkItem> l2Data = new HashMap<>(L2_DATASET_SIZE * 2);
+        for (long i = 0; i < L2_DATASET_SIZE; i++) {
+            l2Data.put(i, BenchmarkItem.of(i));
+        }
+        GlobalCache.putAll(L2_CACHE, l2Data, -1);
+        codecWrapper = new CacheValueWrapper<>(BenchmarkItem.of(1L));
+        codecData = KryoCacheUtils.serializeValueWrapper(codecWrapper);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        UwCacheBenchmarkApplication.stop();
+    }
+
+    @Benchmark
+    public BenchmarkItem l1Hit() {
+        return FusionCache.get(L1_CACHE, ThreadLocalRandom.current().nextLong(L1_DATASET_SIZE));
+    }
+
+    @Benchmark
+    public BenchmarkItem l1MissL2Hit() {
+        return FusionCache.get(L2_CACHE, ThreadLocalRandom.current().nextLong(L2_DATASET_SIZE));
+    }
+
+    @Benchmark
+    public BenchmarkItem fullMissLoad() {
+        return FusionCache.get(MISS_CACHE, L2_DATASET_SIZE + missSeq.incrementAndGet());
+    }
+
+    @Benchmark
+    public CacheValueWrapper<BenchmarkItem> globalCacheGet() {
+        return GlobalCache.get(L2_CACHE, ThreadLocalRandom.current().nextLong(L2_DATASET_SIZE), BenchmarkItem.class);
+    }
+
+    @Benchmark
+    public byte[] codecSerialize() {
+        return KryoCacheUtils.serializeValueWrapper(codecWrapper);
+    }
+
+    @Benchmark
+    public void codecDeserialize(Blackhole blackhole) {
+        blackhole.consume(KryoCacheUtils.deserializeValueWrapper(codecData, BenchmarkItem.class));
+    }
+
+    /**
+     * 压测用的缓存值，字段构成接近常见的业务实体。
+     */
+    public static class BenchmarkItem {
+
+        private long id;
+
+        private String name;
+
+        private long price;
+
+        private int status;
+
+        private List<String> tags;
+
+        public static BenchmarkItem of(long id) {
+            BenchmarkItem item = new BenchmarkItem();
+            item.id = id;
+            item.name = "benchmark item " + id;
+            item.price = id * 100;
+            item.status = (int) (id % 4);
+            item.tags = List.of("tag" + (id % 10), "tag" + (id % 7));
+            return item;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getPrice() {
+            return price;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+    }
+}
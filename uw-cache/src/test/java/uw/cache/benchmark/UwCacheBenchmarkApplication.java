@@ -0,0 +1,54 @@
+package uw.cache.benchmark;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+
+/**
+ * 基准测试用的 Spring 上下文，连接 {@link EmbeddedRedis} 启动的本地 redis。
+ *
+ * @author axeon
+ */
+@SpringBootApplication
+public class UwCacheBenchmarkApplication {
+
+    /**
+     * 本地 redis。
+     */
+    private static EmbeddedRedis redis;
+
+    /**
+     * Spring 上下文。
+     */
+    private static ConfigurableApplicationContext context;
+
+    /**
+     * 启动本地 redis 与 uw-cache，同一 JVM 内只启动一次。
+     *
+     * @throws IOException redis 启动失败
+     */
+    public static synchronized void start() throws IOException {
+        if (context != null) {
+            return;
+        }
+        redis = EmbeddedRedis.start();
+        context = new SpringApplicationBuilder(UwCacheBenchmarkApplication.class).logStartupInfo(false).run("--uw.cache.redis.host=127.0.0.1",
+                "--uw.cache.redis.port=" + redis.getPort(), "--uw.cache.redis.password=", "--uw.cache.redis.database=0", "--logging.level.root=WARN");
+    }
+
+    /**
+     * 关闭 uw-cache 与本地 redis。
+     */
+    public static synchronized void stop() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+        if (redis != null) {
+            redis.stop();
+            redis = null;
+        }
+    }
+}
@@ -66,6 +66,13 @@ public class PageList<T> implements Iterable<T>, Serializable {
     @Schema(title = "总页数", description = "总页数")
     private int pageCount = 0;
 
+    /**
+     * 下一页游标，仅 keyset 分页时有值，为 null 表示没有下一页.
+     */
+    @JsonProperty
+    @Schema(title = "下一页游标", description = "keyset分页的下一页游标，为空表示没有下一页")
+    private String cursor;
+
     /**
      * 数据列表.
      */
@@ -121,6 +128,26 @@ public class PageList<T> implements Iterable<T>, Serializable {
         }
     }
 
+    /**
+     * 获取下一页游标.
+     *
+     * @return 下一页游标，没有下一页时为 null
+     */
+    @JsonIgnore
+    public String cursor() {
+        return cursor;
+    }
+
+    /**
+     * 设置下一页游标.
+     *
+     * @param cursor 下一页游标
+     */
+    @JsonIgnore
+    public void cursor(String cursor) {
+        this.cursor = cursor;
+    }
+
     // ===== 列表访问 =====
 
     /**
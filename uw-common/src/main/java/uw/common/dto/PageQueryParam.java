@@ -1,6 +1,7 @@
 package uw.common.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -28,6 +29,21 @@ public class PageQueryParam extends QueryParam<PageQueryParam> {
      */
     public static int REQUEST_ALL = 2;
 
+    /**
+     * 精确count。
+     */
+    public static final int COUNT_EXACT = 0;
+
+    /**
+     * 缓存count，在 COUNT_CACHE_MILLIS 内复用同一查询条件的count结果。
+     */
+    public static final int COUNT_CACHED = 1;
+
+    /**
+     * 估算count，使用数据库执行计划的行数估算，不支持估算的数据库按缓存count处理。
+     */
+    public static final int COUNT_ESTIMATE = 2;
+
     /**
      * 当前页码。
      */
@@ -56,6 +72,42 @@ public class PageQueryParam extends QueryParam<PageQueryParam> {
     @Schema(name = "$rt", title = "请求类型", description = "请求类型。0:仅分页信息, 1:仅数据, 2:全部", defaultValue = "1")
     private int REQUEST_TYPE = REQUEST_DATA;
 
+    /**
+     * keyset分页游标，来自上一页 PageList 的 cursor。
+     */
+    @JsonProperty("cursor")
+    @Schema(name = "$cs", title = "分页游标", description = "keyset分页游标，取上一页返回的cursor，首页为空")
+    private String CURSOR;
+
+    /**
+     * keyset分页的排序列，必须为有序且唯一的列，如主键。
+     * 设置后按此列 seek 分页，忽略页码、起始位置和排序参数。
+     * 网络禁止从参数传入！
+     */
+    @JsonIgnore
+    private String SEEK_COLUMN;
+
+    /**
+     * keyset分页的排序方向。
+     * 网络禁止从参数传入！
+     */
+    @JsonIgnore
+    private int SEEK_TYPE = SORT_ASC;
+
+    /**
+     * count方式。
+     * 网络禁止从参数传入！
+     */
+    @JsonIgnore
+    private int COUNT_TYPE = COUNT_EXACT;
+
+    /**
+     * 缓存count的有效期毫秒数。
+     * 网络禁止从参数传入！
+     */
+    @JsonIgnore
+    private long COUNT_CACHE_MILLIS = 60_000L;
+
     public PageQueryParam() {
 
     }
@@ -227,4 +279,113 @@ public class PageQueryParam extends QueryParam<PageQueryParam> {
         this.REQUEST_TYPE = requestType;
     }
 
+    /**
+     * 是否keyset分页。
+     *
+     * @return
+     */
+    public boolean CHECK_SEEK() {
+        return SEEK_COLUMN != null && !SEEK_COLUMN.isBlank();
+    }
+
+    /**
+     * 设置keyset分页。
+     *
+     * @param SEEK_COLUMN 有序且唯一的排序列，如主键
+     * @param SEEK_TYPE   排序方向，SORT_ASC/SORT_DESC
+     * @return
+     */
+    public PageQueryParam SEEK(String SEEK_COLUMN, int SEEK_TYPE) {
+        this.SEEK_COLUMN = SEEK_COLUMN;
+        this.SEEK_TYPE = SEEK_TYPE == SORT_DESC ? SORT_DESC : SORT_ASC;
+        return this;
+    }
+
+    /**
+     * keyset分页的排序列。
+     *
+     * @return
+     */
+    public String SEEK_COLUMN() {
+        return SEEK_COLUMN;
+    }
+
+    /**
+     * keyset分页的排序方向。
+     *
+     * @return
+     */
+    public int SEEK_TYPE() {
+        return SEEK_TYPE;
+    }
+
+    /**
+     * keyset分页游标。
+     *
+     * @return
+     */
+    public String CURSOR() {
+        return CURSOR;
+    }
+
+    /**
+     * 设置keyset分页游标。
+     *
+     * @param CURSOR
+     * @return
+     */
+    public PageQueryParam CURSOR(String CURSOR) {
+        this.CURSOR = CURSOR;
+        return this;
+    }
+
+    /**
+     * 设置keyset分页游标。
+     *
+     * @param cursor
+     */
+    public void set$cs(String cursor) {
+        this.CURSOR = cursor;
+    }
+
+    /**
+     * count方式。
+     *
+     * @return
+     */
+    public int COUNT_TYPE() {
+        return COUNT_TYPE;
+    }
+
+    /**
+     * 设置count方式。
+     *
+     * @param COUNT_TYPE COUNT_EXACT/COUNT_CACHED/COUNT_ESTIMATE
+     * @return
+     */
+    public PageQueryParam COUNT_TYPE(int COUNT_TYPE) {
+        this.COUNT_TYPE = COUNT_TYPE;
+        return this;
+    }
+
+    /**
+     * 缓存count的有效期毫秒数。
+     *
+     * @return
+     */
+    public long COUNT_CACHE_MILLIS() {
+        return COUNT_CACHE_MILLIS;
+    }
+
+    /**
+     * 设置缓存count的有效期毫秒数。
+     *
+     * @param COUNT_CACHE_MILLIS
+     * @return
+     */
+    public PageQueryParam COUNT_CACHE_MILLIS(long COUNT_CACHE_MILLIS) {
+        this.COUNT_CACHE_MILLIS = COUNT_CACHE_MILLIS;
+        return this;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,295 @@
+package uw.common.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图，线程安全，可合并。
+ * <p>
+ * 不限定单位，调用方自行约定（如纳秒或毫秒）。0~15 每个值一个桶，此后每个2的幂区间再等分为 {@value #SUB_NUM} 个桶，
+ * 相对误差不超过 12.5%，覆盖全部非负 long。桶按2的幂区间分行，首次落入时才分配该行，
+ * 常见耗时只占用几行；记录只做原子自增，无锁。
+ * <p>
+ * 不同实例、不同窗口的直方图可用 {@link #merge} 合并；{@link #toString()} 输出的 "桶上界:次数" 按桶上界相加同样可以合并。
+ *
+ * @author axeon
+ */
+public class LatencyHistogram {
+
+    /**
+     * 每个2的幂区间的子桶位数。
+     */
+    private static final int SUB_BITS = 3;
+
+    /**
+     * 每个2的幂区间的子桶数，也是每行的桶数。
+     */
+    private static final int SUB_NUM = 1 << SUB_BITS;
+
+    /**
+     * 行数，最高位为62的值落在最后一行。
+     */
+    private static final int ROW_NUM = 62 - SUB_BITS + 2;
+
+    /**
+     * 按行分配的桶计数。
+     */
+    private final AtomicReferenceArray<AtomicLongArray> rows = new AtomicReferenceArray<>(ROW_NUM);
+
+    /**
+     * 总次数。
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * 总耗时。
+     */
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * 最大耗时。
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一次耗时。
+     *
+     * @param value 耗时，小于0按0计
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        int index = bucketIndex(value);
+        row(index / SUB_NUM).incrementAndGet(index % SUB_NUM);
+        count.increment();
+        total.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * 合并另一个直方图，两者单位须一致。
+     *
+     * @param other 直方图
+     */
+    public void merge(LatencyHistogram other) {
+        for (int r = 0; r < ROW_NUM; r++) {
+            AtomicLongArray otherRow = other.rows.get(r);
+            if (otherRow == null) {
+                continue;
+            }
+            AtomicLongArray row = null;
+            for (int i = 0; i < SUB_NUM; i++) {
+                long num = otherRow.get(i);
+                if (num > 0) {
+                    if (row == null) {
+                        row = row(r);
+                    }
+                    row.addAndGet(i, num);
+                }
+            }
+        }
+        count.add(other.count.sum());
+        total.add(other.total.sum());
+        long otherMax = other.max.get();
+        if (otherMax > max.get()) {
+            max.accumulateAndGet(otherMax, Math::max);
+        }
+    }
+
+    /**
+     * 获取总次数。
+     *
+     * @return 总次数
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 获取总耗时。
+     *
+     * @return 总耗时
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * 获取最大耗时。
+     *
+     * @return 最大耗时
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 获取分位耗时，返回所在桶的上界，且不超过最大耗时。
+     *
+     * @param percentile 分位，取值 (0, 1]
+     * @return 分位耗时，无数据时返回 0
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = counts();
+        return percentileOf(counts, sum(counts), percentile);
+    }
+
+    /**
+     * 生成快照，各分位基于同一份桶计数。
+     *
+     * @return 快照
+     */
+    public Snapshot snapshot() {
+        long[] counts = counts();
+        long num = sum(counts);
+        long sum = total.sum();
+        return new Snapshot(num, num == 0 ? 0 : sum / num, max.get(), percentileOf(counts, num, 0.5), percentileOf(counts, num, 0.9),
+                percentileOf(counts, num, 0.99), percentileOf(counts, num, 0.999));
+    }
+
+    /**
+     * 输出非空桶，格式为 "桶上界:次数,..."，按桶上界对应相加即可合并多个窗口或多个实例的直方图。
+     *
+     * @return 字符串
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(64);
+        for (int r = 0; r < ROW_NUM; r++) {
+            AtomicLongArray row = rows.get(r);
+            if (row == null) {
+                continue;
+            }
+            for (int i = 0; i < SUB_NUM; i++) {
+                long num = row.get(i);
+                if (num > 0) {
+                    if (!sb.isEmpty()) {
+                        sb.append(',');
+                    }
+                    sb.append(bucketUpper(r * SUB_NUM + i)).append(':').append(num);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 获取行，未分配时分配。
+     *
+     * @param r 行号
+     * @return 行
+     */
+    private AtomicLongArray row(int r) {
+        AtomicLongArray row = rows.get(r);
+        if (row == null) {
+            rows.compareAndSet(r, null, new AtomicLongArray(SUB_NUM));
+            row = rows.get(r);
+        }
+        return row;
+    }
+
+    /**
+     * 复制当前桶计数。
+     *
+     * @return 桶计数
+     */
+    private long[] counts() {
+        long[] counts = new long[ROW_NUM * SUB_NUM];
+        for (int r = 0; r < ROW_NUM; r++) {
+            AtomicLongArray row = rows.get(r);
+            if (row != null) {
+                for (int i = 0; i < SUB_NUM; i++) {
+                    counts[r * SUB_NUM + i] = row.get(i);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 桶计数求和。
+     *
+     * @param counts 桶计数
+     * @return 总次数
+     */
+    private static long sum(long[] counts) {
+        long sum = 0;
+        for (long num : counts) {
+            sum += num;
+        }
+        return sum;
+    }
+
+    /**
+     * 按桶计数计算分位值。
+     *
+     * @param counts     桶计数
+     * @param num        总次数
+     * @param percentile 分位
+     * @return 分位耗时
+     */
+    private long percentileOf(long[] counts, long num, double percentile) {
+        if (num == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(num * percentile));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpper(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * 耗时对应的桶序号。
+     *
+     * @param value 耗时
+     * @return 桶序号
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_NUM) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_NUM - 1);
+        return (exponent - SUB_BITS + 1) * SUB_NUM + sub;
+    }
+
+    /**
+     * 桶的上界（含）。
+     *
+     * @param index 桶序号
+     * @return 耗时
+     */
+    static long bucketUpper(int index) {
+        if (index < SUB_NUM) {
+            return index;
+        }
+        int exponent = index / SUB_NUM + SUB_BITS - 1;
+        int sub = index % SUB_NUM;
+        long width = 1L << (exponent - SUB_BITS);
+        return (SUB_NUM + sub) * width + width - 1;
+    }
+
+    /**
+     * 直方图快照，单位与记录时一致。
+     *
+     * @param count 次数
+     * @param mean  平均耗时
+     * @param max   最大耗时
+     * @param p50   50分位耗时
+     * @param p90   90分位耗时
+     * @param p99   99分位耗时
+     * @param p999  99.9分位耗时
+     */
+    public record Snapshot(long count, long mean, long max, long p50, long p90, long p99, long p999) {
+    }
+}
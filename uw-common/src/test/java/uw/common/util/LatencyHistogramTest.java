@@ -0,0 +1,85 @@
+package uw.common.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link LatencyHistogram} 单元测试。
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    void testBucket() {
+        // 0~15 每个值一个桶。
+        for (int i = 0; i < 16; i++) {
+            Assertions.assertEquals(i, LatencyHistogram.bucketIndex(i));
+            Assertions.assertEquals(i, LatencyHistogram.bucketUpper(i));
+        }
+        // 每个值都落在上一个桶上界之后、本桶上界之内。
+        for (long v : new long[]{16, 17, 100, 1000, 123_456_789L, 1L << 40, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(v);
+            Assertions.assertTrue(v <= LatencyHistogram.bucketUpper(index));
+            Assertions.assertTrue(v > LatencyHistogram.bucketUpper(index - 1));
+            Assertions.assertTrue(LatencyHistogram.bucketUpper(index) - v <= v / 8);
+        }
+        Assertions.assertEquals(Long.MAX_VALUE, LatencyHistogram.bucketUpper(LatencyHistogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assertions.assertEquals(0, histogram.getPercentile(0.99));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+        Assertions.assertEquals(101, histogram.getCount());
+        Assertions.assertEquals(5050, histogram.getTotal());
+        Assertions.assertEquals(100, histogram.getMax());
+        long p50 = histogram.getPercentile(0.5);
+        Assertions.assertTrue(p50 >= 50 && p50 <= 55, "p50=" + p50);
+        Assertions.assertEquals(100, histogram.getPercentile(1));
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assertions.assertEquals(p50, snapshot.p50());
+        Assertions.assertEquals(50, snapshot.mean());
+        Assertions.assertEquals(100, snapshot.p999());
+    }
+
+    @Test
+    void testMerge() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(3);
+        a.record(1000);
+        b.record(3);
+        b.record(1_000_000);
+        a.merge(b);
+        Assertions.assertEquals(4, a.getCount());
+        Assertions.assertEquals(1_001_006, a.getTotal());
+        Assertions.assertEquals(1_000_000, a.getMax());
+        Assertions.assertEquals("3:2," + LatencyHistogram.bucketUpper(LatencyHistogram.bucketIndex(1000)) + ":1,"
+                + LatencyHistogram.bucketUpper(LatencyHistogram.bucketIndex(1_000_000)) + ":1", a.toString());
+        // 被合并方不变。
+        Assertions.assertEquals(2, b.getCount());
+    }
+
+    @Test
+    void testConcurrentRecord() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(80_000, histogram.getCount());
+        Assertions.assertEquals(80_000, histogram.snapshot().count());
+        Assertions.assertEquals(9_999, histogram.getMax());
+    }
+}
@@ -6,13 +6,19 @@ import uw.common.dto.PageQueryParam;
 import uw.common.dto.QueryParam;
 import uw.dao.impl.DaoFactoryImpl;
 import uw.dao.vo.QueryParamResult;
+import uw.dao.vo.ShardRange;
 import uw.dao.vo.SqlExecuteStats;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 整个 Dao 模块的传统入口，所有数据库操作的底层抽象基类。
@@ -208,6 +214,40 @@ public abstract class DaoFactory {
      */
     public abstract <T extends DataEntity> List<T> save(String connName, List<T> entityList, String tableName) throws TransactionException;
 
+    /**
+     * 异步插入一个Entity实例，按表缓冲后合并为多行insert写入，不返回写入结果，不参与当前事务.
+     * 队列容量、批量大小、等待时间和队列满时的处理策略见 uw.dao.async-insert 配置。
+     *
+     * @param <T>    映射的类型
+     * @param entity 要保存的对象
+     * @return 是否已接受，阻塞等待时被中断返回false
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T extends DataEntity> boolean asyncInsert(T entity) throws TransactionException;
+
+    /**
+     * 异步插入一个Entity实例，按表缓冲后合并为多行insert写入，不返回写入结果，不参与当前事务.
+     *
+     * @param <T>       映射的类型
+     * @param entity    要保存的对象
+     * @param tableName 指定表名
+     * @return 是否已接受，阻塞等待时被中断返回false
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T extends DataEntity> boolean asyncInsert(T entity, String tableName) throws TransactionException;
+
+    /**
+     * 异步插入一个Entity实例，按表缓冲后合并为多行insert写入，不返回写入结果，不参与当前事务.
+     *
+     * @param <T>       映射的类型
+     * @param connName  连接名，如设置为null，则根据表名动态路由确定
+     * @param entity    要保存的对象
+     * @param tableName 指定表名
+     * @return 是否已接受，阻塞等待时被中断返回false
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T extends DataEntity> boolean asyncInsert(String connName, T entity, String tableName) throws TransactionException;
+
     /**
      * 根据主键更新一个Entity实例，等效于update.
      *
@@ -406,6 +446,54 @@ public abstract class DaoFactory {
      */
     public abstract <T> T load(String connName, Class<T> entityCls, String tableName, Serializable id) throws TransactionException;
 
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param entityCls 要映射的对象类型
+     * @param <T>       映射的类型
+     * @param ids       主键集合
+     * @return 实体列表
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T> List<T> loadByIds(Class<T> entityCls, Collection<? extends Serializable> ids) throws TransactionException;
+
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param entityCls 要映射的对象类型
+     * @param <T>       映射的类型
+     * @param tableName 指定表名
+     * @param ids       主键集合
+     * @return 实体列表
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T> List<T> loadByIds(Class<T> entityCls, String tableName, Collection<? extends Serializable> ids) throws TransactionException;
+
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param <T>       映射的类型
+     * @param ids       主键集合
+     * @return 实体列表
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T> List<T> loadByIds(String connName, Class<T> entityCls, Collection<? extends Serializable> ids) throws TransactionException;
+
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param <T>       映射的类型
+     * @param tableName 指定表名
+     * @param ids       主键集合
+     * @return 实体列表
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T> List<T> loadByIds(String connName, Class<T> entityCls, String tableName, Collection<? extends Serializable> ids) throws TransactionException;
+
     /**
      * 根据指定的映射类型，返回一个PageList列表.
      *
@@ -617,6 +705,130 @@ public abstract class DaoFactory {
      */
     public abstract <T> PageList<T> list(String connName, Class<T> entityCls, String tableName, PageQueryParam pageQueryParam) throws TransactionException;
 
+    /**
+     * 以流式游标方式查询实体。 使用sql中探测到的表名来决定连接名.
+     * <p>
+     * 使用只读、仅向前的游标按 fetchSize 分批读取，适合导出、对账等大结果集场景，内存占用与总行数无关。
+     * 返回的 Stream 持有数据库连接，必须在 try-with-resources 中使用，关闭时记录SQL执行统计。
+     * MySQL 未配置 useCursorFetch=true 时为逐行流式读取，读取期间同一连接不能执行其它语句。
+     *
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param <T>       映射的类型
+     * @return 实体流
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T> Stream<T> stream(Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize) throws TransactionException;
+
+    /**
+     * 以流式游标方式查询实体.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param <T>       映射的类型
+     * @return 实体流
+     * @throws TransactionException 事务异常
+     * @see #stream(Class, String, Object[], int)
+     */
+    public abstract <T> Stream<T> stream(String connName, Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize) throws TransactionException;
+
+    /**
+     * 以流式游标方式逐行回调实体。 使用sql中探测到的表名来决定连接名.
+     * <p>
+     * 读取完毕或回调抛出异常时自动关闭游标。
+     *
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param consumer  实体回调
+     * @param <T>       映射的类型
+     * @return 读取的行数
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T> long forEach(Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize, Consumer<? super T> consumer) throws TransactionException;
+
+    /**
+     * 以流式游标方式逐行回调实体.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param consumer  实体回调
+     * @param <T>       映射的类型
+     * @return 读取的行数
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T> long forEach(String connName, Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize, Consumer<? super T> consumer) throws TransactionException;
+
+    /**
+     * 跨分表查询，按分表顺序拼接各分表的结果.
+     * <p>
+     * 按分表范围给出全部分表，跳过不存在的分表，把SQL中的 ${table} 替换为各分表名后并行查询，
+     * 每个分表按表名各自路由连接，使用独立的DaoFactory实例，不参与当前事务。
+     *
+     * @param entityCls  要映射的对象类型
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  查询的SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @param <T>        映射的类型
+     * @return 列表
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T> PageList<T> shardList(Class<T> entityCls, String tableName, ShardRange shardRange, String selectSql, Object[] paramList) throws TransactionException;
+
+    /**
+     * 跨分表查询，按比较器多路归并各分表的结果并取出指定页.
+     * <p>
+     * SQL须带与比较器一致的 order by，每个分表只查询前 startIndex+resultNum 行。
+     *
+     * @param entityCls  要映射的对象类型
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  查询的SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @param comparator 排序比较器
+     * @param startIndex 开始位置
+     * @param resultNum  结果集大小，0表示不限制
+     * @param <T>        映射的类型
+     * @return 列表
+     * @throws TransactionException 事务异常
+     */
+    public abstract <T> PageList<T> shardList(Class<T> entityCls, String tableName, ShardRange shardRange, String selectSql, Object[] paramList,
+                                              Comparator<? super T> comparator, int startIndex, int resultNum) throws TransactionException;
+
+    /**
+     * 跨分表计数，各分表 count 结果相加.
+     *
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  计数SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @return 计数之和
+     * @throws TransactionException 事务异常
+     */
+    public abstract long shardCount(String tableName, ShardRange shardRange, String selectSql, Object[] paramList) throws TransactionException;
+
+    /**
+     * 跨分表求和，各分表 sum 结果相加.
+     *
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  求和SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @return 数值之和
+     * @throws TransactionException 事务异常
+     */
+    public abstract BigDecimal shardSum(String tableName, ShardRange shardRange, String selectSql, Object[] paramList) throws TransactionException;
+
     // ===== queryForList: 委托到 list() 方法 =====
 
     public <T> PageList<T> queryForList(Class<T> entityCls, String selectSql) throws TransactionException {
@@ -10,13 +10,19 @@ import uw.common.response.ResponseData;
 import uw.dao.conf.DaoConfigManager;
 import uw.dao.constant.DaoResponseCode;
 import uw.dao.vo.QueryParamResult;
+import uw.dao.vo.ShardRange;
 import uw.dao.vo.SqlExecuteStats;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * DaoManager 是 DAO 的推荐入口类，提供了一系列 DAO 操作方法，统一以 {@link ResponseData} 返回结果。
@@ -310,6 +316,51 @@ public class DaoManager {
         }
     }
 
+    /**
+     * 异步插入一个Entity实例，按表缓冲后合并为多行insert写入，不返回写入结果，不参与当前事务.
+     *
+     * @param entity 要保存的对象
+     * @return 是否已接受
+     */
+    public <T extends DataEntity> ResponseData<Boolean> asyncInsert(T entity) {
+        try {
+            return ResponseData.success(daoFactory.asyncInsert(entity));
+        } catch (TransactionException e) {
+            return responseError(false, e);
+        }
+    }
+
+    /**
+     * 异步插入一个Entity实例，按表缓冲后合并为多行insert写入，不返回写入结果，不参与当前事务.
+     *
+     * @param entity    要保存的对象
+     * @param tableName 指定表名
+     * @return 是否已接受
+     */
+    public <T extends DataEntity> ResponseData<Boolean> asyncInsert(T entity, String tableName) {
+        try {
+            return ResponseData.success(daoFactory.asyncInsert(entity, tableName));
+        } catch (TransactionException e) {
+            return responseError(false, e);
+        }
+    }
+
+    /**
+     * 异步插入一个Entity实例，按表缓冲后合并为多行insert写入，不返回写入结果，不参与当前事务.
+     *
+     * @param connName  连接名，如设置为null，则根据表名动态路由确定
+     * @param entity    要保存的对象
+     * @param tableName 指定表名
+     * @return 是否已接受
+     */
+    public <T extends DataEntity> ResponseData<Boolean> asyncInsert(String connName, T entity, String tableName) {
+        try {
+            return ResponseData.success(daoFactory.asyncInsert(connName, entity, tableName));
+        } catch (TransactionException e) {
+            return responseError(false, e);
+        }
+    }
+
     // update相关方法
 
     /**
@@ -665,6 +716,70 @@ public class DaoManager {
         }
     }
 
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param entityCls 要映射的对象类型
+     * @param ids       主键集合
+     * @return 实体列表
+     */
+    public <T> ResponseData<List<T>> loadByIds(Class<T> entityCls, Collection<? extends Serializable> ids) {
+        try {
+            return responseData(daoFactory.loadByIds(entityCls, ids));
+        } catch (TransactionException e) {
+            return responseError(Collections.emptyList(), e);
+        }
+    }
+
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param entityCls 要映射的对象类型
+     * @param tableName 指定表名
+     * @param ids       主键集合
+     * @return 实体列表
+     */
+    public <T> ResponseData<List<T>> loadByIds(Class<T> entityCls, String tableName, Collection<? extends Serializable> ids) {
+        try {
+            return responseData(daoFactory.loadByIds(entityCls, tableName, ids));
+        } catch (TransactionException e) {
+            return responseError(Collections.emptyList(), e);
+        }
+    }
+
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param ids       主键集合
+     * @return 实体列表
+     */
+    public <T> ResponseData<List<T>> loadByIds(String connName, Class<T> entityCls, Collection<? extends Serializable> ids) {
+        try {
+            return responseData(daoFactory.loadByIds(connName, entityCls, ids));
+        } catch (TransactionException e) {
+            return responseError(Collections.emptyList(), e);
+        }
+    }
+
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param tableName 指定表名
+     * @param ids       主键集合
+     * @return 实体列表
+     */
+    public <T> ResponseData<List<T>> loadByIds(String connName, Class<T> entityCls, String tableName, Collection<? extends Serializable> ids) {
+        try {
+            return responseData(daoFactory.loadByIds(connName, entityCls, tableName, ids));
+        } catch (TransactionException e) {
+            return responseError(Collections.emptyList(), e);
+        }
+    }
+
     // list相关方法
 
     /**
@@ -946,6 +1061,150 @@ public class DaoManager {
         }
     }
 
+    /**
+     * 以流式游标方式查询实体。 使用sql中探测到的表名来决定连接名.
+     * <p>
+     * 返回的 Stream 持有数据库连接，必须在 try-with-resources 中使用，关闭时记录SQL执行统计。
+     *
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @return 实体流
+     * @see DaoFactory#stream(Class, String, Object[], int)
+     */
+    public <T> ResponseData<Stream<T>> stream(Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize) {
+        return stream(null, entityCls, selectSql, paramList, fetchSize);
+    }
+
+    /**
+     * 以流式游标方式查询实体.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @return 实体流
+     * @see DaoFactory#stream(String, Class, String, Object[], int)
+     */
+    public <T> ResponseData<Stream<T>> stream(String connName, Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize) {
+        try {
+            return responseData(daoFactory.stream(connName, entityCls, selectSql, paramList, fetchSize));
+        } catch (TransactionException e) {
+            return responseError(Stream.empty(), e);
+        }
+    }
+
+    /**
+     * 以流式游标方式逐行回调实体。 使用sql中探测到的表名来决定连接名.
+     *
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param consumer  实体回调
+     * @return 读取的行数
+     */
+    public <T> ResponseData<Long> forEach(Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize, Consumer<? super T> consumer) {
+        return forEach(null, entityCls, selectSql, paramList, fetchSize, consumer);
+    }
+
+    /**
+     * 以流式游标方式逐行回调实体.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param consumer  实体回调
+     * @return 读取的行数
+     */
+    public <T> ResponseData<Long> forEach(String connName, Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize, Consumer<? super T> consumer) {
+        try {
+            return ResponseData.success(daoFactory.forEach(connName, entityCls, selectSql, paramList, fetchSize, consumer));
+        } catch (TransactionException e) {
+            return responseError(0L, e);
+        }
+    }
+
+    /**
+     * 跨分表查询，按分表顺序拼接各分表的结果.
+     *
+     * @param entityCls  要映射的对象类型
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  查询的SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @param <T>        映射的类型
+     * @return 列表
+     */
+    public <T> ResponseData<PageList<T>> shardList(Class<T> entityCls, String tableName, ShardRange shardRange, String selectSql, Object[] paramList) {
+        try {
+            return responseData(daoFactory.shardList(entityCls, tableName, shardRange, selectSql, paramList));
+        } catch (TransactionException e) {
+            return responseError(PageList.empty(), e);
+        }
+    }
+
+    /**
+     * 跨分表查询，按比较器多路归并各分表的结果并取出指定页.
+     *
+     * @param entityCls  要映射的对象类型
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  查询的SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @param comparator 排序比较器
+     * @param startIndex 开始位置
+     * @param resultNum  结果集大小，0表示不限制
+     * @param <T>        映射的类型
+     * @return 列表
+     */
+    public <T> ResponseData<PageList<T>> shardList(Class<T> entityCls, String tableName, ShardRange shardRange, String selectSql, Object[] paramList,
+                                                   Comparator<? super T> comparator, int startIndex, int resultNum) {
+        try {
+            return responseData(daoFactory.shardList(entityCls, tableName, shardRange, selectSql, paramList, comparator, startIndex, resultNum));
+        } catch (TransactionException e) {
+            return responseError(PageList.empty(), e);
+        }
+    }
+
+    /**
+     * 跨分表计数，各分表 count 结果相加.
+     *
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  计数SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @return 计数之和
+     */
+    public ResponseData<Long> shardCount(String tableName, ShardRange shardRange, String selectSql, Object[] paramList) {
+        try {
+            return ResponseData.success(daoFactory.shardCount(tableName, shardRange, selectSql, paramList));
+        } catch (TransactionException e) {
+            return responseError(0L, e);
+        }
+    }
+
+    /**
+     * 跨分表求和，各分表 sum 结果相加.
+     *
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  求和SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @return 数值之和
+     */
+    public ResponseData<BigDecimal> shardSum(String tableName, ShardRange shardRange, String selectSql, Object[] paramList) {
+        try {
+            return ResponseData.success(daoFactory.shardSum(tableName, shardRange, selectSql, paramList));
+        } catch (TransactionException e) {
+            return responseError(BigDecimal.ZERO, e);
+        }
+    }
+
     // ===== queryForList: 委托到 list() 方法 =====
 
     public <T> ResponseData<PageList<T>> queryForList(Class<T> entityCls, String selectSql) {
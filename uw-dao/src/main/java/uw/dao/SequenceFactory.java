@@ -11,6 +11,7 @@ import uw.dao.sequence.FusionSequenceFactory;
  * 1.FusionSequenceFactory 可以获取连续的Sequence数值，DaoSequenceFactory 集群环境下是不连续的。
  * 2.FusionSequenceFactory 默认配置下性能是 DaoSequenceFactory 的100倍。
  * 3.DaoSequenceFactory的incrementNum=100的时候和FusionSequenceFactory性能平衡点，超过100则性能大于FusionSequenceFactory。
+ * 4.配置 uw.dao.fusion-sequence-mode=segment 后，FusionSequenceFactory 在本地号段内发号，只保证唯一，不再全局递增。
  *
  */
 public class SequenceFactory {
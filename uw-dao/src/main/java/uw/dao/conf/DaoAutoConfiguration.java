@@ -25,6 +25,7 @@ import uw.dao.conf.DaoConfig.ConnPoolConfig;
 import uw.dao.conf.DaoConfig.TableShardConfig;
 import uw.dao.connectionpool.ConnectionManager;
 import uw.dao.sequence.FusionSequenceFactory;
+import uw.dao.service.AsyncInsertService;
 import uw.dao.service.DaoService;
 
 import java.util.Map;
@@ -122,11 +123,13 @@ public class DaoAutoConfiguration {
         ConnectionManager.start();
         if (daoConfig.getSqlStats().isEnable()) {
             // 加入统计日志表到sharding配置中。
-            TableShardConfig config = new TableShardConfig();
-            config.setShardType("date");
-            config.setShardRule("day");
-            config.setAutoGen(true);
-            daoConfig.getTableShard().put(DaoService.STATS_BASE_TABLE, config);
+            for (String statsTable : new String[]{DaoService.STATS_BASE_TABLE, DaoService.STATS_DIGEST_TABLE}) {
+                TableShardConfig config = new TableShardConfig();
+                config.setShardType("date");
+                config.setShardRule("day");
+                config.setAutoGen(true);
+                daoConfig.getTableShard().put(statsTable, config);
+            }
         }
         DaoService.start();
         //处理Sequence问题。
@@ -148,6 +151,7 @@ public class DaoAutoConfiguration {
     @PreDestroy
     public void destroy() {
         log.info("uw-dao destroy configuration...");
+        AsyncInsertService.stop();
         DaoService.stop();
         ConnectionManager.stop();
     }
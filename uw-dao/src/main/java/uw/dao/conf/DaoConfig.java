@@ -29,15 +29,31 @@ public class DaoConfig {
      */
     private LinkedHashMap<String, TableShardConfig> tableShard = new LinkedHashMap<String, TableShardConfig>();
 
+    /**
+     * 跨分表查询的最大并发数，所有跨分表查询共享，每个并发占用一个数据库连接，默认8.
+     */
+    private int shardQueryParallelism = 8;
+
     /**
      * sql统计配置.
      */
     private SqlStatsConfig sqlStats = new SqlStatsConfig();
 
+    /**
+     * 异步插入配置.
+     */
+    private AsyncInsertConfig asyncInsert = new AsyncInsertConfig();
+
     /**
      * Redis配置
      */
     private RedisProperties redis = null;
+
+    /**
+     * 配置Redis后FusionSequenceFactory的发号模式：cursor 每个号一次Redis调用，全局递增；
+     * segment 每个JVM租用一段号在本地发出，只保证唯一，默认cursor.
+     */
+    private String fusionSequenceMode = "cursor";
     /**
      * 生产环境命名列表
      */
@@ -72,6 +88,14 @@ public class DaoConfig {
         this.tableShard = tableShard;
     }
 
+    public int getShardQueryParallelism() {
+        return shardQueryParallelism;
+    }
+
+    public void setShardQueryParallelism(int shardQueryParallelism) {
+        this.shardQueryParallelism = shardQueryParallelism;
+    }
+
     public SqlStatsConfig getSqlStats() {
         return sqlStats;
     }
@@ -80,6 +104,14 @@ public class DaoConfig {
         this.sqlStats = sqlStats;
     }
 
+    public AsyncInsertConfig getAsyncInsert() {
+        return asyncInsert;
+    }
+
+    public void setAsyncInsert(AsyncInsertConfig asyncInsert) {
+        this.asyncInsert = asyncInsert;
+    }
+
     public RedisProperties getRedis() {
         return redis;
     }
@@ -88,6 +120,14 @@ public class DaoConfig {
         this.redis = redis;
     }
 
+    public String getFusionSequenceMode() {
+        return fusionSequenceMode;
+    }
+
+    public void setFusionSequenceMode(String fusionSequenceMode) {
+        this.fusionSequenceMode = fusionSequenceMode;
+    }
+
     public Set<String> getProdProfiles() {
         return prodProfiles;
     }
@@ -152,6 +192,23 @@ public class DaoConfig {
          */
         private LinkedHashMap<String, ConnRouteConfig> list;
 
+        /**
+         * 读连接池探测间隔秒数，默认5秒，小于等于0时不探测.
+         * 探测失败的读连接池会被摘除，恢复后自动加回。
+         */
+        private int readProbeInterval = 5;
+
+        /**
+         * 读连接池允许的最大复制延迟毫秒数，超过时摘除该读连接池，默认0不检测.
+         */
+        private long readLagMaxMillis = 0;
+
+        /**
+         * 写后读粘滞毫秒数，同一线程写入后的这段时间内，读操作路由到写连接池，默认0不粘滞.
+         * 事务内的读操作总是路由到写连接池。
+         */
+        private long readYourWritesMillis = 0;
+
         public ConnRouteConfig getRoot() {
             return root;
         }
@@ -167,6 +224,30 @@ public class DaoConfig {
         public void setList(LinkedHashMap<String, ConnRouteConfig> list) {
             this.list = list;
         }
+
+        public int getReadProbeInterval() {
+            return readProbeInterval;
+        }
+
+        public void setReadProbeInterval(int readProbeInterval) {
+            this.readProbeInterval = readProbeInterval;
+        }
+
+        public long getReadLagMaxMillis() {
+            return readLagMaxMillis;
+        }
+
+        public void setReadLagMaxMillis(long readLagMaxMillis) {
+            this.readLagMaxMillis = readLagMaxMillis;
+        }
+
+        public long getReadYourWritesMillis() {
+            return readYourWritesMillis;
+        }
+
+        public void setReadYourWritesMillis(long readYourWritesMillis) {
+            this.readYourWritesMillis = readYourWritesMillis;
+        }
     }
 
     /**
@@ -336,6 +417,11 @@ public class DaoConfig {
          */
         private String[] readPools;
 
+        /**
+         * 读连接池选择策略：round-robin（轮询，默认）、least-active（活动连接最少）、latency（耗时EWMA最低）.
+         */
+        private String readStrategy = "round-robin";
+
         /**
          * 获取合适的写入连接池。
          * 未配置 writePools 时返回 null，由上层路由逻辑决定是否回退到其他池。
@@ -377,6 +463,14 @@ public class DaoConfig {
         public void setReadPools(String[] readPools) {
             this.readPools = readPools;
         }
+
+        public String getReadStrategy() {
+            return readStrategy;
+        }
+
+        public void setReadStrategy(String readStrategy) {
+            this.readStrategy = readStrategy;
+        }
     }
 
     /**
@@ -426,7 +520,8 @@ public class DaoConfig {
     }
 
     /**
-     * 统计sql执行信息，包括参数，返回信息，执行时间等,表名为dao_sql_stats开头，此表被自动配置为按日分表。.
+     * 统计sql执行信息，按连接名和SQL指纹聚合执行次数、异常次数、行数和耗时分布，写入dao_sql_digest开头的表；
+     * 每个统计窗口内最慢的若干条sql连同参数写入dao_sql_stats开头的表，两张表都被自动配置为按日分表。.
      *
      * @author axeon
      */
@@ -438,10 +533,20 @@ public class DaoConfig {
         private boolean enable = false;
 
         /**
-         * sql执行最小毫秒数。
+         * 慢sql样本的最小执行毫秒数。
          */
         private int sqlCostMin = 100;
 
+        /**
+         * 每个统计窗口保留的慢sql样本数，默认32.
+         */
+        private int slowSampleNum = 32;
+
+        /**
+         * 每个统计分段最多聚合的指纹数，超出的sql统一计入溢出指纹，默认1000.
+         */
+        private int maxDigestNum = 1000;
+
         /**
          * 保存时间，默认是100天.
          */
@@ -463,6 +568,22 @@ public class DaoConfig {
             this.sqlCostMin = sqlCostMin;
         }
 
+        public int getSlowSampleNum() {
+            return slowSampleNum;
+        }
+
+        public void setSlowSampleNum(int slowSampleNum) {
+            this.slowSampleNum = slowSampleNum;
+        }
+
+        public int getMaxDigestNum() {
+            return maxDigestNum;
+        }
+
+        public void setMaxDigestNum(int maxDigestNum) {
+            this.maxDigestNum = maxDigestNum;
+        }
+
         public int getDataKeepDays() {
             return dataKeepDays;
         }
@@ -472,4 +593,77 @@ public class DaoConfig {
         }
     }
 
+    /**
+     * 异步插入配置，DaoFactory.asyncInsert 按表缓冲到有界队列，攒够 batchSize 或等待 lingerMillis 后合并为多行insert写入.
+     *
+     * @author axeon
+     */
+    public static class AsyncInsertConfig {
+
+        /**
+         * 每个表的队列容量，默认10000.
+         */
+        private int queueSize = 10000;
+
+        /**
+         * 每批最多写入的行数，默认500.
+         */
+        private int batchSize = 500;
+
+        /**
+         * 未攒够一批时的最长等待毫秒数，默认200.
+         */
+        private int lingerMillis = 200;
+
+        /**
+         * 写入线程数，默认2.
+         */
+        private int workerNum = 2;
+
+        /**
+         * 队列满时的处理策略：block 阻塞等待，drop-oldest 丢弃最早的数据，caller-runs 由调用线程直接写入一批，默认block.
+         */
+        private String rejectPolicy = "block";
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getLingerMillis() {
+            return lingerMillis;
+        }
+
+        public void setLingerMillis(int lingerMillis) {
+            this.lingerMillis = lingerMillis;
+        }
+
+        public int getWorkerNum() {
+            return workerNum;
+        }
+
+        public void setWorkerNum(int workerNum) {
+            this.workerNum = workerNum;
+        }
+
+        public String getRejectPolicy() {
+            return rejectPolicy;
+        }
+
+        public void setRejectPolicy(String rejectPolicy) {
+            this.rejectPolicy = rejectPolicy;
+        }
+    }
+
 }
@@ -5,6 +5,7 @@ import uw.dao.conf.DaoConfig.ConnPoolConfig;
 import uw.dao.conf.DaoConfig.ConnRoute;
 import uw.dao.conf.DaoConfig.ConnRouteConfig;
 import uw.dao.conf.DaoConfig.TableShardConfig;
+import uw.dao.connectionpool.ReadPoolBalancer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +28,14 @@ public final class DaoConfigManager {
      * 链接路由Map.
      */
     private static final Map<String, String> routeMap = new ConcurrentHashMap<>();
+    /**
+     * 表名 -> 匹配的路由配置，读连接池每次调用时再选择.
+     */
+    private static final Map<String, ConnRouteConfig> routeConfigMap = new ConcurrentHashMap<>();
+    /**
+     * 未匹配到路由配置时的占位对象.
+     */
+    private static final ConnRouteConfig NO_ROUTE_CONFIG = new ConnRouteConfig();
     /**
      * DAO配置表.
      */
@@ -47,6 +56,7 @@ public final class DaoConfigManager {
         DaoConfigManager.config = config;
         // 清空路由缓存，使新配置（连接池/路由变更）立即生效，支持配置热更新。
         routeMap.clear();
+        routeConfigMap.clear();
     }
 
     /**
@@ -132,12 +142,25 @@ public final class DaoConfigManager {
 
     /**
      * 获取路由映射信息.
+     * <p>
+     * 写连接池按 table:access 缓存，同一张表固定使用同一个写连接池；
+     * 读连接池每次调用时由 {@link ReadPoolBalancer} 按路由的读策略选择，未配置读连接池或全部被摘除时回退到写连接池。
      *
      * @param table  表名
      * @param access 权限
      * @return 路由映射信息
      */
     public static String getRouteMapping(String table, String access) {
+        if ("read".equalsIgnoreCase(access)) {
+            ConnRouteConfig route = getRouteConfig(table);
+            if (route != NO_ROUTE_CONFIG) {
+                String poolName = ReadPoolBalancer.select(route);
+                if (StringUtils.isNotBlank(poolName)) {
+                    return poolName;
+                }
+            }
+            access = "write";
+        }
         String tableAccess = table + ":" + access;
         String connPoolName = routeMap.get(tableAccess);
         if (connPoolName != null) {
@@ -145,25 +168,13 @@ public final class DaoConfigManager {
         }
         return routeMap.computeIfAbsent(tableAccess, (key) -> {
             String poolName = null;
-            ConnRoute connRoute = config.getConnRoute();
-            if (connRoute != null) {
-                Map<String, ConnRouteConfig> map = connRoute.getList();
-                // 先尝试匹配列表.
-                if (map != null) {
-                    for (Entry<String, ConnRouteConfig> kv : map.entrySet()) {
-                        if (table.startsWith(kv.getKey())) {
-                            ConnRouteConfig route = kv.getValue();
-                            poolName = getPoolNameByAccess(route, access);
-                            break;
-                        }
-                    }
-                }
-                // 如果匹配不到，那么就直接从根配置获取.
-                if (poolName == null) {
-                    ConnRouteConfig route = connRoute.getRoot();
-                    if (route != null) {
-                        poolName = getPoolNameByAccess(route, access);
-                    }
+            ConnRouteConfig route = getRouteConfig(table);
+            if (route != NO_ROUTE_CONFIG) {
+                poolName = route.getFitWritePool();
+                // 匹配到的路由未配置写连接池时，从根路由获取.
+                ConnRouteConfig rootRoute = config.getConnRoute().getRoot();
+                if (poolName == null && rootRoute != null && rootRoute != route) {
+                    poolName = rootRoute.getFitWritePool();
                 }
             }
             // 如果还是没有找到，说明根本就没配置路由，直接返回默认链接.
@@ -175,21 +186,34 @@ public final class DaoConfigManager {
     }
 
     /**
-     * 通过route和access获取连接池名称.
+     * 获取表匹配的路由配置.
+     * 先按表名前缀匹配路由列表，匹配不到时使用根路由。
      *
-     * @param route  路由
-     * @param access 权限
-     * @return poolName
+     * @param table 表名
+     * @return 路由配置，未配置路由时返回 {@link #NO_ROUTE_CONFIG}
      */
-    private static String getPoolNameByAccess(ConnRouteConfig route, String access) {
-        String poolName = null;
-        if ("read".equalsIgnoreCase(access)) {
-            poolName = route.getFitReadPool();
+    private static ConnRouteConfig getRouteConfig(String table) {
+        ConnRouteConfig routeConfig = routeConfigMap.get(table);
+        if (routeConfig != null) {
+            return routeConfig;
         }
-        if (StringUtils.isBlank(poolName)) {
-            poolName = route.getFitWritePool();
-        }
-        return poolName;
+        return routeConfigMap.computeIfAbsent(table, (key) -> {
+            ConnRoute connRoute = config.getConnRoute();
+            if (connRoute == null) {
+                return NO_ROUTE_CONFIG;
+            }
+            Map<String, ConnRouteConfig> map = connRoute.getList();
+            // 先尝试匹配列表.
+            if (map != null) {
+                for (Entry<String, ConnRouteConfig> kv : map.entrySet()) {
+                    if (table.startsWith(kv.getKey())) {
+                        return kv.getValue();
+                    }
+                }
+            }
+            // 如果匹配不到，那么就直接从根配置获取.
+            return connRoute.getRoot() != null ? connRoute.getRoot() : NO_ROUTE_CONFIG;
+        });
     }
 
 }
@@ -50,12 +50,14 @@ public final class ConnectionManager {
                 logger.error("Initial ConnectionPool[{}] failed !!!", poolName);
             }
         }
+        ReadPoolBalancer.start();
     }
 
     /**
      * 关闭连接管理器.
      */
     public static void stop() {
+        ReadPoolBalancer.stop();
         destroyAllConnectionPool();
     }
 
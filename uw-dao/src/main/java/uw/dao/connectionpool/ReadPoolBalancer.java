@@ -0,0 +1,347 @@
+package uw.dao.connectionpool;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uw.common.util.SystemClock;
+import uw.dao.conf.DaoConfig.ConnRoute;
+import uw.dao.conf.DaoConfig.ConnRouteConfig;
+import uw.dao.conf.DaoConfigManager;
+import uw.dao.dialect.Dialect;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读连接池负载均衡器.
+ * <p>
+ * 每次读操作按路由配置的 readStrategy 从 readPools 中选择一个连接池：
+ * <ul>
+ *   <li>round-robin：轮询；</li>
+ *   <li>least-active：按 Hikari 连接池的 (活动连接数 + 等待线程数) / 最大连接数 选最空闲的；</li>
+ *   <li>latency：随机取两个连接池，选SQL耗时EWMA较低的一个。</li>
+ * </ul>
+ * 后台按 readProbeInterval 探测每个读连接池，连接失败或复制延迟超过 readLagMaxMillis 时摘除，恢复后加回；
+ * 全部读连接池被摘除时返回 null，由路由回退到写连接池。
+ *
+ * @author axeon
+ */
+public final class ReadPoolBalancer {
+
+    /**
+     * 轮询.
+     */
+    public static final String STRATEGY_ROUND_ROBIN = "round-robin";
+
+    /**
+     * 活动连接最少.
+     */
+    public static final String STRATEGY_LEAST_ACTIVE = "least-active";
+
+    /**
+     * 耗时EWMA最低.
+     */
+    public static final String STRATEGY_LATENCY = "latency";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadPoolBalancer.class);
+
+    /**
+     * EWMA平滑系数.
+     */
+    private static final double EWMA_ALPHA = 0.2;
+
+    /**
+     * 读连接池状态表.
+     */
+    private static final Map<String, PoolHealth> HEALTH_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 探测任务.
+     */
+    private static ScheduledExecutorService probeService;
+
+    /**
+     * 启动读连接池探测.
+     */
+    public static synchronized void start() {
+        if (probeService != null) {
+            return;
+        }
+        ConnRoute connRoute = DaoConfigManager.getConfig().getConnRoute();
+        Set<String> readPools = getReadPools(connRoute);
+        if (readPools.isEmpty()) {
+            return;
+        }
+        for (String poolName : readPools) {
+            health(poolName);
+        }
+        if (connRoute.getReadProbeInterval() <= 0) {
+            return;
+        }
+        probeService = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r);
+            t.setName("uw-dao.read-probe");
+            t.setDaemon(true);
+            return t;
+        });
+        probeService.scheduleWithFixedDelay(() -> probe(readPools), connRoute.getReadProbeInterval(), connRoute.getReadProbeInterval(), TimeUnit.SECONDS);
+        logger.info("uw-dao read pool probe started! pools: {}", readPools);
+    }
+
+    /**
+     * 停止读连接池探测.
+     */
+    public static synchronized void stop() {
+        if (probeService != null) {
+            probeService.shutdownNow();
+            probeService = null;
+        }
+        HEALTH_MAP.clear();
+    }
+
+    /**
+     * 按路由的读策略选择读连接池.
+     *
+     * @param route 路由
+     * @return 连接池名称；未配置读连接池或全部被摘除时返回 null
+     */
+    public static String select(ConnRouteConfig route) {
+        String[] pools = route.getReadPools();
+        if (pools == null || pools.length == 0) {
+            return null;
+        }
+        if (pools.length == 1) {
+            return health(pools[0]).ejected ? null : pools[0];
+        }
+        String strategy = route.getReadStrategy();
+        if (STRATEGY_LEAST_ACTIVE.equalsIgnoreCase(strategy)) {
+            return selectLeastActive(pools);
+        } else if (STRATEGY_LATENCY.equalsIgnoreCase(strategy)) {
+            return selectLatency(pools);
+        }
+        for (int i = 0; i < pools.length; i++) {
+            String poolName = route.getFitReadPool();
+            if (!health(poolName).ejected) {
+                return poolName;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 记录一次SQL耗时，只统计读连接池.
+     *
+     * @param poolName 连接池名称
+     * @param millis   耗时毫秒数
+     */
+    public static void recordLatency(String poolName, long millis) {
+        if (poolName == null) {
+            return;
+        }
+        PoolHealth health = HEALTH_MAP.get(poolName);
+        if (health != null) {
+            health.recordLatency(millis);
+        }
+    }
+
+    /**
+     * 读连接池是否被摘除.
+     *
+     * @param poolName 连接池名称
+     * @return boolean
+     */
+    public static boolean isEjected(String poolName) {
+        PoolHealth health = HEALTH_MAP.get(poolName);
+        return health != null && health.ejected;
+    }
+
+    /**
+     * 选择 (活动连接数 + 等待线程数) / 最大连接数 最小的连接池，从随机位置开始比较以打散相同负载.
+     *
+     * @param pools 读连接池
+     * @return 连接池名称
+     */
+    private static String selectLeastActive(String[] pools) {
+        int start = ThreadLocalRandom.current().nextInt(pools.length);
+        String best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (int i = 0; i < pools.length; i++) {
+            String poolName = pools[(start + i) % pools.length];
+            if (health(poolName).ejected) {
+                continue;
+            }
+            double load = 0;
+            HikariDataSource dataSource = ConnectionManager.getConnectionPool(poolName);
+            if (dataSource != null) {
+                HikariPoolMXBean poolBean = dataSource.getHikariPoolMXBean();
+                if (poolBean != null) {
+                    load = (double) (poolBean.getActiveConnections() + poolBean.getThreadsAwaitingConnection()) / Math.max(1, dataSource.getMaximumPoolSize());
+                }
+            }
+            if (load < bestLoad) {
+                best = poolName;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 随机取两个连接池选耗时EWMA较低的一个，都被摘除时从全部连接池中选.
+     * 探测任务也会更新EWMA，较慢的连接池在恢复后能重新被选中。
+     *
+     * @param pools 读连接池
+     * @return 连接池名称
+     */
+    private static String selectLatency(String[] pools) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = random.nextInt(pools.length);
+        int b = random.nextInt(pools.length - 1);
+        if (b >= a) {
+            b++;
+        }
+        PoolHealth ha = health(pools[a]);
+        PoolHealth hb = health(pools[b]);
+        if (!ha.ejected && !hb.ejected) {
+            return ha.ewmaMillis <= hb.ewmaMillis ? pools[a] : pools[b];
+        }
+        if (!ha.ejected || !hb.ejected) {
+            return ha.ejected ? pools[b] : pools[a];
+        }
+        String best = null;
+        double bestMillis = Double.MAX_VALUE;
+        for (String poolName : pools) {
+            PoolHealth health = health(poolName);
+            if (!health.ejected && health.ewmaMillis < bestMillis) {
+                best = poolName;
+                bestMillis = health.ewmaMillis;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 探测全部读连接池.
+     *
+     * @param readPools 读连接池
+     */
+    private static void probe(Set<String> readPools) {
+        long lagMaxMillis = DaoConfigManager.getConfig().getConnRoute().getReadLagMaxMillis();
+        for (String poolName : readPools) {
+            PoolHealth health = health(poolName);
+            long startMillis = SystemClock.now();
+            try (Connection conn = ConnectionManager.getConnection(poolName)) {
+                long lagMillis = -1;
+                Dialect dialect = ConnectionManager.getDialect(poolName);
+                String lagSql = dialect == null ? null : dialect.getReplicaLagSQL();
+                if (lagMaxMillis > 0 && lagSql != null) {
+                    try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(lagSql)) {
+                        lagMillis = dialect.parseReplicaLag(rs);
+                    } catch (Exception e) {
+                        // 没有查询复制状态的权限等情况，不影响连接池可用性。
+                        logger.debug("read pool[{}] replica lag probe failed: {}", poolName, e.getMessage());
+                    }
+                } else if (!conn.isValid(5)) {
+                    throw new IllegalStateException("connection is not valid");
+                }
+                health.recordLatency(SystemClock.now() - startMillis);
+                if (lagMaxMillis > 0 && lagMillis > lagMaxMillis) {
+                    setEjected(poolName, health, true, "replica lag " + (lagMillis == Long.MAX_VALUE ? "broken" : lagMillis + "ms"));
+                } else {
+                    setEjected(poolName, health, false, "lag " + lagMillis + "ms");
+                }
+            } catch (Exception e) {
+                setEjected(poolName, health, true, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 更新摘除状态，状态变化时输出日志.
+     */
+    private static void setEjected(String poolName, PoolHealth health, boolean ejected, String reason) {
+        if (health.ejected != ejected) {
+            health.ejected = ejected;
+            if (ejected) {
+                logger.warn("read pool[{}] ejected: {}", poolName, reason);
+            } else {
+                logger.info("read pool[{}] recovered: {}", poolName, reason);
+            }
+        }
+    }
+
+    /**
+     * 获取连接池状态.
+     *
+     * @param poolName 连接池名称
+     * @return 连接池状态
+     */
+    private static PoolHealth health(String poolName) {
+        PoolHealth health = HEALTH_MAP.get(poolName);
+        if (health == null) {
+            health = HEALTH_MAP.computeIfAbsent(poolName, key -> new PoolHealth());
+        }
+        return health;
+    }
+
+    /**
+     * 获取全部路由中配置的读连接池.
+     *
+     * @param connRoute 路由配置
+     * @return 读连接池名称
+     */
+    private static Set<String> getReadPools(ConnRoute connRoute) {
+        Set<String> set = new LinkedHashSet<>();
+        if (connRoute == null) {
+            return set;
+        }
+        if (connRoute.getRoot() != null && connRoute.getRoot().getReadPools() != null) {
+            set.addAll(Arrays.asList(connRoute.getRoot().getReadPools()));
+        }
+        if (connRoute.getList() != null) {
+            for (ConnRouteConfig route : connRoute.getList().values()) {
+                if (route.getReadPools() != null) {
+                    set.addAll(Arrays.asList(route.getReadPools()));
+                }
+            }
+        }
+        return set;
+    }
+
+    /**
+     * 读连接池状态.
+     */
+    private static final class PoolHealth {
+
+        /**
+         * SQL耗时EWMA，0表示还没有数据.
+         */
+        private volatile double ewmaMillis;
+
+        /**
+         * 是否被摘除.
+         */
+        private volatile boolean ejected;
+
+        /**
+         * 记录一次耗时，并发更新时允许丢失个别样本.
+         *
+         * @param millis 耗时毫秒数
+         */
+        private void recordLatency(long millis) {
+            double ewma = ewmaMillis;
+            ewmaMillis = ewma == 0 ? Math.max(millis, 0.1) : ewma + EWMA_ALPHA * (millis - ewma);
+        }
+    }
+}
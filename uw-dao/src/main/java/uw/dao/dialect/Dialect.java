@@ -1,5 +1,9 @@
 package uw.dao.dialect;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
 /**
  * 数据库方言基类。
  *
@@ -46,4 +50,80 @@ public class Dialect {
         return null;
     }
 
+    /**
+     * 默认的游标 fetchSize。
+     */
+    public static final int DEFAULT_CURSOR_FETCH_SIZE = 1000;
+
+    /**
+     * 计算流式游标查询使用的 fetchSize。
+     *
+     * <p>默认直接使用调用方指定的 fetchSize（小于等于 0 时取 {@link #DEFAULT_CURSOR_FETCH_SIZE}），
+     * 驱动按批从服务端拉取数据，内存占用与总行数无关。需要特殊取值的数据库由子类覆盖。</p>
+     *
+     * @param conn      执行查询的连接
+     * @param fetchSize 调用方指定的 fetchSize
+     * @return 设置到 Statement 上的 fetchSize
+     * @throws SQLException SQL异常
+     */
+    public int getCursorFetchSize(Connection conn, int fetchSize) throws SQLException {
+        return fetchSize > 0 ? fetchSize : DEFAULT_CURSOR_FETCH_SIZE;
+    }
+
+    /**
+     * 流式游标查询是否必须在非 autoCommit 的连接上执行。
+     *
+     * <p>部分驱动（如 PostgreSQL）只有在事务中才会使用服务端游标，autoCommit 时会一次性读取全部结果。</p>
+     *
+     * @return 默认 {@code false}
+     */
+    public boolean isCursorNeedTransaction() {
+        return false;
+    }
+
+    /**
+     * 生成估算行数的执行计划 SQL。
+     *
+     * <p>用于分页的估算 count，避免每页都执行 {@code select count(1)}。基类返回 {@code null} 表示不支持估算。</p>
+     *
+     * @param sql 原始查询 SQL（不含分页）
+     * @return 执行计划 SQL，不支持时返回 {@code null}
+     */
+    public String getEstimateCountSQL(String sql) {
+        return null;
+    }
+
+    /**
+     * 从执行计划结果中解析估算行数。
+     *
+     * @param rs {@link #getEstimateCountSQL(String)} 的查询结果
+     * @return 估算行数，无法解析时返回 -1
+     * @throws SQLException SQL异常
+     */
+    public long parseEstimateCount(ResultSet rs) throws SQLException {
+        return -1;
+    }
+
+    /**
+     * 生成查询只读副本复制延迟的 SQL。
+     *
+     * <p>用于读连接池探测，延迟超过阈值的副本会被暂时摘除。基类返回 {@code null} 表示不支持。</p>
+     *
+     * @return 复制延迟 SQL，不支持时返回 {@code null}
+     */
+    public String getReplicaLagSQL() {
+        return null;
+    }
+
+    /**
+     * 从查询结果中解析复制延迟。
+     *
+     * @param rs {@link #getReplicaLagSQL()} 的查询结果
+     * @return 延迟毫秒数，非副本返回 0，复制已中断返回 {@link Long#MAX_VALUE}，无法解析时返回 -1
+     * @throws SQLException SQL异常
+     */
+    public long parseReplicaLag(ResultSet rs) throws SQLException {
+        return -1;
+    }
+
 }
@@ -1,5 +1,9 @@
 package uw.dao.dialect;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
 /**
  * MySQL 方言。
  *
@@ -29,4 +33,91 @@ public class MySQLDialect extends Dialect {
         return new Object[]{sql + " limit ?,?", startPos, resultNum};
     }
 
+    /**
+     * MySQL 流式游标 fetchSize。
+     *
+     * <p>连接串配置了 {@code useCursorFetch=true} 时使用服务端游标，按 fetchSize 分批拉取；
+     * 否则返回 {@link Integer#MIN_VALUE}，让驱动进入逐行流式读取模式。
+     * 流式读取期间该连接不能执行其它语句，需在读取完毕并关闭后再使用。</p>
+     *
+     * @param conn      执行查询的连接
+     * @param fetchSize 调用方指定的 fetchSize
+     * @return 设置到 Statement 上的 fetchSize
+     * @throws SQLException SQL异常
+     */
+    @Override
+    public int getCursorFetchSize(Connection conn, int fetchSize) throws SQLException {
+        String url = conn.getMetaData().getURL();
+        if (url != null && url.toLowerCase().contains("usecursorfetch=true")) {
+            return super.getCursorFetchSize(conn, fetchSize);
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * MySQL 估算行数：{@code explain <sql>}。
+     *
+     * @param sql 原始查询 SQL（不含分页）
+     * @return 执行计划 SQL
+     */
+    @Override
+    public String getEstimateCountSQL(String sql) {
+        return "explain " + sql;
+    }
+
+    /**
+     * 取执行计划第一行（驱动表）的 {@code rows * filtered / 100} 作为估算行数。
+     *
+     * @param rs 执行计划结果
+     * @return 估算行数，无法解析时返回 -1
+     * @throws SQLException SQL异常
+     */
+    @Override
+    public long parseEstimateCount(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return -1;
+        }
+        long rows = rs.getLong("rows");
+        if (rs.wasNull()) {
+            return -1;
+        }
+        double filtered = 100;
+        try {
+            filtered = rs.getDouble("filtered");
+        } catch (SQLException ignored) {
+            // 低版本 MySQL 无 filtered 列
+        }
+        return (long) (rows * filtered / 100);
+    }
+
+    /**
+     * 使用 {@code show replica status}（MySQL 8.0.22+）查询复制延迟，需要 REPLICATION CLIENT 权限。
+     *
+     * @return 复制延迟 SQL
+     */
+    @Override
+    public String getReplicaLagSQL() {
+        return "show replica status";
+    }
+
+    /**
+     * 取 {@code Seconds_Behind_Source}（兼容旧列名 {@code Seconds_Behind_Master}）作为复制延迟。
+     *
+     * @param rs 复制状态结果
+     * @return 延迟毫秒数，非副本返回 0，复制线程未运行返回 {@link Long#MAX_VALUE}
+     * @throws SQLException SQL异常
+     */
+    @Override
+    public long parseReplicaLag(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return 0;
+        }
+        long seconds;
+        try {
+            seconds = rs.getLong("Seconds_Behind_Source");
+        } catch (SQLException e) {
+            seconds = rs.getLong("Seconds_Behind_Master");
+        }
+        return rs.wasNull() ? Long.MAX_VALUE : seconds * 1000;
+    }
 }
@@ -1,5 +1,10 @@
 package uw.dao.dialect;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * PostgreSQL 方言。
  *
@@ -17,6 +22,11 @@ package uw.dao.dialect;
  */
 public class PostgreSQLDialect extends Dialect {
 
+    /**
+     * 执行计划中的估算行数。
+     */
+    private static final Pattern PLAN_ROWS_PATTERN = Pattern.compile("rows=(\\d+)");
+
     /**
      * 生成 PostgreSQL 分页 SQL：{@code <sql> limit ? offset ?}。
      *
@@ -32,4 +42,67 @@ public class PostgreSQLDialect extends Dialect {
         return new Object[]{sql + " limit ? offset ?", resultNum, startPos};
     }
 
+    /**
+     * PostgreSQL 驱动只在非 autoCommit 连接上按 fetchSize 使用服务端游标。
+     *
+     * @return {@code true}
+     */
+    @Override
+    public boolean isCursorNeedTransaction() {
+        return true;
+    }
+
+    /**
+     * PostgreSQL 估算行数：{@code explain <sql>}。
+     *
+     * @param sql 原始查询 SQL（不含分页）
+     * @return 执行计划 SQL
+     */
+    @Override
+    public String getEstimateCountSQL(String sql) {
+        return "explain " + sql;
+    }
+
+    /**
+     * 取执行计划第一行（顶层节点）的 {@code rows=} 作为估算行数。
+     *
+     * @param rs 执行计划结果
+     * @return 估算行数，无法解析时返回 -1
+     * @throws SQLException SQL异常
+     */
+    @Override
+    public long parseEstimateCount(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return -1;
+        }
+        Matcher matcher = PLAN_ROWS_PATTERN.matcher(rs.getString(1));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /**
+     * 副本上按最后回放事务的时间计算延迟；已回放完全部接收到的 WAL 时视为无延迟，避免主库空闲时误判。
+     *
+     * @return 复制延迟 SQL
+     */
+    @Override
+    public String getReplicaLagSQL() {
+        return "select case when not pg_is_in_recovery() or pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+                + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end";
+    }
+
+    /**
+     * 取第一列作为复制延迟毫秒数。
+     *
+     * @param rs 复制延迟结果
+     * @return 延迟毫秒数，无法解析时返回 -1
+     * @throws SQLException SQL异常
+     */
+    @Override
+    public long parseReplicaLag(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return -1;
+        }
+        long millis = (long) rs.getDouble(1);
+        return rs.wasNull() ? -1 : millis;
+    }
 }
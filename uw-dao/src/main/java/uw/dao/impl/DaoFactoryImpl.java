@@ -9,20 +9,27 @@ import uw.common.data.PageRowSet;
 import uw.common.dto.PageQueryParam;
 import uw.common.dto.QueryParam;
 import uw.dao.*;
-import uw.dao.conf.DaoConfigManager;
+import uw.dao.connectionpool.ReadPoolBalancer;
+import uw.dao.service.AsyncInsertService;
 import uw.dao.service.DaoService;
 import uw.dao.util.EntityMetaUtils;
 import uw.dao.util.QueryParamUtils;
 import uw.dao.vo.FieldMetaInfo;
 import uw.dao.vo.QueryParamResult;
+import uw.dao.vo.ShardRange;
 import uw.dao.vo.SqlExecuteStats;
 import uw.dao.vo.TableMetaInfo;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * DAOFactory实现类.
@@ -68,20 +75,20 @@ public class DaoFactoryImpl extends DaoFactory {
      * @param allMillis  数据库层消耗的总时间
      * @param exception  异常信息
      */
-    SqlExecuteStats addSqlExecuteStats(String connName, int connId, String sql, Object[] paramList, int rowNum, long connMillis, long dbMillis, long allMillis, String exception) {
-        SqlExecuteStats ses = new SqlExecuteStats(connName, connId, sql, paramList, rowNum, connMillis, dbMillis, allMillis, exception);
-
-        if (log.isDebugEnabled()) {
-            log.debug(ses.genFullSqlInfo());
-        }
-
-        if (statsList != null) {
-            ses.initActionDate();
-            statsList.add(ses);
+    void addSqlExecuteStats(String connName, int connId, String sql, Object[] paramList, int rowNum, long connMillis, long dbMillis, long allMillis, String exception) {
+        // 只有调试日志和手动开启的统计列表需要单条明细，其余情况不创建对象。
+        if (statsList != null || log.isDebugEnabled()) {
+            SqlExecuteStats ses = new SqlExecuteStats(connName, connId, sql, paramList, rowNum, connMillis, dbMillis, allMillis, exception);
+            if (log.isDebugEnabled()) {
+                log.debug(ses.genFullSqlInfo());
+            }
+            if (statsList != null) {
+                ses.initActionDate();
+                statsList.add(ses);
+            }
         }
-
-        DaoService.logStats(ses);
-        return ses;
+        ReadPoolBalancer.recordLatency(connName, allMillis);
+        DaoService.logStats(connName, connId, sql, paramList, rowNum, connMillis, dbMillis, allMillis, exception);
     }
 
     /**
@@ -313,6 +320,58 @@ public class DaoFactoryImpl extends DaoFactory {
         return EntityCommandImpl.save(this, connName, entityList, tableName);
     }
 
+    /**
+     * 异步插入一个Entity实例.
+     *
+     * @param <T>    映射的类型
+     * @param entity 要保存的对象
+     * @return 是否已接受
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T extends DataEntity> boolean asyncInsert(T entity) throws TransactionException {
+        return asyncInsert(null, entity, null);
+    }
+
+    /**
+     * 异步插入一个Entity实例.
+     *
+     * @param <T>       映射的类型
+     * @param entity    要保存的对象
+     * @param tableName 指定表名
+     * @return 是否已接受
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T extends DataEntity> boolean asyncInsert(T entity, String tableName) throws TransactionException {
+        return asyncInsert(null, entity, tableName);
+    }
+
+    /**
+     * 异步插入一个Entity实例.
+     *
+     * @param <T>       映射的类型
+     * @param connName  连接名，如设置为null，则根据表名动态路由确定
+     * @param entity    要保存的对象
+     * @param tableName 指定表名
+     * @return 是否已接受
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T extends DataEntity> boolean asyncInsert(String connName, T entity, String tableName) throws TransactionException {
+        if (entity == null) {
+            throw new TransactionException("asyncInsert entity is null! ");
+        }
+        if (StringUtils.isBlank(tableName)) {
+            TableMetaInfo emi = EntityMetaUtils.loadEntityMetaInfo(entity.getClass());
+            if (emi == null) {
+                throw new TransactionException("TableMetaInfo[" + entity.getClass() + "] not found! ");
+            }
+            tableName = emi.getTableName();
+        }
+        return AsyncInsertService.insert(StringUtils.trimToNull(connName), entity, tableName);
+    }
+
     /**
      * 根据主键更新一个Entity实例，等效于update.
      *
@@ -419,7 +478,7 @@ public class DaoFactoryImpl extends DaoFactory {
             tableName = emi.getTableName();
         }
         if (StringUtils.isBlank(connName)) {
-            connName = DaoConfigManager.getRouteMapping(tableName, "write");
+            connName = transactionManager.getConnName(tableName, "write");
         }
         StringBuilder sb = new StringBuilder(128 + queryParamResult.getSql().length());
         DataUpdateInfo dataUpdateInfo = entity.GET_UPDATED_INFO();
@@ -545,7 +604,7 @@ public class DaoFactoryImpl extends DaoFactory {
             tableName = emi.getTableName();
         }
         if (StringUtils.isBlank(connName)) {
-            connName = DaoConfigManager.getRouteMapping(tableName, "write");
+            connName = transactionManager.getConnName(tableName, "write");
         }
         String sb = "delete from " + tableName + queryParamResult.getSql();
         return SQLCommandImpl.executeSQL(this, connName, sb, queryParamResult.getParamList());
@@ -611,6 +670,66 @@ public class DaoFactoryImpl extends DaoFactory {
         return EntityCommandImpl.load(this, connName, entityCls, tableName, id);
     }
 
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param entityCls 要映射的对象类型
+     * @param <T>       映射的类型
+     * @param ids       主键集合
+     * @return 实体列表
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T> List<T> loadByIds(Class<T> entityCls, Collection<? extends Serializable> ids) throws TransactionException {
+        return EntityCommandImpl.loadByIds(this, null, entityCls, null, ids);
+    }
+
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param entityCls 要映射的对象类型
+     * @param <T>       映射的类型
+     * @param tableName 指定表名
+     * @param ids       主键集合
+     * @return 实体列表
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T> List<T> loadByIds(Class<T> entityCls, String tableName, Collection<? extends Serializable> ids) throws TransactionException {
+        return EntityCommandImpl.loadByIds(this, null, entityCls, tableName, ids);
+    }
+
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param <T>       映射的类型
+     * @param ids       主键集合
+     * @return 实体列表
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T> List<T> loadByIds(String connName, Class<T> entityCls, Collection<? extends Serializable> ids) throws TransactionException {
+        return EntityCommandImpl.loadByIds(this, connName, entityCls, null, ids);
+    }
+
+    /**
+     * 根据主键集合批量载入Entity实例，按 in 查询分段执行，结果按输入主键顺序排列，不存在的主键跳过.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param <T>       映射的类型
+     * @param tableName 指定表名
+     * @param ids       主键集合
+     * @return 实体列表
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T> List<T> loadByIds(String connName, Class<T> entityCls, String tableName, Collection<? extends Serializable> ids) throws TransactionException {
+        return EntityCommandImpl.loadByIds(this, connName, entityCls, tableName, ids);
+    }
+
     /**
      * 根据指定的映射类型，返回一个PageList列表.
      *
@@ -864,14 +983,221 @@ public class DaoFactoryImpl extends DaoFactory {
      */
     @Override
     public <T> PageList<T> list(String connName, Class<T> entityCls, String tableName, PageQueryParam pageQueryParam) throws TransactionException {
-        QueryParamResult queryParamResult = QueryParamUtils.parseQueryParam(entityCls, tableName, pageQueryParam);
         if (pageQueryParam.CHECK_ONLY_COUNT()) {
-            String countSql = "select count(1) from (" + queryParamResult.getSql().toString() + ") must_alias";
-            int allSize = SQLCommandImpl.selectForSingleValue(this, connName, Integer.class, countSql, queryParamResult.getParamList());
+            int allSize = countForPage(connName, entityCls, tableName, pageQueryParam);
             return new PageList<>(null, pageQueryParam.START_INDEX(), pageQueryParam.RESULT_NUM(), allSize);
-        } else {
+        }
+        QueryParamResult queryParamResult;
+        try {
+            queryParamResult = QueryParamUtils.parseQueryParam(entityCls, tableName, pageQueryParam);
+        } catch (IllegalArgumentException e) {
+            // 游标来自调用方，格式错误按查询失败返回，不作为运行时异常抛出。
+            throw new TransactionException(e.getMessage(), e);
+        }
+        if (pageQueryParam.CHECK_SEEK()) {
+            return seekList(connName, entityCls, tableName, pageQueryParam, queryParamResult);
+        }
+        if (!pageQueryParam.CHECK_AUTO_COUNT() || pageQueryParam.COUNT_TYPE() == PageQueryParam.COUNT_EXACT) {
             return EntityCommandImpl.list(this, connName, entityCls, queryParamResult.getSql().toString(), queryParamResult.getParamList(), pageQueryParam.START_INDEX(), pageQueryParam.RESULT_NUM(), pageQueryParam.CHECK_AUTO_COUNT());
         }
+        PageList<T> pageList = EntityCommandImpl.list(this, connName, entityCls, queryParamResult.getSql().toString(), queryParamResult.getParamList(), pageQueryParam.START_INDEX(), pageQueryParam.RESULT_NUM(), false);
+        //首页数据不足一页时直接使用数据长度作为总数。
+        if (pageQueryParam.START_INDEX() == 0 && pageList.size() < pageQueryParam.RESULT_NUM()) {
+            pageList.calcPages(pageList.size());
+        } else {
+            pageList.calcPages(countForPage(connName, entityCls, tableName, pageQueryParam));
+        }
+        return pageList;
+    }
+
+    /**
+     * keyset分页查询.
+     * 按排序列从游标位置之后读取一页，不使用offset，返回的PageList携带下一页游标。
+     *
+     * @param connName         连接名
+     * @param entityCls        要映射的对象类型
+     * @param tableName        附加表名，在特定分表情况下。
+     * @param pageQueryParam   分页查询对象
+     * @param queryParamResult 已附加游标条件和排序的查询
+     * @param <T>              映射的类型
+     * @return PageList列表
+     * @throws TransactionException 事务异常
+     */
+    private <T> PageList<T> seekList(String connName, Class<T> entityCls, String tableName, PageQueryParam pageQueryParam, QueryParamResult queryParamResult) throws TransactionException {
+        TableMetaInfo emi = EntityMetaUtils.loadEntityMetaInfo(entityCls);
+        String seekColumn = pageQueryParam.SEEK_COLUMN();
+        // 排序列可能带表别名，如 t.id。
+        FieldMetaInfo seekField = emi == null ? null : emi.getInfoByColumnName(seekColumn.substring(seekColumn.lastIndexOf('.') + 1).trim().toLowerCase());
+        if (seekField == null) {
+            throw new TransactionException("Seek column[" + seekColumn + "] not found in " + entityCls.getName());
+        }
+        int resultNum = pageQueryParam.RESULT_NUM();
+        PageList<T> seekList = EntityCommandImpl.list(this, connName, entityCls, queryParamResult.getSql().toString(), queryParamResult.getParamList(), 0, resultNum, false);
+        int allSize = 0;
+        if (pageQueryParam.CHECK_AUTO_COUNT()) {
+            if (StringUtils.isBlank(pageQueryParam.CURSOR()) && seekList.size() < resultNum) {
+                allSize = seekList.size();
+            } else {
+                allSize = countForPage(connName, entityCls, tableName, pageQueryParam);
+            }
+        }
+        PageList<T> pageList = new PageList<>(seekList.list(), 0, resultNum, allSize);
+        //取满一页时才有下一页。
+        if (seekList.size() == resultNum) {
+            pageList.cursor(QueryParamUtils.encodeSeekCursor(seekField.getAccessor().get(seekList.getLast())));
+        }
+        return pageList;
+    }
+
+    /**
+     * 按分页参数的count方式统计总数.
+     *
+     * @param connName       连接名
+     * @param entityCls      要映射的对象类型，原生SQL查询时为null
+     * @param tableName      附加表名，在特定分表情况下。
+     * @param pageQueryParam 分页查询对象
+     * @return 总数
+     * @throws TransactionException 事务异常
+     */
+    private int countForPage(String connName, Class<?> entityCls, String tableName, PageQueryParam pageQueryParam) throws TransactionException {
+        QueryParamResult countParamResult = QueryParamUtils.parseCountQueryParam(entityCls, tableName, pageQueryParam);
+        return SQLCommandImpl.selectForPageCount(this, connName, countParamResult.getSql().toString(), countParamResult.getParamList(), pageQueryParam.COUNT_TYPE(), pageQueryParam.COUNT_CACHE_MILLIS());
+    }
+
+    /**
+     * 以流式游标方式查询实体。 使用sql中探测到的表名来决定连接名.
+     *
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param <T>       映射的类型
+     * @return 实体流
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T> Stream<T> stream(Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize) throws TransactionException {
+        return EntityCommandImpl.stream(this, null, entityCls, selectSql, paramList, fetchSize);
+    }
+
+    /**
+     * 以流式游标方式查询实体.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param <T>       映射的类型
+     * @return 实体流
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T> Stream<T> stream(String connName, Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize) throws TransactionException {
+        return EntityCommandImpl.stream(this, connName, entityCls, selectSql, paramList, fetchSize);
+    }
+
+    /**
+     * 以流式游标方式逐行回调实体。 使用sql中探测到的表名来决定连接名.
+     *
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param consumer  实体回调
+     * @param <T>       映射的类型
+     * @return 读取的行数
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T> long forEach(Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize, Consumer<? super T> consumer) throws TransactionException {
+        return EntityCommandImpl.forEach(this, null, entityCls, selectSql, paramList, fetchSize, consumer);
+    }
+
+    /**
+     * 以流式游标方式逐行回调实体.
+     *
+     * @param connName  连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param entityCls 要映射的对象类型
+     * @param selectSql 查询的SQL
+     * @param paramList 查询SQL的绑定参数
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param consumer  实体回调
+     * @param <T>       映射的类型
+     * @return 读取的行数
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T> long forEach(String connName, Class<T> entityCls, String selectSql, Object[] paramList, int fetchSize, Consumer<? super T> consumer) throws TransactionException {
+        return EntityCommandImpl.forEach(this, connName, entityCls, selectSql, paramList, fetchSize, consumer);
+    }
+
+    /**
+     * 跨分表查询，按分表顺序拼接各分表的结果.
+     *
+     * @param entityCls  要映射的对象类型
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  查询的SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @param <T>        映射的类型
+     * @return 列表
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T> PageList<T> shardList(Class<T> entityCls, String tableName, ShardRange shardRange, String selectSql, Object[] paramList) throws TransactionException {
+        return ShardQueryImpl.list(this, entityCls, tableName, shardRange, selectSql, paramList);
+    }
+
+    /**
+     * 跨分表查询，按比较器多路归并各分表的结果并取出指定页.
+     *
+     * @param entityCls  要映射的对象类型
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  查询的SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @param comparator 排序比较器
+     * @param startIndex 开始位置
+     * @param resultNum  结果集大小，0表示不限制
+     * @param <T>        映射的类型
+     * @return 列表
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public <T> PageList<T> shardList(Class<T> entityCls, String tableName, ShardRange shardRange, String selectSql, Object[] paramList,
+                                     Comparator<? super T> comparator, int startIndex, int resultNum) throws TransactionException {
+        return ShardQueryImpl.list(this, entityCls, tableName, shardRange, selectSql, paramList, comparator, startIndex, resultNum);
+    }
+
+    /**
+     * 跨分表计数，各分表 count 结果相加.
+     *
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  计数SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @return 计数之和
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public long shardCount(String tableName, ShardRange shardRange, String selectSql, Object[] paramList) throws TransactionException {
+        return ShardQueryImpl.count(this, tableName, shardRange, selectSql, paramList);
+    }
+
+    /**
+     * 跨分表求和，各分表 sum 结果相加.
+     *
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  求和SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @return 数值之和
+     * @throws TransactionException 事务异常
+     */
+    @Override
+    public BigDecimal shardSum(String tableName, ShardRange shardRange, String selectSql, Object[] paramList) throws TransactionException {
+        return ShardQueryImpl.sum(this, tableName, shardRange, selectSql, paramList);
     }
 
     /**
@@ -1375,6 +1701,16 @@ public class DaoFactoryImpl extends DaoFactory {
             startIndex = param.START_INDEX();
             resultNum = param.RESULT_NUM();
             autoCount = param.CHECK_AUTO_COUNT();
+            if (autoCount && param.COUNT_TYPE() != PageQueryParam.COUNT_EXACT) {
+                PageRowSet rowSet = SQLCommandImpl.selectForRowSet(this, connName, queryParamResult.getSql().toString(), queryParamResult.getParamList(), startIndex, resultNum, false);
+                //首页数据不足一页时直接使用数据长度作为总数。
+                if (startIndex == 0 && rowSet.size() < resultNum) {
+                    rowSet.calcPages(rowSet.size());
+                } else {
+                    rowSet.calcPages(countForPage(connName, null, null, param));
+                }
+                return rowSet;
+            }
         }
         return SQLCommandImpl.selectForRowSet(this, connName, queryParamResult.getSql().toString(), queryParamResult.getParamList(), startIndex, resultNum, autoCount);
     }
@@ -10,12 +10,12 @@ import uw.dao.DataEntity;
 import uw.common.data.PageList;
 import uw.dao.DataUpdateInfo;
 import uw.dao.TransactionException;
-import uw.dao.conf.DaoConfigManager;
 import uw.dao.connectionpool.ConnectionManager;
 import uw.dao.dialect.Dialect;
 import uw.dao.util.DaoReflectUtils;
 import uw.dao.util.EntityMetaUtils;
-import uw.dao.util.SQLUtils;
+import uw.dao.util.EntityRowMapper;
+import uw.dao.util.EntitySqlTemplate;
 import uw.dao.vo.FieldMetaInfo;
 import uw.dao.vo.TableMetaInfo;
 
@@ -23,10 +23,18 @@ import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 实体类命令实现.
@@ -40,6 +48,25 @@ public class EntityCommandImpl {
      */
     private static final Logger logger = LoggerFactory.getLogger(EntityCommandImpl.class);
 
+    /**
+     * 获取写操作的pstmt.
+     * 批量模式下由BatchUpdateManager管理，否则由TransactionManager管理（事务内复用）。
+     * 非批量模式下使用完毕后需调用 TransactionManagerImpl.closeStatement 释放。
+     *
+     * @param dao      DAOFactoryImpl对象
+     * @param connName 连接名
+     * @param connId   连接ID
+     * @param con      Connection对象
+     * @param sql      SQL语句
+     * @return PreparedStatement对象
+     * @throws Exception 异常
+     */
+    private static PreparedStatement prepareUpdateStatement(DaoFactoryImpl dao, String connName, int connId, Connection con, String sql) throws Exception {
+        if (dao.getBatchUpdateController().getBatchStatus()) {
+            return dao.getBatchUpdateController().prepareStatement(connName, connId, con, sql);
+        }
+        return dao.getTransactionController().prepareStatement(connName, con, sql);
+    }
 
     /**
      * 保存一个实体.
@@ -67,9 +94,8 @@ public class EntityCommandImpl {
         }
 
         if (StringUtils.isBlank(connName)) {
-            connName = DaoConfigManager.getRouteMapping(tableName, "write");
+            connName = dao.getTransactionController().getConnName(tableName, "write");
         }
-        StringBuilder sb = new StringBuilder();
         // 写入所有的列
         Collection<FieldMetaInfo> fieldMetaInfos = emi.getFieldInfoMap().values();
         if (fieldMetaInfos.isEmpty()) {
@@ -77,25 +103,17 @@ public class EntityCommandImpl {
         }
         //参数列表。
         Object[] paramList = new Object[fieldMetaInfos.size()];
-        sb.append("insert into ").append(tableName).append(" (");
-        for (FieldMetaInfo fmi : fieldMetaInfos) {
-            sb.append(fmi.getColumnName()).append(",");
-        }
-        sb.deleteCharAt(sb.length() - 1);
-        sb.append(") values (");
-        sb.append("?,".repeat(fieldMetaInfos.size()));
-        sb.deleteCharAt(sb.length() - 1);
-        sb.append(")");
+        String sql = emi.getSqlTemplate().insertSql(tableName, 1);
         Connection con = null;
         PreparedStatement pstmt = null;
         int effectedNum = 0;
         try {
             con = dao.getTransactionController().getConnection(connName);
             connId = con.hashCode();
-            pstmt = dao.getBatchUpdateController().prepareStatement(connName, connId, con, sb.toString());
+            pstmt = prepareUpdateStatement(dao, connName, connId, con, sql);
             int seq = 0;
             for (FieldMetaInfo fmi : fieldMetaInfos) {
-                paramList[seq] = DaoReflectUtils.DAOLiteSaveReflect(pstmt, entity, fmi, seq + 1);
+                paramList[seq] = fmi.getAccessor().bind(pstmt, seq + 1, entity);
                 seq++;
             }
             long dbStartMillis = SystemClock.now();
@@ -106,20 +124,17 @@ public class EntityCommandImpl {
                 effectedNum = pstmt.executeUpdate();
             }
             dbMillis = SystemClock.now() - dbStartMillis;
+            dao.getTransactionController().markWrite();
             // 设置主键值
             emi.setLoadFlag(entity);
             // 清除更新标记
             entity.CLEAR_UPDATED_INFO();
         } catch (Exception e) {
             exception = e.toString();
-            throw new TransactionException(exception + connName + "@" + connId + ": " + sb.toString() + "#" + JsonUtils.toString(paramList), e);
+            throw new TransactionException(exception + connName + "@" + connId + ": " + sql + "#" + JsonUtils.toString(paramList), e);
         } finally {
-            if (!dao.getBatchUpdateController().getBatchStatus() && pstmt != null) {
-                try {
-                    pstmt.close();
-                } catch (Exception e) {
-                    logger.error(e.getMessage(), e);
-                }
+            if (!dao.getBatchUpdateController().getBatchStatus()) {
+                dao.getTransactionController().closeStatement(pstmt);
             }
             if (dao.getTransactionController().isAutoCommit() && con != null) {
                 try {
@@ -130,7 +145,7 @@ public class EntityCommandImpl {
             }
             allMillis = SystemClock.now() - startMillis;
             if (!dao.getBatchUpdateController().getBatchStatus()) {
-                dao.addSqlExecuteStats(connName, connId, sb.toString(), paramList, effectedNum, connMillis, dbMillis, allMillis, exception);
+                dao.addSqlExecuteStats(connName, connId, sql, paramList, effectedNum, connMillis, dbMillis, allMillis, exception);
             }
         }
         return entity;
@@ -138,6 +153,10 @@ public class EntityCommandImpl {
 
     /**
      * 批量保存实体.
+     * <p>
+     * 按 {@link EntitySqlTemplate#INSERT_BUCKETS} 分段执行多行 insert，使语句文本只有固定几种，便于复用预编译语句。
+     * 同一分档的各段通过 addBatch 累积后一次 executeBatch，整批最多执行分档数次。
+     * 非事务调用且需要分段时，在本连接上开启局部事务，保持整批写入的原子性。
      *
      * @param dao        DAOFactoryImpl对象
      * @param connName   连接名字
@@ -165,48 +184,75 @@ public class EntityCommandImpl {
             tableName = emi.getTableName();
         }
         if (StringUtils.isBlank(connName)) {
-            connName = DaoConfigManager.getRouteMapping(tableName, "write");
+            connName = dao.getTransactionController().getConnName(tableName, "write");
         }
-        StringBuilder sb = new StringBuilder();
         // 写入所有的列
         Collection<FieldMetaInfo> fieldMetaInfos = emi.getFieldInfoMap().values();
-        //参数列表。
-        Object[] paramList = new Object[fieldMetaInfos.size() * entityList.size()];
-        sb.append("insert into ").append(tableName).append(" (");
-        for (FieldMetaInfo fmi : fieldMetaInfos) {
-            sb.append(fmi.getColumnName()).append(",");
-        }
-        sb.deleteCharAt(sb.length() - 1);
-        sb.append(") values ");
-        for (T entity : entityList) {
-            sb.append("(");
-            sb.append("?,".repeat(fieldMetaInfos.size()));
-            sb.deleteCharAt(sb.length() - 1);
-            sb.append("),");
-        }
-        sb.deleteCharAt(sb.length() - 1);
+        if (fieldMetaInfos.isEmpty()) {
+            throw new TransactionException("No fields defined for " + tableName);
+        }
+        int entitySize = entityList.size();
+        boolean isBatch = dao.getBatchUpdateController().getBatchStatus();
+        // 当前分段的SQL和参数列表。
+        int rowNum = EntitySqlTemplate.insertBucket(entitySize);
+        String sql = emi.getSqlTemplate().insertSql(tableName, rowNum);
+        Object[] paramList = null;
+        // 当前pstmt对应的SQL，非批量模式下相同行数的分段复用同一个pstmt并累积为一个批次。
+        String pstmtSql = null;
         Connection con = null;
         PreparedStatement pstmt = null;
+        boolean localTransaction = false;
         int effectedNum = 0;
         try {
             con = dao.getTransactionController().getConnection(connName);
             connId = con.hashCode();
-            pstmt = dao.getBatchUpdateController().prepareStatement(connName, connId, con, sb.toString());
-            int seq = 0;
-            for (T entity : entityList) {
-                for (FieldMetaInfo fmi : fieldMetaInfos) {
-                    paramList[seq] = DaoReflectUtils.DAOLiteSaveReflect(pstmt, entity, fmi, seq + 1);
-                    seq++;
+            connMillis = SystemClock.now() - startMillis;
+            if (!isBatch && rowNum < entitySize && dao.getTransactionController().isAutoCommit()) {
+                con.setAutoCommit(false);
+                localTransaction = true;
+            }
+            Iterator<T> iterator = entityList.iterator();
+            int remainNum = entitySize;
+            while (remainNum > 0) {
+                rowNum = EntitySqlTemplate.insertBucket(remainNum);
+                sql = emi.getSqlTemplate().insertSql(tableName, rowNum);
+                paramList = new Object[fieldMetaInfos.size() * rowNum];
+                if (isBatch) {
+                    pstmt = dao.getBatchUpdateController().prepareStatement(connName, connId, con, sql);
+                } else if (!sql.equals(pstmtSql)) {
+                    dao.getTransactionController().closeStatement(pstmt);
+                    pstmt = null;
+                    pstmt = dao.getTransactionController().prepareStatement(connName, con, sql);
+                    pstmtSql = sql;
+                }
+                int seq = 0;
+                for (int i = 0; i < rowNum; i++) {
+                    T entity = iterator.next();
+                    for (FieldMetaInfo fmi : fieldMetaInfos) {
+                        paramList[seq] = fmi.getAccessor().bind(pstmt, seq + 1, entity);
+                        seq++;
+                    }
                 }
-            }
-            long dbStartMillis = SystemClock.now();
-            connMillis = dbStartMillis - startMillis;
-            if (dao.getBatchUpdateController().getBatchStatus()) {
                 pstmt.addBatch();
-            } else {
-                effectedNum = pstmt.executeUpdate();
+                remainNum -= rowNum;
+                if (!isBatch && (remainNum == 0 || EntitySqlTemplate.insertBucket(remainNum) != rowNum)) {
+                    // 本分档的最后一段，一次执行本分档累积的全部分段。
+                    long dbStartMillis = SystemClock.now();
+                    int[] chunkEffects = pstmt.executeBatch();
+                    long chunkDbMillis = SystemClock.now() - dbStartMillis;
+                    int chunkEffectedNum = 0;
+                    for (int chunkEffect : chunkEffects) {
+                        chunkEffectedNum += chunkEffect == Statement.SUCCESS_NO_INFO ? rowNum : Math.max(chunkEffect, 0);
+                    }
+                    dbMillis += chunkDbMillis;
+                    effectedNum += chunkEffectedNum;
+                    dao.addSqlExecuteStats(connName, connId, sql, paramList, chunkEffectedNum, 0, chunkDbMillis, chunkDbMillis, null);
+                }
             }
-            dbMillis = SystemClock.now() - dbStartMillis;
+            if (localTransaction) {
+                con.commit();
+            }
+            dao.getTransactionController().markWrite();
             for (T entity : entityList) {
                 // 设置主键值
                 emi.setLoadFlag(entity);
@@ -215,11 +261,29 @@ public class EntityCommandImpl {
             }
         } catch (Exception e) {
             exception = e.toString();
-            throw new TransactionException(exception + connName + "@" + connId + ": " + sb.toString() + "#" + JsonUtils.toString(paramList), e);
+            if (!isBatch && pstmt != null) {
+                // 事务内缓存的pstmt会被复用，清除未执行的批次。
+                try {
+                    pstmt.clearBatch();
+                } catch (Exception ce) {
+                    logger.error(ce.getMessage(), ce);
+                }
+            }
+            if (localTransaction) {
+                try {
+                    con.rollback();
+                } catch (Exception re) {
+                    logger.error(re.getMessage(), re);
+                }
+            }
+            throw new TransactionException(exception + connName + "@" + connId + ": " + sql + "#" + JsonUtils.toString(paramList), e);
         } finally {
-            if (!dao.getBatchUpdateController().getBatchStatus() && pstmt != null) {
+            if (!isBatch) {
+                dao.getTransactionController().closeStatement(pstmt);
+            }
+            if (localTransaction) {
                 try {
-                    pstmt.close();
+                    con.setAutoCommit(true);
                 } catch (Exception e) {
                     logger.error(e.getMessage(), e);
                 }
@@ -232,8 +296,8 @@ public class EntityCommandImpl {
                 }
             }
             allMillis = SystemClock.now() - startMillis;
-            if (!dao.getBatchUpdateController().getBatchStatus()) {
-                dao.addSqlExecuteStats(connName, connId, sb.toString(), paramList, effectedNum, connMillis, dbMillis, allMillis, exception);
+            if (!isBatch && exception != null) {
+                dao.addSqlExecuteStats(connName, connId, sql, paramList, effectedNum, connMillis, dbMillis, allMillis, exception);
             }
         }
         return entityList;
@@ -265,16 +329,13 @@ public class EntityCommandImpl {
         }
 
         if (StringUtils.isBlank(connName)) {
-            connName = DaoConfigManager.getRouteMapping(tableName, "write");
+            // load 本质为读操作，路由到读库；事务内、写后读粘滞期内或未配置读库时回退到写库
+            connName = dao.getTransactionController().getConnName(tableName, "read");
         }
-        StringBuilder sb = new StringBuilder();
-        List<FieldMetaInfo> pks = emi.getPkList();
-        if (pks.isEmpty()) {
+        if (emi.getPkList().isEmpty()) {
             throw new TransactionException("No primary key defined for " + tableName);
         }
-        sb.append("select * from ").append(tableName).append(" where ");
-        FieldMetaInfo pksFirst = pks.getFirst();
-        sb.append(pksFirst.getColumnName()).append("=? ");
+        String sql = emi.getSqlTemplate().loadSql(tableName);
 
         T entity = null;
 
@@ -283,45 +344,137 @@ public class EntityCommandImpl {
         try {
             con = dao.getTransactionController().getConnection(connName);
             connId = con.hashCode();
-            pstmt = con.prepareStatement(sb.toString());
+            pstmt = dao.getTransactionController().prepareStatement(connName, con, sql);
             DaoReflectUtils.CommandUpdateReflect(pstmt, 1, id);
             long dbStartMillis = SystemClock.now();
             connMillis = dbStartMillis - startMillis;
             ResultSet rs = pstmt.executeQuery();
             dbMillis = SystemClock.now() - dbStartMillis;
 
-            // 获取字段列表
-            ResultSetMetaData rsm = rs.getMetaData();
-            int colsCount = rsm.getColumnCount();
-            List<FieldMetaInfo> fmiList = new ArrayList<>(colsCount);
-            for (int k = 0; k < colsCount; k++) {
-                FieldMetaInfo fmi = emi.getInfoByColumnName(rsm.getColumnLabel(k + 1).toLowerCase());
-                if (fmi != null) {
-                    fmiList.add(fmi);
-                }
-            }
-
+            // 按结果列解析行读取器
+            EntityRowMapper.RowReader<T> rowReader = emi.<T>getRowMapper().reader(rs.getMetaData());
             if (rs.next()) {
                 rowNum = 1;
-                entity = cls.getDeclaredConstructor().newInstance();
-                for (FieldMetaInfo fmi : fmiList) {
-                    DaoReflectUtils.DAOLiteLoadReflect(rs, entity, fmi);
-                }
-                // 设置主键值
-                emi.setLoadFlag(entity);
+                entity = rowReader.read(rs);
             }
             rs.close();
         } catch (Exception e) {
             exception = e.toString();
-            throw new TransactionException(exception + connName + "@" + connId + ": " + sb.toString() + "#" + id.toString(), e);
+            throw new TransactionException(exception + connName + "@" + connId + ": " + sql + "#" + id.toString(), e);
         } finally {
-            if (pstmt != null) {
+            dao.getTransactionController().closeStatement(pstmt);
+            if (dao.getTransactionController().isAutoCommit() && con != null) {
                 try {
-                    pstmt.close();
+                    con.close();
                 } catch (Exception e) {
                     logger.error(e.getMessage(), e);
                 }
             }
+            allMillis = SystemClock.now() - startMillis;
+            dao.addSqlExecuteStats(connName, connId, sql, new Object[]{id}, rowNum, connMillis, dbMillis, allMillis, exception);
+        }
+        return entity;
+    }
+
+    /**
+     * 按主键批量加载实体.
+     * <p>
+     * 主键去重后按 {@link EntitySqlTemplate#IN_BUCKETS} 分段执行 in 查询，不足分档的用最后一个主键补齐，
+     * 使语句文本只有固定几种。返回结果按输入主键顺序排列，不存在的主键跳过，重复的主键返回同一个实体。
+     * 只支持单主键（取第一个主键列）。
+     *
+     * @param dao       DAOFactoryImpl对象
+     * @param connName  连接名
+     * @param cls       要映射的对象类型
+     * @param tableName 表名
+     * @param ids       主键集合
+     * @param <T>       要映射的对象类型
+     * @return 实体列表
+     * @throws TransactionException 事务异常
+     */
+    static <T> List<T> loadByIds(DaoFactoryImpl dao, String connName, Class<T> cls, String tableName, Collection<? extends Serializable> ids) throws TransactionException {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long startMillis = SystemClock.now();
+        long connMillis = 0, dbMillis = 0, allMillis = 0;
+        int connId = 0, rowNum = 0;
+        String exception = null;
+        TableMetaInfo emi = EntityMetaUtils.loadEntityMetaInfo(cls);
+        if (emi == null) {
+            throw new TransactionException("TableMetaInfo[" + cls + "] not found! ");
+        }
+        if (StringUtils.isBlank(tableName)) {
+            tableName = emi.getTableName();
+        }
+        if (StringUtils.isBlank(connName)) {
+            connName = dao.getTransactionController().getConnName(tableName, "read");
+        }
+        if (emi.getPkList().isEmpty()) {
+            throw new TransactionException("No primary key defined for " + tableName);
+        }
+        FieldMetaInfo pkField = emi.getPkList().getFirst();
+        // 按规范化后的主键去重，整数类型统一为Long，避免Integer与Long主键不相等。
+        LinkedHashMap<Object, Serializable> idMap = new LinkedHashMap<>();
+        for (Serializable id : ids) {
+            if (id != null) {
+                idMap.putIfAbsent(normalizeId(id), id);
+            }
+        }
+        List<Serializable> idList = new ArrayList<>(idMap.values());
+        HashMap<Object, T> entityMap = HashMap.newHashMap(idList.size());
+        String sql = emi.getSqlTemplate().loadInSql(tableName, EntitySqlTemplate.inBucket(idList.size()));
+        Object[] paramList = null;
+        String pstmtSql = null;
+        Connection con = null;
+        PreparedStatement pstmt = null;
+        try {
+            con = dao.getTransactionController().getConnection(connName);
+            connId = con.hashCode();
+            connMillis = SystemClock.now() - startMillis;
+            EntityRowMapper.RowReader<T> rowReader = null;
+            int start = 0;
+            while (start < idList.size()) {
+                int idNum = EntitySqlTemplate.inBucket(idList.size() - start);
+                int end = Math.min(start + idNum, idList.size());
+                sql = emi.getSqlTemplate().loadInSql(tableName, idNum);
+                paramList = new Object[idNum];
+                for (int i = 0; i < idNum; i++) {
+                    // 不足分档时用最后一个主键补齐。
+                    paramList[i] = idList.get(Math.min(start + i, end - 1));
+                }
+                if (!sql.equals(pstmtSql)) {
+                    dao.getTransactionController().closeStatement(pstmt);
+                    pstmt = null;
+                    pstmt = dao.getTransactionController().prepareStatement(connName, con, sql);
+                    pstmtSql = sql;
+                }
+                for (int i = 0; i < idNum; i++) {
+                    DaoReflectUtils.CommandUpdateReflect(pstmt, i + 1, paramList[i]);
+                }
+                long dbStartMillis = SystemClock.now();
+                ResultSet rs = pstmt.executeQuery();
+                if (rowReader == null) {
+                    rowReader = emi.<T>getRowMapper().reader(rs.getMetaData());
+                }
+                int chunkRowNum = 0;
+                while (rs.next()) {
+                    T entity = rowReader.read(rs);
+                    entityMap.put(normalizeId(pkField.getAccessor().get(entity)), entity);
+                    chunkRowNum++;
+                }
+                rs.close();
+                long chunkDbMillis = SystemClock.now() - dbStartMillis;
+                dbMillis += chunkDbMillis;
+                rowNum += chunkRowNum;
+                dao.addSqlExecuteStats(connName, connId, sql, paramList, chunkRowNum, 0, chunkDbMillis, chunkDbMillis, null);
+                start = end;
+            }
+        } catch (Exception e) {
+            exception = e.toString();
+            throw new TransactionException(exception + connName + "@" + connId + ": " + sql + "#" + JsonUtils.toString(paramList), e);
+        } finally {
+            dao.getTransactionController().closeStatement(pstmt);
             if (dao.getTransactionController().isAutoCommit() && con != null) {
                 try {
                     con.close();
@@ -330,9 +483,33 @@ public class EntityCommandImpl {
                 }
             }
             allMillis = SystemClock.now() - startMillis;
-            dao.addSqlExecuteStats(connName, connId, sb.toString(), new Object[]{id}, rowNum, connMillis, dbMillis, allMillis, exception);
+            if (exception != null) {
+                dao.addSqlExecuteStats(connName, connId, sql, paramList, rowNum, connMillis, dbMillis, allMillis, exception);
+            }
         }
-        return entity;
+        List<T> list = new ArrayList<>(ids.size());
+        for (Serializable id : ids) {
+            if (id != null) {
+                T entity = entityMap.get(normalizeId(id));
+                if (entity != null) {
+                    list.add(entity);
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 规范化主键值，整数类型统一为Long，其它类型保持不变.
+     *
+     * @param id 主键值
+     * @return 规范化后的主键值
+     */
+    private static Object normalizeId(Object id) {
+        if (id instanceof Integer || id instanceof Long || id instanceof Short || id instanceof Byte) {
+            return ((Number) id).longValue();
+        }
+        return id;
     }
 
     /**
@@ -353,7 +530,7 @@ public class EntityCommandImpl {
         int connId = 0, rowNum = 0;
         String exception = null;
         if (connName == null) {
-            connName = SQLUtils.getConnNameFromSQL(selectSql);
+            connName = dao.getTransactionController().getConnNameFromSQL(selectSql);
         }
         if (paramList == null) {
             paramList = new Object[0];
@@ -369,7 +546,7 @@ public class EntityCommandImpl {
         try {
             con = dao.getTransactionController().getConnection(connName);
             connId = con.hashCode();
-            pstmt = con.prepareStatement(selectSql);
+            pstmt = dao.getTransactionController().prepareStatement(connName, con, selectSql);
             int seq = 0;
             if (paramList.length > 0) {
                 for (seq = 0; seq < paramList.length; seq++) {
@@ -381,38 +558,18 @@ public class EntityCommandImpl {
             ResultSet rs = pstmt.executeQuery();
             dbMillis = SystemClock.now() - dbStartMillis;
 
-            // 获取字段列表
-            ResultSetMetaData rsm = rs.getMetaData();
-            int colsCount = rsm.getColumnCount();
-            List<FieldMetaInfo> fmiList = new ArrayList<>(colsCount);
-            for (int k = 0; k < colsCount; k++) {
-                FieldMetaInfo fmi = emi.getInfoByColumnName(rsm.getColumnLabel(k + 1).toLowerCase());
-                if (fmi != null) {
-                    fmiList.add(fmi);
-                }
-            }
-
+            // 按结果列解析行读取器
+            EntityRowMapper.RowReader<T> rowReader = emi.<T>getRowMapper().reader(rs.getMetaData());
             if (rs.next()) {
                 rowNum = 1;
-                entity = cls.getDeclaredConstructor().newInstance();
-                for (FieldMetaInfo fmi : fmiList) {
-                    DaoReflectUtils.DAOLiteLoadReflect(rs, entity, fmi);
-                }
-                // 设置主键值
-                emi.setLoadFlag(entity);
+                entity = rowReader.read(rs);
             }
             rs.close();
         } catch (Exception e) {
             exception = e.toString();
             throw new TransactionException(exception + connName + "@" + connId + ": " + selectSql + "#" + JsonUtils.toString(paramList), e);
         } finally {
-            if (pstmt != null) {
-                try {
-                    pstmt.close();
-                } catch (Exception e) {
-                    logger.error(e.getMessage(), e);
-                }
-            }
+            dao.getTransactionController().closeStatement(pstmt);
             if (dao.getTransactionController().isAutoCommit() && con != null) {
                 try {
                     con.close();
@@ -455,27 +612,14 @@ public class EntityCommandImpl {
         }
 
         if (connName == null || connName.isEmpty()) {
-            connName = DaoConfigManager.getRouteMapping(tableName, "write");
+            connName = dao.getTransactionController().getConnName(tableName, "write");
         }
-        StringBuilder sb = new StringBuilder(256);
         DataUpdateInfo dataUpdateInfo = entity.GET_UPDATED_INFO();
         List<FieldMetaInfo> updatedFields = emi.buildFieldMetaInfoList(dataUpdateInfo.getUpdateFieldSet());
         List<FieldMetaInfo> pks = emi.getPkList();
         //参数列表。
         Object[] paramList = new Object[updatedFields.size() + pks.size()];
-        sb.append("update ").append(tableName).append(" set ");
-        for (FieldMetaInfo fmi : updatedFields) {
-            sb.append(fmi.getColumnName()).append("=?,");
-        }
-        sb.deleteCharAt(sb.length() - 1);
-        sb.append(" where ");
-        for (int i = 0; i < pks.size(); i++) {
-            FieldMetaInfo fmi = pks.get(i);
-            if (i > 0) {
-                sb.append("and ");
-            }
-            sb.append(fmi.getColumnName()).append("=? ");
-        }
+        String sql = emi.getSqlTemplate().updateSql(tableName, updatedFields);
 
         Connection con = null;
         PreparedStatement pstmt = null;
@@ -483,15 +627,15 @@ public class EntityCommandImpl {
         try {
             con = dao.getTransactionController().getConnection(connName);
             connId = con.hashCode();
-            pstmt = dao.getBatchUpdateController().prepareStatement(connName, connId, con, sb.toString());
+            pstmt = prepareUpdateStatement(dao, connName, connId, con, sql);
             int seq = 0;
             for (FieldMetaInfo fmi : updatedFields) {
-                paramList[seq] = DaoReflectUtils.DAOLiteSaveReflect(pstmt, entity, fmi, seq + 1);
+                paramList[seq] = fmi.getAccessor().bind(pstmt, seq + 1, entity);
                 seq++;
             }
             // 开始where主键。
             for (FieldMetaInfo fmi : pks) {
-                paramList[seq] = DaoReflectUtils.DAOLiteSaveReflect(pstmt, entity, fmi, seq + 1);
+                paramList[seq] = fmi.getAccessor().bind(pstmt, seq + 1, entity);
                 seq++;
             }
             long dbStartMillis = SystemClock.now();
@@ -502,20 +646,17 @@ public class EntityCommandImpl {
                 effectedNum = pstmt.executeUpdate();
             }
             dbMillis = SystemClock.now() - dbStartMillis;
+            dao.getTransactionController().markWrite();
             // 设置主键值
             emi.setLoadFlag(entity);
             // 注释掉，否则历史记录无法正常记录信息。
             // entity.CLEAR_UPDATED_INFO();
         } catch (Exception e) {
             exception = e.toString();
-            throw new TransactionException(exception + connName + "@" + connId + ": " + sb.toString() + "#" + JsonUtils.toString(paramList), e);
+            throw new TransactionException(exception + connName + "@" + connId + ": " + sql + "#" + JsonUtils.toString(paramList), e);
         } finally {
-            if (!dao.getBatchUpdateController().getBatchStatus() && pstmt != null) {
-                try {
-                    pstmt.close();
-                } catch (Exception e) {
-                    logger.error(e.getMessage(), e);
-                }
+            if (!dao.getBatchUpdateController().getBatchStatus()) {
+                dao.getTransactionController().closeStatement(pstmt);
             }
             if (dao.getTransactionController().isAutoCommit() && con != null) {
                 try {
@@ -526,7 +667,7 @@ public class EntityCommandImpl {
             }
             allMillis = SystemClock.now() - startMillis;
             if (!dao.getBatchUpdateController().getBatchStatus()) {
-                dao.addSqlExecuteStats(connName, connId, sb.toString(), paramList, effectedNum, connMillis, dbMillis, allMillis, exception);
+                dao.addSqlExecuteStats(connName, connId, sql, paramList, effectedNum, connMillis, dbMillis, allMillis, exception);
             }
         }
         return effectedNum;
@@ -556,23 +697,13 @@ public class EntityCommandImpl {
         }
 
         if (StringUtils.isBlank(connName)) {
-            // load 本质为读操作，路由到读库；未配置读库时 getRouteMapping 会自动回退到写库
-            connName = DaoConfigManager.getRouteMapping(tableName, "read");
+            connName = dao.getTransactionController().getConnName(tableName, "write");
         }
 
-        StringBuilder sb = new StringBuilder();
         List<FieldMetaInfo> pks = emi.getPkList();
         //参数列表。
         Object[] paramList = new Object[pks.size()];
-        sb.append("delete from ").append(tableName);
-        sb.append(" where ");
-        for (int i = 0; i < pks.size(); i++) {
-            FieldMetaInfo fmi = pks.get(i);
-            if (i > 0) {
-                sb.append("and ");
-            }
-            sb.append(fmi.getColumnName()).append("=? ");
-        }
+        String sql = emi.getSqlTemplate().deleteSql(tableName);
 
         Connection con = null;
         PreparedStatement pstmt = null;
@@ -580,11 +711,11 @@ public class EntityCommandImpl {
         try {
             con = dao.getTransactionController().getConnection(connName);
             connId = con.hashCode();
-            pstmt = dao.getBatchUpdateController().prepareStatement(connName, connId, con, sb.toString());
+            pstmt = prepareUpdateStatement(dao, connName, connId, con, sql);
             int seq = 0;
             // 开始where主键。
             for (FieldMetaInfo fmi : pks) {
-                paramList[seq] = DaoReflectUtils.DAOLiteSaveReflect(pstmt, entity, fmi, seq + 1);
+                paramList[seq] = fmi.getAccessor().bind(pstmt, seq + 1, entity);
                 seq++;
             }
             long dbStartMillis = SystemClock.now();
@@ -595,16 +726,13 @@ public class EntityCommandImpl {
                 effectedNum = pstmt.executeUpdate();
             }
             dbMillis = SystemClock.now() - dbStartMillis;
+            dao.getTransactionController().markWrite();
         } catch (Exception e) {
             exception = e.toString();
-            throw new TransactionException(exception + connName + "@" + connId + ": " + sb.toString() + "#" + JsonUtils.toString(paramList), e);
+            throw new TransactionException(exception + connName + "@" + connId + ": " + sql + "#" + JsonUtils.toString(paramList), e);
         } finally {
-            if (!dao.getBatchUpdateController().getBatchStatus() && pstmt != null) {
-                try {
-                    pstmt.close();
-                } catch (Exception e) {
-                    logger.error(e.getMessage(), e);
-                }
+            if (!dao.getBatchUpdateController().getBatchStatus()) {
+                dao.getTransactionController().closeStatement(pstmt);
             }
             if (dao.getTransactionController().isAutoCommit() && con != null) {
                 try {
@@ -615,7 +743,7 @@ public class EntityCommandImpl {
             }
             allMillis = SystemClock.now() - startMillis;
             if (!dao.getBatchUpdateController().getBatchStatus()) {
-                dao.addSqlExecuteStats(connName, connId, sb.toString(), paramList, effectedNum, connMillis, dbMillis, allMillis, exception);
+                dao.addSqlExecuteStats(connName, connId, sql, paramList, effectedNum, connMillis, dbMillis, allMillis, exception);
             }
         }
         return effectedNum;
@@ -642,7 +770,7 @@ public class EntityCommandImpl {
         int connId = 0;
         String exception = null;
         if (connName == null) {
-            connName = SQLUtils.getConnNameFromSQL(selectSql);
+            connName = dao.getTransactionController().getConnNameFromSQL(selectSql);
         }
         if (paramList == null) {
             paramList = new Object[0];
@@ -675,7 +803,7 @@ public class EntityCommandImpl {
         try {
             con = dao.getTransactionController().getConnection(connName);
             connId = con.hashCode();
-            pstmt = con.prepareStatement(pagedSelectSql);
+            pstmt = dao.getTransactionController().prepareStatement(connName, con, pagedSelectSql);
             int seq;
             for (seq = 0; seq < paramListSize; seq++) {
                 DaoReflectUtils.CommandUpdateReflect(pstmt, seq + 1, pagedParamList[seq]);
@@ -689,37 +817,17 @@ public class EntityCommandImpl {
             ResultSet rs = pstmt.executeQuery();
             dbMillis = SystemClock.now() - dbStartMillis;
 
-            // 获取字段列表
-            ResultSetMetaData rsm = rs.getMetaData();
-            int colsCount = rsm.getColumnCount();
-            List<FieldMetaInfo> fmiList = new ArrayList<>(colsCount);
-            for (int k = 0; k < colsCount; k++) {
-                FieldMetaInfo fmi = emi.getInfoByColumnName(rsm.getColumnLabel(k + 1).toLowerCase());
-                if (fmi != null) {
-                    fmiList.add(fmi);
-                }
-            }
+            // 按结果列解析行读取器
+            EntityRowMapper.RowReader<T> rowReader = emi.<T>getRowMapper().reader(rs.getMetaData());
             while (rs.next()) {
-                T entity = cls.getDeclaredConstructor().newInstance();
-                for (FieldMetaInfo fmi : fmiList) {
-                    DaoReflectUtils.DAOLiteLoadReflect(rs, entity, fmi);
-                }
-                // 设置主键值
-                emi.setLoadFlag(entity);
-                list.add(entity);
+                list.add(rowReader.read(rs));
             }
             rs.close();
         } catch (Exception e) {
             exception = e.toString();
             throw new TransactionException(exception + connName + "@" + connId + ": " + pagedSelectSql + "#" + JsonUtils.toString(pagedParamList), e);
         } finally {
-            if (pstmt != null) {
-                try {
-                    pstmt.close();
-                } catch (Exception e) {
-                    logger.error(e.getMessage(), e);
-                }
-            }
+            dao.getTransactionController().closeStatement(pstmt);
             if (dao.getTransactionController().isAutoCommit() && con != null) {
                 try {
                     con.close();
@@ -741,4 +849,129 @@ public class EntityCommandImpl {
         }
         return new PageList<>(list, startIndex, resultNum, allSize);
     }
+
+    /**
+     * 以流式游标方式查询实体.
+     * <p>
+     * 使用只读、仅向前的游标按 fetchSize 分批读取，内存占用与总行数无关。
+     * 返回的 Stream 持有连接，必须在 try-with-resources 中使用或显式 close，关闭时记录SQL执行统计。
+     *
+     * @param dao       DAOFactoryImpl对象
+     * @param connName  连接名
+     * @param cls       要映射的对象类型
+     * @param selectSql 查询SQL语句
+     * @param paramList 参数的Object数组
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param <T>       要映射的对象类型
+     * @return 实体流
+     * @throws TransactionException 事务异常
+     */
+    static <T> Stream<T> stream(DaoFactoryImpl dao, String connName, Class<T> cls, String selectSql, Object[] paramList, int fetchSize) throws TransactionException {
+        long startMillis = SystemClock.now();
+        long connMillis = 0, dbMillis = 0;
+        int connId = 0;
+        String exception = null;
+        if (connName == null) {
+            connName = dao.getTransactionController().getConnNameFromSQL(selectSql);
+        }
+        if (paramList == null) {
+            paramList = new Object[0];
+        }
+        TableMetaInfo emi = EntityMetaUtils.loadEntityMetaInfo(cls);
+        if (emi == null) {
+            throw new TransactionException("TableMetaInfo[" + cls.getName() + "] not found! ");
+        }
+        Connection con = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        boolean localTransaction = false;
+        try {
+            con = dao.getTransactionController().getConnection(connName);
+            connId = con.hashCode();
+            Dialect dialect = ConnectionManager.getDialect(connName);
+            if (dialect == null) {
+                dialect = new Dialect();
+            }
+            if (dialect.isCursorNeedTransaction() && con.getAutoCommit()) {
+                con.setAutoCommit(false);
+                localTransaction = true;
+            }
+            pstmt = con.prepareStatement(selectSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(dialect.getCursorFetchSize(con, fetchSize));
+            for (int seq = 0; seq < paramList.length; seq++) {
+                DaoReflectUtils.CommandUpdateReflect(pstmt, seq + 1, paramList[seq]);
+            }
+            long dbStartMillis = SystemClock.now();
+            connMillis = dbStartMillis - startMillis;
+            rs = pstmt.executeQuery();
+            dbMillis = SystemClock.now() - dbStartMillis;
+            EntityRowMapper.RowReader<T> rowReader = emi.<T>getRowMapper().reader(rs.getMetaData());
+            EntityCursor<T> cursor = new EntityCursor<>(dao, connName, connId, selectSql, paramList, con, pstmt, rs, rowReader, localTransaction, startMillis, connMillis, dbMillis);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(cursor::close);
+        } catch (Exception e) {
+            exception = e.toString();
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (Exception ce) {
+                    logger.error(ce.getMessage(), ce);
+                }
+            }
+            if (pstmt != null) {
+                try {
+                    pstmt.close();
+                } catch (Exception ce) {
+                    logger.error(ce.getMessage(), ce);
+                }
+            }
+            if (localTransaction) {
+                try {
+                    con.rollback();
+                    con.setAutoCommit(true);
+                } catch (Exception ce) {
+                    logger.error(ce.getMessage(), ce);
+                }
+            }
+            if (dao.getTransactionController().isAutoCommit() && con != null) {
+                try {
+                    con.close();
+                } catch (Exception ce) {
+                    logger.error(ce.getMessage(), ce);
+                }
+            }
+            dao.addSqlExecuteStats(connName, connId, selectSql, paramList, 0, connMillis, dbMillis, SystemClock.now() - startMillis, exception);
+            throw new TransactionException(exception + connName + "@" + connId + ": " + selectSql + "#" + JsonUtils.toString(paramList), e);
+        }
+    }
+
+    /**
+     * 以流式游标方式逐行回调实体，读取完毕或出错时自动关闭游标.
+     *
+     * @param dao       DAOFactoryImpl对象
+     * @param connName  连接名
+     * @param cls       要映射的对象类型
+     * @param selectSql 查询SQL语句
+     * @param paramList 参数的Object数组
+     * @param fetchSize 每批读取行数，小于等于0时使用默认值
+     * @param consumer  实体回调
+     * @param <T>       要映射的对象类型
+     * @return 读取的行数
+     * @throws TransactionException 事务异常
+     */
+    static <T> long forEach(DaoFactoryImpl dao, String connName, Class<T> cls, String selectSql, Object[] paramList, int fetchSize, Consumer<? super T> consumer) throws TransactionException {
+        long rowNum = 0;
+        try (Stream<T> stream = stream(dao, connName, cls, selectSql, paramList, fetchSize)) {
+            Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                rowNum++;
+            }
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof TransactionException te) {
+                throw te;
+            }
+            throw e;
+        }
+        return rowNum;
+    }
 }
@@ -0,0 +1,197 @@
+package uw.dao.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uw.common.util.JsonUtils;
+import uw.common.util.SystemClock;
+import uw.dao.TransactionException;
+import uw.dao.util.EntityRowMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 实体流式游标，逐行读取结果集并映射为实体.
+ * <p>
+ * 持有查询使用的连接、pstmt 和结果集，直到读取完毕或调用 {@link #close()} 时才释放，
+ * 关闭时按实际读取的行数记录一次SQL执行统计。非线程安全。
+ *
+ * @param <T> 实体类型
+ * @author axeon
+ */
+class EntityCursor<T> implements Iterator<T>, AutoCloseable {
+
+    /**
+     * 日志.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(EntityCursor.class);
+
+    private final DaoFactoryImpl dao;
+
+    private final String connName;
+
+    private final int connId;
+
+    private final String selectSql;
+
+    private final Object[] paramList;
+
+    private final Connection con;
+
+    private final PreparedStatement pstmt;
+
+    private final ResultSet rs;
+
+    private final EntityRowMapper.RowReader<T> rowReader;
+
+    /**
+     * 是否为游标临时关闭了 autoCommit，关闭游标时需要恢复.
+     */
+    private final boolean localTransaction;
+
+    private final long startMillis;
+
+    private final long connMillis;
+
+    private final long dbMillis;
+
+    /**
+     * 已读取行数.
+     */
+    private int rowNum;
+
+    /**
+     * 结果集是否已定位到未读取的行.
+     */
+    private boolean hasNextRow;
+
+    /**
+     * 是否已读取到结果集末尾.
+     */
+    private boolean finished;
+
+    /**
+     * 是否已关闭.
+     */
+    private boolean closed;
+
+    /**
+     * 读取过程中的异常信息.
+     */
+    private String exception;
+
+    EntityCursor(DaoFactoryImpl dao, String connName, int connId, String selectSql, Object[] paramList, Connection con, PreparedStatement pstmt, ResultSet rs,
+                 EntityRowMapper.RowReader<T> rowReader, boolean localTransaction, long startMillis, long connMillis, long dbMillis) {
+        this.dao = dao;
+        this.connName = connName;
+        this.connId = connId;
+        this.selectSql = selectSql;
+        this.paramList = paramList;
+        this.con = con;
+        this.pstmt = pstmt;
+        this.rs = rs;
+        this.rowReader = rowReader;
+        this.localTransaction = localTransaction;
+        this.startMillis = startMillis;
+        this.connMillis = connMillis;
+        this.dbMillis = dbMillis;
+    }
+
+    /**
+     * 是否还有下一行，读取到末尾时自动关闭游标.
+     *
+     * @return boolean
+     */
+    @Override
+    public boolean hasNext() {
+        if (hasNextRow) {
+            return true;
+        }
+        if (finished || closed) {
+            return false;
+        }
+        try {
+            hasNextRow = rs.next();
+        } catch (Exception e) {
+            throw fail(e);
+        }
+        if (!hasNextRow) {
+            finished = true;
+            close();
+        }
+        return hasNextRow;
+    }
+
+    /**
+     * 读取下一行实体.
+     *
+     * @return 实体
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasNextRow = false;
+        try {
+            T entity = rowReader.read(rs);
+            rowNum++;
+            return entity;
+        } catch (Exception e) {
+            throw fail(e);
+        }
+    }
+
+    /**
+     * 关闭游标，释放结果集、pstmt，非事务时归还连接，并记录SQL执行统计.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            rs.close();
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+        try {
+            pstmt.close();
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+        if (localTransaction) {
+            try {
+                // 只读游标，提交仅用于结束服务端游标所在的事务。
+                con.commit();
+                con.setAutoCommit(true);
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+        if (dao.getTransactionController().isAutoCommit()) {
+            try {
+                con.close();
+            } catch (Exception e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+        dao.addSqlExecuteStats(connName, connId, selectSql, paramList, rowNum, connMillis, dbMillis, SystemClock.now() - startMillis, exception);
+    }
+
+    /**
+     * 读取失败时关闭游标，并包装为非受检异常抛出.
+     *
+     * @param e 原始异常
+     * @return 包装后的异常
+     */
+    private RuntimeException fail(Exception e) {
+        exception = e.toString();
+        close();
+        return new RuntimeException(new TransactionException(exception + connName + "@" + connId + ": " + selectSql + "#" + JsonUtils.toString(paramList), e));
+    }
+}
@@ -6,19 +6,22 @@ import org.slf4j.LoggerFactory;
 import uw.common.util.JsonUtils;
 import uw.common.util.SystemClock;
 import uw.common.data.PageRowSet;
+import uw.common.dto.PageQueryParam;
 import uw.dao.TransactionException;
 import uw.dao.connectionpool.ConnectionManager;
 import uw.dao.dialect.Dialect;
 import uw.dao.util.DaoReflectUtils;
-import uw.dao.util.SQLUtils;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 为了更为高效的执行数据库命令，是该类产生的根本原因。 具体使用请自行参照源代码.
@@ -49,7 +52,7 @@ public class SQLCommandImpl {
         int connId = 0;
         String exception = null;
         if (connName == null) {
-            connName = SQLUtils.getConnNameFromSQL(selectSql);
+            connName = dao.getTransactionController().getConnNameFromSQL(selectSql);
         }
         if (paramList == null) {
             paramList = new Object[0];
@@ -168,7 +171,7 @@ public class SQLCommandImpl {
         int connId = 0;
         String exception = null;
         if (connName == null) {
-            connName = SQLUtils.getConnNameFromSQL(selectSql);
+            connName = dao.getTransactionController().getConnNameFromSQL(selectSql);
         }
         if (paramList == null) {
             paramList = new Object[0];
@@ -303,7 +306,7 @@ public class SQLCommandImpl {
         int connId = 0, dsSize = 0;
         String exception = null;
         if (connName == null) {
-            connName = SQLUtils.getConnNameFromSQL(selectSql);
+            connName = dao.getTransactionController().getConnNameFromSQL(selectSql);
         }
         if (paramList == null) {
             paramList = new Object[0];
@@ -395,6 +398,146 @@ public class SQLCommandImpl {
         return ds;
     }
 
+    /**
+     * 分页count的缓存.key:connName#countSql#参数,value:[count,过期时间]
+     */
+    private static final Map<String, long[]> PAGE_COUNT_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 分页count缓存的最大条目数.
+     */
+    private static final int MAX_PAGE_COUNT_CACHE_SIZE = 4096;
+
+    /**
+     * 按指定方式统计分页总数.
+     *
+     * @param dao         DAOFactoryImpl对象
+     * @param connName    连接名，如设置为null，则根据sql语句或表名动态路由确定
+     * @param selectSql   查询的SQL（不含分页）
+     * @param paramList   查询SQL的绑定参数
+     * @param countType   count方式，见 PageQueryParam.COUNT_EXACT/COUNT_CACHED/COUNT_ESTIMATE
+     * @param cacheMillis 缓存count的有效期毫秒数
+     * @return 总数
+     * @throws TransactionException 事务异常
+     */
+    public static int selectForPageCount(DaoFactoryImpl dao, String connName, String selectSql, Object[] paramList, int countType, long cacheMillis) throws TransactionException {
+        if (connName == null) {
+            connName = dao.getTransactionController().getConnNameFromSQL(selectSql);
+        }
+        if (countType == PageQueryParam.COUNT_ESTIMATE) {
+            long estimate = selectForEstimateCount(dao, connName, selectSql, paramList);
+            if (estimate >= 0) {
+                return (int) Math.min(estimate, Integer.MAX_VALUE);
+            }
+            // 不支持估算时按缓存count处理。
+            countType = PageQueryParam.COUNT_CACHED;
+        }
+        String countSql = "select count(1) from (" + selectSql + ") must_alias";
+        if (countType != PageQueryParam.COUNT_CACHED || cacheMillis <= 0) {
+            return selectForCount(dao, connName, countSql, paramList);
+        }
+        String cacheKey = connName + "#" + countSql + "#" + Arrays.deepToString(paramList);
+        long now = SystemClock.now();
+        long[] cached = PAGE_COUNT_CACHE.get(cacheKey);
+        if (cached != null && cached[1] > now) {
+            return (int) cached[0];
+        }
+        int count = selectForCount(dao, connName, countSql, paramList);
+        if (PAGE_COUNT_CACHE.size() >= MAX_PAGE_COUNT_CACHE_SIZE) {
+            PAGE_COUNT_CACHE.values().removeIf(value -> value[1] <= now);
+            if (PAGE_COUNT_CACHE.size() >= MAX_PAGE_COUNT_CACHE_SIZE) {
+                PAGE_COUNT_CACHE.clear();
+            }
+        }
+        PAGE_COUNT_CACHE.put(cacheKey, new long[]{count, now + cacheMillis});
+        return count;
+    }
+
+    /**
+     * 执行count语句.
+     *
+     * @param dao       DAOFactoryImpl对象
+     * @param connName  连接名
+     * @param countSql  count语句
+     * @param paramList 查询SQL的绑定参数
+     * @return 总数
+     * @throws TransactionException 事务异常
+     */
+    private static int selectForCount(DaoFactoryImpl dao, String connName, String countSql, Object[] paramList) throws TransactionException {
+        Integer count = selectForSingleValue(dao, connName, Integer.class, countSql, paramList);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 使用执行计划估算查询的行数.
+     *
+     * @param dao       DAOFactoryImpl对象
+     * @param connName  连接名
+     * @param selectSql 查询的SQL（不含分页）
+     * @param paramList 查询SQL的绑定参数
+     * @return 估算行数，数据库不支持估算时返回 -1
+     * @throws TransactionException 事务异常
+     */
+    public static long selectForEstimateCount(DaoFactoryImpl dao, String connName, String selectSql, Object[] paramList) throws TransactionException {
+        Dialect dialect = ConnectionManager.getDialect(connName);
+        String explainSql = dialect == null ? null : dialect.getEstimateCountSQL(selectSql);
+        if (explainSql == null) {
+            return -1;
+        }
+        long startMillis = SystemClock.now();
+        long connMillis = 0, dbMillis = 0, allMillis = 0;
+        int connId = 0;
+        String exception = null;
+        if (paramList == null) {
+            paramList = new Object[0];
+        }
+        long estimate = -1;
+        Connection con = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            con = dao.getTransactionController().getConnection(connName);
+            connId = con.hashCode();
+            pstmt = con.prepareStatement(explainSql);
+            for (int i = 0; i < paramList.length; i++) {
+                DaoReflectUtils.CommandUpdateReflect(pstmt, i + 1, paramList[i]);
+            }
+            long dbStartMillis = SystemClock.now();
+            connMillis = dbStartMillis - startMillis;
+            rs = pstmt.executeQuery();
+            estimate = dialect.parseEstimateCount(rs);
+            dbMillis = SystemClock.now() - dbStartMillis;
+        } catch (Exception e) {
+            exception = e.toString();
+            throw new TransactionException(exception + connName + "@" + connId + ": " + explainSql + "#" + JsonUtils.toString(paramList), e);
+        } finally {
+            if (rs != null) {
+                try {
+                    rs.close();
+                } catch (Exception e) {
+                    logger.error(e.getMessage(), e);
+                }
+            }
+            if (pstmt != null) {
+                try {
+                    pstmt.close();
+                } catch (Exception e) {
+                    logger.error(e.getMessage(), e);
+                }
+            }
+            if (dao.getTransactionController().isAutoCommit() && con != null) {
+                try {
+                    con.close();
+                } catch (Exception e) {
+                    logger.error(e.getMessage(), e);
+                }
+            }
+            allMillis = SystemClock.now() - startMillis;
+            dao.addSqlExecuteStats(connName, connId, explainSql, paramList, estimate < 0 ? 0 : 1, connMillis, dbMillis, allMillis, exception);
+        }
+        return estimate;
+    }
+
     /**
      * 执行任意sql.
      *
@@ -412,7 +555,7 @@ public class SQLCommandImpl {
         String exception = null;
 
         if (connName == null) {
-            connName = SQLUtils.getConnNameFromSQL(exeSql);
+            connName = dao.getTransactionController().getConnNameFromSQL(exeSql);
         }
         if (paramList == null) {
             paramList = new Object[0];
@@ -438,6 +581,7 @@ public class SQLCommandImpl {
                 effectedNum = pstmt.executeUpdate();
             }
             dbMillis = SystemClock.now() - dbStartMillis;
+            dao.getTransactionController().markWrite();
         } catch (Exception e) {
             exception = e.toString();
             throw new TransactionException(exception + connName + "@" + connId + ": " + exeSql + "#" + JsonUtils.toString(paramList), e);
@@ -0,0 +1,429 @@
+package uw.dao.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uw.common.data.PageList;
+import uw.common.util.LimitedVirtualThreadExecutor;
+import uw.common.util.SystemClock;
+import uw.dao.DaoFactory;
+import uw.dao.TransactionException;
+import uw.dao.conf.DaoConfig;
+import uw.dao.conf.DaoConfig.TableShardConfig;
+import uw.dao.conf.DaoConfigManager;
+import uw.dao.connectionpool.ConnectionManager;
+import uw.dao.util.ShardingTableUtils;
+import uw.dao.vo.ShardRange;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 跨分表查询实现.
+ * <p>
+ * 按分表范围给出全部分表名，跳过不存在的分表，把SQL中的 ${table} 替换为各分表名，
+ * 在有并发上限的虚拟线程执行器上并行查询，每个分表按表名各自路由连接，最后合并结果：
+ * <ul>
+ *   <li>顺序拼接：按分表顺序拼接全部结果；</li>
+ *   <li>有序归并：各分表SQL自带与比较器一致的 order by，每个分表只查询 startIndex+resultNum 行，再做多路归并取出指定页；</li>
+ *   <li>汇总：各分表的 count/sum 结果相加。</li>
+ * </ul>
+ * 分表查询使用独立的DaoFactory实例，不参与当前事务。
+ *
+ * @author axeon
+ */
+public class ShardQueryImpl {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardQueryImpl.class);
+
+    /**
+     * 表列表缓存的有效毫秒数.
+     */
+    private static final long TABLE_CACHE_MILLIS = 60_000L;
+
+    /**
+     * 连接名 -> 表列表缓存.
+     */
+    private static final Map<String, TableList> TABLE_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 分表查询执行器.
+     */
+    private static volatile LimitedVirtualThreadExecutor executor;
+
+    /**
+     * 按分表顺序拼接查询结果.
+     *
+     * @param dao        DaoFactoryImpl对象
+     * @param entityCls  要映射的对象类型
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  查询的SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @param <T>        映射的类型
+     * @return 列表
+     * @throws TransactionException 事务异常
+     */
+    static <T> PageList<T> list(DaoFactoryImpl dao, Class<T> entityCls, String tableName, ShardRange shardRange, String selectSql, Object[] paramList)
+            throws TransactionException {
+        List<PageList<T>> shardList = scatter(dao, tableName, shardRange, selectSql,
+                (shardDao, connName, sql) -> shardDao.list(connName, entityCls, sql, paramList, 0, 0, false));
+        int size = 0;
+        for (PageList<T> pageList : shardList) {
+            size += pageList.size();
+        }
+        ArrayList<T> list = new ArrayList<>(size);
+        for (PageList<T> pageList : shardList) {
+            list.addAll(pageList.list());
+        }
+        return new PageList<>(list, 0, list.size(), 0);
+    }
+
+    /**
+     * 按比较器多路归并查询结果，并取出指定页.
+     *
+     * @param dao        DaoFactoryImpl对象
+     * @param entityCls  要映射的对象类型
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  查询的SQL，表名写为 ${table}，须带与比较器一致的 order by
+     * @param paramList  查询SQL的绑定参数
+     * @param comparator 排序比较器
+     * @param startIndex 开始位置
+     * @param resultNum  结果集大小，0表示不限制
+     * @param <T>        映射的类型
+     * @return 列表
+     * @throws TransactionException 事务异常
+     */
+    static <T> PageList<T> list(DaoFactoryImpl dao, Class<T> entityCls, String tableName, ShardRange shardRange, String selectSql, Object[] paramList,
+                                Comparator<? super T> comparator, int startIndex, int resultNum) throws TransactionException {
+        if (startIndex < 0) {
+            startIndex = 0;
+        }
+        // 每个分表最多只需要前 startIndex+resultNum 行。
+        int shardNum = resultNum > 0 ? startIndex + resultNum : 0;
+        List<PageList<T>> shardList = scatter(dao, tableName, shardRange, selectSql,
+                (shardDao, connName, sql) -> shardDao.list(connName, entityCls, sql, paramList, 0, shardNum, false));
+        // 堆中元素为 {分表序号, 行号}，相同时按分表顺序，结果稳定。
+        PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(shardList.size(), 1), (a, b) -> {
+            int c = comparator.compare(shardList.get(a[0]).get(a[1]), shardList.get(b[0]).get(b[1]));
+            return c != 0 ? c : Integer.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < shardList.size(); i++) {
+            if (shardList.get(i).size() > 0) {
+                heap.add(new int[]{i, 0});
+            }
+        }
+        ArrayList<T> list = new ArrayList<>(resultNum > 0 ? resultNum : 16);
+        int pos = 0;
+        while (!heap.isEmpty() && (resultNum <= 0 || list.size() < resultNum)) {
+            int[] cursor = heap.poll();
+            PageList<T> pageList = shardList.get(cursor[0]);
+            if (pos++ >= startIndex) {
+                list.add(pageList.get(cursor[1]));
+            }
+            if (++cursor[1] < pageList.size()) {
+                heap.add(cursor);
+            }
+        }
+        return new PageList<>(list, startIndex, resultNum, 0);
+    }
+
+    /**
+     * 汇总各分表的计数.
+     *
+     * @param dao        DaoFactoryImpl对象
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  计数SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @return 计数之和
+     * @throws TransactionException 事务异常
+     */
+    static long count(DaoFactoryImpl dao, String tableName, ShardRange shardRange, String selectSql, Object[] paramList) throws TransactionException {
+        List<Long> shardList = scatter(dao, tableName, shardRange, selectSql,
+                (shardDao, connName, sql) -> shardDao.queryForValue(connName, Long.class, sql, paramList));
+        long sum = 0;
+        for (Long value : shardList) {
+            if (value != null) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 汇总各分表的数值.
+     *
+     * @param dao        DaoFactoryImpl对象
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  求和SQL，表名写为 ${table}
+     * @param paramList  查询SQL的绑定参数
+     * @return 数值之和
+     * @throws TransactionException 事务异常
+     */
+    static BigDecimal sum(DaoFactoryImpl dao, String tableName, ShardRange shardRange, String selectSql, Object[] paramList) throws TransactionException {
+        List<Object> shardList = scatter(dao, tableName, shardRange, selectSql,
+                (shardDao, connName, sql) -> shardDao.queryForValue(connName, Object.class, sql, paramList));
+        BigDecimal sum = BigDecimal.ZERO;
+        for (Object value : shardList) {
+            if (value instanceof BigDecimal decimal) {
+                sum = sum.add(decimal);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                sum = sum.add(BigDecimal.valueOf(((Number) value).longValue()));
+            } else if (value != null) {
+                sum = sum.add(new BigDecimal(value.toString()));
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 清空表列表缓存，新建分表后调用.
+     */
+    public static void clearTableCache() {
+        TABLE_CACHE.clear();
+    }
+
+    /**
+     * 并行查询范围内存在的全部分表.
+     *
+     * @param dao        DaoFactoryImpl对象，用于按当前会话路由连接
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @param selectSql  查询的SQL，表名写为 ${table}
+     * @param query      单个分表的查询
+     * @param <R>        单个分表的结果类型
+     * @return 各分表的结果，按分表顺序
+     * @throws TransactionException 事务异常
+     */
+    private static <R> List<R> scatter(DaoFactoryImpl dao, String tableName, ShardRange shardRange, String selectSql, ShardQuery<R> query)
+            throws TransactionException {
+        if (selectSql == null || !selectSql.contains(ShardingTableUtils.TABLE_PLACEHOLDER)) {
+            throw new TransactionException("shard query sql must contain " + ShardingTableUtils.TABLE_PLACEHOLDER + ": " + selectSql);
+        }
+        List<String> tableList = new ArrayList<>();
+        List<String> connList = new ArrayList<>();
+        for (String shardTable : getShardTableList(dao, tableName, shardRange)) {
+            String connName = dao.getConnectionName(shardTable, "read");
+            if (existTable(connName, shardTable)) {
+                tableList.add(shardTable);
+                connList.add(connName);
+            }
+        }
+        List<R> resultList = new ArrayList<>(tableList.size());
+        if (tableList.size() == 1) {
+            // 只有一个分表时直接在当前线程查询。
+            resultList.add(query.query(DaoFactory.getInstance(), connList.get(0), selectSql.replace(ShardingTableUtils.TABLE_PLACEHOLDER, tableList.get(0))));
+            return resultList;
+        }
+        List<CompletableFuture<R>> futureList = new ArrayList<>(tableList.size());
+        LimitedVirtualThreadExecutor shardExecutor = getExecutor();
+        for (int i = 0; i < tableList.size(); i++) {
+            String connName = connList.get(i);
+            String sql = selectSql.replace(ShardingTableUtils.TABLE_PLACEHOLDER, tableList.get(i));
+            CompletableFuture<R> future = new CompletableFuture<>();
+            futureList.add(future);
+            try {
+                // 达到并发上限时阻塞等待。
+                shardExecutor.submit(() -> {
+                    try {
+                        future.complete(query.query(DaoFactory.getInstance(), connName, sql));
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            } catch (Exception e) {
+                throw new TransactionException("shard query [" + tableList.get(i) + "] submit failed! " + e.getMessage(), e);
+            }
+        }
+        for (int i = 0; i < futureList.size(); i++) {
+            try {
+                resultList.add(futureList.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransactionException("shard query [" + tableList.get(i) + "] interrupted!", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof TransactionException te) {
+                    throw te;
+                }
+                throw new TransactionException("shard query [" + tableList.get(i) + "] failed! " + cause.getMessage(), cause);
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * 推算范围内的分表名.
+     * <p>
+     * ID范围先按逻辑表所在连接的表列表收窄到已存在的最小、最大分表，开放范围（如 {@code ofId(x, Long.MAX_VALUE)}）不会逐个展开；
+     * 收窄后仍超过 {@link ShardingTableUtils#MAX_SHARD_NUM} 个分表时报错。
+     *
+     * @param dao        DaoFactoryImpl对象
+     * @param tableName  逻辑表名
+     * @param shardRange 分表范围
+     * @return 分表名列表
+     * @throws TransactionException 范围内的分表数超过上限
+     */
+    private static List<String> getShardTableList(DaoFactoryImpl dao, String tableName, ShardRange shardRange) throws TransactionException {
+        if (shardRange.getStartDate() == null) {
+            TableShardConfig config = DaoConfigManager.getTableShardingConfig(tableName);
+            if (config != null && "id".equalsIgnoreCase(config.getShardType())) {
+                TableList tableList = getTableList(dao.getConnectionName(tableName, "read"));
+                if (tableList != null) {
+                    shardRange = clampIdRange(tableList, tableName, Long.parseLong(config.getShardRule()), shardRange);
+                    if (shardRange == null) {
+                        return new ArrayList<>();
+                    }
+                }
+            }
+        }
+        try {
+            return shardRange.getTableNameList(tableName);
+        } catch (IllegalArgumentException e) {
+            throw new TransactionException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 把ID范围收窄到表列表中已存在的分表.
+     *
+     * @param tableList  表列表
+     * @param tableName  逻辑表名
+     * @param batchSize  每个分表的ID数
+     * @param shardRange ID范围
+     * @return 收窄后的范围，范围内没有已存在的分表时返回null
+     */
+    private static ShardRange clampIdRange(TableList tableList, String tableName, long batchSize, ShardRange shardRange) {
+        long startShard = shardRange.getStartId() / batchSize;
+        long endShard = shardRange.getEndId() / batchSize;
+        String prefix = tableName.toLowerCase() + "_";
+        long minShard = Long.MAX_VALUE;
+        long maxShard = Long.MIN_VALUE;
+        for (String table : tableList.tableSet) {
+            if (!table.startsWith(prefix) || table.length() == prefix.length() || table.length() - prefix.length() > 18) {
+                continue;
+            }
+            long shard = 0;
+            for (int i = prefix.length(); i < table.length() && shard >= 0; i++) {
+                char c = table.charAt(i);
+                shard = c >= '0' && c <= '9' ? shard * 10 + (c - '0') : -1;
+            }
+            if (shard >= 0 && shard >= startShard && shard <= endShard) {
+                minShard = Math.min(minShard, shard);
+                maxShard = Math.max(maxShard, shard);
+            }
+        }
+        if (minShard > maxShard) {
+            return null;
+        }
+        long startId = Math.max(shardRange.getStartId(), minShard * batchSize);
+        long endId = maxShard >= Long.MAX_VALUE / batchSize ? shardRange.getEndId() : Math.min(shardRange.getEndId(), (maxShard + 1) * batchSize - 1);
+        return ShardRange.ofId(startId, endId);
+    }
+
+    /**
+     * 分表是否存在，按连接缓存表列表；表列表载入失败时视为存在，由查询本身报错.
+     *
+     * @param connName  连接名
+     * @param tableName 表名
+     * @return boolean
+     */
+    private static boolean existTable(String connName, String tableName) {
+        TableList tableList = getTableList(connName);
+        return tableList == null || tableList.tableSet.contains(tableName.toLowerCase());
+    }
+
+    /**
+     * 获取连接内的表列表，缓存 {@value #TABLE_CACHE_MILLIS} 毫秒.
+     *
+     * @param connName 连接名
+     * @return 表列表，载入失败时返回null
+     */
+    private static TableList getTableList(String connName) {
+        TableList tableList = TABLE_CACHE.get(connName);
+        if (tableList == null || SystemClock.now() - tableList.loadMillis > TABLE_CACHE_MILLIS) {
+            tableList = loadTableList(connName);
+            if (tableList == null) {
+                return null;
+            }
+            TABLE_CACHE.put(connName, tableList);
+        }
+        return tableList;
+    }
+
+    /**
+     * 载入连接内的表列表.
+     *
+     * @param connName 连接名
+     * @return 表列表，失败时返回null
+     */
+    private static TableList loadTableList(String connName) {
+        Set<String> tableSet = new HashSet<>();
+        try (Connection conn = ConnectionManager.getConnection(connName)) {
+            DatabaseMetaData metaData = conn.getMetaData();
+            try (ResultSet rs = metaData.getTables(conn.getCatalog(), null, null, new String[]{"TABLE"})) {
+                while (rs.next()) {
+                    tableSet.add(rs.getString("TABLE_NAME").toLowerCase());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("load table list of [{}] failed! {}", connName, e.getMessage(), e);
+            return null;
+        }
+        return new TableList(tableSet, SystemClock.now());
+    }
+
+    /**
+     * 获取分表查询执行器.
+     *
+     * @return 执行器
+     */
+    private static LimitedVirtualThreadExecutor getExecutor() {
+        LimitedVirtualThreadExecutor shardExecutor = executor;
+        if (shardExecutor == null) {
+            synchronized (ShardQueryImpl.class) {
+                shardExecutor = executor;
+                if (shardExecutor == null) {
+                    DaoConfig config = DaoConfigManager.getConfig();
+                    int parallelism = config == null ? 8 : Math.max(config.getShardQueryParallelism(), 1);
+                    shardExecutor = new LimitedVirtualThreadExecutor(parallelism);
+                    executor = shardExecutor;
+                }
+            }
+        }
+        return shardExecutor;
+    }
+
+    /**
+     * 单个分表的查询.
+     *
+     * @param <R> 结果类型
+     */
+    @FunctionalInterface
+    private interface ShardQuery<R> {
+        R query(DaoFactory dao, String connName, String sql) throws TransactionException;
+    }
+
+    /**
+     * 连接内的表列表.
+     *
+     * @param tableSet   小写表名集合
+     * @param loadMillis 载入时间
+     */
+    private record TableList(Set<String> tableSet, long loadMillis) {
+    }
+}
@@ -2,14 +2,21 @@ package uw.dao.impl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uw.common.util.SystemClock;
 import uw.dao.TransactionException;
 import uw.dao.TransactionManager;
+import uw.dao.conf.DaoConfig;
 import uw.dao.conf.DaoConfigManager;
 import uw.dao.connectionpool.ConnectionManager;
+import uw.dao.util.SQLUtils;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 /**
  * TransactionManager实现类.
@@ -43,11 +50,32 @@ public class TransactionManagerImpl implements TransactionManager {
      */
     private HashMap<String, Connection> connMap = null;
 
+    /**
+     * 事务内缓存的pstmt.key:connName,value:(sql,pstmt)
+     * 同一事务内重复执行的SQL复用同一个pstmt，事务结束时统一关闭。
+     */
+    private HashMap<String, HashMap<String, PreparedStatement>> pstmtMap = null;
+
+    /**
+     * 事务内缓存的pstmt集合，用于判断pstmt是否需要由调用方关闭.
+     */
+    private Set<PreparedStatement> cachedPstmtSet = null;
+
+    /**
+     * 每个连接在事务内最多缓存的pstmt数量.
+     */
+    private static final int MAX_CACHED_PSTMT_NUM = 64;
+
     /**
      * 被调用个次数.
      */
     private int invokeCount;
 
+    /**
+     * 当前线程最近一次写操作的时间，用于写后读粘滞.
+     */
+    private static final ThreadLocal<long[]> threadLastWriteMillis = ThreadLocal.withInitial(() -> new long[1]);
+
     /**
      * 默认构造器,只能在本包内调用.
      */
@@ -66,6 +94,7 @@ public class TransactionManagerImpl implements TransactionManager {
             return;
         }
         StringBuilder errorMsg = new StringBuilder();
+        closeCachedStatements(errorMsg);
         for (Connection conn : connMap.values()) {
             try {
                 conn.commit();
@@ -116,6 +145,52 @@ public class TransactionManagerImpl implements TransactionManager {
         }
     }
 
+    /**
+     * 获取pstmt.
+     * 事务中按连接名和SQL缓存pstmt，重复执行时直接复用；非事务时每次新建。
+     * 使用完毕后必须调用 {@link #closeStatement(PreparedStatement)} 释放。
+     *
+     * @param connName 连接名
+     * @param conn     Connection对象
+     * @param sql      SQL语句
+     * @return PreparedStatement对象
+     * @throws SQLException SQL异常
+     */
+    public PreparedStatement prepareStatement(String connName, Connection conn, String sql) throws SQLException {
+        if (autoCommit || pstmtMap == null) {
+            return conn.prepareStatement(sql);
+        }
+        HashMap<String, PreparedStatement> connPstmtMap = pstmtMap.computeIfAbsent(connName, key -> new HashMap<>());
+        PreparedStatement pstmt = connPstmtMap.get(sql);
+        if (pstmt != null && !pstmt.isClosed()) {
+            pstmt.clearParameters();
+            return pstmt;
+        }
+        pstmt = conn.prepareStatement(sql);
+        if (connPstmtMap.size() < MAX_CACHED_PSTMT_NUM) {
+            connPstmtMap.put(sql, pstmt);
+            cachedPstmtSet.add(pstmt);
+        }
+        return pstmt;
+    }
+
+    /**
+     * 释放pstmt.
+     * 事务内缓存的pstmt保留到事务结束，其它的直接关闭。
+     *
+     * @param pstmt PreparedStatement对象
+     */
+    public void closeStatement(PreparedStatement pstmt) {
+        if (pstmt == null || (cachedPstmtSet != null && cachedPstmtSet.contains(pstmt))) {
+            return;
+        }
+        try {
+            pstmt.close();
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
     /**
      * factory类通过该方法为所有的数据库操作提供连接.
      *
@@ -129,16 +204,70 @@ public class TransactionManagerImpl implements TransactionManager {
     }
 
     /**
-     * 获取连接名.
+     * 获取连接名，读操作在事务内或写后读粘滞期内路由到写连接池.
+     * 仅查询连接名，不记录写操作，写操作执行后由调用方调用 {@link #markWrite()}。
      *
      * @param table  表名
      * @param access 访问方式
      * @return 连接名
      */
     public String getConnName(String table, String access) {
+        if ("read".equalsIgnoreCase(access) && isReadByWrite()) {
+            access = "write";
+        }
         return DaoConfigManager.getRouteMapping(table, access);
     }
 
+    /**
+     * 根据SQL获取连接名，查询语句在事务内或写后读粘滞期内路由到写连接池.
+     *
+     * @param sql SQL语句
+     * @return 连接名
+     */
+    public String getConnNameFromSQL(String sql) {
+        if (SQLUtils.isSelectSQL(sql)) {
+            return SQLUtils.getConnNameFromSQL(sql, isReadByWrite());
+        }
+        return SQLUtils.getConnNameFromSQL(sql);
+    }
+
+    /**
+     * 读操作是否需要路由到写连接池.
+     * 事务内总是读写连接池，否则在当前线程写入后 readYourWritesMillis 毫秒内读写连接池。
+     * 粘滞只按线程记录，DaoFactory 常以单例共享，按实例记录会让一次写入影响所有线程的读。
+     *
+     * @return boolean
+     */
+    private boolean isReadByWrite() {
+        if (!autoCommit) {
+            return true;
+        }
+        long stickyMillis = getReadYourWritesMillis();
+        if (stickyMillis <= 0) {
+            return false;
+        }
+        return SystemClock.now() - threadLastWriteMillis.get()[0] < stickyMillis;
+    }
+
+    /**
+     * 记录当前线程的写操作时间，由写操作执行后调用，未开启写后读粘滞时忽略.
+     */
+    public void markWrite() {
+        if (getReadYourWritesMillis() > 0) {
+            threadLastWriteMillis.get()[0] = SystemClock.now();
+        }
+    }
+
+    /**
+     * 获取写后读粘滞毫秒数.
+     *
+     * @return 毫秒数
+     */
+    private static long getReadYourWritesMillis() {
+        DaoConfig config = DaoConfigManager.getConfig();
+        return config == null || config.getConnRoute() == null ? 0 : config.getConnRoute().getReadYourWritesMillis();
+    }
+
     /**
      * 获取当前事务级别.
      *
@@ -183,6 +312,7 @@ public class TransactionManagerImpl implements TransactionManager {
             return;
         }
         StringBuilder errorMsg = new StringBuilder();
+        closeCachedStatements(errorMsg);
         for (Connection conn : connMap.values()) {
             try {
                 conn.rollback();
@@ -210,6 +340,30 @@ public class TransactionManagerImpl implements TransactionManager {
     protected void startTransaction() {
         this.autoCommit = false;
         connMap = new HashMap<>();
+        pstmtMap = new HashMap<>();
+        cachedPstmtSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * 关闭事务内缓存的全部pstmt.
+     *
+     * @param errorMsg 错误信息
+     */
+    private void closeCachedStatements(StringBuilder errorMsg) {
+        if (pstmtMap == null) {
+            return;
+        }
+        for (HashMap<String, PreparedStatement> connPstmtMap : pstmtMap.values()) {
+            for (PreparedStatement pstmt : connPstmtMap.values()) {
+                try {
+                    pstmt.close();
+                } catch (Exception e) {
+                    errorMsg.append("\n").append(e.getMessage());
+                }
+            }
+        }
+        pstmtMap = null;
+        cachedPstmtSet = null;
     }
 
     /**
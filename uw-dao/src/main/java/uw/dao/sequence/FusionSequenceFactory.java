@@ -6,11 +6,20 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import uw.common.util.SystemClock;
+import uw.dao.conf.DaoConfig;
+import uw.dao.conf.DaoConfigManager;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 一个基于Redis优化的Sequence工厂类。
@@ -150,6 +159,58 @@ public class FusionSequenceFactory {
                     + "end",
             List.class);
 
+    /**
+     * 号段租用 Lua 脚本：从段游标一次推进多个号，不超过当前段终点。
+     * <p>KEYS[1]=cursor key，KEYS[2]=end key，ARGV[1]=step。返回 {@code {start, end}}：</p>
+     * <ul>
+     *   <li>{@code start>0}：租到 [start, end]，cursor 已推进到 end。</li>
+     *   <li>{@code start=0}：段耗尽或未初始化，cursor 未变，调用方续段后重试。</li>
+     * </ul>
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> LEASE_SEQ_SCRIPT = new DefaultRedisScript<>(
+            "local curStr=redis.call('get',KEYS[1]) "
+                    + "local cur=0 "
+                    + "if curStr~=false then cur=tonumber(curStr) end "
+                    + "local segEnd=redis.call('get',KEYS[2]) "
+                    + "if segEnd==false or cur>=tonumber(segEnd) then "
+                    + "  return {0,0} "
+                    + "end "
+                    + "local last=math.min(cur+tonumber(ARGV[1]),tonumber(segEnd)) "
+                    + "redis.call('set',KEYS[1],last) "
+                    + "return {cur+1,last}",
+            List.class);
+
+    /**
+     * 本地号段模式。
+     */
+    public static final String MODE_SEGMENT = "segment";
+
+    /**
+     * 本地号段最小步长。
+     */
+    private static final int SEGMENT_MIN_STEP = 16;
+
+    /**
+     * 号段消耗快于此毫秒数时步长翻倍。
+     */
+    private static final long SEGMENT_FAST_MILLIS = 1_000L;
+
+    /**
+     * 号段消耗慢于此毫秒数时步长减半。
+     */
+    private static final long SEGMENT_SLOW_MILLIS = 10_000L;
+
+    /**
+     * 本地号段表。
+     */
+    private static final Map<String, SegmentBuffer> SEGMENT_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 号段预取执行器。
+     */
+    private static final ExecutorService PREFETCH_EXECUTOR = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("uw-dao-seq-prefetch-", 0).factory());
+
     /**
      * Redis 模板，用于执行 Lua 脚本（安全解锁等）。
      */
@@ -286,9 +347,11 @@ public class FusionSequenceFactory {
      */
     public static long getSequenceId(String seqName) {
         ensureInitialized();
+        if (isSegmentMode()) {
+            return getSegmentSequenceId(seqName);
+        }
         String cursorKey = REDIS_SEQ + seqName + CURSOR_SUFFIX;
         String endKey = REDIS_SEQ + seqName + END_SUFFIX;
-        String renewLocker = REDIS_SEQ + seqName + ":renew";
         for (int tryCount = 0; tryCount < MAX_RETRY_TIMES; tryCount++) {
             try {
                 // 原子取号：先判后增，仅 cursor<end 时取号并推进，否则返回 needRenew
@@ -299,49 +362,9 @@ public class FusionSequenceFactory {
                 if (needRenew == 0) {
                     return seqId;
                 }
-                // 段耗尽（或未初始化），抢续段锁后从 DB 申请新段
-                // owner 使用随机 long 而非时间戳：毫秒级时间戳在同毫秒内可能重复，
-                // 会导致 UNLOCK 误删他人持有的锁；全空间随机 long 碰撞概率可忽略
-                Long renewOwner = ThreadLocalRandom.current().nextLong();
-                if (!KV_OP.setIfAbsent(renewLocker, renewOwner, 10_000L, TimeUnit.MILLISECONDS)) {
-                    // 锁被占，说明其他线程正在续段：指数退避 2→50ms 后重试取号，
-                    // 持锁者续段通常几 ms~几十 ms，固定 sleep 会让等锁线程空转浪费吞吐
-                    sleepBackoff(tryCount, 2L, 50L);
-                    continue;
-                }
-                boolean renewed = false;
-                try {
-                    // 抢到锁后再次确认段确实耗尽：重新读取最新的 cursor 与 end 比对。
-                    // 必须以 Redis 当前真值为准，避免误续段。
-                    Long cur = KV_OP.get(cursorKey);
-                    Long end = KV_OP.get(endKey);
-                    if (end == null || cur == null || cur >= end) {
-                        // 从 DB 申请下一段（与 Dao 共享 DB 行乐观锁，段互不重叠）。
-                        long base = DaoSequenceFactory.allocateSequenceRange(seqName, POOL_SIZE);
-                        // 整段切换：旧段已取完（cursor>=end），段内号全发出，零丢号；
-                        // 原子设置新段 cursor=base-1、end=base+POOL_SIZE-1。
-                        REDIS_TEMPLATE.execute(SWITCH_SEGMENT_SCRIPT,
-                                java.util.Arrays.asList(cursorKey, endKey),
-                                String.valueOf(base), String.valueOf(POOL_SIZE));
-                        renewed = true;
-                    } else {
-                        // 二次确认发现段已被其他线程续过（新段就绪），标记续段完成
-                        renewed = true;
-                    }
-                } finally {
-                    // 安全解锁
-                    try {
-                        REDIS_TEMPLATE.execute(UNLOCK_SCRIPT,
-                                Collections.singletonList(renewLocker), renewOwner.toString());
-                    } catch (Throwable e) {
-                        log.warn("FusionSequence[{}] 续段锁释放失败，等待TTL自动过期", seqName, e);
-                    }
-                }
-                if (renewed) {
-                    // 续段完成（本线程申请或确认到他线程申请的新段），新段已就绪，
-                    // 立即重试取号，跳过底部的异常退避，避免无谓的 100ms 等待
-                    continue;
-                }
+                // 段耗尽（或未初始化），续段后立即重试取号，跳过底部的异常退避
+                renewSegment(seqName, cursorKey, endKey, tryCount);
+                continue;
             } catch (Throwable e) {
                 log.error(e.getMessage(), e);
             }
@@ -352,6 +375,124 @@ public class FusionSequenceFactory {
         throw new RuntimeException("FusionSequence[" + seqName + "] failed to obtain getSequenceId!!!");
     }
 
+    /**
+     * 续段：抢续段锁后确认 Redis 段已耗尽，从 DB 申请下一段并整段切换.
+     * <p>锁被占时说明其他线程正在续段，退避后返回，由调用方重试取号；Redis/DB 异常直接抛出。</p>
+     *
+     * @param seqName   序列名
+     * @param cursorKey 段游标 key
+     * @param endKey    段终点 key
+     * @param tryCount  已重试次数，用于退避
+     */
+    private static void renewSegment(String seqName, String cursorKey, String endKey, int tryCount) {
+        String renewLocker = REDIS_SEQ + seqName + ":renew";
+        // owner 使用随机 long 而非时间戳：毫秒级时间戳在同毫秒内可能重复，
+        // 会导致 UNLOCK 误删他人持有的锁；全空间随机 long 碰撞概率可忽略
+        Long renewOwner = ThreadLocalRandom.current().nextLong();
+        if (!KV_OP.setIfAbsent(renewLocker, renewOwner, 10_000L, TimeUnit.MILLISECONDS)) {
+            // 锁被占，说明其他线程正在续段：指数退避 2→50ms 后重试取号，
+            // 持锁者续段通常几 ms~几十 ms，固定 sleep 会让等锁线程空转浪费吞吐
+            sleepBackoff(tryCount, 2L, 50L);
+            return;
+        }
+        try {
+            // 抢到锁后再次确认段确实耗尽：重新读取最新的 cursor 与 end 比对。
+            // 必须以 Redis 当前真值为准，避免误续段；段已被其他线程续过时直接返回。
+            Long cur = KV_OP.get(cursorKey);
+            Long end = KV_OP.get(endKey);
+            if (end == null || cur == null || cur >= end) {
+                // 从 DB 申请下一段（与 Dao 共享 DB 行乐观锁，段互不重叠）。
+                long base = DaoSequenceFactory.allocateSequenceRange(seqName, POOL_SIZE);
+                // 整段切换：旧段已取完（cursor>=end），段内号全发出，零丢号；
+                // 原子设置新段 cursor=base-1、end=base+POOL_SIZE-1。
+                REDIS_TEMPLATE.execute(SWITCH_SEGMENT_SCRIPT,
+                        java.util.Arrays.asList(cursorKey, endKey),
+                        String.valueOf(base), String.valueOf(POOL_SIZE));
+            }
+        } finally {
+            // 安全解锁
+            try {
+                REDIS_TEMPLATE.execute(UNLOCK_SCRIPT,
+                        Collections.singletonList(renewLocker), renewOwner.toString());
+            } catch (Throwable e) {
+                log.warn("FusionSequence[{}] 续段锁释放失败，等待TTL自动过期", seqName, e);
+            }
+        }
+    }
+
+    /**
+     * 通过实体类以本地号段模式获取主键ID。语义见 {@link #getSegmentSequenceId(String)}。
+     *
+     * @param entityCls 实体类（序列名取类简单名）
+     * @return 下一个ID
+     */
+    public static long getSegmentSequenceId(Class<?> entityCls) {
+        return getSegmentSequenceId(entityCls.getSimpleName());
+    }
+
+    /**
+     * 通过SeqName以本地号段模式获取主键ID。
+     *
+     * <p>每个 JVM 从 Redis 段游标一次租用一段连续的号（Lua 原子推进 cursor，不超过当前 Redis 段终点，
+     * Redis 段耗尽时照常从 DB 续段），段内号由本地 AtomicLong 发出，绝大多数取号不访问 Redis。
+     * 当前段发出一半时异步预取下一段（双缓冲），当前段用完直接切换；
+     * 每次租用的步长按上一段的消耗时间自适应：消耗快于 {@link #SEGMENT_FAST_MILLIS} 翻倍，
+     * 慢于 {@link #SEGMENT_SLOW_MILLIS} 减半，范围 [{@link #SEGMENT_MIN_STEP}, {@link #POOL_SIZE}]。</p>
+     *
+     * <p>与 {@link #getSequenceId(String)} 共用同一个 Redis 段游标，两种模式混用也不会重复发号。
+     * 代价是集群内的号只保证唯一、不再全局递增，JVM 退出时本地未发完的号被跳过。</p>
+     *
+     * @param seqName 序列名
+     * @return 下一个ID
+     */
+    public static long getSegmentSequenceId(String seqName) {
+        ensureInitialized();
+        SegmentBuffer buffer = SEGMENT_MAP.get(seqName);
+        if (buffer == null) {
+            buffer = SEGMENT_MAP.computeIfAbsent(seqName, SegmentBuffer::new);
+        }
+        while (true) {
+            Segment segment = buffer.current;
+            long seqId = segment.cursor.getAndIncrement();
+            if (seqId <= segment.end) {
+                if (seqId == segment.watermark) {
+                    buffer.prefetch();
+                }
+                return seqId;
+            }
+            buffer.switchSegment(segment);
+        }
+    }
+
+    /**
+     * 从 Redis 段游标租用一段号.
+     *
+     * @param seqName 序列名
+     * @param step    期望的号数
+     * @return 号段，号数可能少于 step（Redis 段剩余不足时）
+     */
+    private static Segment leaseSegment(String seqName, int step) {
+        String cursorKey = REDIS_SEQ + seqName + CURSOR_SUFFIX;
+        String endKey = REDIS_SEQ + seqName + END_SUFFIX;
+        for (int tryCount = 0; tryCount < MAX_RETRY_TIMES; tryCount++) {
+            try {
+                List<?> res = REDIS_TEMPLATE.execute(LEASE_SEQ_SCRIPT,
+                        java.util.Arrays.asList(cursorKey, endKey), String.valueOf(step));
+                long start = ((Number) res.get(0)).longValue();
+                if (start > 0) {
+                    return new Segment(start, ((Number) res.get(1)).longValue());
+                }
+                renewSegment(seqName, cursorKey, endKey, tryCount);
+                continue;
+            } catch (Throwable e) {
+                log.error(e.getMessage(), e);
+            }
+            log.warn("WARNING: FusionSequence[{}] failed to lease segment. Trying {} times ...", seqName, tryCount);
+            sleepBackoff(tryCount, 10L, 100L);
+        }
+        throw new RuntimeException("FusionSequence[" + seqName + "] failed to lease segment!!!");
+    }
+
     /**
      * 通过传入entityClass名，重置sequenceId.
      *
@@ -385,6 +526,8 @@ public class FusionSequenceFactory {
                         REDIS_SEQ + seqName + ":renew"));
                 // 重置 dao seq（DB 真值源），失败抛异常触发重试
                 DaoSequenceFactory.resetSequenceId(seqName, seqId, 100);
+                // 丢弃本 JVM 已租用的号段；其他 JVM 的本地号段会继续发完
+                SEGMENT_MAP.remove(seqName);
                 return;
             } catch (Throwable e) {
                 log.error(e.getMessage(), e);
@@ -499,4 +642,151 @@ public class FusionSequenceFactory {
         SET_OP.add(REDIS_SEQ_POOL + seqName, seqId);
     }
 
+    /**
+     * 是否启用本地号段模式（uw.dao.fusion-sequence-mode=segment）。
+     *
+     * @return boolean
+     */
+    private static boolean isSegmentMode() {
+        DaoConfig config = DaoConfigManager.getConfig();
+        return config != null && MODE_SEGMENT.equalsIgnoreCase(config.getFusionSequenceMode());
+    }
+
+    /**
+     * 本地号段。
+     */
+    private static final class Segment {
+
+        /**
+         * 空号段，首次取号时触发租用。
+         */
+        private static final Segment EMPTY = new Segment(1, 0);
+
+        /**
+         * 下一个待发的号，超过 end 后继续自增但不再发出。
+         */
+        private final AtomicLong cursor;
+
+        /**
+         * 段终点（含）。
+         */
+        private final long end;
+
+        /**
+         * 发出此号时预取下一段。
+         */
+        private final long watermark;
+
+        private Segment(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+            this.watermark = start + (end - start) / 2;
+        }
+    }
+
+    /**
+     * 单个序列的双缓冲号段。
+     */
+    private static final class SegmentBuffer {
+
+        private final String seqName;
+
+        /**
+         * 当前号段。
+         */
+        private volatile Segment current = Segment.EMPTY;
+
+        /**
+         * 预取的下一段，只由预取任务设置。
+         */
+        private Segment next;
+
+        /**
+         * 是否正在预取。
+         */
+        private final AtomicBoolean prefetching = new AtomicBoolean(false);
+
+        /**
+         * 当前步长。
+         */
+        private int step = SEGMENT_MIN_STEP;
+
+        /**
+         * 上次租用时间。
+         */
+        private long lastLeaseMillis;
+
+        private SegmentBuffer(String seqName) {
+            this.seqName = seqName;
+        }
+
+        /**
+         * 异步预取下一段，失败时由切换时同步租用兜底。
+         */
+        private void prefetch() {
+            synchronized (this) {
+                if (next != null) {
+                    return;
+                }
+            }
+            if (!prefetching.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                PREFETCH_EXECUTOR.execute(() -> {
+                    try {
+                        Segment segment = leaseSegment(seqName, nextStep());
+                        synchronized (this) {
+                            next = segment;
+                        }
+                    } catch (Throwable e) {
+                        log.error("FusionSequence[{}] prefetch segment failed! {}", seqName, e.getMessage());
+                    } finally {
+                        prefetching.set(false);
+                    }
+                });
+            } catch (Throwable e) {
+                prefetching.set(false);
+                log.error("FusionSequence[{}] prefetch segment submit failed! {}", seqName, e.getMessage());
+            }
+        }
+
+        /**
+         * 当前段用完后切换到下一段，没有预取好的段时同步租用。
+         *
+         * @param exhausted 已用完的号段
+         */
+        private synchronized void switchSegment(Segment exhausted) {
+            if (current != exhausted) {
+                return;
+            }
+            Segment segment = next;
+            if (segment != null) {
+                next = null;
+            } else {
+                segment = leaseSegment(seqName, nextStep());
+            }
+            current = segment;
+        }
+
+        /**
+         * 按上一段的消耗时间计算本次租用的步长。
+         *
+         * @return 步长
+         */
+        private synchronized int nextStep() {
+            long now = SystemClock.now();
+            if (lastLeaseMillis > 0) {
+                long elapsed = now - lastLeaseMillis;
+                if (elapsed < SEGMENT_FAST_MILLIS) {
+                    step = Math.min(step << 1, POOL_SIZE);
+                } else if (elapsed > SEGMENT_SLOW_MILLIS) {
+                    step = Math.max(step >> 1, SEGMENT_MIN_STEP);
+                }
+            }
+            lastLeaseMillis = now;
+            return step;
+        }
+    }
+
 }
@@ -0,0 +1,433 @@
+package uw.dao.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uw.dao.DaoFactory;
+import uw.dao.DataEntity;
+import uw.dao.conf.DaoConfig;
+import uw.dao.conf.DaoConfigManager;
+import uw.dao.vo.AsyncInsertStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步插入服务.
+ * <p>
+ * 按 连接名 + 实体类 + 表名 为每个表建立一个有界队列，后台线程在队列攒够 batchSize 或每隔 lingerMillis 时
+ * 取出数据，通过 DaoFactory.save(List) 合并为多行insert写入，适合日志、埋点等允许短暂延迟和少量丢失的数据。
+ * 同一队列同一时刻只有一个线程写入，队列内数据按入队顺序写入。
+ * <p>
+ * 队列满时按 rejectPolicy 处理：block 阻塞等待，drop-oldest 丢弃最早的数据，caller-runs 由调用线程直接写入一批。
+ * 停止时写完队列中剩余的数据，停止后的调用直接同步写入。
+ *
+ * @author axeon
+ */
+public class AsyncInsertService {
+
+    /**
+     * 阻塞等待.
+     */
+    public static final String POLICY_BLOCK = "block";
+
+    /**
+     * 丢弃最早的数据.
+     */
+    public static final String POLICY_DROP_OLDEST = "drop-oldest";
+
+    /**
+     * 由调用线程直接写入.
+     */
+    public static final String POLICY_CALLER_RUNS = "caller-runs";
+
+    /**
+     * 日志.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(AsyncInsertService.class);
+
+    /**
+     * 停止时等待写入线程结束的最长秒数.
+     */
+    private static final int STOP_WAIT_SECONDS = 30;
+
+    /**
+     * 阻塞入队时检查服务状态的间隔毫秒数.
+     */
+    private static final long PUT_WAIT_MILLIS = 100;
+
+    /**
+     * 队列表.
+     */
+    private static final Map<QueueKey, InsertQueue> QUEUE_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 写入线程池.
+     */
+    private static ScheduledExecutorService executorService;
+
+    /**
+     * JVM关闭钩子.
+     */
+    private static Thread shutdownHook;
+
+    /**
+     * 是否运行中.
+     */
+    private static volatile boolean running = false;
+
+    /**
+     * 是否已停止，停止后不再启动.
+     */
+    private static volatile boolean stopped = false;
+
+    /**
+     * 每个表的队列容量.
+     */
+    private static int queueSize;
+
+    /**
+     * 每批最多写入的行数.
+     */
+    private static int batchSize;
+
+    /**
+     * 队列满时的处理策略.
+     */
+    private static String rejectPolicy;
+
+    /**
+     * 异步插入一个Entity实例.
+     *
+     * @param connName  连接名，为null时按表名路由
+     * @param entity    Entity实例
+     * @param tableName 表名，不能为空
+     * @param <T>       映射的类型
+     * @return 是否已接受，阻塞等待时被中断或停止后同步写入失败时返回false
+     */
+    public static <T extends DataEntity> boolean insert(String connName, T entity, String tableName) {
+        if (!running && !start()) {
+            // 已停止，直接同步写入，避免丢失数据。
+            List<DataEntity> list = new ArrayList<>(1);
+            list.add(entity);
+            return write(connName, tableName, list, null);
+        }
+        InsertQueue queue = QUEUE_MAP.get(new QueueKey(connName, entity.getClass(), tableName));
+        if (queue == null) {
+            queue = QUEUE_MAP.computeIfAbsent(new QueueKey(connName, entity.getClass(), tableName), InsertQueue::new);
+        }
+        return queue.offer(entity);
+    }
+
+    /**
+     * 获取全部队列的运行指标.
+     *
+     * @return 指标列表
+     */
+    public static List<AsyncInsertStats> getStatsList() {
+        List<AsyncInsertStats> list = new ArrayList<>(QUEUE_MAP.size());
+        for (InsertQueue queue : QUEUE_MAP.values()) {
+            list.add(queue.getStats());
+        }
+        return list;
+    }
+
+    /**
+     * 是否运行中.
+     *
+     * @return boolean
+     */
+    public static boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 启动服务，首次异步插入时自动调用.
+     *
+     * @return 是否运行中，已停止时返回false
+     */
+    private static synchronized boolean start() {
+        if (running) {
+            return true;
+        }
+        if (stopped) {
+            return false;
+        }
+        DaoConfig daoConfig = DaoConfigManager.getConfig();
+        DaoConfig.AsyncInsertConfig config = daoConfig == null || daoConfig.getAsyncInsert() == null ? new DaoConfig.AsyncInsertConfig() :
+                daoConfig.getAsyncInsert();
+        queueSize = Math.max(config.getQueueSize(), 1);
+        batchSize = Math.max(Math.min(config.getBatchSize(), queueSize), 1);
+        rejectPolicy = config.getRejectPolicy();
+        int lingerMillis = Math.max(config.getLingerMillis(), 1);
+        AtomicInteger threadNum = new AtomicInteger();
+        executorService = Executors.newScheduledThreadPool(Math.max(config.getWorkerNum(), 1), r -> {
+            Thread t = new Thread(r);
+            t.setName("uw-dao.async-insert-" + threadNum.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executorService.scheduleWithFixedDelay(AsyncInsertService::flushAll, lingerMillis, lingerMillis, TimeUnit.MILLISECONDS);
+        shutdownHook = new Thread(AsyncInsertService::stop, "uw-dao.async-insert-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        running = true;
+        logger.info("uw-dao async insert service started! queueSize: {}, batchSize: {}, lingerMillis: {}, rejectPolicy: {}", queueSize, batchSize,
+                lingerMillis, rejectPolicy);
+        return true;
+    }
+
+    /**
+     * 停止服务，写完队列中剩余的数据，可重复调用.
+     * 整个过程持有类锁，Spring 销毁和JVM关闭钩子同时调用时，后一个调用等前一个写完后返回，保证连接池在写完后才关闭。
+     */
+    public static synchronized void stop() {
+        stopped = true;
+        if (!running) {
+            return;
+        }
+        running = false;
+        ScheduledExecutorService executor = executorService;
+        executorService = null;
+        if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignored) {
+                // JVM正在关闭。
+            }
+        }
+        shutdownHook = null;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(STOP_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("uw-dao async insert worker not terminated in {}s!", STOP_WAIT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (InsertQueue queue : QUEUE_MAP.values()) {
+            queue.flush();
+        }
+        logger.info("uw-dao async insert service stopped! stats: {}", getStatsList());
+    }
+
+    /**
+     * 定时写入所有非空队列.
+     */
+    private static void flushAll() {
+        for (InsertQueue queue : QUEUE_MAP.values()) {
+            if (!queue.queue.isEmpty()) {
+                queue.flush();
+            }
+        }
+    }
+
+    /**
+     * 写入一批数据.
+     *
+     * @param connName  连接名
+     * @param tableName 表名
+     * @param list      数据
+     * @param queue     所属队列，用于记录指标，可为null
+     * @return 是否成功
+     */
+    private static boolean write(String connName, String tableName, List<DataEntity> list, InsertQueue queue) {
+        boolean success;
+        try {
+            DaoFactory.getInstance().save(connName, list, tableName);
+            success = true;
+        } catch (Throwable e) {
+            success = false;
+            logger.error("uw-dao async insert [{}] {} rows failed! {}", tableName, list.size(), e.getMessage(), e);
+        }
+        if (queue != null) {
+            queue.recordBatch(list.size(), success);
+        }
+        return success;
+    }
+
+    /**
+     * 队列键.
+     *
+     * @param connName    连接名
+     * @param entityClass 实体类
+     * @param tableName   表名
+     */
+    private record QueueKey(String connName, Class<?> entityClass, String tableName) {
+    }
+
+    /**
+     * 单表插入队列.
+     */
+    private static final class InsertQueue {
+
+        private final QueueKey key;
+
+        private final ArrayBlockingQueue<DataEntity> queue = new ArrayBlockingQueue<>(queueSize);
+
+        /**
+         * 写入标志，保证同一队列同一时刻只有一个线程写入.
+         */
+        private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+        private final LongAdder enqueueNum = new LongAdder();
+
+        private final LongAdder dropNum = new LongAdder();
+
+        private final LongAdder callerRunNum = new LongAdder();
+
+        private long insertNum;
+
+        private long failNum;
+
+        private long batchNum;
+
+        private int lastBatchSize;
+
+        private int maxBatchSize;
+
+        private InsertQueue(QueueKey key) {
+            this.key = key;
+        }
+
+        /**
+         * 入队.
+         *
+         * @param entity Entity实例
+         * @return 是否已接受
+         */
+        private boolean offer(DataEntity entity) {
+            if (!queue.offer(entity)) {
+                if (POLICY_DROP_OLDEST.equalsIgnoreCase(rejectPolicy)) {
+                    while (!queue.offer(entity)) {
+                        if (queue.poll() != null) {
+                            dropNum.increment();
+                        }
+                    }
+                } else if (POLICY_CALLER_RUNS.equalsIgnoreCase(rejectPolicy)) {
+                    // 和写入线程一样取出一批，同一时刻只有一个线程写入，拿不到写入标志时等待写入线程腾出空间。
+                    if (flushing.compareAndSet(false, true)) {
+                        List<DataEntity> list = new ArrayList<>(batchSize);
+                        try {
+                            queue.drainTo(list, batchSize - 1);
+                            list.add(entity);
+                            callerRunNum.add(list.size());
+                            enqueueNum.increment();
+                            write(key.connName(), key.tableName(), list, this);
+                        } finally {
+                            flushing.set(false);
+                        }
+                        return true;
+                    }
+                    if (!put(entity)) {
+                        return false;
+                    }
+                } else if (!put(entity)) {
+                    return false;
+                }
+            }
+            enqueueNum.increment();
+            if (!running) {
+                // stop 的最后一次写入可能已经结束，由调用线程写入。
+                flush();
+            } else if (queue.size() >= batchSize && !flushing.get()) {
+                ScheduledExecutorService executor = executorService;
+                if (executor != null) {
+                    try {
+                        executor.execute(this::flush);
+                    } catch (Exception ignored) {
+                        // 服务正在停止，剩余数据由stop写入。
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 阻塞入队，服务停止后由调用线程写入腾出空间.
+         *
+         * @param entity Entity实例
+         * @return 是否已接受，被中断时返回false
+         */
+        private boolean put(DataEntity entity) {
+            try {
+                while (!queue.offer(entity, PUT_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (!running) {
+                        flush();
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * 按批写入队列中的全部数据，其他线程正在写入时直接返回.
+         */
+        private void flush() {
+            while (!queue.isEmpty() && flushing.compareAndSet(false, true)) {
+                try {
+                    List<DataEntity> list = new ArrayList<>(Math.min(batchSize, queue.size()));
+                    while (queue.drainTo(list, batchSize) > 0) {
+                        write(key.connName(), key.tableName(), list, this);
+                        list = new ArrayList<>(Math.min(batchSize, Math.max(queue.size(), 1)));
+                    }
+                } finally {
+                    flushing.set(false);
+                }
+                // 释放写入标志后再检查一次，避免丢掉期间入队的数据。
+            }
+        }
+
+        /**
+         * 记录一批写入结果，只在持有写入标志时调用.
+         *
+         * @param size    行数
+         * @param success 是否成功
+         */
+        private synchronized void recordBatch(int size, boolean success) {
+            if (success) {
+                insertNum += size;
+            } else {
+                failNum += size;
+            }
+            batchNum++;
+            lastBatchSize = size;
+            if (size > maxBatchSize) {
+                maxBatchSize = size;
+            }
+        }
+
+        /**
+         * 获取指标快照.
+         *
+         * @return 指标
+         */
+        private synchronized AsyncInsertStats getStats() {
+            AsyncInsertStats stats = new AsyncInsertStats();
+            stats.setConnName(key.connName());
+            stats.setTableName(key.tableName());
+            stats.setEntityClass(key.entityClass().getName());
+            stats.setQueueSize(queue.size());
+            stats.setQueueCapacity(queue.size() + queue.remainingCapacity());
+            stats.setEnqueueNum(enqueueNum.sum());
+            stats.setDropNum(dropNum.sum());
+            stats.setCallerRunNum(callerRunNum.sum());
+            stats.setInsertNum(insertNum);
+            stats.setFailNum(failNum);
+            stats.setBatchNum(batchNum);
+            stats.setLastBatchSize(lastBatchSize);
+            stats.setMaxBatchSize(maxBatchSize);
+            return stats;
+        }
+    }
+}
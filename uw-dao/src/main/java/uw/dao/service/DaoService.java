@@ -6,27 +6,49 @@ import uw.dao.DaoFactory;
 import uw.dao.TransactionException;
 import uw.dao.conf.DaoConfig;
 import uw.dao.conf.DaoConfigManager;
+import uw.common.util.SystemClock;
+import uw.dao.util.SqlFingerprintUtils;
 import uw.dao.vo.SqlExecuteStats;
+import uw.dao.vo.SqlStatsDigest;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 性能计数器,将性能数据输出到mysql中.
+ * <p>
+ * 每条sql执行后按连接名和sql指纹聚合到分段的统计窗口中，分段按线程id散列，
+ * 每个分段用一个CAS标志独占，被占用时直接换下一个分段，执行路径上没有锁等待，也不为每条sql分配对象。
+ * 写入任务每30秒交换所有分段的窗口，合并后只写入聚合结果和窗口内最慢的若干条样本。
  *
  * @author axeon
  */
 public class DaoService {
     /**
-     * 存储的表名.
+     * 慢sql样本存储的表名.
      */
     public static final String STATS_BASE_TABLE = "dao_sql_stats";
 
+    /**
+     * 聚合统计存储的表名.
+     */
+    public static final String STATS_DIGEST_TABLE = "dao_sql_digest";
+
+    /**
+     * 聚合分段超出指纹上限后使用的溢出指纹.
+     */
+    public static final String OVERFLOW_SQL = "(overflow)";
+
     /**
      * 日志.
      */
@@ -48,20 +70,35 @@ public class DaoService {
     private static final AtomicBoolean isStarted = new AtomicBoolean(false);
 
     /**
-     * 数据集合.
+     * 样本按耗时升序.
      */
-    private static ArrayList<SqlExecuteStats> dataList = new ArrayList<>();
+    private static final Comparator<SqlExecuteStats> SAMPLE_ORDER = Comparator.comparingLong(SqlExecuteStats::getAllMillis);
 
     /**
-     * pageLog的写入锁.
+     * 统计分段，数量为2的幂.
      */
-    private static final ReentrantLock locker = new ReentrantLock();
+    private static final StatsStripe[] stripes = initStripes();
+
+    /**
+     * 当前统计窗口的开始时间.
+     */
+    private static volatile long windowStartMillis = SystemClock.now();
 
     /**
      * 可以记录的sqlCostMin最小时间。
      */
     private static volatile int sqlCostMin = 100;
 
+    /**
+     * 每个统计窗口保留的慢sql样本数.
+     */
+    private static volatile int slowSampleNum = 32;
+
+    /**
+     * 每个统计分段最多聚合的指纹数.
+     */
+    private static volatile int maxDigestNum = 1000;
+
     /**
      * 是否开启sql统计。
      */
@@ -81,7 +118,9 @@ public class DaoService {
             DaoConfig config = DaoConfigManager.getConfig();
             enableSqlStats = config.getSqlStats().isEnable();
             enableTableShard = config.getTableShard().size() > 0;
-            sqlCostMin = DaoConfigManager.getConfig().getSqlStats().getSqlCostMin();
+            sqlCostMin = config.getSqlStats().getSqlCostMin();
+            slowSampleNum = Math.max(0, config.getSqlStats().getSlowSampleNum());
+            maxDigestNum = Math.max(1, config.getSqlStats().getMaxDigestNum());
             //检测是否需要启动后台服务。
             if (enableSqlStats || enableTableShard) {
                 executorService = Executors.newScheduledThreadPool(1, new ThreadFactory() {
@@ -131,32 +170,138 @@ public class DaoService {
      * @param ses 用于统计sql执行的性能数据
      */
     public static void logStats(SqlExecuteStats ses) {
-        if (enableSqlStats && ses.getAllMillis() >= sqlCostMin) {
-            ses.initActionDate();
-            locker.lock();
+        logStats(ses.getConnName(), ses.getConnId(), ses.getSql(), ses.getParamList(), ses.getRowNum(), ses.getConnMillis(), ses.getDbMillis(), ses.getAllMillis(),
+                ses.getException());
+    }
+
+    /**
+     * 记录性能参数.
+     * 只累加到当前线程对应的统计分段，仅当执行时间可能进入慢sql样本时才创建 {@link SqlExecuteStats}。
+     *
+     * @param connName   连接名
+     * @param connId     连接 ID
+     * @param sql        sql
+     * @param paramList  sql参数
+     * @param rowNum     返回/影响的行数
+     * @param connMillis 数据库层建立连接消耗的时间
+     * @param dbMillis   数据库层操作数据库消耗的时间
+     * @param allMillis  数据库层消耗的总时间
+     * @param exception  异常信息
+     */
+    public static void logStats(String connName, int connId, String sql, Object[] paramList, int rowNum, long connMillis, long dbMillis, long allMillis,
+                                String exception) {
+        if (!enableSqlStats) {
+            return;
+        }
+        String fingerprint = SqlFingerprintUtils.fingerprint(sql);
+        StatsStripe stripe = acquireStripe();
+        try {
+            StatsWindow window = stripe.window;
+            window.addDigest(connName == null ? "" : connName, fingerprint, rowNum, connMillis, dbMillis, allMillis, exception != null);
+            if (allMillis >= sqlCostMin && window.needSample(allMillis)) {
+                SqlExecuteStats ses = new SqlExecuteStats(connName, connId, sql, paramList, rowNum, connMillis, dbMillis, allMillis, exception);
+                ses.initActionDate();
+                window.addSample(ses);
+            }
+        } finally {
+            stripe.release();
+        }
+    }
+
+    /**
+     * 交换所有统计分段的窗口，合并为一个统计快照.
+     *
+     * @return 统计快照
+     */
+    static StatsSnapshot drainStats() {
+        long startMillis = windowStartMillis;
+        long endMillis = SystemClock.now();
+        windowStartMillis = endMillis;
+        Map<String, Map<String, SqlStatsDigest>> digestMap = new HashMap<>();
+        PriorityQueue<SqlExecuteStats> sampleQueue = new PriorityQueue<>(SAMPLE_ORDER);
+        for (StatsStripe stripe : stripes) {
+            StatsStripe.acquire(stripe);
+            StatsWindow window;
             try {
-                dataList.add(ses);
+                window = stripe.window;
+                if (window.isEmpty()) {
+                    continue;
+                }
+                stripe.window = new StatsWindow();
             } finally {
-                locker.unlock();
+                stripe.release();
+            }
+            // 交换后旧窗口只有当前线程可见，在分段外合并。
+            for (Map.Entry<String, HashMap<String, SqlStatsDigest>> connEntry : window.digestMap.entrySet()) {
+                Map<String, SqlStatsDigest> mergedMap = digestMap.computeIfAbsent(connEntry.getKey(), key -> new HashMap<>());
+                for (SqlStatsDigest digest : connEntry.getValue().values()) {
+                    SqlStatsDigest merged = mergedMap.get(digest.getSql());
+                    if (merged == null) {
+                        mergedMap.put(digest.getSql(), digest);
+                    } else {
+                        merged.merge(digest);
+                    }
+                }
+            }
+            for (SqlExecuteStats ses : window.sampleQueue) {
+                offerSample(sampleQueue, ses, slowSampleNum);
+            }
+        }
+        List<SqlStatsDigest> digestList = new ArrayList<>();
+        for (Map<String, SqlStatsDigest> map : digestMap.values()) {
+            digestList.addAll(map.values());
+        }
+        List<SqlExecuteStats> sampleList = new ArrayList<>(sampleQueue);
+        sampleList.sort(Comparator.comparing(SqlExecuteStats::getActionDate));
+        return new StatsSnapshot(new Date(startMillis), new Date(endMillis), digestList, sampleList);
+    }
+
+    /**
+     * 获取当前线程对应的统计分段，被其他线程占用时依次尝试下一个分段.
+     *
+     * @return 已占用的统计分段
+     */
+    private static StatsStripe acquireStripe() {
+        int mask = stripes.length - 1;
+        int index = (int) (Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L >>> 40) & mask;
+        while (true) {
+            StatsStripe stripe = stripes[index];
+            if (stripe.tryAcquire()) {
+                return stripe;
             }
+            index = (index + 1) & mask;
+            Thread.onSpinWait();
         }
     }
 
     /**
-     * 获取sql执行列表，并重新构造列表.
+     * 把样本放入按耗时排序的最小堆，超出数量时淘汰最快的样本.
      *
-     * @return 列表
+     * @param queue     最小堆
+     * @param ses       样本
+     * @param sampleNum 保留的样本数
      */
-    static ArrayList<SqlExecuteStats> getStatsList() {
-        ArrayList<SqlExecuteStats> list = null;
-        locker.lock();
-        try {
-            list = dataList;
-            dataList = new ArrayList<>();
-        } finally {
-            locker.unlock();
+    private static void offerSample(PriorityQueue<SqlExecuteStats> queue, SqlExecuteStats ses, int sampleNum) {
+        if (queue.size() < sampleNum) {
+            queue.offer(ses);
+        } else if (!queue.isEmpty() && queue.peek().getAllMillis() < ses.getAllMillis()) {
+            queue.poll();
+            queue.offer(ses);
         }
-        return list;
+    }
+
+    /**
+     * 初始化统计分段，数量为不小于cpu核数2倍的2的幂，最少4个，最多64个.
+     *
+     * @return 统计分段
+     */
+    private static StatsStripe[] initStripes() {
+        int num = Math.min(64, Math.max(4, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1));
+        StatsStripe[] array = new StatsStripe[num];
+        for (int i = 0; i < num; i++) {
+            array[i] = new StatsStripe();
+        }
+        return array;
     }
 
     /**
@@ -183,6 +328,154 @@ public class DaoService {
         } catch (TransactionException e) {
             logger.error(e.getMessage(), e);
         }
+        String digestSql = "create table if not exists " + STATS_DIGEST_TABLE + " (\n"
+                + "id bigint NOT NULL AUTO_INCREMENT,\n"
+                + "conn_name varchar(100) DEFAULT NULL,\n"
+                + "sql_digest char(16) DEFAULT NULL,\n"
+                + "sql_info varchar(2000) DEFAULT NULL,\n"
+                + "exe_count bigint DEFAULT NULL,\n"
+                + "error_count bigint DEFAULT NULL,\n"
+                + "row_num bigint DEFAULT NULL,\n"
+                + "conn_millis bigint DEFAULT NULL,\n"
+                + "db_millis bigint DEFAULT NULL,\n"
+                + "all_millis bigint DEFAULT NULL,\n"
+                + "p50_millis int DEFAULT NULL,\n"
+                + "p95_millis int DEFAULT NULL,\n"
+                + "p99_millis int DEFAULT NULL,\n"
+                + "max_millis int DEFAULT NULL,\n"
+                + "latency_hist varchar(1000) DEFAULT NULL,\n"
+                + "start_date datetime DEFAULT NULL,\n"
+                + "end_date datetime DEFAULT NULL,\n"
+                + "PRIMARY KEY (id),\n"
+                + "KEY idx_sql_digest (sql_digest)\n"
+                + ") ENGINE=INNODB DEFAULT CHARSET=utf8mb4 ROW_FORMAT=COMPRESSED";
+        try {
+            dao.execute(dao.getConnectionName(STATS_DIGEST_TABLE, "all"), digestSql);
+            logger.info("init table: {}", STATS_DIGEST_TABLE);
+        } catch (TransactionException e) {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 统计分段.
+     * 由 {@link #busy} 标志独占，占用期间只做一次指针读取和 HashMap 累加。
+     */
+    private static final class StatsStripe {
+
+        /**
+         * 是否被占用.
+         */
+        private final AtomicBoolean busy = new AtomicBoolean(false);
+
+        /**
+         * 当前统计窗口，只在占用期间读写.
+         */
+        private StatsWindow window = new StatsWindow();
+
+        /**
+         * 尝试占用.
+         *
+         * @return 是否占用成功
+         */
+        private boolean tryAcquire() {
+            return !busy.get() && busy.compareAndSet(false, true);
+        }
+
+        /**
+         * 占用分段，等待正在记录的线程完成.
+         *
+         * @param stripe 统计分段
+         */
+        private static void acquire(StatsStripe stripe) {
+            while (!stripe.tryAcquire()) {
+                Thread.onSpinWait();
+            }
+        }
+
+        /**
+         * 释放占用.
+         */
+        private void release() {
+            busy.set(false);
+        }
+    }
+
+    /**
+     * 统计窗口.
+     */
+    private static final class StatsWindow {
+
+        /**
+         * 连接名 -> sql指纹 -> 聚合统计.
+         */
+        private final HashMap<String, HashMap<String, SqlStatsDigest>> digestMap = new HashMap<>();
+
+        /**
+         * 慢sql样本，按耗时的最小堆.
+         */
+        private final PriorityQueue<SqlExecuteStats> sampleQueue = new PriorityQueue<>(SAMPLE_ORDER);
+
+        /**
+         * 已聚合的指纹数.
+         */
+        private int digestNum;
+
+        /**
+         * 累加一次执行，指纹数达到上限后新指纹计入溢出指纹.
+         */
+        private void addDigest(String connName, String fingerprint, int rowNum, long connMillis, long dbMillis, long allMillis, boolean error) {
+            HashMap<String, SqlStatsDigest> map = digestMap.get(connName);
+            if (map == null) {
+                map = new HashMap<>();
+                digestMap.put(connName, map);
+            }
+            SqlStatsDigest digest = map.get(fingerprint);
+            if (digest == null) {
+                if (digestNum >= maxDigestNum) {
+                    fingerprint = OVERFLOW_SQL;
+                    digest = map.get(fingerprint);
+                }
+                if (digest == null) {
+                    digest = new SqlStatsDigest(connName, fingerprint);
+                    map.put(fingerprint, digest);
+                    digestNum++;
+                }
+            }
+            digest.add(rowNum, connMillis, dbMillis, allMillis, error);
+        }
+
+        /**
+         * 该耗时是否能进入样本.
+         */
+        private boolean needSample(long allMillis) {
+            return sampleQueue.size() < slowSampleNum || (!sampleQueue.isEmpty() && sampleQueue.peek().getAllMillis() < allMillis);
+        }
+
+        /**
+         * 加入样本.
+         */
+        private void addSample(SqlExecuteStats ses) {
+            offerSample(sampleQueue, ses, slowSampleNum);
+        }
+
+        /**
+         * 是否没有任何数据.
+         */
+        private boolean isEmpty() {
+            return digestNum == 0;
+        }
+    }
+
+    /**
+     * 统计快照，一个统计窗口内所有分段合并后的数据.
+     *
+     * @param startDate  窗口开始时间
+     * @param endDate    窗口结束时间
+     * @param digestList 聚合统计
+     * @param sampleList 慢sql样本，按执行时间排序
+     */
+    record StatsSnapshot(Date startDate, Date endDate, List<SqlStatsDigest> digestList, List<SqlExecuteStats> sampleList) {
     }
 
 }
@@ -37,17 +37,18 @@ public class StatsCleanDataTask implements Runnable {
     /**
      * 获取当前的表Set.
      *
+     * @param baseTable 基表名
      * @return HashSet对象
      */
-    private HashSet<String> getCurrentTableSet() {
+    private HashSet<String> getCurrentTableSet(String baseTable) {
         HashSet<String> set = new HashSet<>();
         List<String> list = null;
         try {
-            list = dao.queryForValueList(dao.getConnectionName(DaoService.STATS_BASE_TABLE, "all"), String.class,
+            list = dao.queryForValueList(dao.getConnectionName(baseTable, "all"), String.class,
                     "show tables");
             if (list != null) {
                 for (String s : list) {
-                    if (s.startsWith(DaoService.STATS_BASE_TABLE + "_")) {
+                    if (s.startsWith(baseTable + "_")) {
                         set.add(s);
                     }
                 }
@@ -67,7 +68,6 @@ public class StatsCleanDataTask implements Runnable {
     @Override
     public void run() {
         logger.info("StatsInfo Clean Task is run start!");
-        HashSet<String> tableSet = getCurrentTableSet();
         // 默认保留100天数据
         int keepDays = 100;
         try {
@@ -76,22 +76,24 @@ public class StatsCleanDataTask implements Runnable {
         }
         LocalDate cutoffDate = LocalDate.now().minusDays(keepDays);
         String cutoffSuffix = cutoffDate.format(SUFFIX_FORMATTER);
-        for (String tableName : tableSet) {
-            // 安全校验：只允许处理以 STATS_BASE_TABLE 开头且后缀为合法日期的分表
-            if (!isValidStatsTable(tableName)) {
-                logger.warn("Skipping unexpected table name: [{}]", tableName);
-                continue;
-            }
-            String suffix = tableName.substring(DaoService.STATS_BASE_TABLE.length() + 1);
-            // 后缀日期 < 截止日期（字典序与 yyyyMMdd 顺序一致）才删除
-            if (suffix.compareTo(cutoffSuffix) >= 0) {
-                continue;
-            }
-            try {
-                dao.execute("DROP TABLE IF EXISTS " + tableName);
-                logger.info("DROP TABLE IF EXISTS [{}].", tableName);
-            } catch (TransactionException e) {
-                logger.error(e.getMessage());
+        for (String baseTable : new String[]{DaoService.STATS_BASE_TABLE, DaoService.STATS_DIGEST_TABLE}) {
+            for (String tableName : getCurrentTableSet(baseTable)) {
+                // 安全校验：只允许处理以统计基表名开头且后缀为合法日期的分表
+                if (!isValidStatsTable(baseTable, tableName)) {
+                    logger.warn("Skipping unexpected table name: [{}]", tableName);
+                    continue;
+                }
+                String suffix = tableName.substring(baseTable.length() + 1);
+                // 后缀日期 < 截止日期（字典序与 yyyyMMdd 顺序一致）才删除
+                if (suffix.compareTo(cutoffSuffix) >= 0) {
+                    continue;
+                }
+                try {
+                    dao.execute(dao.getConnectionName(baseTable, "all"), "DROP TABLE IF EXISTS " + tableName);
+                    logger.info("DROP TABLE IF EXISTS [{}].", tableName);
+                } catch (TransactionException e) {
+                    logger.error(e.getMessage());
+                }
             }
         }
         logger.info("StatsInfo Clean Task is run end!");
@@ -100,13 +102,13 @@ public class StatsCleanDataTask implements Runnable {
 
     /**
      * 校验表名是否为合法的统计分片表。
-     * 合法表名格式：以 STATS_BASE_TABLE 开头 + "_" + 日期后缀(yyyyMMdd)，仅包含字母数字和下划线。
+     * 合法表名格式：以统计基表名开头 + "_" + 日期后缀(yyyyMMdd)，仅包含字母数字和下划线。
      */
-    private boolean isValidStatsTable(String tableName) {
-        if (tableName == null || !tableName.startsWith(DaoService.STATS_BASE_TABLE + "_")) {
+    private boolean isValidStatsTable(String baseTable, String tableName) {
+        if (tableName == null || !tableName.startsWith(baseTable + "_")) {
             return false;
         }
-        String suffix = tableName.substring(DaoService.STATS_BASE_TABLE.length() + 1);
+        String suffix = tableName.substring(baseTable.length() + 1);
         // 日期后缀应为纯数字（yyyyMMdd）
         return !suffix.isEmpty() && suffix.matches("\\d+");
     }
@@ -1,5 +1,6 @@
 package uw.dao.service;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uw.common.util.JsonUtils;
@@ -7,6 +8,7 @@ import uw.dao.DaoFactory;
 import uw.dao.util.DaoValueUtils;
 import uw.dao.util.ShardingTableUtils;
 import uw.dao.vo.SqlExecuteStats;
+import uw.dao.vo.SqlStatsDigest;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -30,15 +32,84 @@ public class StatsLogWriteTask implements Runnable {
     private final DaoFactory dao = DaoFactory.getInstance();
 
     /**
-     * 10秒写一次数据.
+     * 30秒写一次数据.
      */
     @Override
     public void run() {
-        ArrayList<SqlExecuteStats> list = DaoService.getStatsList();
-        if (list.size() == 0) {
-            return;
+        DaoService.StatsSnapshot snapshot = DaoService.drainStats();
+        if (!snapshot.digestList().isEmpty()) {
+            writeDigestList(snapshot);
+        }
+        if (!snapshot.sampleList().isEmpty()) {
+            writeStatsList(snapshot.sampleList());
+        }
+    }
+
+    /**
+     * 写入聚合统计，整个窗口写入窗口开始日期对应的分表.
+     *
+     * @param snapshot 统计快照
+     */
+    private void writeDigestList(DaoService.StatsSnapshot snapshot) {
+        String tableName = ShardingTableUtils.getTableNameByDate(DaoService.STATS_DIGEST_TABLE, snapshot.startDate());
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        String pdsql = "INSERT INTO " + tableName
+                + "(conn_name,sql_digest,sql_info,exe_count,error_count,row_num,conn_millis,db_millis,all_millis,p50_millis,p95_millis,p99_millis,max_millis,"
+                + "latency_hist,start_date,end_date) values (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?) ";
+        List<SqlStatsDigest> list = snapshot.digestList();
+        try {
+            conn = dao.getConnection(tableName, "write");
+            conn.setAutoCommit(false);
+            pstmt = conn.prepareStatement(pdsql);
+            for (int pos = 0; pos < list.size(); pos++) {
+                SqlStatsDigest digest = list.get(pos);
+                pstmt.setString(1, StringUtils.left(digest.getConnName(), 100));
+                pstmt.setString(2, digest.getSqlDigest());
+                pstmt.setString(3, StringUtils.left(digest.getSql(), 2000));
+                pstmt.setLong(4, digest.getExeCount());
+                pstmt.setLong(5, digest.getErrorCount());
+                pstmt.setLong(6, digest.getRowNum());
+                pstmt.setLong(7, digest.getConnMillis());
+                pstmt.setLong(8, digest.getDbMillis());
+                pstmt.setLong(9, digest.getAllMillis());
+                pstmt.setInt(10, (int) digest.getPercentileMillis(50));
+                pstmt.setInt(11, (int) digest.getPercentileMillis(95));
+                pstmt.setInt(12, (int) digest.getPercentileMillis(99));
+                pstmt.setInt(13, (int) digest.getMaxMillis());
+                pstmt.setString(14, StringUtils.left(digest.getHistogram().toString(), 1000));
+                pstmt.setTimestamp(15, DaoValueUtils.dateToTimestamp(snapshot.startDate()));
+                pstmt.setTimestamp(16, DaoValueUtils.dateToTimestamp(snapshot.endDate()));
+                pstmt.addBatch();
+                // 每满100条提交一次，避免单次 batch 过大
+                if ((pos + 1) % 100 == 0 || pos == list.size() - 1) {
+                    pstmt.executeBatch();
+                }
+            }
+            conn.commit();
+        } catch (Exception e) {
+            logger.error(e.getMessage(), e);
+        } finally {
+            if (pstmt != null) {
+                try {
+                    pstmt.close();
+                } catch (SQLException e) {
+                    logger.error(e.getMessage(), e);
+                }
+            }
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    logger.error(e.getMessage(), e);
+                }
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    logger.error(e.getMessage(), e);
+                }
+            }
         }
-        writeStatsList(list);
     }
 
     /**
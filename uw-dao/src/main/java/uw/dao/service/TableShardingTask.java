@@ -9,6 +9,7 @@ import uw.dao.TransactionException;
 import uw.dao.conf.DaoConfig;
 import uw.dao.conf.DaoConfig.TableShardConfig;
 import uw.dao.conf.DaoConfigManager;
+import uw.dao.impl.ShardQueryImpl;
 import uw.dao.util.DaoStringUtils;
 import uw.dao.util.ShardingTableUtils;
 
@@ -190,6 +191,7 @@ public class TableShardingTask implements Runnable {
         int effectedNum = 0;
         try {
             effectedNum = dao.execute(dao.getConnectionName(tableName, "all"), createScript);
+            ShardQueryImpl.clearTableCache();
         } catch (TransactionException e) {
             log.error(e.getMessage(), e);
         }
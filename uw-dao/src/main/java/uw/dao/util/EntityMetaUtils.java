@@ -56,6 +56,11 @@ public class EntityMetaUtils {
                         fieldInfo.setColumnName(meta.columnName());
                         fieldInfo.setPrimaryKey(meta.primaryKey());
                         fieldInfo.setField(field);
+                        try {
+                            fieldInfo.setAccessor(FieldAccessor.of(field));
+                        } catch (IllegalAccessException e) {
+                            throw new IllegalStateException("Entity[" + entityCls.getName() + "] field[" + field.getName() + "] not accessible!", e);
+                        }
                         fieldInfo.setAutoIncrement(meta.autoIncrement());
                         if (fieldInfo.isPrimaryKey()) {
                             emi.addPkList(fieldInfo);
@@ -68,6 +73,8 @@ public class EntityMetaUtils {
                     }
                 }
             }
+            emi.setRowMapper(new EntityRowMapper<>(entityCls, emi));
+            emi.setSqlTemplate(new EntitySqlTemplate(emi));
             return emi;
         });
     }
@@ -0,0 +1,187 @@
+package uw.dao.util;
+
+import uw.dao.vo.FieldMetaInfo;
+import uw.dao.vo.TableMetaInfo;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体行映射器，每个实体类一个，随 {@link TableMetaInfo} 缓存.
+ * <p>
+ * 同一实体的查询结果列通常只有少数几种组合（select *、固定列的 select），
+ * 因此按 ResultSetMetaData 的列名组合缓存"列序号 -> 属性访问器"的映射，每次查询只读取一遍列名，
+ * 逐行映射时按列序号读取，不再按列名查找。
+ *
+ * @param <T> 实体类型
+ * @author axeon
+ */
+public class EntityRowMapper<T> {
+
+    /**
+     * 每个实体最多缓存的结果列组合数，超过后不再缓存，避免动态拼列的查询撑大缓存.
+     */
+    private static final int MAX_SHAPE_NUM = 64;
+
+    /**
+     * 实体类.
+     */
+    private final Class<T> entityClass;
+
+    /**
+     * 实体信息.
+     */
+    private final TableMetaInfo tableMetaInfo;
+
+    /**
+     * 无参构造器，签名为 ()Object，不可用时为 null，此时按反射创建以抛出原始异常.
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * 结果列组合 -> 行读取器.
+     */
+    private final Map<String, RowReader<T>> readerMap = new ConcurrentHashMap<>();
+
+    /**
+     * 构造映射器.
+     *
+     * @param entityClass   实体类
+     * @param tableMetaInfo 实体信息
+     */
+    public EntityRowMapper(Class<T> entityClass, TableMetaInfo tableMetaInfo) {
+        this.entityClass = entityClass;
+        this.tableMetaInfo = tableMetaInfo;
+        MethodHandle handle = null;
+        try {
+            Constructor<T> ctor = entityClass.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            handle = MethodHandles.lookup().unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+        } catch (Exception ignored) {
+        }
+        this.constructor = handle;
+    }
+
+    /**
+     * 根据结果集的列信息获取行读取器.
+     *
+     * @param rsm 结果集列信息
+     * @return 行读取器
+     * @throws SQLException 读取列信息失败
+     */
+    public RowReader<T> reader(ResultSetMetaData rsm) throws SQLException {
+        int colsCount = rsm.getColumnCount();
+        String[] labels = new String[colsCount];
+        for (int i = 0; i < colsCount; i++) {
+            labels[i] = rsm.getColumnLabel(i + 1).toLowerCase();
+        }
+        String shape = String.join(",", labels);
+        RowReader<T> reader = readerMap.get(shape);
+        if (reader == null) {
+            reader = buildReader(labels);
+            if (readerMap.size() < MAX_SHAPE_NUM) {
+                readerMap.putIfAbsent(shape, reader);
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * 创建实体实例.
+     *
+     * @return 实体实例
+     * @throws Exception 创建失败
+     */
+    @SuppressWarnings("unchecked")
+    private T newInstance() throws Exception {
+        if (constructor == null) {
+            return entityClass.getDeclaredConstructor().newInstance();
+        }
+        try {
+            return (T) (Object) constructor.invokeExact();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 按列名生成行读取器，不属于实体的列直接忽略.
+     * 列名重复时（如 select a.*, b.*）只映射第一次出现的列，与按列名读取结果集的行为一致.
+     *
+     * @param labels 小写列名
+     * @return 行读取器
+     */
+    private RowReader<T> buildReader(String[] labels) {
+        int[] columnIndexes = new int[labels.length];
+        FieldAccessor[] accessors = new FieldAccessor[labels.length];
+        Set<FieldMetaInfo> mappedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        int num = 0;
+        for (int i = 0; i < labels.length; i++) {
+            FieldMetaInfo fmi = tableMetaInfo.getInfoByColumnName(labels[i]);
+            if (fmi != null && mappedSet.add(fmi)) {
+                columnIndexes[num] = i + 1;
+                accessors[num] = fmi.getAccessor();
+                num++;
+            }
+        }
+        return new RowReader<>(this, Arrays.copyOf(columnIndexes, num), Arrays.copyOf(accessors, num));
+    }
+
+    /**
+     * 行读取器，绑定了一种结果列组合.
+     *
+     * @param <T> 实体类型
+     */
+    public static final class RowReader<T> {
+
+        /**
+         * 所属映射器.
+         */
+        private final EntityRowMapper<T> mapper;
+
+        /**
+         * 列序号，与 accessors 一一对应.
+         */
+        private final int[] columnIndexes;
+
+        /**
+         * 属性访问器.
+         */
+        private final FieldAccessor[] accessors;
+
+        private RowReader(EntityRowMapper<T> mapper, int[] columnIndexes, FieldAccessor[] accessors) {
+            this.mapper = mapper;
+            this.columnIndexes = columnIndexes;
+            this.accessors = accessors;
+        }
+
+        /**
+         * 把结果集当前行映射为实体，并设置加载标志.
+         *
+         * @param rs 已定位到当前行的结果集
+         * @return 实体
+         * @throws Exception 映射失败
+         */
+        public T read(ResultSet rs) throws Exception {
+            T entity = mapper.newInstance();
+            for (int i = 0; i < accessors.length; i++) {
+                accessors[i].load(rs, columnIndexes[i], entity);
+            }
+            mapper.tableMetaInfo.setLoadFlag(entity);
+            return entity;
+        }
+    }
+}
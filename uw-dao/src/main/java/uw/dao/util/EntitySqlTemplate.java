@@ -0,0 +1,318 @@
+package uw.dao.util;
+
+import uw.dao.vo.FieldMetaInfo;
+import uw.dao.vo.TableMetaInfo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体SQL模板，每个实体类一个，随 {@link TableMetaInfo} 缓存.
+ * <p>
+ * 按表名缓存实体的 insert/select/update/delete 语句，update 再按更新列组合缓存，避免每次执行都重新拼接SQL。
+ * 多行 insert 只按 {@link #INSERT_BUCKETS} 中的固定行数生成，调用方按 {@link #insertBucket(int)} 分段执行，
+ * 使语句文本保持有限的几种，便于驱动和数据库复用预编译语句；按主键 in 查询同理按 {@link #IN_BUCKETS} 分档。
+ *
+ * @author axeon
+ */
+public class EntitySqlTemplate {
+
+    /**
+     * 多行 insert 的行数分档，从大到小排列，最后一档必须为1.
+     */
+    public static final int[] INSERT_BUCKETS = {128, 32, 8, 1};
+
+    /**
+     * 按主键 in 查询的参数个数分档，从小到大排列，最后一档即单条语句的最大参数个数.
+     */
+    public static final int[] IN_BUCKETS = {1, 8, 32, 128};
+
+    /**
+     * 每个实体最多缓存的表数，超过后不再缓存，避免按日期等无限分表的场景撑大缓存.
+     */
+    private static final int MAX_TABLE_NUM = 256;
+
+    /**
+     * 每张表最多缓存的 update 列组合数.
+     */
+    private static final int MAX_UPDATE_SHAPE_NUM = 64;
+
+    /**
+     * 实体信息.
+     */
+    private final TableMetaInfo tableMetaInfo;
+
+    /**
+     * 表名 -> 该表的SQL缓存.
+     */
+    private final Map<String, TableSql> tableSqlMap = new ConcurrentHashMap<>();
+
+    /**
+     * 构造SQL模板.
+     *
+     * @param tableMetaInfo 实体信息
+     */
+    public EntitySqlTemplate(TableMetaInfo tableMetaInfo) {
+        this.tableMetaInfo = tableMetaInfo;
+    }
+
+    /**
+     * 计算本段 insert 的行数：不超过剩余行数的最大分档.
+     *
+     * @param remainNum 剩余行数，大于0
+     * @return 本段行数
+     */
+    public static int insertBucket(int remainNum) {
+        for (int bucket : INSERT_BUCKETS) {
+            if (bucket <= remainNum) {
+                return bucket;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * 计算本段 in 查询的参数个数：不小于剩余个数的最小分档，剩余个数超过最大分档时取最大分档.
+     * 参数个数不足分档时由调用方重复最后一个参数补齐.
+     *
+     * @param remainNum 剩余个数，大于0
+     * @return 本段参数个数
+     */
+    public static int inBucket(int remainNum) {
+        for (int bucket : IN_BUCKETS) {
+            if (bucket >= remainNum) {
+                return bucket;
+            }
+        }
+        return IN_BUCKETS[IN_BUCKETS.length - 1];
+    }
+
+    /**
+     * 获取 insert 语句.
+     *
+     * @param tableName 表名
+     * @param rowNum    行数，非分档行数时不缓存
+     * @return insert 语句
+     */
+    public String insertSql(String tableName, int rowNum) {
+        int bucketIndex = bucketIndex(rowNum);
+        if (bucketIndex < 0) {
+            return buildInsertSql(tableName, rowNum);
+        }
+        TableSql tableSql = tableSql(tableName);
+        String sql = tableSql.insertSqls[bucketIndex];
+        if (sql == null) {
+            sql = buildInsertSql(tableName, rowNum);
+            tableSql.insertSqls[bucketIndex] = sql;
+        }
+        return sql;
+    }
+
+    /**
+     * 获取按主键 select 的语句.
+     *
+     * @param tableName 表名
+     * @return select 语句
+     */
+    public String loadSql(String tableName) {
+        TableSql tableSql = tableSql(tableName);
+        String sql = tableSql.loadSql;
+        if (sql == null) {
+            sql = "select * from " + tableName + " where " + tableMetaInfo.getPkList().getFirst().getColumnName() + "=? ";
+            tableSql.loadSql = sql;
+        }
+        return sql;
+    }
+
+    /**
+     * 获取按主键 in 查询的语句.
+     *
+     * @param tableName 表名
+     * @param idNum     主键个数，非分档个数时不缓存
+     * @return select 语句
+     */
+    public String loadInSql(String tableName, int idNum) {
+        int bucketIndex = -1;
+        for (int i = 0; i < IN_BUCKETS.length; i++) {
+            if (IN_BUCKETS[i] == idNum) {
+                bucketIndex = i;
+                break;
+            }
+        }
+        if (bucketIndex < 0) {
+            return buildLoadInSql(tableName, idNum);
+        }
+        TableSql tableSql = tableSql(tableName);
+        String sql = tableSql.loadInSqls[bucketIndex];
+        if (sql == null) {
+            sql = buildLoadInSql(tableName, idNum);
+            tableSql.loadInSqls[bucketIndex] = sql;
+        }
+        return sql;
+    }
+
+    /**
+     * 获取按主键 update 的语句.
+     *
+     * @param tableName     表名
+     * @param updatedFields 更新的列，顺序即参数绑定顺序
+     * @return update 语句
+     */
+    public String updateSql(String tableName, List<FieldMetaInfo> updatedFields) {
+        TableSql tableSql = tableSql(tableName);
+        String sql = tableSql.updateSqlMap.get(updatedFields);
+        if (sql == null) {
+            StringBuilder sb = new StringBuilder(256);
+            sb.append("update ").append(tableName).append(" set ");
+            for (FieldMetaInfo fmi : updatedFields) {
+                sb.append(fmi.getColumnName()).append("=?,");
+            }
+            sb.deleteCharAt(sb.length() - 1);
+            sb.append(" where ");
+            appendPkCondition(sb);
+            sql = sb.toString();
+            if (tableSql.updateSqlMap.size() < MAX_UPDATE_SHAPE_NUM) {
+                tableSql.updateSqlMap.putIfAbsent(List.copyOf(updatedFields), sql);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * 获取按主键 delete 的语句.
+     *
+     * @param tableName 表名
+     * @return delete 语句
+     */
+    public String deleteSql(String tableName) {
+        TableSql tableSql = tableSql(tableName);
+        String sql = tableSql.deleteSql;
+        if (sql == null) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("delete from ").append(tableName).append(" where ");
+            appendPkCondition(sb);
+            sql = sb.toString();
+            tableSql.deleteSql = sql;
+        }
+        return sql;
+    }
+
+    /**
+     * 获取表的SQL缓存，超过缓存上限时返回不缓存的临时对象.
+     *
+     * @param tableName 表名
+     * @return 表的SQL缓存
+     */
+    private TableSql tableSql(String tableName) {
+        TableSql tableSql = tableSqlMap.get(tableName);
+        if (tableSql == null) {
+            if (tableSqlMap.size() < MAX_TABLE_NUM) {
+                tableSql = tableSqlMap.computeIfAbsent(tableName, key -> new TableSql());
+            } else {
+                tableSql = new TableSql();
+            }
+        }
+        return tableSql;
+    }
+
+    /**
+     * 生成多行 insert 语句.
+     *
+     * @param tableName 表名
+     * @param rowNum    行数
+     * @return insert 语句
+     */
+    private String buildInsertSql(String tableName, int rowNum) {
+        Collection<FieldMetaInfo> fieldMetaInfos = tableMetaInfo.getFieldInfoMap().values();
+        StringBuilder sb = new StringBuilder(64 + fieldMetaInfos.size() * (16 + rowNum * 2));
+        sb.append("insert into ").append(tableName).append(" (");
+        for (FieldMetaInfo fmi : fieldMetaInfos) {
+            sb.append(fmi.getColumnName()).append(",");
+        }
+        sb.deleteCharAt(sb.length() - 1);
+        sb.append(") values ");
+        String row = "(" + "?,".repeat(fieldMetaInfos.size() - 1) + "?)";
+        for (int i = 0; i < rowNum; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append(row);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 生成按主键 in 查询的语句.
+     *
+     * @param tableName 表名
+     * @param idNum     主键个数
+     * @return select 语句
+     */
+    private String buildLoadInSql(String tableName, int idNum) {
+        return "select * from " + tableName + " where " + tableMetaInfo.getPkList().getFirst().getColumnName() + " in (" + "?,".repeat(idNum - 1) + "?)";
+    }
+
+    /**
+     * 追加主键条件.
+     *
+     * @param sb StringBuilder
+     */
+    private void appendPkCondition(StringBuilder sb) {
+        List<FieldMetaInfo> pks = tableMetaInfo.getPkList();
+        for (int i = 0; i < pks.size(); i++) {
+            if (i > 0) {
+                sb.append("and ");
+            }
+            sb.append(pks.get(i).getColumnName()).append("=? ");
+        }
+    }
+
+    /**
+     * 行数对应的分档序号.
+     *
+     * @param rowNum 行数
+     * @return 分档序号，非分档行数返回-1
+     */
+    private static int bucketIndex(int rowNum) {
+        for (int i = 0; i < INSERT_BUCKETS.length; i++) {
+            if (INSERT_BUCKETS[i] == rowNum) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 单张表的SQL缓存.
+     * SQL 为不可变字符串，并发下重复生成只会互相覆盖为相同内容，无需加锁.
+     */
+    private static final class TableSql {
+
+        /**
+         * insert 语句，与 INSERT_BUCKETS 一一对应.
+         */
+        private final String[] insertSqls = new String[INSERT_BUCKETS.length];
+
+        /**
+         * 按主键 in 查询语句，与 IN_BUCKETS 一一对应.
+         */
+        private final String[] loadInSqls = new String[IN_BUCKETS.length];
+
+        /**
+         * 更新列组合 -> update 语句.
+         */
+        private final Map<List<FieldMetaInfo>, String> updateSqlMap = new ConcurrentHashMap<>();
+
+        /**
+         * 按主键 select 语句.
+         */
+        private String loadSql;
+
+        /**
+         * 按主键 delete 语句.
+         */
+        private String deleteSql;
+    }
+}
@@ -0,0 +1,309 @@
+package uw.dao.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+
+/**
+ * 实体属性访问器，在加载实体元数据时为每个属性预编译一次.
+ * <p>
+ * 按属性类型预先确定 JDBC 读写方法，并把属性的 getter/setter MethodHandle 适配成精确签名，
+ * 读写基本类型属性时不经过装箱，也不再在每行每列按类型名做字符串匹配。
+ *
+ * @author axeon
+ */
+public final class FieldAccessor {
+
+    private static final int TYPE_INT = 1;
+    private static final int TYPE_INTEGER = 2;
+    private static final int TYPE_LONG = 3;
+    private static final int TYPE_LONG_OBJ = 4;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_DOUBLE_OBJ = 6;
+    private static final int TYPE_FLOAT = 7;
+    private static final int TYPE_FLOAT_OBJ = 8;
+    private static final int TYPE_SHORT = 9;
+    private static final int TYPE_SHORT_OBJ = 10;
+    private static final int TYPE_BYTE = 11;
+    private static final int TYPE_BYTE_OBJ = 12;
+    private static final int TYPE_BOOLEAN = 13;
+    private static final int TYPE_BOOLEAN_OBJ = 14;
+    private static final int TYPE_STRING = 15;
+    private static final int TYPE_DATE = 16;
+    private static final int TYPE_OBJECT = 17;
+
+    /**
+     * 属性.
+     */
+    private final Field field;
+
+    /**
+     * 属性类型编码.
+     */
+    private final int type;
+
+    /**
+     * getter，签名为 (Object)属性类型，引用类型统一为 (Object)Object.
+     */
+    private final MethodHandle getter;
+
+    /**
+     * setter，签名为 (Object,属性类型)void，引用类型统一为 (Object,Object)void.
+     */
+    private final MethodHandle setter;
+
+    /**
+     * 构造访问器.
+     *
+     * @param field 已 setAccessible 的属性
+     * @throws IllegalAccessException 无法访问属性
+     */
+    private FieldAccessor(Field field) throws IllegalAccessException {
+        this.field = field;
+        Class<?> cls = field.getType();
+        this.type = resolveType(cls);
+        Class<?> handleType = cls.isPrimitive() ? cls : Object.class;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        this.getter = lookup.unreflectGetter(field).asType(MethodType.methodType(handleType, Object.class));
+        this.setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, handleType));
+    }
+
+    /**
+     * 为属性创建访问器.
+     *
+     * @param field 已 setAccessible 的属性
+     * @return 访问器
+     * @throws IllegalAccessException 无法访问属性
+     */
+    public static FieldAccessor of(Field field) throws IllegalAccessException {
+        return new FieldAccessor(field);
+    }
+
+    /**
+     * 获取属性.
+     *
+     * @return 属性
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * 读取实体属性值，基本类型自动装箱.
+     *
+     * @param entity 实体
+     * @return 属性值
+     */
+    public Object get(Object entity) {
+        try {
+            return switch (type) {
+                case TYPE_INT -> (int) getter.invokeExact(entity);
+                case TYPE_LONG -> (long) getter.invokeExact(entity);
+                case TYPE_DOUBLE -> (double) getter.invokeExact(entity);
+                case TYPE_FLOAT -> (float) getter.invokeExact(entity);
+                case TYPE_SHORT -> (short) getter.invokeExact(entity);
+                case TYPE_BYTE -> (byte) getter.invokeExact(entity);
+                case TYPE_BOOLEAN -> (boolean) getter.invokeExact(entity);
+                default -> (Object) getter.invokeExact(entity);
+            };
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("field[" + field.getName() + "] get error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从结果集指定列读取数值并写入实体属性.
+     * <p>
+     * 包装类型在数据库 NULL 时写入 null，String 在 NULL 时写入空串，java.util.Date 按 Timestamp 读取。
+     *
+     * @param rs          结果集
+     * @param columnIndex 列序号，从1开始
+     * @param entity      实体
+     * @throws SQLException 读取失败
+     */
+    public void load(ResultSet rs, int columnIndex, Object entity) throws SQLException {
+        try {
+            switch (type) {
+                case TYPE_INT -> setter.invokeExact(entity, rs.getInt(columnIndex));
+                case TYPE_LONG -> setter.invokeExact(entity, rs.getLong(columnIndex));
+                case TYPE_DOUBLE -> setter.invokeExact(entity, rs.getDouble(columnIndex));
+                case TYPE_FLOAT -> setter.invokeExact(entity, rs.getFloat(columnIndex));
+                case TYPE_SHORT -> setter.invokeExact(entity, rs.getShort(columnIndex));
+                case TYPE_BYTE -> setter.invokeExact(entity, rs.getByte(columnIndex));
+                case TYPE_BOOLEAN -> setter.invokeExact(entity, rs.getBoolean(columnIndex));
+                case TYPE_STRING -> setter.invokeExact(entity, (Object) DaoValueUtils.nullToStr(rs.getString(columnIndex)));
+                case TYPE_DATE -> setter.invokeExact(entity, (Object) rs.getTimestamp(columnIndex));
+                case TYPE_INTEGER -> {
+                    int v = rs.getInt(columnIndex);
+                    setter.invokeExact(entity, rs.wasNull() ? null : (Object) v);
+                }
+                case TYPE_LONG_OBJ -> {
+                    long v = rs.getLong(columnIndex);
+                    setter.invokeExact(entity, rs.wasNull() ? null : (Object) v);
+                }
+                case TYPE_DOUBLE_OBJ -> {
+                    double v = rs.getDouble(columnIndex);
+                    setter.invokeExact(entity, rs.wasNull() ? null : (Object) v);
+                }
+                case TYPE_FLOAT_OBJ -> {
+                    float v = rs.getFloat(columnIndex);
+                    setter.invokeExact(entity, rs.wasNull() ? null : (Object) v);
+                }
+                case TYPE_SHORT_OBJ -> {
+                    short v = rs.getShort(columnIndex);
+                    setter.invokeExact(entity, rs.wasNull() ? null : (Object) v);
+                }
+                case TYPE_BYTE_OBJ -> {
+                    byte v = rs.getByte(columnIndex);
+                    setter.invokeExact(entity, rs.wasNull() ? null : (Object) v);
+                }
+                case TYPE_BOOLEAN_OBJ -> {
+                    boolean v = rs.getBoolean(columnIndex);
+                    setter.invokeExact(entity, rs.wasNull() ? null : (Object) v);
+                }
+                default -> setter.invokeExact(entity, rs.getObject(columnIndex));
+            }
+        } catch (SQLException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SQLException("field[" + field.getName() + "] load error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 读取实体属性并绑定到 PreparedStatement.
+     * <p>
+     * 包装类型为 null 时统一 setObject(null)，基本类型按对应 setter 绑定。
+     *
+     * @param pstmt    PreparedStatement
+     * @param sequence 参数序号，从1开始
+     * @param entity   实体
+     * @return 绑定的数值，用于日志与统计
+     * @throws SQLException 绑定失败
+     */
+    public Object bind(PreparedStatement pstmt, int sequence, Object entity) throws SQLException {
+        try {
+            switch (type) {
+                case TYPE_INT -> {
+                    int v = (int) getter.invokeExact(entity);
+                    pstmt.setInt(sequence, v);
+                    return v;
+                }
+                case TYPE_LONG -> {
+                    long v = (long) getter.invokeExact(entity);
+                    pstmt.setLong(sequence, v);
+                    return v;
+                }
+                case TYPE_DOUBLE -> {
+                    double v = (double) getter.invokeExact(entity);
+                    pstmt.setDouble(sequence, v);
+                    return v;
+                }
+                case TYPE_FLOAT -> {
+                    float v = (float) getter.invokeExact(entity);
+                    pstmt.setFloat(sequence, v);
+                    return v;
+                }
+                case TYPE_SHORT -> {
+                    short v = (short) getter.invokeExact(entity);
+                    pstmt.setShort(sequence, v);
+                    return v;
+                }
+                case TYPE_BYTE -> {
+                    byte v = (byte) getter.invokeExact(entity);
+                    pstmt.setByte(sequence, v);
+                    return v;
+                }
+                case TYPE_BOOLEAN -> {
+                    boolean v = (boolean) getter.invokeExact(entity);
+                    pstmt.setBoolean(sequence, v);
+                    return v;
+                }
+                default -> {
+                    Object value = (Object) getter.invokeExact(entity);
+                    bindValue(pstmt, sequence, value);
+                    return value;
+                }
+            }
+        } catch (SQLException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SQLException("field[" + field.getName() + "] bind error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按数值的运行时类型选择 JDBC setter 绑定参数，避免驱动在 setObject 中逐个判断类型.
+     *
+     * @param pstmt    PreparedStatement
+     * @param sequence 参数序号，从1开始
+     * @param value    数值
+     * @throws SQLException 绑定失败
+     */
+    public static void bindValue(PreparedStatement pstmt, int sequence, Object value) throws SQLException {
+        switch (value) {
+            case null -> pstmt.setObject(sequence, null);
+            case String v -> pstmt.setString(sequence, v);
+            case Long v -> pstmt.setLong(sequence, v);
+            case Integer v -> pstmt.setInt(sequence, v);
+            case java.sql.Timestamp v -> pstmt.setTimestamp(sequence, v);
+            case Date v -> pstmt.setTimestamp(sequence, DaoValueUtils.dateToTimestamp(v));
+            case Double v -> pstmt.setDouble(sequence, v);
+            case Float v -> pstmt.setFloat(sequence, v);
+            case Short v -> pstmt.setShort(sequence, v);
+            case Byte v -> pstmt.setByte(sequence, v);
+            case Boolean v -> pstmt.setBoolean(sequence, v);
+            default -> pstmt.setObject(sequence, value);
+        }
+    }
+
+    /**
+     * 计算属性类型编码.
+     *
+     * @param cls 属性类型
+     * @return 类型编码
+     */
+    private static int resolveType(Class<?> cls) {
+        if (cls == int.class) {
+            return TYPE_INT;
+        } else if (cls == Integer.class) {
+            return TYPE_INTEGER;
+        } else if (cls == long.class) {
+            return TYPE_LONG;
+        } else if (cls == Long.class) {
+            return TYPE_LONG_OBJ;
+        } else if (cls == double.class) {
+            return TYPE_DOUBLE;
+        } else if (cls == Double.class) {
+            return TYPE_DOUBLE_OBJ;
+        } else if (cls == float.class) {
+            return TYPE_FLOAT;
+        } else if (cls == Float.class) {
+            return TYPE_FLOAT_OBJ;
+        } else if (cls == short.class) {
+            return TYPE_SHORT;
+        } else if (cls == Short.class) {
+            return TYPE_SHORT_OBJ;
+        } else if (cls == byte.class) {
+            return TYPE_BYTE;
+        } else if (cls == Byte.class) {
+            return TYPE_BYTE_OBJ;
+        } else if (cls == boolean.class) {
+            return TYPE_BOOLEAN;
+        } else if (cls == Boolean.class) {
+            return TYPE_BOOLEAN_OBJ;
+        } else if (cls == String.class) {
+            return TYPE_STRING;
+        } else if (cls == Date.class || cls == java.sql.Timestamp.class) {
+            return TYPE_DATE;
+        }
+        return TYPE_OBJECT;
+    }
+}
@@ -3,6 +3,7 @@ package uw.dao.util;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
+import uw.common.dto.PageQueryParam;
 import uw.common.dto.QueryParam;
 import uw.dao.annotation.QueryMeta;
 import uw.dao.vo.QueryMetaInfo;
@@ -11,7 +12,10 @@ import uw.dao.vo.TableMetaInfo;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +53,81 @@ public class QueryParamUtils {
      * @return 转换结果
      */
     public static QueryParamResult parseQueryParam(Class<?> cls, String tableName, QueryParam<?> queryParam) {
+        return parseQueryParam(cls, tableName, queryParam, false);
+    }
+
+    /**
+     * 解析用于count的queryParam，不附加排序和keyset分页条件。
+     *
+     * @param cls        entityBean
+     * @param tableName  附加表名，在分表情况下。
+     * @param queryParam 查询参数。
+     * @return 转换结果
+     */
+    public static QueryParamResult parseCountQueryParam(Class<?> cls, String tableName, QueryParam<?> queryParam) {
+        return parseQueryParam(cls, tableName, queryParam, true);
+    }
+
+    /**
+     * 生成keyset分页游标。
+     * 游标记录上一页最后一行排序列的数值及类型，使用 base64url 编码。
+     *
+     * @param value 排序列数值
+     * @return 游标，数值为null时返回null
+     */
+    public static String encodeSeekCursor(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String token;
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            token = "n:" + value;
+        } else if (value instanceof java.util.Date date) {
+            token = "d:" + date.getTime();
+        } else {
+            token = "s:" + value;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析keyset分页游标。
+     *
+     * @param cursor 游标
+     * @return 排序列数值
+     * @throws IllegalArgumentException 游标格式错误（非法base64、类型前缀或数值），统一为 "invalid seek cursor" 信息
+     */
+    public static Object decodeSeekCursor(String cursor) {
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (token.length() >= 2 && token.charAt(1) == ':') {
+                String value = token.substring(2);
+                Object seekValue = switch (token.charAt(0)) {
+                    case 'n' -> Long.parseLong(value);
+                    case 'd' -> new Timestamp(Long.parseLong(value));
+                    case 's' -> value;
+                    default -> null;
+                };
+                if (seekValue != null) {
+                    return seekValue;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid seek cursor: " + cursor, e);
+        }
+        throw new IllegalArgumentException("invalid seek cursor: " + cursor);
+    }
+
+    /**
+     * 解析queryParam。
+     *
+     * @param cls        entityBean
+     * @param tableName  附加表名，在分表情况下。
+     * @param queryParam 查询参数。
+     * @param forCount   是否用于count，count时不附加排序和keyset分页条件。
+     * @return 转换结果
+     */
+    private static QueryParamResult parseQueryParam(Class<?> cls, String tableName, QueryParam<?> queryParam, boolean forCount) {
         StringBuilder sqlBuilder = new StringBuilder(256);
         ArrayList<Object> paramValueList = new ArrayList<>();
         try {
@@ -171,8 +250,20 @@ public class QueryParamUtils {
         } catch (Throwable e) {
             throw new RuntimeException(e.getMessage(), e);
         }
-        //处理排序问题。
-        sqlBuilder.append(queryParam.GEN_SORT_SQL());
+        if (!forCount) {
+            if (queryParam instanceof PageQueryParam pageQueryParam && pageQueryParam.CHECK_SEEK()) {
+                //keyset分页：从游标位置之后读取，并固定按排序列排序。
+                boolean desc = pageQueryParam.SEEK_TYPE() == QueryParam.SORT_DESC;
+                if (StringUtils.isNotBlank(pageQueryParam.CURSOR())) {
+                    sqlBuilder.append(" and ").append(pageQueryParam.SEEK_COLUMN()).append(desc ? "<?" : ">?");
+                    paramValueList.add(decodeSeekCursor(pageQueryParam.CURSOR()));
+                }
+                sqlBuilder.append(" order by ").append(pageQueryParam.SEEK_COLUMN()).append(desc ? " desc" : " asc");
+            } else {
+                //处理排序问题。
+                sqlBuilder.append(queryParam.GEN_SORT_SQL());
+            }
+        }
         return new QueryParamResult(sqlBuilder, paramValueList.toArray());
     }
 
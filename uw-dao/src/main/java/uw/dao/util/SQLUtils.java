@@ -43,6 +43,17 @@ public class SQLUtils {
      * @return 路由后的数据库连接名称
      */
     public static String getConnNameFromSQL(String sql) {
+        return getConnNameFromSQL(sql, false);
+    }
+
+    /**
+     * 根据SQL获取连接名，可指定查询语句也路由到写连接池.
+     *
+     * @param sql         SQL语句
+     * @param readByWrite 查询语句是否路由到写连接池
+     * @return 路由后的数据库连接名称
+     */
+    public static String getConnNameFromSQL(String sql, boolean readByWrite) {
         if (DaoConfigManager.checkOnlyRootPool()) {
             return ROOT_CONN_NAME;
         }
@@ -52,7 +63,9 @@ public class SQLUtils {
 
         if (lower.startsWith("select")) {
             table = extractTableName(sql, SELECT_TABLE_PATTERN);
-            access = "read";
+            if (!readByWrite) {
+                access = "read";
+            }
         } else if (lower.startsWith("update")) {
             table = extractTableName(sql, UPDATE_TABLE_PATTERN);
         } else if (lower.startsWith("delete")) {
@@ -65,4 +78,15 @@ public class SQLUtils {
         return DaoConfigManager.getRouteMapping(table, access);
     }
 
+    /**
+     * 是否为查询语句.
+     *
+     * @param sql SQL语句
+     * @return boolean
+     */
+    public static boolean isSelectSQL(String sql) {
+        sql = sql.stripLeading();
+        return sql.regionMatches(true, 0, "select", 0, 6);
+    }
+
 }
@@ -6,15 +6,27 @@ import uw.dao.conf.DaoConfigManager;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
- * 按日期分表的工具.
+ * 分表工具.
  *
  * @author axeon
  */
 public class ShardingTableUtils {
 
+    /**
+     * 跨分表查询SQL中的表名占位符，执行时替换为各分表名.
+     */
+    public static final String TABLE_PLACEHOLDER = "${table}";
+
+    /**
+     * 按ID范围推算分表名时允许的最大分表数，防止 ofId(x, Long.MAX_VALUE) 这类开放范围无限展开.
+     */
+    public static final int MAX_SHARD_NUM = 10_000;
+
     /**
      * DateTimeFormatter对象（包含年月日）.
      */
@@ -85,4 +97,83 @@ public class ShardingTableUtils {
         return getTableNameByDate(tableName, date.toInstant().atZone(defaultZoneId).withNano(0).toLocalDate());
     }
 
+    /**
+     * 给出日期范围（含首尾）内的全部分表名，按日期升序；未按日期分表时只返回表名本身.
+     *
+     * @param tableName 表名
+     * @param startDate 开始日期
+     * @param endDate   结束日期
+     * @return 表名列表，开始日期晚于结束日期时为空
+     */
+    public static List<String> getTableNameListByDate(String tableName, LocalDate startDate, LocalDate endDate) {
+        List<String> list = new ArrayList<>();
+        TableShardConfig config = DaoConfigManager.getTableShardingConfig(tableName);
+        if (config == null || !"date".equalsIgnoreCase(config.getShardType())) {
+            list.add(tableName);
+            return list;
+        }
+        if (startDate.isAfter(endDate)) {
+            return list;
+        }
+        switch (config.getShardRule()) {
+            case "day":
+                for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                    list.add(tableName + "_" + date.format(FORMATTER_DAY));
+                }
+                break;
+            case "month":
+                for (LocalDate date = startDate.withDayOfMonth(1); !date.isAfter(endDate); date = date.plusMonths(1)) {
+                    list.add(tableName + "_" + date.format(FORMATTER_MONTH));
+                }
+                break;
+            case "year":
+                for (LocalDate date = startDate.withDayOfYear(1); !date.isAfter(endDate); date = date.plusYears(1)) {
+                    list.add(tableName + "_" + date.format(FORMATTER_YEAR));
+                }
+                break;
+            default:
+                list.add(tableName);
+        }
+        return list;
+    }
+
+    /**
+     * 给出日期范围（含首尾）内的全部分表名，按日期升序；未按日期分表时只返回表名本身.
+     *
+     * @param tableName 表名
+     * @param startDate 开始日期
+     * @param endDate   结束日期
+     * @return 表名列表，开始日期晚于结束日期时为空
+     */
+    public static List<String> getTableNameListByDate(String tableName, Date startDate, Date endDate) {
+        return getTableNameListByDate(tableName, startDate.toInstant().atZone(defaultZoneId).withNano(0).toLocalDate(),
+                endDate.toInstant().atZone(defaultZoneId).withNano(0).toLocalDate());
+    }
+
+    /**
+     * 给出ID范围（含首尾）内的全部分表名，按ID升序；未按ID分表时只返回表名本身.
+     *
+     * @param tableName 表名
+     * @param startId   开始ID
+     * @param endId     结束ID
+     * @return 表名列表，开始ID大于结束ID时为空
+     * @throws IllegalArgumentException 范围内的分表数超过 {@link #MAX_SHARD_NUM}
+     */
+    public static List<String> getTableNameListById(String tableName, long startId, long endId) {
+        List<String> list = new ArrayList<>();
+        TableShardConfig config = DaoConfigManager.getTableShardingConfig(tableName);
+        if (config == null || !"id".equalsIgnoreCase(config.getShardType())) {
+            list.add(tableName);
+            return list;
+        }
+        long batchSize = Long.parseLong(config.getShardRule());
+        if (startId <= endId && endId / batchSize - startId / batchSize >= MAX_SHARD_NUM) {
+            throw new IllegalArgumentException("shard id range [" + startId + "," + endId + "] of " + tableName + " exceeds " + MAX_SHARD_NUM + " shards");
+        }
+        for (long shard = startId / batchSize; startId <= endId && shard <= endId / batchSize; shard++) {
+            list.add(tableName + "_" + shard);
+        }
+        return list;
+    }
+
 }
@@ -0,0 +1,241 @@
+package uw.dao.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SQL指纹工具类.
+ * <p>
+ * 把SQL归一化为指纹，使只有字面量、in 列表长度、多行 values 行数不同的SQL归为同一类，用于SQL执行统计聚合：
+ * <ul>
+ *   <li>字符串、数字字面量替换为 ?；</li>
+ *   <li>只包含 ? 的括号组（in 列表、values 行）统一为 (?+)，连续的多个 (?+) 行合并为一个；</li>
+ *   <li>去掉注释，空白压缩为一个空格，引号外的字母转为小写。</li>
+ * </ul>
+ * 框架生成的SQL文本基本固定，因此按原始SQL缓存指纹，缓存满后整体清空重建。
+ *
+ * @author axeon
+ */
+public class SqlFingerprintUtils {
+
+    /**
+     * 指纹最大长度，与统计表 sql_info 字段长度一致.
+     */
+    public static final int MAX_FINGERPRINT_LENGTH = 2000;
+
+    /**
+     * 最多缓存的SQL数.
+     */
+    private static final int MAX_CACHE_NUM = 2048;
+
+    /**
+     * 超过此长度的SQL不缓存.
+     */
+    private static final int MAX_CACHE_SQL_LENGTH = 8192;
+
+    /**
+     * 原始SQL -> 指纹.
+     */
+    private static final Map<String, String> FINGERPRINT_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 获取SQL指纹.
+     *
+     * @param sql 原始SQL
+     * @return 指纹
+     */
+    public static String fingerprint(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String fingerprint = FINGERPRINT_CACHE.get(sql);
+        if (fingerprint == null) {
+            fingerprint = buildFingerprint(sql);
+            if (sql.length() <= MAX_CACHE_SQL_LENGTH) {
+                if (FINGERPRINT_CACHE.size() >= MAX_CACHE_NUM) {
+                    // 带字面量拼接的SQL会不断产生新文本，整体清空让常用SQL重新进入缓存。
+                    FINGERPRINT_CACHE.clear();
+                }
+                FINGERPRINT_CACHE.put(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 计算指纹的64位 FNV-1a 摘要，输出16位十六进制字符串，用于跨统计窗口按指纹分组.
+     *
+     * @param fingerprint 指纹
+     * @return 摘要
+     */
+    public static String digest(String fingerprint) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < fingerprint.length(); i++) {
+            hash ^= fingerprint.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        String hex = Long.toHexString(hash);
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+
+    /**
+     * 生成SQL指纹.
+     *
+     * @param sql 原始SQL
+     * @return 指纹
+     */
+    static String buildFingerprint(String sql) {
+        int len = sql.length();
+        StringBuilder sb = new StringBuilder(Math.min(len, MAX_FINGERPRINT_LENGTH) + 16);
+        // 当前括号组的起始位置，括号组内出现 ? 和逗号以外的内容时置为-1。
+        int groupStart = -1;
+        int i = 0;
+        while (i < len && sb.length() < MAX_FINGERPRINT_LENGTH) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // 字符串字面量，支持 '' 和反斜杠转义。
+                i++;
+                while (i < len) {
+                    char s = sql.charAt(i);
+                    if (s == '\\') {
+                        i += 2;
+                    } else if (s == '\'') {
+                        if (i + 1 < len && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                        } else {
+                            i++;
+                            break;
+                        }
+                    } else {
+                        i++;
+                    }
+                }
+                sb.append('?');
+            } else if (c == '"' || c == '`') {
+                // 带引号的标识符，原样保留。
+                int end = sql.indexOf(c, i + 1);
+                end = end < 0 ? len : end + 1;
+                sb.append(sql, i, end);
+                groupStart = -1;
+                i = end;
+            } else if (c == '/' && i + 1 < len && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? len : end + 2;
+                appendSpace(sb);
+            } else if (c == '-' && i + 1 < len && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i + 2);
+                i = end < 0 ? len : end + 1;
+                appendSpace(sb);
+            } else if (Character.isWhitespace(c)) {
+                appendSpace(sb);
+                i++;
+            } else if (c >= '0' && c <= '9' && !isIdentifierTail(sb)) {
+                // 数字字面量，含小数、科学计数法和十六进制。
+                i++;
+                while (i < len) {
+                    char n = sql.charAt(i);
+                    if (Character.isLetterOrDigit(n) || n == '.') {
+                        i++;
+                    } else if ((n == '+' || n == '-') && (sql.charAt(i - 1) == 'e' || sql.charAt(i - 1) == 'E')) {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                sb.append('?');
+            } else if (c == '(') {
+                sb.append('(');
+                groupStart = sb.length() - 1;
+                i++;
+            } else if (c == ')') {
+                if (groupStart >= 0 && isPlaceholderGroup(sb, groupStart + 1)) {
+                    sb.setLength(groupStart);
+                    sb.append("(?+)");
+                    mergeRepeatedGroup(sb);
+                } else {
+                    sb.append(')');
+                }
+                groupStart = -1;
+                i++;
+            } else {
+                sb.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        int end = sb.length();
+        while (end > 0 && sb.charAt(end - 1) == ' ') {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString();
+    }
+
+    /**
+     * 追加一个空格，已有空格或在开头时忽略.
+     *
+     * @param sb StringBuilder
+     */
+    private static void appendSpace(StringBuilder sb) {
+        if (!sb.isEmpty() && sb.charAt(sb.length() - 1) != ' ') {
+            sb.append(' ');
+        }
+    }
+
+    /**
+     * 前一个字符是否属于标识符，此时后面的数字是标识符的一部分（如 t1、col_2）.
+     *
+     * @param sb StringBuilder
+     * @return boolean
+     */
+    private static boolean isIdentifierTail(StringBuilder sb) {
+        if (sb.isEmpty()) {
+            return false;
+        }
+        char c = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '.';
+    }
+
+    /**
+     * 从 from 到末尾是否只包含 ?、逗号和空格，且至少有一个 ?.
+     *
+     * @param sb   StringBuilder
+     * @param from 起始位置
+     * @return boolean
+     */
+    private static boolean isPlaceholderGroup(StringBuilder sb, int from) {
+        boolean hasPlaceholder = false;
+        for (int i = from; i < sb.length(); i++) {
+            char c = sb.charAt(i);
+            if (c == '?') {
+                hasPlaceholder = true;
+            } else if (c != ',' && c != ' ') {
+                return false;
+            }
+        }
+        return hasPlaceholder;
+    }
+
+    /**
+     * 末尾为 "(?+),(?+)" 时合并为一个 "(?+)"，用于多行 values.
+     *
+     * @param sb 以 "(?+)" 结尾的 StringBuilder
+     */
+    private static void mergeRepeatedGroup(StringBuilder sb) {
+        int pos = sb.length() - 4;
+        int p = pos - 1;
+        while (p >= 0 && sb.charAt(p) == ' ') {
+            p--;
+        }
+        if (p < 0 || sb.charAt(p) != ',') {
+            return;
+        }
+        p--;
+        while (p >= 0 && sb.charAt(p) == ' ') {
+            p--;
+        }
+        if (p >= 3 && sb.charAt(p) == ')' && sb.charAt(p - 1) == '+' && sb.charAt(p - 2) == '?' && sb.charAt(p - 3) == '(') {
+            sb.setLength(p + 1);
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package uw.dao.vo;
+
+import uw.common.util.JsonUtils;
+
+/**
+ * 异步插入队列的运行指标快照.
+ *
+ * @author axeon
+ */
+public class AsyncInsertStats {
+
+    /**
+     * 连接名，为空时按表名路由.
+     */
+    private String connName;
+
+    /**
+     * 表名.
+     */
+    private String tableName;
+
+    /**
+     * 实体类名.
+     */
+    private String entityClass;
+
+    /**
+     * 当前队列深度.
+     */
+    private int queueSize;
+
+    /**
+     * 队列容量.
+     */
+    private int queueCapacity;
+
+    /**
+     * 累计入队数.
+     */
+    private long enqueueNum;
+
+    /**
+     * 累计写入成功数.
+     */
+    private long insertNum;
+
+    /**
+     * 累计写入失败数.
+     */
+    private long failNum;
+
+    /**
+     * 累计因队列满被丢弃的数量.
+     */
+    private long dropNum;
+
+    /**
+     * 累计由调用线程直接写入的数量.
+     */
+    private long callerRunNum;
+
+    /**
+     * 累计批次数.
+     */
+    private long batchNum;
+
+    /**
+     * 最近一批的行数.
+     */
+    private int lastBatchSize;
+
+    /**
+     * 最大一批的行数.
+     */
+    private int maxBatchSize;
+
+    /**
+     * 平均每批行数.
+     *
+     * @return 平均每批行数
+     */
+    public double getAvgBatchSize() {
+        return batchNum == 0 ? 0 : (double) (insertNum + failNum) / batchNum;
+    }
+
+    /**
+     * 转化成字符串形式.
+     *
+     * @return String
+     */
+    @Override
+    public String toString() {
+        return JsonUtils.toString(this);
+    }
+
+    public String getConnName() {
+        return connName;
+    }
+
+    public void setConnName(String connName) {
+        this.connName = connName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getEntityClass() {
+        return entityClass;
+    }
+
+    public void setEntityClass(String entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getEnqueueNum() {
+        return enqueueNum;
+    }
+
+    public void setEnqueueNum(long enqueueNum) {
+        this.enqueueNum = enqueueNum;
+    }
+
+    public long getInsertNum() {
+        return insertNum;
+    }
+
+    public void setInsertNum(long insertNum) {
+        this.insertNum = insertNum;
+    }
+
+    public long getFailNum() {
+        return failNum;
+    }
+
+    public void setFailNum(long failNum) {
+        this.failNum = failNum;
+    }
+
+    public long getDropNum() {
+        return dropNum;
+    }
+
+    public void setDropNum(long dropNum) {
+        this.dropNum = dropNum;
+    }
+
+    public long getCallerRunNum() {
+        return callerRunNum;
+    }
+
+    public void setCallerRunNum(long callerRunNum) {
+        this.callerRunNum = callerRunNum;
+    }
+
+    public long getBatchNum() {
+        return batchNum;
+    }
+
+    public void setBatchNum(long batchNum) {
+        this.batchNum = batchNum;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public void setLastBatchSize(int lastBatchSize) {
+        this.lastBatchSize = lastBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+}
@@ -1,5 +1,7 @@
 package uw.dao.vo;
 
+import uw.dao.util.FieldAccessor;
+
 import java.lang.reflect.Field;
 
 /**
@@ -34,6 +36,11 @@ public class FieldMetaInfo {
      */
     private Field field;
 
+    /**
+     * 属性访问器.
+     */
+    private FieldAccessor accessor;
+
     /**
      * 是否是主键.
      *
@@ -106,6 +113,24 @@ public class FieldMetaInfo {
         this.field = field;
     }
 
+    /**
+     * 获取属性访问器.
+     *
+     * @return 属性访问器
+     */
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    /**
+     * 设置属性访问器.
+     *
+     * @param accessor 属性访问器
+     */
+    public void setAccessor(FieldAccessor accessor) {
+        this.accessor = accessor;
+    }
+
     /**
      * 是否是自动递增字段。
      *
@@ -0,0 +1,115 @@
+package uw.dao.vo;
+
+import uw.dao.util.ShardingTableUtils;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 分表查询范围，按日期或按ID给出需要查询的分表.
+ *
+ * @author axeon
+ */
+public class ShardRange {
+
+    /**
+     * 开始日期，按ID范围时为null.
+     */
+    private final LocalDate startDate;
+
+    /**
+     * 结束日期，按ID范围时为null.
+     */
+    private final LocalDate endDate;
+
+    /**
+     * 开始ID.
+     */
+    private final long startId;
+
+    /**
+     * 结束ID.
+     */
+    private final long endId;
+
+    private ShardRange(LocalDate startDate, LocalDate endDate, long startId, long endId) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.startId = startId;
+        this.endId = endId;
+    }
+
+    /**
+     * 按日期范围（含首尾）.
+     *
+     * @param startDate 开始日期
+     * @param endDate   结束日期
+     * @return ShardRange
+     */
+    public static ShardRange ofDate(LocalDate startDate, LocalDate endDate) {
+        return new ShardRange(startDate, endDate, 0, 0);
+    }
+
+    /**
+     * 按日期范围（含首尾）.
+     *
+     * @param startDate 开始时间
+     * @param endDate   结束时间
+     * @return ShardRange
+     */
+    public static ShardRange ofDate(Date startDate, Date endDate) {
+        return new ShardRange(startDate.toInstant().atZone(ShardingTableUtils.defaultZoneId).withNano(0).toLocalDate(),
+                endDate.toInstant().atZone(ShardingTableUtils.defaultZoneId).withNano(0).toLocalDate(), 0, 0);
+    }
+
+    /**
+     * 按ID范围（含首尾）.
+     *
+     * @param startId 开始ID
+     * @param endId   结束ID
+     * @return ShardRange
+     */
+    public static ShardRange ofId(long startId, long endId) {
+        return new ShardRange(null, null, startId, endId);
+    }
+
+    /**
+     * 给出范围内的全部分表名，按范围升序；表未按对应方式分表时只返回表名本身.
+     *
+     * @param tableName 逻辑表名
+     * @return 表名列表
+     */
+    public List<String> getTableNameList(String tableName) {
+        if (startDate != null) {
+            return ShardingTableUtils.getTableNameListByDate(tableName, startDate, endDate);
+        }
+        return ShardingTableUtils.getTableNameListById(tableName, startId, endId);
+    }
+
+    /**
+     * 转化成字符串形式.
+     *
+     * @return String
+     */
+    @Override
+    public String toString() {
+        return startDate != null ? "date[" + startDate + "," + endDate + "]" : "id[" + startId + "," + endId + "]";
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public long getStartId() {
+        return startId;
+    }
+
+    public long getEndId() {
+        return endId;
+    }
+}
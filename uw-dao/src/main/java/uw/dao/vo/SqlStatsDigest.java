@@ -0,0 +1,179 @@
+package uw.dao.vo;
+
+import uw.common.util.JsonUtils;
+import uw.common.util.LatencyHistogram;
+import uw.dao.util.SqlFingerprintUtils;
+
+/**
+ * 按连接名和SQL指纹聚合的SQL执行统计，一个统计窗口内一条.
+ *
+ * @author axeon
+ */
+public class SqlStatsDigest {
+
+    /**
+     * connName 连接名.
+     */
+    private final String connName;
+
+    /**
+     * SQL指纹.
+     */
+    private final String sql;
+
+    /**
+     * 执行次数.
+     */
+    private long exeCount;
+
+    /**
+     * 异常次数.
+     */
+    private long errorCount;
+
+    /**
+     * 返回/影响的总行数.
+     */
+    private long rowNum;
+
+    /**
+     * Conn总时间.
+     */
+    private long connMillis;
+
+    /**
+     * 数据库操作总时间.
+     */
+    private long dbMillis;
+
+    /**
+     * 数据库层总时间.
+     */
+    private long allMillis;
+
+    /**
+     * 数据库层耗时直方图，单位毫秒.
+     */
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * 构造聚合统计.
+     *
+     * @param connName 连接名
+     * @param sql      SQL指纹
+     */
+    public SqlStatsDigest(String connName, String sql) {
+        this.connName = connName;
+        this.sql = sql;
+    }
+
+    /**
+     * 记录一次执行.
+     *
+     * @param rowNum     返回/影响的行数
+     * @param connMillis 数据库层建立连接消耗的时间
+     * @param dbMillis   数据库层操作数据库消耗的时间
+     * @param allMillis  数据库层消耗的总时间
+     * @param error      是否异常
+     */
+    public void add(int rowNum, long connMillis, long dbMillis, long allMillis, boolean error) {
+        this.exeCount++;
+        if (error) {
+            this.errorCount++;
+        }
+        this.rowNum += rowNum;
+        this.connMillis += connMillis;
+        this.dbMillis += dbMillis;
+        this.allMillis += allMillis;
+        this.histogram.record(allMillis);
+    }
+
+    /**
+     * 合并同一连接名、同一指纹的另一条聚合统计.
+     *
+     * @param other 聚合统计
+     */
+    public void merge(SqlStatsDigest other) {
+        this.exeCount += other.exeCount;
+        this.errorCount += other.errorCount;
+        this.rowNum += other.rowNum;
+        this.connMillis += other.connMillis;
+        this.dbMillis += other.dbMillis;
+        this.allMillis += other.allMillis;
+        this.histogram.merge(other.histogram);
+    }
+
+    /**
+     * 获取指纹摘要.
+     *
+     * @return 16位十六进制摘要
+     */
+    public String getSqlDigest() {
+        return SqlFingerprintUtils.digest(sql);
+    }
+
+    /**
+     * 获取百分位耗时.
+     *
+     * @param percentile 百分位，0~100
+     * @return 耗时毫秒数
+     */
+    public long getPercentileMillis(double percentile) {
+        return histogram.getPercentile(percentile / 100d);
+    }
+
+    /**
+     * 获取最大耗时.
+     *
+     * @return 耗时毫秒数
+     */
+    public long getMaxMillis() {
+        return histogram.getMax();
+    }
+
+    /**
+     * 转化成字符串形式.
+     *
+     * @return String
+     */
+    @Override
+    public String toString() {
+        return JsonUtils.toString(this);
+    }
+
+    public String getConnName() {
+        return connName;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getExeCount() {
+        return exeCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getRowNum() {
+        return rowNum;
+    }
+
+    public long getConnMillis() {
+        return connMillis;
+    }
+
+    public long getDbMillis() {
+        return dbMillis;
+    }
+
+    public long getAllMillis() {
+        return allMillis;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
@@ -2,6 +2,8 @@ package uw.dao.vo;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uw.dao.util.EntityRowMapper;
+import uw.dao.util.EntitySqlTemplate;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -54,6 +56,14 @@ public class TableMetaInfo {
      * 加载标志字段.
      */
     private Field loadFlagField;
+    /**
+     * 行映射器.
+     */
+    private EntityRowMapper<?> rowMapper;
+    /**
+     * SQL模板.
+     */
+    private EntitySqlTemplate sqlTemplate;
 
     /**
      * @return the tableName
@@ -205,6 +215,44 @@ public class TableMetaInfo {
         this.loadFlagField = loadFlagField;
     }
 
+    /**
+     * 获取行映射器.
+     *
+     * @param <T> 实体类型
+     * @return 行映射器
+     */
+    @SuppressWarnings("unchecked")
+    public <T> EntityRowMapper<T> getRowMapper() {
+        return (EntityRowMapper<T>) rowMapper;
+    }
+
+    /**
+     * 设置行映射器.
+     *
+     * @param rowMapper 行映射器
+     */
+    public void setRowMapper(EntityRowMapper<?> rowMapper) {
+        this.rowMapper = rowMapper;
+    }
+
+    /**
+     * 获取SQL模板.
+     *
+     * @return SQL模板
+     */
+    public EntitySqlTemplate getSqlTemplate() {
+        return sqlTemplate;
+    }
+
+    /**
+     * 设置SQL模板.
+     *
+     * @param sqlTemplate SQL模板
+     */
+    public void setSqlTemplate(EntitySqlTemplate sqlTemplate) {
+        this.sqlTemplate = sqlTemplate;
+    }
+
     /**
      * 设置加载标志.
      *
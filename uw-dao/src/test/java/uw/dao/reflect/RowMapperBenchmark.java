@@ -0,0 +1,168 @@
+package uw.dao.reflect;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uw.dao.impl.TestEntity;
+import uw.dao.util.DaoValueUtils;
+import uw.dao.util.EntityMetaUtils;
+import uw.dao.util.EntityRowMapper;
+import uw.dao.vo.FieldMetaInfo;
+import uw.dao.vo.TableMetaInfo;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体行映射基准：原 DaoReflectUtils 反射映射 与 EntityRowMapper 预编译映射 对比.
+ * <ul>
+ *   <li>{@code reflectMap}：原实现，每行每列按类型名 switch、按列名 rs.getX(columnName) 读取、Field.set 写入。</li>
+ *   <li>{@code rowMapperMap}：EntityRowMapper，列序号每次查询解析一次，按列序号读取、MethodHandle 写入。</li>
+ * </ul>
+ * 结果集为内存中的 {@link #ROW_NUM} 行 {@link TestEntity} 数据，按列名读取时与 JDBC 驱动一样先查列名映射，
+ * 结果只反映映射本身的开销，不含网络与驱动解码。
+ * <p>
+ * 运行：执行 main 方法。
+ *
+ * @author axeon
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class RowMapperBenchmark {
+
+    /**
+     * 每次映射的行数.
+     */
+    private static final int ROW_NUM = 1_000;
+
+    private TableMetaInfo emi;
+
+    private ResultSet rs;
+
+    private int[] cursor;
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(RowMapperBenchmark.class.getSimpleName()).build();
+        new Runner(opt).run();
+    }
+
+    @Setup
+    public void init() {
+        emi = EntityMetaUtils.loadEntityMetaInfo(TestEntity.class);
+        List<FieldMetaInfo> fields = new ArrayList<>(emi.getFieldInfoMap().values());
+        String[] labels = new String[fields.size()];
+        Map<String, Integer> labelIndex = new HashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = fields.get(i).getColumnName();
+            labelIndex.put(labels[i].toLowerCase(), i + 1);
+        }
+        Object[][] rows = new Object[ROW_NUM][];
+        for (int r = 0; r < ROW_NUM; r++) {
+            Object[] row = new Object[labels.length];
+            for (int i = 0; i < labels.length; i++) {
+                Class<?> type = fields.get(i).getField().getType();
+                if (type == long.class) {
+                    row[i] = (long) r * 31 + i;
+                } else if (type == int.class) {
+                    row[i] = r + i;
+                } else if (type == String.class) {
+                    row[i] = "value-" + r + "-" + i;
+                } else {
+                    row[i] = new Timestamp(1_700_000_000_000L + r);
+                }
+            }
+            rows[r] = row;
+        }
+        cursor = new int[]{-1};
+        ResultSetMetaData rsm = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getColumnCount" -> labels.length;
+            case "getColumnLabel", "getColumnName" -> labels[(Integer) args[0] - 1];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        rs = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            String name = method.getName();
+            switch (name) {
+                case "next":
+                    return ++cursor[0] < ROW_NUM;
+                case "getMetaData":
+                    return rsm;
+                case "wasNull":
+                    return false;
+                case "findColumn":
+                    return labelIndex.get(((String) args[0]).toLowerCase());
+                default:
+            }
+            // 按列名读取时与驱动一样先查列名映射。
+            int column = args[0] instanceof String label ? labelIndex.get(label.toLowerCase()) : (Integer) args[0];
+            Object value = rows[cursor[0]][column - 1];
+            return switch (name) {
+                case "getInt" -> ((Number) value).intValue();
+                case "getLong" -> ((Number) value).longValue();
+                case "getString", "getTimestamp", "getObject" -> value;
+                default -> throw new UnsupportedOperationException(name);
+            };
+        });
+    }
+
+    @Benchmark
+    public void reflectMap(Blackhole blackhole) throws Exception {
+        cursor[0] = -1;
+        ResultSetMetaData rsm = rs.getMetaData();
+        int colsCount = rsm.getColumnCount();
+        List<FieldMetaInfo> fmiList = new ArrayList<>(colsCount);
+        for (int k = 0; k < colsCount; k++) {
+            FieldMetaInfo fmi = emi.getInfoByColumnName(rsm.getColumnLabel(k + 1).toLowerCase());
+            if (fmi != null) {
+                fmiList.add(fmi);
+            }
+        }
+        while (rs.next()) {
+            TestEntity entity = TestEntity.class.getDeclaredConstructor().newInstance();
+            for (FieldMetaInfo fmi : fmiList) {
+                reflectLoad(rs, entity, fmi);
+            }
+            emi.setLoadFlag(entity);
+            blackhole.consume(entity);
+        }
+    }
+
+    @Benchmark
+    public void rowMapperMap(Blackhole blackhole) throws Exception {
+        cursor[0] = -1;
+        EntityRowMapper.RowReader<TestEntity> reader = emi.<TestEntity>getRowMapper().reader(rs.getMetaData());
+        while (rs.next()) {
+            blackhole.consume(reader.read(rs));
+        }
+    }
+
+    /**
+     * 原 DaoReflectUtils.DAOLiteLoadReflect 实现（TestEntity 用到的类型）.
+     */
+    private static void reflectLoad(ResultSet rs, Object entity, FieldMetaInfo fmi) throws Exception {
+        Field fd = fmi.getField();
+        String columnName = fmi.getColumnName();
+        switch (fd.getType().getSimpleName()) {
+            case "int" -> fd.setInt(entity, rs.getInt(columnName));
+            case "long" -> fd.setLong(entity, rs.getLong(columnName));
+            case "String" -> fd.set(entity, DaoValueUtils.nullToStr(rs.getString(columnName)));
+            case "Date" -> fd.set(entity, rs.getTimestamp(columnName));
+            default -> fd.set(entity, rs.getObject(columnName));
+        }
+    }
+}
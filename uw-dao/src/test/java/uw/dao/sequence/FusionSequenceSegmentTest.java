@@ -0,0 +1,234 @@
+package uw.dao.sequence;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link FusionSequenceFactory} 本地号段模式的并发唯一性测试。
+ *
+ * <p>使用内存版 Redis：段游标租用脚本在一把锁内按 Lua 语义执行，模拟 Redis 单线程原子性，不依赖 Redis 与数据库。
+ * Redis 段终点预置为足够大的值，全程不会触发 DB 续段，测试集中在本地双缓冲预取与 switchSegment 的并发切换。</p>
+ *
+ * @author axeon
+ */
+class FusionSequenceSegmentTest {
+
+    private static final String REDIS_SEQ = "uw-dao-seq:";
+
+    /**
+     * 预置的 Redis 段终点，远大于测试发号总数。
+     */
+    private static final long REDIS_SEGMENT_END = 1_000_000_000L;
+
+    /**
+     * 内存版 Redis KV。
+     */
+    private static final Map<String, Long> KV = new ConcurrentHashMap<>();
+
+    /**
+     * 租用次数。
+     */
+    private static final AtomicLong LEASE_COUNT = new AtomicLong();
+
+    @BeforeAll
+    static void init() {
+        new FusionSequenceFactory(new InMemoryRedisTemplate());
+    }
+
+    /**
+     * 生成唯一 seqName，并预置 Redis 段游标与段终点。
+     */
+    private static String prepareSeq(String tag) {
+        String seqName = "TEST_SEG_" + tag + "_" + System.nanoTime();
+        KV.put(REDIS_SEQ + seqName + ":cursor", 0L);
+        KV.put(REDIS_SEQ + seqName + ":end", REDIS_SEGMENT_END);
+        return seqName;
+    }
+
+    /**
+     * 并发不重复（严格）：16 线程同时发号，步长从最小值起步，段频繁用完，
+     * 预取完成、同步租用与多线程同时越过段终点交织发生，所有返回值必须唯一且都在已租出的范围内。
+     */
+    @Test
+    @DisplayName("号段模式并发发号：所有返回值必须唯一")
+    void concurrentNoDuplicate() throws InterruptedException {
+        String seq = prepareSeq("conc");
+        final int threads = 16;
+        final int perThread = 50_000;
+        long[][] ids = runConcurrent(seq, threads, perThread);
+        long[] all = new long[threads * perThread];
+        for (int i = 0; i < threads; i++) {
+            System.arraycopy(ids[i], 0, all, i * perThread, perThread);
+        }
+        Arrays.sort(all);
+        long duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                duplicates++;
+            }
+        }
+        assertEquals(0, duplicates, "号段模式出现重复发号 " + duplicates + " 个");
+        long leased = KV.get(REDIS_SEQ + seq + ":cursor");
+        assertTrue(all[0] >= 1, "最小号=" + all[0]);
+        assertTrue(all[all.length - 1] <= leased, "最大号=" + all[all.length - 1] + " 超出已租出的 Redis 游标 " + leased);
+    }
+
+    /**
+     * 多个序列并发交替取号：每个序列各自的号唯一，序列之间互不影响。
+     */
+    @Test
+    @DisplayName("号段模式多序列交替发号：各序列内唯一")
+    void multiSeqNoDuplicate() throws InterruptedException {
+        String[] seqs = {prepareSeq("m0"), prepareSeq("m1"), prepareSeq("m2")};
+        final int threads = 16;
+        final int perThread = 20_000;
+        Map<String, Map<Long, Boolean>> seenMap = new ConcurrentHashMap<>();
+        for (String seq : seqs) {
+            seenMap.put(seq, new ConcurrentHashMap<>());
+        }
+        AtomicLong duplicates = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            pool.submit(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < perThread; j++) {
+                        String seq = seqs[(offset + j) % seqs.length];
+                        long id = FusionSequenceFactory.getSegmentSequenceId(seq);
+                        if (seenMap.get(seq).put(id, Boolean.TRUE) != null) {
+                            duplicates.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        try {
+            assertTrue(done.await(120, TimeUnit.SECONDS), "并发任务应按时完成");
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, duplicates.get(), "号段模式多序列出现重复发号");
+        long total = 0;
+        for (Map<Long, Boolean> seen : seenMap.values()) {
+            total += seen.size();
+        }
+        assertEquals((long) threads * perThread, total);
+    }
+
+    /**
+     * 批量取号只需少量 Redis 租用：步长自适应放大后，绝大多数号由本地发出。
+     */
+    @Test
+    @DisplayName("号段模式：绝大多数号不访问 Redis")
+    void fewRedisLeases() throws InterruptedException {
+        String seq = prepareSeq("lease");
+        long before = LEASE_COUNT.get();
+        runConcurrent(seq, 4, 50_000);
+        long leases = LEASE_COUNT.get() - before;
+        assertTrue(leases < 200_000 / 100, "20 万个号租用了 " + leases + " 次 Redis");
+    }
+
+    /**
+     * 多线程并发发号，返回每个线程取到的号。
+     */
+    private static long[][] runConcurrent(String seq, int threads, int perThread) throws InterruptedException {
+        long[][] ids = new long[threads][perThread];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final long[] list = ids[t];
+            pool.submit(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < perThread; j++) {
+                        list[j] = FusionSequenceFactory.getSegmentSequenceId(seq);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        try {
+            assertTrue(done.await(120, TimeUnit.SECONDS), "并发任务应按时完成");
+        } finally {
+            pool.shutdownNow();
+        }
+        return ids;
+    }
+
+    /**
+     * 内存版 RedisTemplate，只实现号段模式用到的租用脚本与 KV 读取。
+     */
+    @SuppressWarnings("unchecked")
+    private static final class InMemoryRedisTemplate extends RedisTemplate<String, Long> {
+
+        /**
+         * 按 LEASE_SEQ_SCRIPT 语义执行：cursor 未到段终点时推进不超过 step 个号，返回 {start, end}；否则返回 {0, 0}。
+         */
+        @Override
+        public synchronized <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            if (!script.getScriptAsString().contains("math.min")) {
+                throw new UnsupportedOperationException(script.getScriptAsString());
+            }
+            LEASE_COUNT.incrementAndGet();
+            long cur = KV.getOrDefault(keys.get(0), 0L);
+            Long end = KV.get(keys.get(1));
+            if (end == null || cur >= end) {
+                return (T) List.of(0L, 0L);
+            }
+            long last = Math.min(cur + Long.parseLong((String) args[0]), end);
+            KV.put(keys.get(0), last);
+            return (T) List.of(cur + 1, last);
+        }
+
+        @Override
+        public ValueOperations<String, Long> opsForValue() {
+            return (ValueOperations<String, Long>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ValueOperations.class},
+                    (proxy, method, methodArgs) -> {
+                        if (method.getName().equals("get")) {
+                            return KV.get(methodArgs[0]);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        @Override
+        public SetOperations<String, Long> opsForSet() {
+            return (SetOperations<String, Long>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{SetOperations.class},
+                    (proxy, method, methodArgs) -> {
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
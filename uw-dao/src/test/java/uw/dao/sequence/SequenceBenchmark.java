@@ -19,6 +19,7 @@ import java.util.concurrent.TimeUnit;
  *   <li>{@code daoIncr1}：DaoSequenceFactory，incrementNum=1（每号打 DB，最慢基线）。</li>
  *   <li>{@code daoIncr100}：DaoSequenceFactory，incrementNum=100（段缓存生效）。</li>
  *   <li>{@code fusion}：FusionSequenceFactory（Redis 自增 + 段对账）。</li>
+ *   <li>{@code fusionSegment}：FusionSequenceFactory 本地号段模式（按步长租用号段，本地 AtomicLong 发号，异步预取下一段）。</li>
  * </ul>
  *
  * <p>运行：执行 main 方法。使用 seqtest profile（application-seqtest.yml）。</p>
@@ -37,6 +38,7 @@ public class SequenceBenchmark {
     private static final String SEQ_DAO1 = "TEST_BM_DAO1";
     private static final String SEQ_DAO100 = "TEST_BM_DAO100";
     private static final String SEQ_FUSION = "TEST_BM_FUS";
+    private static final String SEQ_FUSION_SEGMENT = "TEST_BM_FUS_SEG";
 
     private ConfigurableApplicationContext context;
 
@@ -61,6 +63,7 @@ public class SequenceBenchmark {
         clearDaoCache();
         // Fusion：发一个号触发初始化
         FusionSequenceFactory.getSequenceId(SEQ_FUSION);
+        FusionSequenceFactory.getSegmentSequenceId(SEQ_FUSION_SEGMENT);
     }
 
     @TearDown
@@ -85,6 +88,11 @@ public class SequenceBenchmark {
         return FusionSequenceFactory.getSequenceId(SEQ_FUSION);
     }
 
+    @Benchmark
+    public long fusionSegment() {
+        return FusionSequenceFactory.getSegmentSequenceId(SEQ_FUSION_SEGMENT);
+    }
+
     @SuppressWarnings("unchecked")
     private void clearDaoCache() {
         try {
@@ -0,0 +1,69 @@
+package uw.dao.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link SqlFingerprintUtils} 单元测试。
+ */
+public class SqlFingerprintUtilsTest {
+
+    @Test
+    void testLiteral() {
+        Assertions.assertEquals("select * from t where id=? and name=?", SqlFingerprintUtils.buildFingerprint("SELECT * FROM t WHERE id=12 AND name='abc'"));
+        // '' 与反斜杠转义不结束字符串。
+        Assertions.assertEquals("select * from t where name=? and id=?", SqlFingerprintUtils.buildFingerprint("select * from t where name='it''s \\' x' and id=1"));
+        // 小数、科学计数法、十六进制；负号属于运算符，保留。
+        Assertions.assertEquals("select ?, ?, ?, -?", SqlFingerprintUtils.buildFingerprint("select 1.5, 1e-3, 0xFF, -7"));
+    }
+
+    @Test
+    void testIdentifierDigit() {
+        // 标识符中的数字不是字面量。
+        Assertions.assertEquals("select t1.col_2 from t1", SqlFingerprintUtils.buildFingerprint("select t1.col_2 from t1"));
+        // 带引号的标识符原样保留。
+        Assertions.assertEquals("select `Col1` from \"T2\"", SqlFingerprintUtils.buildFingerprint("select `Col1` from \"T2\""));
+    }
+
+    @Test
+    void testInList() {
+        String expect = "select * from t where id in (?+)";
+        Assertions.assertEquals(expect, SqlFingerprintUtils.buildFingerprint("select * from t where id in (?)"));
+        Assertions.assertEquals(expect, SqlFingerprintUtils.buildFingerprint("select * from t where id in (?, ?, ?)"));
+        Assertions.assertEquals(expect, SqlFingerprintUtils.buildFingerprint("select * from t where id in (1,2,3,4)"));
+        // 括号内有其它内容时不归并。
+        Assertions.assertEquals("select count(*) from t where (a=? or b=?)", SqlFingerprintUtils.buildFingerprint("select count(*) from t where (a=1 or b=2)"));
+    }
+
+    @Test
+    void testMultiValues() {
+        String expect = "insert into t(a,b) values (?+)";
+        Assertions.assertEquals(expect, SqlFingerprintUtils.buildFingerprint("insert into t(a,b) values (?,?)"));
+        Assertions.assertEquals(expect, SqlFingerprintUtils.buildFingerprint("insert into t(a,b) values (?,?),(?,?), (?,?)"));
+    }
+
+    @Test
+    void testCommentAndWhitespace() {
+        Assertions.assertEquals("select a from t where b = ?", SqlFingerprintUtils.buildFingerprint("  /* hint */ select\n\ta  from t -- tail comment\n where b = ?  "));
+        Assertions.assertEquals("select a from t", SqlFingerprintUtils.buildFingerprint("select a from t -- no newline"));
+    }
+
+    @Test
+    void testMaxLength() {
+        String sql = "select " + "a,".repeat(SqlFingerprintUtils.MAX_FINGERPRINT_LENGTH) + "b from t";
+        Assertions.assertTrue(SqlFingerprintUtils.buildFingerprint(sql).length() <= SqlFingerprintUtils.MAX_FINGERPRINT_LENGTH);
+    }
+
+    @Test
+    void testFingerprintAndDigest() {
+        Assertions.assertEquals("", SqlFingerprintUtils.fingerprint(null));
+        String fingerprint = SqlFingerprintUtils.fingerprint("select * from t where id=1");
+        Assertions.assertEquals(fingerprint, SqlFingerprintUtils.fingerprint("select * from t where id=2"));
+        String digest = SqlFingerprintUtils.digest(fingerprint);
+        Assertions.assertEquals(16, digest.length());
+        Assertions.assertEquals(digest, SqlFingerprintUtils.digest(fingerprint));
+        Assertions.assertNotEquals(digest, SqlFingerprintUtils.digest(fingerprint + " "));
+        // 64位 FNV-1a 空串的偏移基准。
+        Assertions.assertEquals("cbf29ce484222325", SqlFingerprintUtils.digest(""));
+    }
+}